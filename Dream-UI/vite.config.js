@@ -11,5 +11,12 @@ export default defineConfig({
     alias: {
       '@': path.resolve(__dirname, './src') // 关键配置
     }
+  },
+  server: {
+    // 开发环境把接口和壁纸文件请求转发到后端
+    proxy: {
+      '/api': 'http://localhost:8080',
+      '/files': 'http://localhost:8080'
+    }
   }
 })
@@ -0,0 +1,161 @@
+package dream.benchmark;
+
+import dream.DreamApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+
+/**
+ * 基准测试运行环境
+ * 在 H2 内存数据库（MySQL兼容模式）中建表，再启动完整的 Spring 上下文（基准测试不启动 Web 容器，压测启动内嵌 Tomcat）
+ *
+ * 技术解释：
+ * - 表结构直接读取仓库根目录的 database_simple.sql，去掉 H2 不支持的部分（建库语句、全文索引、表选项），
+ *   保证基准测试与线上使用同一份表结构
+ * - 每个 JMH 分叉进程各自拥有一个内存数据库，互不影响
+ * - 关闭 SQL 日志输出，避免控制台输出影响测量结果
+ * - 关闭限流：压测的全部请求来自同一个IP，测量的是接口本身的延迟
+ * - 设置系统属性 dream.bench.mysql-url 时改为连接该 MySQL（需事先导入 database_simple.sql），
+ *   用于 H2 无法执行的语句，如全文检索 MATCH ... AGAINST
+ */
+public final class BenchmarkContext {
+
+    /**
+     * 内存数据库连接URL，DB_CLOSE_DELAY=-1 使数据库在最后一个连接关闭后仍然保留
+     */
+    public static final String JDBC_URL = "jdbc:h2:mem:dream_bench;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1";
+
+    /**
+     * 外部 MySQL 连接URL的系统属性名，账号密码取自 dream.bench.mysql-user、dream.bench.mysql-password
+     */
+    public static final String MYSQL_URL_PROPERTY = "dream.bench.mysql-url";
+
+    private BenchmarkContext() {
+    }
+
+    /**
+     * 建表并启动 Spring 上下文
+     *
+     * @param properties 额外的配置项，如 "dream.password.bcrypt-strength=4"
+     * @return Spring 上下文，基准测试结束时需要关闭
+     */
+    public static ConfigurableApplicationContext start(String... properties) {
+        return run(WebApplicationType.NONE, properties);
+    }
+
+    /**
+     * 建表并启动带内嵌 Tomcat 的 Spring 上下文，端口随机分配
+     *
+     * @param properties 额外的配置项
+     * @return Spring 上下文，端口通过 {@link #port(ConfigurableApplicationContext)} 获取
+     */
+    public static ConfigurableApplicationContext startServer(String... properties) {
+        List<String> args = new ArrayList<>();
+        args.add("server.port=0");
+        args.addAll(Arrays.asList(properties));
+        return run(WebApplicationType.SERVLET, args.toArray(new String[0]));
+    }
+
+    /**
+     * 获取内嵌 Tomcat 实际监听的端口
+     */
+    public static int port(ConfigurableApplicationContext context) {
+        return ((WebServerApplicationContext) context).getWebServer().getPort();
+    }
+
+    /**
+     * 是否连接外部 MySQL
+     */
+    public static boolean isMySql() {
+        return System.getProperty(MYSQL_URL_PROPERTY) != null;
+    }
+
+    private static ConfigurableApplicationContext run(WebApplicationType type, String... properties) {
+        List<String> args = new ArrayList<>();
+        if (isMySql()) {
+            args.add("spring.datasource.url=" + System.getProperty(MYSQL_URL_PROPERTY));
+            args.add("spring.datasource.username=" + System.getProperty("dream.bench.mysql-user", "root"));
+            args.add("spring.datasource.password=" + System.getProperty("dream.bench.mysql-password", ""));
+            args.add("spring.datasource.driver-class-name=com.mysql.cj.jdbc.Driver");
+        } else {
+            initSchema();
+            args.add("spring.datasource.url=" + JDBC_URL);
+            args.add("spring.datasource.username=sa");
+            args.add("spring.datasource.password=");
+            args.add("spring.datasource.driver-class-name=org.h2.Driver");
+        }
+        args.addAll(Arrays.asList(
+                "mybatis-plus.configuration.log-impl=org.apache.ibatis.logging.nologging.NoLoggingImpl",
+                "logging.level.root=WARN",
+                "spring.main.banner-mode=off",
+                "mybatis-plus.global-config.banner=false",
+                "dream.ratelimit.enabled=false",
+                "dream.blob.storage-dir=" + System.getProperty("java.io.tmpdir") + "/dream-bench/blobs"));
+        args.addAll(Arrays.asList(properties));
+        // 以命令行参数传入，优先级高于 application.properties
+        return new SpringApplicationBuilder(DreamApplication.class)
+                .web(type)
+                .logStartupInfo(false)
+                .run(args.stream().map(arg -> "--" + arg).toArray(String[]::new));
+    }
+
+    /**
+     * 执行 database_simple.sql 建表并写入初始数据
+     */
+    private static void initSchema() {
+        String script;
+        try (InputStream in = BenchmarkContext.class.getResourceAsStream("/database_simple.sql")) {
+            if (in == null) {
+                throw new IllegalStateException("classpath 中找不到 database_simple.sql");
+            }
+            script = new Scanner(in, StandardCharsets.UTF_8.name()).useDelimiter("\\A").next();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        try (Connection connection = DriverManager.getConnection(JDBC_URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("DROP ALL OBJECTS");
+            for (String sql : toH2(script).split(";\\s*\\n")) {
+                if (!sql.trim().isEmpty()) {
+                    statement.execute(sql);
+                }
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("初始化基准测试数据库失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 把 MySQL 建表脚本转换为 H2 可以执行的形式
+     */
+    private static String toH2(String script) {
+        return script
+                // 注释行
+                .replaceAll("(?m)^\\s*--.*$", "")
+                // 建库、切换库
+                .replaceAll("(?im)^\\s*(DROP DATABASE|CREATE DATABASE|USE)\\b[^;]*;", "")
+                // 全文索引（连同前一行末尾的逗号）
+                .replaceAll(",\\s*\\n\\s*FULLTEXT INDEX[^\\n]*", "")
+                // 索引注释
+                .replaceAll("(?m)^(\\s*INDEX [^\\n]*\\))\\s*COMMENT '[^']*'", "$1")
+                // H2 的索引名在整个 schema 内唯一（MySQL 只在表内唯一），去掉索引名由 H2 自动生成
+                .replaceAll("(?m)^(\\s*INDEX) \\w+ \\(", "$1 (")
+                // 表选项
+                .replaceAll("\\)\\s*ENGINE=[^;]*;", ");");
+    }
+}
@@ -0,0 +1,76 @@
+package dream.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import dream.common.Result;
+import dream.exception.GlobalExceptionHandler;
+import dream.exception.business.UserException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ResponseEntity;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * GlobalExceptionHandler 基准测试
+ * 分别测量复用异常实例和每次新建异常（含填充堆栈）的开销，
+ * 以及 WARN 级别（记录堆栈日志）与只记录 ERROR 时的差别
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExceptionHandlerBenchmark {
+
+    /**
+     * GlobalExceptionHandler 的日志级别
+     */
+    @Param({"WARN", "ERROR"})
+    public String logLevel;
+
+    private GlobalExceptionHandler handler;
+    private UserException userNotFound;
+    private IllegalArgumentException illegalArgument;
+    private RuntimeException runtimeException;
+
+    @Setup
+    public void setUp() {
+        ((Logger) LoggerFactory.getLogger(GlobalExceptionHandler.class)).setLevel(Level.toLevel(logLevel));
+        handler = new GlobalExceptionHandler();
+        userNotFound = UserException.userNotFound();
+        illegalArgument = new IllegalArgumentException("参数不合法");
+        runtimeException = new IllegalStateException("数据库连接失败");
+    }
+
+    @Benchmark
+    public ResponseEntity<Result<Object>> businessExceptionReused() {
+        return handler.handleBaseException(userNotFound);
+    }
+
+    @Benchmark
+    public ResponseEntity<Result<Object>> businessExceptionCreated() {
+        return handler.handleBaseException(UserException.userNotFound());
+    }
+
+    @Benchmark
+    public ResponseEntity<Result<Object>> illegalArgument() {
+        return handler.handleIllegalArgumentException(illegalArgument);
+    }
+
+    @Benchmark
+    public ResponseEntity<Result<Object>> runtimeException() {
+        return handler.handleRuntimeException(runtimeException);
+    }
+}
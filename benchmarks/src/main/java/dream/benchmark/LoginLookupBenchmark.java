@@ -0,0 +1,98 @@
+package dream.benchmark;
+
+import dream.dto.UserCredential;
+import dream.entity.User;
+import dream.mapper.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录查询基准测试
+ * 比较原来的 SELECT * ... WHERE username = ? OR email = ? 与只取登录凭据三列的按用户名/按邮箱查询
+ * 简介长度可调，用于观察整行读取时 TEXT 字段带来的开销
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoginLookupBenchmark {
+
+    /**
+     * 写入的用户数
+     */
+    @Param({"10000"})
+    public int userCount;
+
+    /**
+     * 每个用户的简介长度（字符）
+     */
+    @Param({"0", "4000"})
+    public int bioLength;
+
+    private ConfigurableApplicationContext context;
+    private UserMapper userMapper;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        userMapper = context.getBean(UserMapper.class);
+        char[] bio = new char[bioLength];
+        Arrays.fill(bio, '简');
+        String bioText = new String(bio);
+        List<Object[]> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(new Object[]{"login_" + i, "login_" + i + "@example.com", "x", "login_" + i, bioText});
+        }
+        context.getBean(JdbcTemplate.class).batchUpdate(
+                "INSERT INTO users (username, email, password_hash, nickname, bio) VALUES (?, ?, ?, ?, ?)", users);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Optional<User> usernameOrEmailSelectAll() {
+        String username = "login_" + ThreadLocalRandom.current().nextInt(userCount);
+        return userMapper.findByUsernameOrEmail(username, username);
+    }
+
+    @Benchmark
+    public Optional<User> emailOrUsernameSelectAll() {
+        String email = "login_" + ThreadLocalRandom.current().nextInt(userCount) + "@example.com";
+        return userMapper.findByUsernameOrEmail(email, email);
+    }
+
+    @Benchmark
+    public Optional<UserCredential> credentialByUsername() {
+        return userMapper.findCredentialByUsername("login_" + ThreadLocalRandom.current().nextInt(userCount));
+    }
+
+    @Benchmark
+    public Optional<UserCredential> credentialByEmailOrUsername() {
+        return userMapper.findCredentialByEmailOrUsername(
+                "login_" + ThreadLocalRandom.current().nextInt(userCount) + "@example.com");
+    }
+}
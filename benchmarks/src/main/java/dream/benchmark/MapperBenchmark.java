@@ -0,0 +1,124 @@
+package dream.benchmark;
+
+import dream.dto.NoteSummary;
+import dream.dto.UserSummary;
+import dream.entity.User;
+import dream.mapper.NoteMapper;
+import dream.mapper.UserMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mapper 查询基准测试
+ * 在 H2 中批量写入用户和已发布笔记后，测量主键查询、用户列表和首页信息流的游标分页查询
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapperBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    /**
+     * 写入的用户数，每个用户写入 10 篇已发布笔记
+     */
+    @Param({"1000"})
+    public int userCount;
+
+    private ConfigurableApplicationContext context;
+    private UserMapper userMapper;
+    private NoteMapper noteMapper;
+
+    /**
+     * 第 10 页的游标位置，用于测量翻页到中间位置的查询
+     */
+    private UserSummary userCursor;
+    private NoteSummary noteCursor;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        userMapper = context.getBean(UserMapper.class);
+        noteMapper = context.getBean(NoteMapper.class);
+        seed(context.getBean(JdbcTemplate.class));
+
+        List<UserSummary> users = userMapper.findActiveUsersAfter(null, null, PAGE_SIZE * 10);
+        userCursor = users.get(users.size() - 1);
+        List<NoteSummary> notes = noteMapper.findPublishedFeedAfter(null, null, null, PAGE_SIZE * 10);
+        noteCursor = notes.get(notes.size() - 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    private void seed(JdbcTemplate jdbcTemplate) {
+        LocalDateTime base = LocalDateTime.now().minusDays(365);
+        List<Object[]> users = new ArrayList<>(userCount);
+        for (int i = 0; i < userCount; i++) {
+            users.add(new Object[]{"seed_" + i, "seed_" + i + "@example.com", "x", "seed_" + i,
+                    Timestamp.valueOf(base.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password_hash, nickname, created_at) " +
+                "VALUES (?, ?, ?, ?, ?)", users);
+
+        Long firstUserId = jdbcTemplate.queryForObject("SELECT MIN(user_id) FROM users WHERE username LIKE 'seed_%'",
+                Long.class);
+        List<Object[]> notes = new ArrayList<>(userCount * 10);
+        for (int i = 0; i < userCount * 10; i++) {
+            notes.add(new Object[]{"笔记 " + i, "内容 " + i, "摘要 " + i, firstUserId + i % userCount,
+                    Timestamp.valueOf(base.plusMinutes(i))});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO notes (title, content, summary, user_id, status, published_at) " +
+                "VALUES (?, ?, ?, ?, 'published', ?)", notes);
+    }
+
+    @Benchmark
+    public User userSelectById() {
+        return userMapper.selectById((long) ThreadLocalRandom.current().nextInt(1, userCount));
+    }
+
+    @Benchmark
+    public List<UserSummary> activeUsersFirstPage() {
+        return userMapper.findActiveUsersAfter(null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<UserSummary> activeUsersDeepPage() {
+        return userMapper.findActiveUsersAfter(userCursor.getCreatedAt(), userCursor.getId(), PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<NoteSummary> feedFirstPage() {
+        return noteMapper.findPublishedFeedAfter(null, null, null, PAGE_SIZE);
+    }
+
+    @Benchmark
+    public List<NoteSummary> feedDeepPage() {
+        return noteMapper.findPublishedFeedAfter(noteCursor.getIsTop(), noteCursor.getPublishedAt(),
+                noteCursor.getId(), PAGE_SIZE);
+    }
+}
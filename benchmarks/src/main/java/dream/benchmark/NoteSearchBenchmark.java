@@ -0,0 +1,119 @@
+package dream.benchmark;
+
+import dream.manager.NoteSearchManager;
+import dream.mapper.NoteMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 笔记检索基准测试
+ * 比较内存倒排索引与 MySQL 全文索引（MATCH ... AGAINST）检索出笔记ID的延迟
+ * H2 不支持全文检索，fullText 需要连接外部 MySQL：
+ * -Ddream.bench.mysql-url=jdbc:mysql://localhost:3306/dream -p engine=invertedIndex,fullText
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NoteSearchBenchmark {
+
+    private static final int LIMIT = 50;
+
+    private static final String SEED_USER = "search_seed";
+
+    /**
+     * 正文词表，每篇笔记随机取若干个词
+     */
+    private static final String[] WORDS = {"spring", "mybatis", "index", "cache", "thread", "kernel", "network",
+            "latency", "buffer", "socket", "query", "vector", "stream", "lambda", "monitor", "cluster",
+            "replica", "shard", "commit", "rollback", "wallpaper", "gallery", "travel", "coffee", "garden",
+            "winter", "summer", "ocean", "mountain", "river"};
+
+    /**
+     * 写入的已发布笔记数
+     */
+    @Param({"10000"})
+    public int noteCount;
+
+    /**
+     * 检索方式：invertedIndex 内存倒排索引，fullText MySQL 全文索引
+     */
+    @Param({"invertedIndex"})
+    public String engine;
+
+    private ConfigurableApplicationContext context;
+    private NoteSearchManager noteSearchManager;
+    private NoteMapper noteMapper;
+
+    @Setup
+    public void setUp() {
+        if ("fullText".equals(engine) && !BenchmarkContext.isMySql()) {
+            throw new IllegalStateException("fullText 需要通过 -D" + BenchmarkContext.MYSQL_URL_PROPERTY + " 连接 MySQL");
+        }
+        context = BenchmarkContext.start();
+        noteSearchManager = context.getBean(NoteSearchManager.class);
+        noteMapper = context.getBean(NoteMapper.class);
+        seed(context.getBean(JdbcTemplate.class));
+        noteSearchManager.rebuild();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    /**
+     * 写入笔记；连接外部 MySQL 时先清理上一次写入的数据
+     */
+    private void seed(JdbcTemplate jdbcTemplate) {
+        jdbcTemplate.update("DELETE FROM notes WHERE user_id IN (SELECT user_id FROM users WHERE username = ?)",
+                SEED_USER);
+        jdbcTemplate.update("DELETE FROM users WHERE username = ?", SEED_USER);
+        jdbcTemplate.update("INSERT INTO users (username, email, password_hash, nickname) VALUES (?, ?, 'x', ?)",
+                SEED_USER, SEED_USER + "@example.com", SEED_USER);
+        Long userId = jdbcTemplate.queryForObject("SELECT user_id FROM users WHERE username = ?", Long.class,
+                SEED_USER);
+
+        Random random = new Random(42);
+        List<Object[]> notes = new ArrayList<>(noteCount);
+        for (int i = 0; i < noteCount; i++) {
+            StringBuilder content = new StringBuilder();
+            for (int j = 0; j < 40; j++) {
+                content.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            notes.add(new Object[]{WORDS[random.nextInt(WORDS.length)] + " " + i, content.toString(),
+                    "摘要 " + i, userId});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO notes (title, content, summary, user_id, status, published_at) " +
+                "VALUES (?, ?, ?, ?, 'published', NOW())", notes);
+    }
+
+    @Benchmark
+    public int search() {
+        String query = WORDS[ThreadLocalRandom.current().nextInt(WORDS.length)];
+        if ("fullText".equals(engine)) {
+            return noteMapper.searchByFullText(query, LIMIT).size();
+        }
+        return noteSearchManager.search(query, LIMIT).size();
+    }
+}
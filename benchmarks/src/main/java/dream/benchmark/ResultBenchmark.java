@@ -0,0 +1,99 @@
+package dream.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dream.common.CursorPage;
+import dream.common.Result;
+import dream.dto.NoteSummary;
+import dream.entity.User;
+import dream.exception.ErrorCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Result 构造与 JSON 序列化基准测试
+ * 每个接口的响应都经过这两步，序列化使用与 Spring MVC 相同配置的 ObjectMapper
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultBenchmark {
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private CursorPage<NoteSummary> page;
+    private Result<User> userResult;
+    private Result<CursorPage<NoteSummary>> pageResult;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        user = new User();
+        user.setId(1L);
+        user.setUsername("benchmark");
+        user.setEmail("benchmark@example.com");
+        user.setPasswordHash("$2a$10$abcdefghijklmnopqrstuuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ01");
+        user.setNickname("基准测试用户");
+        user.setBio("这是一段用于基准测试的个人简介");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setUpdatedAt(LocalDateTime.now());
+
+        List<NoteSummary> items = new ArrayList<>();
+        for (long i = 0; i < 20; i++) {
+            NoteSummary summary = new NoteSummary();
+            summary.setId(i);
+            summary.setTitle("笔记标题 " + i);
+            summary.setSummary("这是第 " + i + " 篇笔记的摘要，用于首页信息流展示");
+            summary.setUserId(1L);
+            summary.setCategoryId(1L);
+            summary.setViewCount(100);
+            summary.setLikeCount(10);
+            summary.setFavoriteCount(1);
+            summary.setIsTop(false);
+            summary.setPublishedAt(LocalDateTime.now());
+            items.add(summary);
+        }
+        page = new CursorPage<>(items, "eyJ0IjpmYWxzZSwicCI6IjIwMjYtMDEtMDFUMDA6MDA6MDAiLCJpZCI6MjB9");
+
+        userResult = Result.success(user);
+        pageResult = Result.success(page);
+    }
+
+    @Benchmark
+    public Result<User> constructSuccess() {
+        return Result.success(user);
+    }
+
+    @Benchmark
+    public Result<Object> constructError() {
+        return Result.error(ErrorCode.USER_NOT_FOUND, "用户不存在");
+    }
+
+    @Benchmark
+    public String serializeUser() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(userResult);
+    }
+
+    @Benchmark
+    public String serializeNotePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(pageResult);
+    }
+}
@@ -0,0 +1,73 @@
+package dream.benchmark;
+
+import dream.manager.TokenManager;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录令牌基准测试
+ * 测量每个请求认证时的令牌校验（HMAC + 吊销表查找）和登录时的签发耗时
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private TokenManager tokenManager;
+
+    private String validToken;
+    private String revokedToken;
+    private String tamperedToken;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start();
+        tokenManager = context.getBean(TokenManager.class);
+        validToken = tokenManager.issue(1L).getValue();
+        revokedToken = tokenManager.issue(2L).getValue();
+        tokenManager.revokeAll(2L, System.currentTimeMillis());
+        char last = validToken.charAt(validToken.length() - 1);
+        tamperedToken = validToken.substring(0, validToken.length() - 1) + (last == 'A' ? 'B' : 'A');
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Long verifyValid() {
+        return tokenManager.verify(validToken);
+    }
+
+    @Benchmark
+    public Long verifyRevoked() {
+        return tokenManager.verify(revokedToken);
+    }
+
+    @Benchmark
+    public Long verifyTampered() {
+        return tokenManager.verify(tamperedToken);
+    }
+
+    @Benchmark
+    public TokenManager.Token issue() {
+        return tokenManager.issue(1L);
+    }
+}
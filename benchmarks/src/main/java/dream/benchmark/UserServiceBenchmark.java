@@ -0,0 +1,95 @@
+package dream.benchmark;
+
+import dream.dto.LoginResult;
+import dream.entity.User;
+import dream.exception.business.UserException;
+import dream.service.IUserService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * UserServiceImpl 注册与登录基准测试
+ * 通过完整的 Spring 上下文调用，包含事务、缓存、BCrypt 线程池和 H2 上的真实 SQL
+ *
+ * 技术解释：
+ * - BCrypt 强度作为参数：4 时主要测量框架和 SQL 开销，10（线上默认值）时测量整体耗时
+ * - 注册使用递增序号生成不重复的用户名和邮箱
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserServiceBenchmark {
+
+    private static final String PASSWORD = "benchmark-password";
+
+    /**
+     * BCrypt 强度
+     */
+    @Param({"4", "10"})
+    public int bcryptStrength;
+
+    private ConfigurableApplicationContext context;
+    private IUserService userService;
+    private final AtomicLong sequence = new AtomicLong();
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkContext.start("dream.password.bcrypt-strength=" + bcryptStrength);
+        userService = context.getBean(IUserService.class);
+        userService.registerUser(newUser("bench_login"));
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public LoginResult loginByUsername() {
+        return userService.loginUser("bench_login", PASSWORD);
+    }
+
+    @Benchmark
+    public LoginResult loginByEmail() {
+        return userService.loginUser("bench_login@example.com", PASSWORD);
+    }
+
+    @Benchmark
+    public Object loginUnknownUser() {
+        try {
+            return userService.loginUser("bench_missing", PASSWORD);
+        } catch (UserException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public User registerUser() {
+        return userService.registerUser(newUser("bench_" + sequence.incrementAndGet()));
+    }
+
+    private static User newUser(String username) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@example.com");
+        user.setPasswordHash(PASSWORD);
+        return user;
+    }
+}
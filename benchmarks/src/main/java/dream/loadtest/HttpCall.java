@@ -0,0 +1,93 @@
+package dream.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 一次 HTTP 请求
+ * 使用 HttpURLConnection（JDK 自带，连接自动保持复用），响应体完整读完以便连接回到复用池
+ */
+final class HttpCall {
+
+    private static final int TIMEOUT_MS = 10_000;
+
+    private final String method;
+    private final String path;
+    private final String body;
+    private String bearerToken;
+
+    private HttpCall(String method, String path, String body) {
+        this.method = method;
+        this.path = path;
+        this.body = body;
+    }
+
+    static HttpCall get(String path) {
+        return new HttpCall("GET", path, null);
+    }
+
+    static HttpCall post(String path, String body) {
+        return new HttpCall("POST", path, body);
+    }
+
+    /**
+     * 携带登录令牌（Authorization: Bearer）
+     */
+    HttpCall withToken(String token) {
+        this.bearerToken = token;
+        return this;
+    }
+
+    /**
+     * 发送请求并读完响应
+     *
+     * @param baseUrl 服务地址，如 http://127.0.0.1:8080
+     * @return 响应状态码是否为 2xx；连接失败或超时返回 false
+     */
+    boolean execute(String baseUrl) {
+        HttpURLConnection connection = null;
+        try {
+            connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+            connection.setRequestMethod(method);
+            connection.setConnectTimeout(TIMEOUT_MS);
+            connection.setReadTimeout(TIMEOUT_MS);
+            connection.setRequestProperty("Accept", "application/json");
+            if (bearerToken != null) {
+                connection.setRequestProperty("Authorization", "Bearer " + bearerToken);
+            }
+            if (body != null) {
+                byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", "application/json");
+                connection.setFixedLengthStreamingMode(bytes.length);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(bytes);
+                }
+            }
+            int status = connection.getResponseCode();
+            drain(status < 400 ? connection.getInputStream() : connection.getErrorStream());
+            return status >= 200 && status < 300;
+        } catch (IOException e) {
+            if (connection != null) {
+                connection.disconnect();
+            }
+            return false;
+        }
+    }
+
+    private static void drain(InputStream in) throws IOException {
+        if (in == null) {
+            return;
+        }
+        try (InputStream stream = in) {
+            byte[] buffer = new byte[8192];
+            while (stream.read(buffer) != -1) {
+                // 丢弃响应体
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package dream.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 按接口统计的延迟直方图
+ *
+ * 技术解释：
+ * - 延迟从请求“计划发出”的时刻算起，而不是实际发出的时刻；
+ *   服务变慢导致请求在压测端排队时，排队时间也计入延迟，避免协调遗漏（coordinated omission）低估尾延迟
+ * - 直方图以微秒为单位、3 位有效数字，最大记录 60 秒
+ */
+final class LatencyReport {
+
+    private static final long MAX_MICROS = TimeUnit.SECONDS.toMicros(60);
+
+    private final Map<Operation, Histogram> histograms = new EnumMap<>(Operation.class);
+    private final Map<Operation, LongAdder> errors = new EnumMap<>(Operation.class);
+
+    LatencyReport() {
+        for (Operation operation : Operation.values()) {
+            histograms.put(operation, new ConcurrentHistogram(MAX_MICROS, 3));
+            errors.put(operation, new LongAdder());
+        }
+    }
+
+    void record(Operation operation, long latencyNanos, boolean success) {
+        long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(latencyNanos), MAX_MICROS);
+        histograms.get(operation).recordValue(Math.max(micros, 1));
+        if (!success) {
+            errors.get(operation).increment();
+        }
+    }
+
+    long count(Operation operation) {
+        return histograms.get(operation).getTotalCount();
+    }
+
+    long errors(Operation operation) {
+        return errors.get(operation).sum();
+    }
+
+    /**
+     * 指定百分位的延迟（毫秒）
+     */
+    double percentileMillis(Operation operation, double percentile) {
+        return histograms.get(operation).getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    /**
+     * 打印各接口的请求数、错误数和延迟百分位
+     */
+    void print(PrintStream out, double seconds) {
+        out.printf(Locale.ROOT, "%-42s %9s %7s %9s %9s %9s %9s %9s%n",
+                "endpoint", "req/s", "errors", "p50(ms)", "p90(ms)", "p99(ms)", "p99.9(ms)", "max(ms)");
+        for (Operation operation : Operation.values()) {
+            Histogram histogram = histograms.get(operation);
+            out.printf(Locale.ROOT, "%-42s %9.1f %7d %9.2f %9.2f %9.2f %9.2f %9.2f%n",
+                    operation.endpoint, histogram.getTotalCount() / seconds, errors(operation),
+                    percentileMillis(operation, 50), percentileMillis(operation, 90),
+                    percentileMillis(operation, 99), percentileMillis(operation, 99.9),
+                    histogram.getMaxValue() / 1000.0);
+        }
+    }
+
+    /**
+     * 把每个接口的完整百分位分布写成 .hgrm 文件，可用 HdrHistogram 的绘图工具查看
+     */
+    void writeDistributions(Path directory) throws IOException {
+        Files.createDirectories(directory);
+        for (Operation operation : Operation.values()) {
+            try (OutputStream file = Files.newOutputStream(directory.resolve(operation.key() + ".hgrm"));
+                 PrintStream out = new PrintStream(file, false, "UTF-8")) {
+                histograms.get(operation).outputPercentileDistribution(out, 1000.0);
+            }
+        }
+    }
+
+    /**
+     * 本次结果的 p99，作为新基线保存
+     */
+    Properties toBaseline() {
+        Properties baseline = new Properties();
+        for (Operation operation : Operation.values()) {
+            baseline.setProperty(operation.key() + ".p99-ms",
+                    String.format(Locale.ROOT, "%.2f", percentileMillis(operation, 99)));
+        }
+        return baseline;
+    }
+
+    /**
+     * 与基线比较
+     *
+     * @param baseline 基线 p99
+     * @param maxRegression 允许的 p99 相对退化比例，如 0.2 表示 20%
+     * @param noiseFloorMillis 低于此值的 p99 增长视为噪声
+     * @param maxErrorRate 允许的错误率
+     * @return 退化描述（包括基线中缺少的接口），没有退化时为空
+     */
+    List<String> compare(Properties baseline, double maxRegression, double noiseFloorMillis, double maxErrorRate) {
+        List<String> failures = new ArrayList<>();
+        for (Operation operation : Operation.values()) {
+            long count = count(operation);
+            if (count > 0 && (double) errors(operation) / count > maxErrorRate) {
+                failures.add(String.format(Locale.ROOT, "%s 错误率 %.2f%% 超过 %.2f%%",
+                        operation.endpoint, 100.0 * errors(operation) / count, 100 * maxErrorRate));
+            }
+            String value = baseline.getProperty(operation.key() + ".p99-ms");
+            if (value == null) {
+                failures.add(operation.endpoint + " 在基线中没有 p99，请更新基线");
+                continue;
+            }
+            double expected = Double.parseDouble(value);
+            double actual = percentileMillis(operation, 99);
+            if (actual > expected * (1 + maxRegression) && actual - expected > noiseFloorMillis) {
+                failures.add(String.format(Locale.ROOT, "%s p99 %.2fms，基线 %.2fms，退化 %.0f%%",
+                        operation.endpoint, actual, expected, 100 * (actual / expected - 1)));
+            }
+        }
+        return failures;
+    }
+}
@@ -0,0 +1,157 @@
+package dream.loadtest;
+
+import dream.benchmark.BenchmarkContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.Random;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * UserController HTTP 压测
+ * 启动使用 H2 内存数据库的完整应用，按固定平均到达率（开环）发送混合请求，输出各接口延迟百分位，
+ * 并与基线文件比较：任一接口 p99 退化超过阈值或错误率过高时抛出异常，使 Maven 构建失败
+ *
+ * 技术解释：
+ * - 开环：请求按泊松过程的计划时刻发出，不等待上一个请求返回，服务变慢时请求会堆积而不是自动降速，
+ *   这样才能测出服务在给定到达率下的真实尾延迟和吞吐上限
+ * - 先预热再测量，预热阶段的结果丢弃
+ *
+ * 参数（系统属性，mvn 命令行 -D 传入）：
+ * - loadtest.rate              平均每秒请求数，默认 200
+ * - loadtest.warmup-seconds    预热时长，默认 10
+ * - loadtest.duration-seconds  测量时长，默认 30
+ * - loadtest.connections       并发连接（工作线程）数，默认 64
+ * - loadtest.users             预置用户数，默认 1000
+ * - loadtest.seed              随机种子，默认 42，相同种子生成相同的请求序列
+ * - loadtest.baseline          基线文件，默认 benchmarks/loadtest-baseline.properties，不存在时压测失败
+ * - loadtest.update-baseline   为 true 时把本次结果写为新基线，不做比较
+ * - loadtest.max-regression    允许的 p99 退化比例，默认 0.2
+ * - loadtest.noise-floor-ms    p99 增长小于此值时视为噪声，默认 1
+ * - loadtest.max-error-rate    允许的错误率，默认 0.01
+ * - loadtest.output-dir        .hgrm 延迟分布输出目录，默认 target/loadtest
+ * - loadtest.app.*             传给应用的配置，如 -Dloadtest.app.dream.password.bcrypt-strength=4
+ */
+public final class LoadTest {
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        double rate = Double.parseDouble(System.getProperty("loadtest.rate", "200"));
+        int warmupSeconds = Integer.getInteger("loadtest.warmup-seconds", 10);
+        int durationSeconds = Integer.getInteger("loadtest.duration-seconds", 30);
+        int connections = Integer.getInteger("loadtest.connections", 64);
+        int userCount = Integer.getInteger("loadtest.users", 1000);
+        long seed = Long.getLong("loadtest.seed", 42L);
+        Path baselineFile = Paths.get(System.getProperty("loadtest.baseline", "loadtest-baseline.properties"));
+        Path outputDir = Paths.get(System.getProperty("loadtest.output-dir", "target/loadtest"));
+
+        ConfigurableApplicationContext context = BenchmarkContext.startServer(appProperties());
+        try {
+            String baseUrl = "http://127.0.0.1:" + BenchmarkContext.port(context);
+            SeedUsers users = SeedUsers.create(context, userCount);
+            Random random = new Random(seed);
+
+            System.out.printf("压测 %s：%.0f req/s，预热 %ds，测量 %ds，%d 个连接%n",
+                    baseUrl, rate, warmupSeconds, durationSeconds, connections);
+            drive(baseUrl, users, random, rate, warmupSeconds, connections);
+            LatencyReport report = drive(baseUrl, users, random, rate, durationSeconds, connections);
+
+            report.print(System.out, durationSeconds);
+            report.writeDistributions(outputDir);
+            check(report, baselineFile);
+        } finally {
+            context.close();
+        }
+    }
+
+    /**
+     * 以开环方式在指定时长内发送请求，等全部请求返回后返回统计结果
+     */
+    private static LatencyReport drive(String baseUrl, SeedUsers users, Random random, double rate,
+                                       int seconds, int connections) throws InterruptedException {
+        LatencyReport report = new LatencyReport();
+        // 无界队列：工作线程都在忙时请求在队列中等待，等待时间计入延迟
+        ThreadPoolExecutor workers = new ThreadPoolExecutor(connections, connections, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>());
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(seconds);
+        long intended = start;
+        while (intended < end) {
+            long wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            Operation operation = Operation.pick(random);
+            HttpCall call = operation.create(random, users);
+            long scheduledAt = intended;
+            workers.execute(() -> {
+                boolean success = call.execute(baseUrl);
+                report.record(operation, System.nanoTime() - scheduledAt, success);
+            });
+            // 泊松到达：请求间隔服从指数分布
+            intended += (long) (-Math.log(1 - random.nextDouble()) / rate * TimeUnit.SECONDS.toNanos(1));
+        }
+        workers.shutdown();
+        if (!workers.awaitTermination(2, TimeUnit.MINUTES)) {
+            workers.shutdownNow();
+            throw new IllegalStateException("压测请求在 2 分钟内未全部完成");
+        }
+        return report;
+    }
+
+    /**
+     * 与基线比较，或把本次结果写为新基线
+     */
+    private static void check(LatencyReport report, Path baselineFile) throws IOException {
+        if (Boolean.getBoolean("loadtest.update-baseline")) {
+            try (OutputStream out = Files.newOutputStream(baselineFile)) {
+                report.toBaseline().store(out, "UserController p99 baseline (ms)");
+            }
+            System.out.println("已写入新基线: " + baselineFile.toAbsolutePath());
+            return;
+        }
+        if (!Files.exists(baselineFile)) {
+            throw new IllegalStateException("基线文件不存在: " + baselineFile.toAbsolutePath()
+                    + "，请先在基准机器上以 -Dloadtest.update-baseline=true 运行并提交生成的基线");
+        }
+        Properties baseline = new Properties();
+        try (InputStream in = Files.newInputStream(baselineFile)) {
+            baseline.load(in);
+        }
+        List<String> failures = report.compare(baseline,
+                Double.parseDouble(System.getProperty("loadtest.max-regression", "0.2")),
+                Double.parseDouble(System.getProperty("loadtest.noise-floor-ms", "1")),
+                Double.parseDouble(System.getProperty("loadtest.max-error-rate", "0.01")));
+        if (!failures.isEmpty()) {
+            throw new IllegalStateException("压测未通过:\n  " + String.join("\n  ", failures));
+        }
+        System.out.println("压测通过");
+    }
+
+    /**
+     * 收集 loadtest.app.* 系统属性作为应用配置
+     */
+    private static String[] appProperties() {
+        List<String> properties = new ArrayList<>();
+        String prefix = "loadtest.app.";
+        for (String name : System.getProperties().stringPropertyNames()) {
+            if (name.startsWith(prefix)) {
+                properties.add(name.substring(prefix.length()) + "=" + System.getProperty(name));
+            }
+        }
+        return properties.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,109 @@
+package dream.loadtest;
+
+import java.util.Random;
+
+/**
+ * 压测请求组合
+ * 按权重模拟线上 UserController 的访问比例：以资料读取为主，夹带可用性检查、登录和计数递增
+ */
+enum Operation {
+
+    PROFILE("GET /api/users/{id}", 40) {
+        @Override
+        HttpCall create(Random random, SeedUsers users) {
+            return HttpCall.get("/api/users/" + users.randomId(random));
+        }
+    },
+    PROFILE_BY_USERNAME("GET /api/users/username/{username}", 10) {
+        @Override
+        HttpCall create(Random random, SeedUsers users) {
+            return HttpCall.get("/api/users/username/" + users.randomUsername(random));
+        }
+    },
+    CHECK_USERNAME("GET /api/users/check/username/{username}", 15) {
+        @Override
+        HttpCall create(Random random, SeedUsers users) {
+            // 一半检查已注册的用户名，一半检查新用户名（注册页输入时的典型情况）
+            String username = random.nextBoolean() ? users.randomUsername(random) : "new_" + random.nextInt(1_000_000);
+            return HttpCall.get("/api/users/check/username/" + username);
+        }
+    },
+    CHECK_EMAIL("GET /api/users/check/email/{email}", 5) {
+        @Override
+        HttpCall create(Random random, SeedUsers users) {
+            String email = random.nextBoolean() ? users.randomEmail(random) : "new_" + random.nextInt(1_000_000) + "@example.com";
+            return HttpCall.get("/api/users/check/email/" + email);
+        }
+    },
+    LOGIN("POST /api/users/login", 5) {
+        @Override
+        HttpCall create(Random random, SeedUsers users) {
+            return HttpCall.post("/api/users/login",
+                    "{\"username\":\"" + users.randomUsername(random) + "\",\"password\":\"" + SeedUsers.PASSWORD + "\"}");
+        }
+    },
+    VIEW("POST /api/users/{id}/view", 15) {
+        @Override
+        HttpCall create(Random random, SeedUsers users) {
+            return HttpCall.post("/api/users/" + users.randomId(random) + "/view", null);
+        }
+    },
+    LIKE("POST /api/users/{id}/like", 10) {
+        @Override
+        HttpCall create(Random random, SeedUsers users) {
+            // 随机用户点赞随机主页，重复点赞按幂等处理（不重复计数）
+            return HttpCall.post("/api/users/" + users.randomId(random) + "/like", null).withToken(users.randomToken(random));
+        }
+    };
+
+    private static final int TOTAL_WEIGHT;
+
+    static {
+        int total = 0;
+        for (Operation operation : values()) {
+            total += operation.weight;
+        }
+        TOTAL_WEIGHT = total;
+    }
+
+    /**
+     * 报告中显示的接口名
+     */
+    final String endpoint;
+
+    /**
+     * 在请求组合中的权重
+     */
+    final int weight;
+
+    Operation(String endpoint, int weight) {
+        this.endpoint = endpoint;
+        this.weight = weight;
+    }
+
+    /**
+     * 生成一次请求
+     */
+    abstract HttpCall create(Random random, SeedUsers users);
+
+    /**
+     * 按权重随机选择一种请求
+     */
+    static Operation pick(Random random) {
+        int value = random.nextInt(TOTAL_WEIGHT);
+        for (Operation operation : values()) {
+            value -= operation.weight;
+            if (value < 0) {
+                return operation;
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    /**
+     * 基线文件中使用的键名，如 profile-by-username
+     */
+    String key() {
+        return name().toLowerCase().replace('_', '-');
+    }
+}
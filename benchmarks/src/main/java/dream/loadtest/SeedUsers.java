@@ -0,0 +1,73 @@
+package dream.loadtest;
+
+import dream.manager.PasswordHashManager;
+import dream.manager.TokenManager;
+import dream.manager.UserAvailabilityManager;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 压测用户数据
+ * 直接批量写库（所有用户共用同一个密码哈希，避免逐个 BCrypt 加密拖慢准备阶段），再重建用户名/邮箱布隆过滤器，
+ * 并为每个用户签发登录令牌，供需要登录的请求（点赞）使用
+ */
+final class SeedUsers {
+
+    static final String PASSWORD = "loadtest-password";
+
+    private final long firstId;
+    private final int count;
+    private final String[] tokens;
+
+    private SeedUsers(long firstId, int count, String[] tokens) {
+        this.firstId = firstId;
+        this.count = count;
+        this.tokens = tokens;
+    }
+
+    static SeedUsers create(ConfigurableApplicationContext context, int count) {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        String passwordHash = context.getBean(PasswordHashManager.class).encode(PASSWORD);
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            rows.add(new Object[]{username(i), email(i), passwordHash, username(i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (username, email, password_hash, nickname) VALUES (?, ?, ?, ?)", rows);
+        context.getBean(UserAvailabilityManager.class).rebuild();
+        Long firstId = jdbcTemplate.queryForObject("SELECT user_id FROM users WHERE username = ?", Long.class, username(0));
+        TokenManager tokenManager = context.getBean(TokenManager.class);
+        String[] tokens = new String[count];
+        for (int i = 0; i < count; i++) {
+            tokens[i] = tokenManager.issue(firstId + i).getValue();
+        }
+        return new SeedUsers(firstId, count, tokens);
+    }
+
+    long randomId(Random random) {
+        return firstId + random.nextInt(count);
+    }
+
+    String randomToken(Random random) {
+        return tokens[random.nextInt(count)];
+    }
+
+    String randomUsername(Random random) {
+        return username(random.nextInt(count));
+    }
+
+    String randomEmail(Random random) {
+        return email(random.nextInt(count));
+    }
+
+    private static String username(int index) {
+        return "load_" + index;
+    }
+
+    private static String email(int index) {
+        return "load_" + index + "@example.com";
+    }
+}
@@ -29,13 +29,16 @@ CREATE TABLE users (
     view_count INT DEFAULT 0 COMMENT '个人主页访问量',
     like_count INT DEFAULT 0 COMMENT '获得的总点赞数',
     is_active BOOLEAN DEFAULT TRUE COMMENT '账户是否激活',
+    token_revoked_at TIMESTAMP(3) NULL DEFAULT NULL COMMENT '登录令牌吊销时间，此前签发的令牌失效（修改密码、禁用账户时更新）',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     deleted BOOLEAN DEFAULT FALSE COMMENT '逻辑删除标记，0-未删除，1-已删除',
     
     INDEX idx_username (username),
     INDEX idx_email (email),
-    INDEX idx_created_at (created_at)
+    INDEX idx_created_at (created_at),
+    INDEX idx_active_created_at (is_active, deleted, created_at) COMMENT '激活用户游标分页，二级索引隐含主键user_id',
+    INDEX idx_token_revoked_at (token_revoked_at) COMMENT '各实例增量同步令牌吊销'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='用户信息表';
 
 -- ========================================
@@ -81,6 +84,7 @@ CREATE TABLE notes (
     note_id BIGINT AUTO_INCREMENT PRIMARY KEY COMMENT '笔记ID，主键自增',
     title VARCHAR(200) NOT NULL COMMENT '笔记标题',
     content LONGTEXT NOT NULL COMMENT '笔记内容，支持Markdown格式',
+    content_hash CHAR(16) DEFAULT NULL COMMENT '正文SHA-256的前16个十六进制字符，渲染缓存和ETag的版本号',
     summary VARCHAR(500) DEFAULT NULL COMMENT '笔记摘要，用于列表显示',
     cover_image_url VARCHAR(500) DEFAULT NULL COMMENT '封面图片URL',
     user_id BIGINT NOT NULL COMMENT '作者用户ID，外键关联users表',
@@ -103,6 +107,7 @@ CREATE TABLE notes (
     INDEX idx_status (status),
     INDEX idx_created_at (created_at DESC),
     INDEX idx_published_at (published_at DESC),
+    INDEX idx_feed (status, deleted, is_top, published_at) COMMENT '首页信息流覆盖索引，二级索引隐含主键note_id',
     FULLTEXT INDEX idx_title_content (title, content)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='笔记表';
 
@@ -151,13 +156,17 @@ CREATE TABLE wallpapers (
     description VARCHAR(1000) DEFAULT NULL COMMENT '壁纸描述',
     image_url VARCHAR(500) NOT NULL COMMENT '原图URL',
     thumbnail_url VARCHAR(500) DEFAULT NULL COMMENT '缩略图URL',
+    thumbnail_attempts TINYINT DEFAULT 0 COMMENT '缩略图生成失败次数，达到上限后不再自动重试',
     category_id BIGINT DEFAULT NULL COMMENT '分类ID，外键关联wallpaper_categories表',
+    user_id BIGINT DEFAULT NULL COMMENT '上传者用户ID，外键关联users表',
     file_size BIGINT DEFAULT NULL COMMENT '文件大小，单位字节',
     width INT DEFAULT NULL COMMENT '图片宽度',
     height INT DEFAULT NULL COMMENT '图片高度',
     download_count INT DEFAULT 0 COMMENT '下载次数',
     like_count INT DEFAULT 0 COMMENT '点赞次数',
+    favorite_count INT DEFAULT 0 COMMENT '收藏次数',
     view_count INT DEFAULT 0 COMMENT '浏览次数',
+    status VARCHAR(20) DEFAULT 'pending' COMMENT '状态：pending-待审核，approved-已通过，rejected-已拒绝',
     is_featured BOOLEAN DEFAULT FALSE COMMENT '是否精选',
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -166,11 +175,53 @@ CREATE TABLE wallpapers (
     FOREIGN KEY (category_id) REFERENCES wallpaper_categories(category_id) ON DELETE SET NULL,
     
     INDEX idx_category_id (category_id),
+    INDEX idx_user_id (user_id),
     INDEX idx_created_at (created_at DESC),
     INDEX idx_download_count (download_count DESC),
     INDEX idx_like_count (like_count DESC)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='壁纸表';
 
+-- ========================================
+-- 8. 点赞关系表 (user_likes)
+-- ========================================
+CREATE TABLE user_likes (
+    target_type TINYINT NOT NULL COMMENT '点赞对象类型：1-用户主页，2-笔记',
+    target_id BIGINT NOT NULL COMMENT '点赞对象ID（用户ID或笔记ID）',
+    user_id BIGINT NOT NULL COMMENT '点赞的用户ID',
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP COMMENT '点赞时间',
+    
+    -- 同一用户对同一对象只能点赞一次，INSERT IGNORE/DELETE 的受影响行数即点赞数变化
+    PRIMARY KEY (target_type, target_id, user_id),
+    INDEX idx_user_target (user_id, target_type, target_id) COMMENT '查询用户点赞过的对象'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='点赞关系表';
+
+-- ========================================
+-- 9. 独立访客草图表 (view_sketches)
+-- ========================================
+CREATE TABLE view_sketches (
+    target_type TINYINT NOT NULL COMMENT '访问对象类型：1-用户主页，2-笔记',
+    target_id BIGINT NOT NULL COMMENT '访问对象ID（用户ID或笔记ID）',
+    stat_date DATE NOT NULL COMMENT '统计日期',
+    sketch VARBINARY(8192) NOT NULL COMMENT '当天访客的 HyperLogLog 草图，合并多天草图即可得到区间内的独立访客数',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    
+    PRIMARY KEY (target_type, target_id, stat_date)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='独立访客草图表';
+
+-- ========================================
+-- 10. 热度分数检查点表 (hot_scores)
+-- ========================================
+CREATE TABLE hot_scores (
+    target_type TINYINT NOT NULL COMMENT '排行对象类型：1-笔记，2-壁纸',
+    target_id BIGINT NOT NULL COMMENT '排行对象ID（笔记ID或壁纸ID）',
+    log_score DOUBLE NOT NULL COMMENT '时间衰减热度的 log2 分数，以1970-01-01为基准，当前热度 = 2^(log_score - 当前毫秒数 / half_life_ms)',
+    half_life_ms BIGINT NOT NULL COMMENT '计算分数所用的半衰期（毫秒），半衰期不同的分数不可比较',
+    updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    
+    PRIMARY KEY (target_type, target_id),
+    INDEX idx_type_score (target_type, log_score) COMMENT '启动时按热度加载排行、清理衰减到阈值以下的分数'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='热度分数检查点表';
+
 -- ========================================
 -- 插入初始数据
 -- ========================================
@@ -3,6 +3,7 @@ package dream;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Dream个人博客系统后端应用启动类
@@ -11,6 +12,7 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  */
 @SpringBootApplication
 @MapperScan("dream.mapper")
+@EnableScheduling  // 启用定时任务，用于计数写回等后台刷盘
 public class DreamApplication {
 
     public static void main(String[] args) {
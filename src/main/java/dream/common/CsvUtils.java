@@ -0,0 +1,82 @@
+package dream.common;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * CSV 工具类（RFC 4180）
+ * 
+ * 字段中含有逗号、双引号或换行时用双引号包裹，字段内的双引号写成两个双引号。
+ * 按行读取，不支持引号内的换行。
+ * 
+ * @author Dream开发团队
+ * @version 1.0
+ */
+public final class CsvUtils {
+    
+    private CsvUtils() {
+    }
+    
+    /**
+     * 解析一行CSV
+     * 
+     * @param line 一行文本（不含换行符）
+     * @return 各字段的值
+     * @throws IllegalArgumentException 引号不配对
+     */
+    public static List<String> parseLine(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c != '"') {
+                    field.append(c);
+                } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else {
+                    quoted = false;
+                }
+            } else if (c == '"' && field.length() == 0) {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("CSV引号不配对");
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+    
+    /**
+     * 把若干字段格式化为一行CSV（不含换行符），null 输出为空字段
+     * 
+     * @param values 字段值
+     * @return 一行文本
+     */
+    public static String formatLine(Object... values) {
+        StringBuilder line = new StringBuilder();
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            if (values[i] == null) {
+                continue;
+            }
+            String value = values[i].toString();
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                line.append('"').append(value.replace("\"", "\"\"")).append('"');
+            } else {
+                line.append(value);
+            }
+        }
+        return line.toString();
+    }
+}
@@ -0,0 +1,77 @@
+package dream.common;
+
+import java.util.List;
+
+/**
+ * 游标分页结果类 - 基于键集（seek）分页的返回格式
+ * 
+ * 与 OFFSET 分页不同，游标分页记住上一页最后一条记录的排序键，
+ * 下一页直接从该位置继续查找：
+ * 1. 无论翻到第几页，数据库都只需扫描一页的数据
+ * 2. 翻页期间有新数据插入时不会出现重复或遗漏
+ * 
+ * @param <T> 列表元素类型
+ * @author Dream开发团队
+ * @version 1.0
+ */
+public class CursorPage<T> {
+    
+    /**
+     * 当前页数据
+     */
+    private List<T> items;
+    
+    /**
+     * 下一页游标，没有更多数据时为null
+     */
+    private String nextCursor;
+    
+    /**
+     * 是否还有更多数据
+     */
+    private boolean hasMore;
+    
+    /**
+     * 默认构造函数
+     */
+    public CursorPage() {
+    }
+    
+    /**
+     * 带参数的构造函数
+     * 
+     * @param items 当前页数据
+     * @param nextCursor 下一页游标
+     */
+    public CursorPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+    
+    // ========== Getter和Setter方法 ==========
+    
+    public List<T> getItems() {
+        return items;
+    }
+    
+    public void setItems(List<T> items) {
+        this.items = items;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return hasMore;
+    }
+    
+    public void setHasMore(boolean hasMore) {
+        this.hasMore = hasMore;
+    }
+}
@@ -0,0 +1,64 @@
+package dream.common;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 游标编解码工具类
+ * 
+ * 把上一页最后一条记录的排序键（如创建时间、ID）编码成不透明的字符串，
+ * 前端只需原样回传，不需要关心游标的内部结构。
+ * 
+ * @author Dream开发团队
+ * @version 1.0
+ */
+public final class CursorUtils {
+    
+    /**
+     * 排序键之间的分隔符
+     */
+    private static final String SEPARATOR = "|";
+    
+    private CursorUtils() {
+    }
+    
+    /**
+     * 编码游标
+     * 
+     * @param keys 排序键
+     * @return URL安全的Base64游标
+     */
+    public static String encode(Object... keys) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < keys.length; i++) {
+            if (i > 0) {
+                sb.append(SEPARATOR);
+            }
+            sb.append(keys[i]);
+        }
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sb.toString().getBytes(StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * 解码游标
+     * 
+     * @param cursor 游标字符串
+     * @param expectedKeys 期望的排序键个数
+     * @return 排序键
+     * @throws IllegalArgumentException 游标格式不正确
+     */
+    public static String[] decode(String cursor, int expectedKeys) {
+        String[] keys;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            keys = raw.split("\\|", -1);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+        if (keys.length != expectedKeys) {
+            throw new IllegalArgumentException("无效的分页游标");
+        }
+        return keys;
+    }
+}
@@ -0,0 +1,164 @@
+package dream.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dream.dto.UserImportRow;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * 用户导入数据读取器
+ * 从请求体逐行读取 CSV 或 NDJSON，每次只在内存中保留一行
+ * 
+ * 某一行格式不正确时不会中断读取，而是返回带有错误原因的行，由导入逻辑计入失败
+ * 
+ * - CSV：第一行为表头，列名与 UserImportRow 的属性名相同（username,email,password,nickname,...），未知列忽略
+ * - NDJSON：每行一个 JSON 对象，字段名与 UserImportRow 的属性名相同
+ * - 空行跳过
+ * 
+ * @author Dream开发团队
+ * @version 1.0
+ */
+public abstract class UserImportReader implements Iterator<UserImportRow> {
+    
+    private final BufferedReader reader;
+    
+    private long lineNumber;
+    
+    private UserImportRow next;
+    
+    private UserImportReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+    
+    /**
+     * 读取 CSV
+     * 
+     * @param reader 请求体
+     * @return 逐行读取器
+     * @throws IllegalArgumentException 缺少表头或表头不包含 username、email、password 列
+     */
+    public static UserImportReader csv(BufferedReader reader) {
+        return new Csv(reader);
+    }
+    
+    /**
+     * 读取 NDJSON
+     * 
+     * @param reader 请求体
+     * @param objectMapper JSON 解析器
+     * @return 逐行读取器
+     */
+    public static UserImportReader ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+        return new Ndjson(reader, objectMapper);
+    }
+    
+    /**
+     * 把一行文本解析为导入行
+     * 
+     * @param text 一行文本（非空）
+     * @return 导入行，解析失败时抛出异常
+     */
+    protected abstract UserImportRow parse(String text) throws Exception;
+    
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            String text = readLine();
+            while (text != null && text.trim().isEmpty()) {
+                text = readLine();
+            }
+            if (text != null) {
+                try {
+                    next = parse(text);
+                } catch (Exception e) {
+                    next = new UserImportRow();
+                    next.setError(e instanceof JsonProcessingException
+                            ? "JSON格式不正确: " + ((JsonProcessingException) e).getOriginalMessage() : e.getMessage());
+                }
+                next.setLine(lineNumber);
+            }
+        }
+        return next != null;
+    }
+    
+    @Override
+    public UserImportRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        UserImportRow row = next;
+        next = null;
+        return row;
+    }
+    
+    protected String readLine() {
+        try {
+            String text = reader.readLine();
+            if (text != null) {
+                lineNumber++;
+            }
+            return text;
+        } catch (IOException e) {
+            throw new UncheckedIOException("读取导入数据失败", e);
+        }
+    }
+    
+    private static final class Csv extends UserImportReader {
+        
+        private final List<String> header;
+        
+        private Csv(BufferedReader reader) {
+            super(reader);
+            String text = readLine();
+            if (text == null) {
+                throw new IllegalArgumentException("CSV缺少表头");
+            }
+            // 去掉 Excel 导出时带的 BOM
+            header = CsvUtils.parseLine(text.startsWith("\uFEFF") ? text.substring(1) : text);
+            if (!header.contains("username") || !header.contains("email") || !header.contains("password")) {
+                throw new IllegalArgumentException("CSV表头必须包含 username、email、password 列");
+            }
+        }
+        
+        @Override
+        protected UserImportRow parse(String text) {
+            List<String> fields = CsvUtils.parseLine(text);
+            if (fields.size() > header.size()) {
+                throw new IllegalArgumentException("列数多于表头");
+            }
+            UserImportRow row = new UserImportRow();
+            BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(row);
+            for (int i = 0; i < fields.size(); i++) {
+                String name = header.get(i);
+                if (!fields.get(i).isEmpty() && !"line".equals(name) && !"error".equals(name)
+                        && wrapper.isWritableProperty(name)) {
+                    wrapper.setPropertyValue(name, fields.get(i));
+                }
+            }
+            return row;
+        }
+    }
+    
+    private static final class Ndjson extends UserImportReader {
+        
+        private final ObjectMapper objectMapper;
+        
+        private Ndjson(BufferedReader reader, ObjectMapper objectMapper) {
+            super(reader);
+            this.objectMapper = objectMapper;
+        }
+        
+        @Override
+        protected UserImportRow parse(String text) throws JsonProcessingException {
+            return objectMapper.readValue(text, UserImportRow.class);
+        }
+    }
+}
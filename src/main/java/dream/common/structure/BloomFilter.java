@@ -0,0 +1,178 @@
+package dream.common.structure;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 线程安全的布隆过滤器
+ * 用于快速判断一个字符串“一定不存在”还是“可能存在”
+ *
+ * 技术解释：
+ * - 位数组使用 AtomicLongArray，写入通过 CAS 完成，读写都不需要加锁
+ * - 采用 Kirsch-Mitzenmacher 双重哈希：两个 64 位哈希组合出 k 个位置
+ * - 只会误判“存在”（假阳性），不会误判“不存在”，误判率由位数组大小和哈希次数决定
+ * - 不支持删除，需要时整体重建
+ */
+public class BloomFilter {
+
+    private static final long FNV_OFFSET_A = 0xcbf29ce484222325L;
+    private static final long FNV_OFFSET_B = 0x84222325cbf29ce4L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * 位数组
+     */
+    private final AtomicLongArray bits;
+
+    /**
+     * 位数组总位数
+     */
+    private final long bitSize;
+
+    /**
+     * 每个元素的哈希次数
+     */
+    private final int numHashes;
+
+    /**
+     * 构造函数
+     *
+     * @param bitSize 位数组大小（位）
+     * @param numHashes 哈希次数
+     */
+    private BloomFilter(long bitSize, int numHashes) {
+        int words = (int) ((bitSize + 63) >>> 6);
+        this.bits = new AtomicLongArray(words);
+        this.bitSize = (long) words << 6;
+        this.numHashes = numHashes;
+    }
+
+    /**
+     * 按预期元素数量和目标误判率创建布隆过滤器
+     *
+     * @param expectedInsertions 预期元素数量
+     * @param fpp 目标误判率（0到1之间）
+     * @return 布隆过滤器
+     */
+    public static BloomFilter create(long expectedInsertions, double fpp) {
+        if (expectedInsertions <= 0) {
+            expectedInsertions = 1;
+        }
+        if (fpp <= 0 || fpp >= 1) {
+            throw new IllegalArgumentException("误判率必须在0到1之间: " + fpp);
+        }
+        long bitSize = (long) Math.ceil(-expectedInsertions * Math.log(fpp) / (Math.log(2) * Math.log(2)));
+        int numHashes = Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+        return new BloomFilter(Math.max(64, bitSize), numHashes);
+    }
+
+    /**
+     * 加入一个元素
+     *
+     * @param value 元素
+     * @return 是否有位发生变化（false表示该元素可能已存在）
+     */
+    public boolean put(String value) {
+        long h1 = hash(value, FNV_OFFSET_A);
+        long h2 = hash(value, FNV_OFFSET_B);
+        boolean changed = false;
+        long combined = h1;
+        for (int i = 0; i < numHashes; i++) {
+            changed |= setBit((combined & Long.MAX_VALUE) % bitSize);
+            combined += h2;
+        }
+        return changed;
+    }
+
+    /**
+     * 判断元素是否可能存在
+     *
+     * @param value 元素
+     * @return false表示一定不存在，true表示可能存在
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value, FNV_OFFSET_A);
+        long h2 = hash(value, FNV_OFFSET_B);
+        long combined = h1;
+        for (int i = 0; i < numHashes; i++) {
+            if (!getBit((combined & Long.MAX_VALUE) % bitSize)) {
+                return false;
+            }
+            combined += h2;
+        }
+        return true;
+    }
+
+    /**
+     * 根据当前置位比例估算的误判率
+     *
+     * @return 估算误判率
+     */
+    public double expectedFpp() {
+        return Math.pow((double) bitCount() / bitSize, numHashes);
+    }
+
+    /**
+     * 已置位的位数
+     *
+     * @return 置位数
+     */
+    public long bitCount() {
+        long count = 0;
+        for (int i = 0; i < bits.length(); i++) {
+            count += Long.bitCount(bits.get(i));
+        }
+        return count;
+    }
+
+    /**
+     * 位数组大小（位）
+     *
+     * @return 位数
+     */
+    public long getBitSize() {
+        return bitSize;
+    }
+
+    /**
+     * 每个元素的哈希次数
+     *
+     * @return 哈希次数
+     */
+    public int getNumHashes() {
+        return numHashes;
+    }
+
+    private boolean setBit(long index) {
+        int word = (int) (index >>> 6);
+        long mask = 1L << index;
+        long current;
+        do {
+            current = bits.get(word);
+            if ((current & mask) != 0) {
+                return false;
+            }
+        } while (!bits.compareAndSet(word, current, current | mask));
+        return true;
+    }
+
+    private boolean getBit(long index) {
+        return (bits.get((int) (index >>> 6)) & (1L << index)) != 0;
+    }
+
+    /**
+     * FNV-1a 累加后做一次 MurmurHash3 的 fmix64 混淆，得到分布均匀的 64 位哈希
+     */
+    private static long hash(String value, long seed) {
+        long h = seed;
+        for (int i = 0; i < value.length(); i++) {
+            h ^= value.charAt(i);
+            h *= FNV_PRIME;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
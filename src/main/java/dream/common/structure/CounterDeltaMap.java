@@ -0,0 +1,165 @@
+package dream.common.structure;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 待写回的计数增量表
+ * 请求线程只在内存中累加增量，定时任务取走全部增量后合并成批量 UPDATE 写回数据库
+ *
+ * 技术解释：
+ * - 每个键一个 AtomicLong 计数单元，累加是无锁的 CAS；取走增量用 getAndSet(0)，之后到达的增量留在单元中等待下次取走
+ * - 一个刷盘周期内没有新增量的单元会被移除，使内存只与活跃对象数相关。移除前先用 CAS(0, RETIRED) 封存：
+ *   封存成功说明此刻没有未取走的增量，之后拿到旧单元的写入线程看到 RETIRED 会改写到新单元，
+ *   不会把增量加到已经移出表的单元上而丢失（LongAdder 无法原子地“判零并封存”，所以不用它）
+ * - 取走与写回由调用方的刷盘锁串行化；写入失败的批次加回表中等待下次重试
+ */
+public class CounterDeltaMap {
+
+    /**
+     * 已封存单元的标记值，封存后的单元不再接受增量
+     */
+    private static final long RETIRED = Long.MIN_VALUE;
+
+    /**
+     * 键 -> 尚未取走的增量
+     */
+    private final ConcurrentHashMap<Long, AtomicLong> deltas = new ConcurrentHashMap<>();
+
+    /**
+     * 累加增量
+     *
+     * @param key 对象ID
+     * @param delta 增量，可以为负数
+     */
+    public void add(Long key, long delta) {
+        while (true) {
+            AtomicLong cell = cellOf(key);
+            long value = cell.get();
+            while (value != RETIRED) {
+                if (cell.compareAndSet(value, value + delta)) {
+                    return;
+                }
+                value = cell.get();
+            }
+            // 单元已被封存：协助把它移出表，再写入新单元
+            deltas.remove(key, cell);
+        }
+    }
+
+    /**
+     * 获取尚未取走的增量
+     *
+     * @param key 对象ID
+     * @return 增量
+     */
+    public long pending(Long key) {
+        AtomicLong cell = deltas.get(key);
+        long value = cell == null ? 0 : cell.get();
+        return value == RETIRED ? 0 : value;
+    }
+
+    /**
+     * 有待取走增量（或尚未清理）的对象数
+     *
+     * @return 对象数
+     */
+    public int size() {
+        return deltas.size();
+    }
+
+    /**
+     * 取走全部非零增量
+     *
+     * @param sink 接收 (对象ID, 增量)
+     */
+    public void drain(BiConsumer<Long, Long> sink) {
+        for (Map.Entry<Long, AtomicLong> entry : deltas.entrySet()) {
+            long value = take(entry.getKey(), entry.getValue());
+            if (value != 0) {
+                sink.accept(entry.getKey(), value);
+            }
+        }
+    }
+
+    /**
+     * 取走全部增量并分批写回，失败的批次加回表中等待下次重试
+     *
+     * @param batchSize 每批最多包含的对象数
+     * @param writer 批量写回函数，抛出 RuntimeException 表示该批写入失败
+     * @param onFailure 写入失败时的回调（增量已加回），用于记录日志
+     * @return 写回成功的对象数
+     */
+    public int flush(int batchSize, Consumer<Map<Long, Long>> writer,
+                     BiConsumer<Map<Long, Long>, RuntimeException> onFailure) {
+        int total = 0;
+        Map<Long, Long> batch = new HashMap<>();
+        for (Map.Entry<Long, AtomicLong> entry : deltas.entrySet()) {
+            long value = take(entry.getKey(), entry.getValue());
+            if (value == 0) {
+                continue;
+            }
+            batch.put(entry.getKey(), value);
+            if (batch.size() >= batchSize) {
+                total += writeBatch(batch, writer, onFailure);
+                batch = new HashMap<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            total += writeBatch(batch, writer, onFailure);
+        }
+        return total;
+    }
+
+    /**
+     * 取走一个对象的增量；没有增量的单元封存后从表中移除
+     */
+    private long take(Long key, AtomicLong cell) {
+        long value = cell.get();
+        if (value == RETIRED) {
+            deltas.remove(key, cell);
+            return 0;
+        }
+        if (value != 0) {
+            return cell.getAndSet(0);
+        }
+        // 只有值仍为0时才能封存；封存失败说明刚有增量写入，留到下次取走
+        if (cell.compareAndSet(0, RETIRED)) {
+            deltas.remove(key, cell);
+        }
+        return 0;
+    }
+
+    /**
+     * 执行一批写回，失败时把增量加回表中
+     */
+    private int writeBatch(Map<Long, Long> batch, Consumer<Map<Long, Long>> writer,
+                           BiConsumer<Map<Long, Long>, RuntimeException> onFailure) {
+        try {
+            writer.accept(batch);
+            return batch.size();
+        } catch (RuntimeException e) {
+            for (Map.Entry<Long, Long> entry : batch.entrySet()) {
+                add(entry.getKey(), entry.getValue());
+            }
+            onFailure.accept(batch, e);
+            return 0;
+        }
+    }
+
+    /**
+     * 获取（必要时创建）对象对应的计数单元
+     * 先用 get 走无锁路径，避免热点对象每次都进入 computeIfAbsent 的桶锁
+     */
+    private AtomicLong cellOf(Long key) {
+        AtomicLong cell = deltas.get(key);
+        if (cell == null) {
+            cell = deltas.computeIfAbsent(key, k -> new AtomicLong());
+        }
+        return cell;
+    }
+}
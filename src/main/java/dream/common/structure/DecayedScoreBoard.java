@@ -0,0 +1,394 @@
+package dream.common.structure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+/**
+ * 按时间衰减的热度排行榜
+ * 每个对象的热度 = Σ 事件权重 × 2^(-(当前时间 - 事件时间) / 半衰期)，事件到达时增量更新，按热度从高到低取前K个
+ *
+ * 技术解释：
+ * - 前向衰减：不保存“当前热度”，而是保存以固定时间点（1970-01-01）为基准、放大后的分数
+ *   Σ 权重 × 2^(事件时间 / 半衰期)。所有对象在同一时刻被同一个系数缩小，相对顺序不随时间变化，
+ *   所以只有发生事件的对象需要调整位置，不需要定时给全部对象重新衰减、重新排序
+ * - 放大后的分数会随时间指数增长，因此保存其以2为底的对数，加分、减分用对数域的加减完成，不会溢出
+ * - 有序结构是 ConcurrentSkipListSet（按对数分数降序、对象ID升序），另有 ID -> 条目 的索引；
+ *   条目不可变，更新 = 删除旧条目 + 插入新条目，O(log n)；写操作在一个锁内串行执行，读取不加锁
+ * - 前K个的读取走定时刷新的快照列表，O(1) 返回子列表，快照最多落后一个刷新间隔
+ * - 另外累计每个对象自上次取走以来的分数增量，供调用方把增量合并写入检查点
+ */
+public class DecayedScoreBoard {
+
+    private static final double LN2 = Math.log(2);
+
+    /**
+     * 排序：对数分数降序，相同时按对象ID升序
+     */
+    private static final Comparator<Entry> ORDER = Comparator.comparingDouble(Entry::getLogScore).reversed()
+            .thenComparingLong(Entry::getId);
+
+    /**
+     * 半衰期（毫秒）
+     */
+    private final double halfLifeMs;
+
+    /**
+     * 快照保留的条目数，也是一次能读取的最大K
+     */
+    private final int snapshotSize;
+
+    /**
+     * 按热度排序的条目
+     */
+    private final ConcurrentSkipListSet<Entry> ranking = new ConcurrentSkipListSet<>(ORDER);
+
+    /**
+     * 对象ID -> 当前条目
+     */
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * 对象ID -> 自上次取走以来的分数增量（以 pendingBaseMs 为基准的线性值，可能为负）
+     */
+    private Map<Long, Double> pending = new HashMap<>();
+
+    private long pendingBaseMs;
+
+    /**
+     * 写锁：排行和增量的修改串行执行
+     */
+    private final Object writeLock = new Object();
+
+    private volatile List<Entry> snapshot = Collections.emptyList();
+
+    private volatile boolean changed;
+
+    /**
+     * 构造函数
+     *
+     * @param halfLifeMs 半衰期（毫秒）
+     * @param snapshotSize 快照保留的条目数
+     * @param nowMs 当前时间（毫秒）
+     */
+    public DecayedScoreBoard(long halfLifeMs, int snapshotSize, long nowMs) {
+        if (halfLifeMs <= 0 || snapshotSize <= 0) {
+            throw new IllegalArgumentException("半衰期和快照大小必须大于0");
+        }
+        this.halfLifeMs = halfLifeMs;
+        this.snapshotSize = snapshotSize;
+        this.pendingBaseMs = nowMs;
+    }
+
+    /**
+     * 记录一个事件
+     *
+     * @param id 对象ID
+     * @param weight 事件权重，撤销（如取消点赞）时为负数
+     * @param nowMs 事件时间（毫秒）
+     */
+    public void add(long id, double weight, long nowMs) {
+        if (weight == 0) {
+            return;
+        }
+        double logWeight = nowMs / halfLifeMs + log2(Math.abs(weight));
+        synchronized (writeLock) {
+            apply(id, weight > 0, logWeight);
+            pending.merge(id, weight * Math.pow(2, (nowMs - pendingBaseMs) / halfLifeMs), Double::sum);
+            changed = true;
+        }
+    }
+
+    /**
+     * 移除一个对象（如笔记被删除），同时丢弃它尚未取走的增量
+     *
+     * @param id 对象ID
+     */
+    public void remove(long id) {
+        synchronized (writeLock) {
+            Entry old = entries.remove(id);
+            if (old != null) {
+                ranking.remove(old);
+                changed = true;
+            }
+            pending.remove(id);
+        }
+    }
+
+    /**
+     * 用检查点中的分数替换整个排行，再叠加尚未取走的增量（其中的事件还不在检查点里）
+     *
+     * @param logScores 对象ID -> 对数分数
+     */
+    public void reload(Map<Long, Double> logScores) {
+        synchronized (writeLock) {
+            ranking.clear();
+            entries.clear();
+            for (Map.Entry<Long, Double> score : logScores.entrySet()) {
+                put(score.getKey(), score.getValue());
+            }
+            double base = pendingBaseMs / halfLifeMs;
+            for (Map.Entry<Long, Double> delta : pending.entrySet()) {
+                double value = delta.getValue();
+                if (value != 0) {
+                    apply(delta.getKey(), value > 0, base + log2(Math.abs(value)));
+                }
+            }
+            changed = true;
+        }
+    }
+
+    /**
+     * 取走自上次调用以来的全部分数增量
+     *
+     * @param nowMs 当前时间（毫秒），作为下一轮增量的基准时间
+     * @return 分数增量列表
+     */
+    public List<Delta> drainPending(long nowMs) {
+        Map<Long, Double> drained;
+        long base;
+        synchronized (writeLock) {
+            drained = pending;
+            base = pendingBaseMs;
+            pending = new HashMap<>();
+            pendingBaseMs = nowMs;
+        }
+        List<Delta> deltas = new ArrayList<>(drained.size());
+        for (Map.Entry<Long, Double> delta : drained.entrySet()) {
+            double value = delta.getValue();
+            if (value != 0) {
+                deltas.add(new Delta(delta.getKey(), value > 0, base / halfLifeMs + log2(Math.abs(value))));
+            }
+        }
+        return deltas;
+    }
+
+    /**
+     * 把取走后未能写入的增量放回，等待下次重试
+     *
+     * @param deltas {@link #drainPending(long)} 返回的增量
+     */
+    public void restorePending(List<Delta> deltas) {
+        synchronized (writeLock) {
+            double base = pendingBaseMs / halfLifeMs;
+            for (Delta delta : deltas) {
+                double value = Math.pow(2, delta.logMagnitude - base);
+                pending.merge(delta.id, delta.positive ? value : -value, Double::sum);
+            }
+        }
+    }
+
+    /**
+     * 移除热度低于阈值的条目，并把条目数限制在上限以内（从热度最低的开始移除）
+     *
+     * @param nowMs 当前时间（毫秒）
+     * @param minScore 当前热度的最小值
+     * @param maxEntries 条目数上限
+     * @return 移除的条目数
+     */
+    public int prune(long nowMs, double minScore, int maxEntries) {
+        double minLogScore = minLogScore(nowMs, minScore);
+        int removed = 0;
+        synchronized (writeLock) {
+            while (!ranking.isEmpty()) {
+                Entry last = ranking.last();
+                if (last.logScore >= minLogScore && entries.size() <= maxEntries) {
+                    break;
+                }
+                ranking.remove(last);
+                entries.remove(last.id, last);
+                removed++;
+            }
+            if (removed > 0) {
+                changed = true;
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * 有变化时重建前K个的快照
+     */
+    public void refreshSnapshot() {
+        if (!changed) {
+            return;
+        }
+        changed = false;
+        List<Entry> top = new ArrayList<>(Math.min(snapshotSize, entries.size()));
+        Iterator<Entry> iterator = ranking.iterator();
+        while (iterator.hasNext() && top.size() < snapshotSize) {
+            top.add(iterator.next());
+        }
+        snapshot = Collections.unmodifiableList(top);
+    }
+
+    /**
+     * 获取热度最高的K个条目（来自快照，O(1)）
+     *
+     * @param k 条目数，超过快照大小时按快照大小返回
+     * @return 按热度降序的条目
+     */
+    public List<Entry> top(int k) {
+        List<Entry> current = snapshot;
+        return current.subList(0, Math.min(Math.max(k, 0), current.size()));
+    }
+
+    /**
+     * 计算条目在某一时刻的热度
+     *
+     * @param entry 条目
+     * @param nowMs 时间（毫秒）
+     * @return 热度
+     */
+    public double scoreAt(Entry entry, long nowMs) {
+        return Math.pow(2, entry.logScore - nowMs / halfLifeMs);
+    }
+
+    /**
+     * 热度阈值对应的对数分数
+     *
+     * @param nowMs 时间（毫秒）
+     * @param minScore 热度
+     * @return 对数分数
+     */
+    public double minLogScore(long nowMs, double minScore) {
+        return nowMs / halfLifeMs + log2(minScore);
+    }
+
+    /**
+     * 条目数
+     *
+     * @return 条目数
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * 尚未取走增量的对象数
+     *
+     * @return 对象数
+     */
+    public int pendingSize() {
+        synchronized (writeLock) {
+            return pending.size();
+        }
+    }
+
+    /**
+     * 在对数域加上或减去 2^logWeight，结果不为正时移除条目（只在写锁内调用）
+     */
+    private void apply(long id, boolean positive, double logWeight) {
+        Entry old = entries.get(id);
+        double updated;
+        if (positive) {
+            updated = old == null ? logWeight : logAdd(old.logScore, logWeight);
+        } else {
+            if (old == null) {
+                return;
+            }
+            updated = logSubtract(old.logScore, logWeight);
+        }
+        if (old != null) {
+            ranking.remove(old);
+        }
+        if (Double.isInfinite(updated) || Double.isNaN(updated)) {
+            entries.remove(id);
+            return;
+        }
+        put(id, updated);
+    }
+
+    private void put(long id, double logScore) {
+        Entry entry = new Entry(id, logScore);
+        Entry old = entries.put(id, entry);
+        if (old != null) {
+            ranking.remove(old);
+        }
+        ranking.add(entry);
+    }
+
+    /**
+     * log2(2^a + 2^b)
+     */
+    private static double logAdd(double a, double b) {
+        double max = Math.max(a, b);
+        return max + Math.log1p(Math.pow(2, Math.min(a, b) - max)) / LN2;
+    }
+
+    /**
+     * log2(2^a - 2^b)，结果不为正时返回负无穷
+     */
+    private static double logSubtract(double a, double b) {
+        if (b >= a) {
+            return Double.NEGATIVE_INFINITY;
+        }
+        return a + Math.log1p(-Math.pow(2, b - a)) / LN2;
+    }
+
+    private static double log2(double value) {
+        return Math.log(value) / LN2;
+    }
+
+    /**
+     * 排行条目（不可变）
+     */
+    public static final class Entry {
+
+        private final long id;
+
+        /**
+         * 以1970-01-01为基准的对数分数
+         */
+        private final double logScore;
+
+        private Entry(long id, double logScore) {
+            this.id = id;
+            this.logScore = logScore;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public double getLogScore() {
+            return logScore;
+        }
+    }
+
+    /**
+     * 一个对象的分数增量：符号 + 绝对值的对数（以1970-01-01为基准）
+     */
+    public static final class Delta {
+
+        private final long id;
+
+        private final boolean positive;
+
+        private final double logMagnitude;
+
+        private Delta(long id, boolean positive, double logMagnitude) {
+            this.id = id;
+            this.positive = positive;
+            this.logMagnitude = logMagnitude;
+        }
+
+        public long getId() {
+            return id;
+        }
+
+        public boolean isPositive() {
+            return positive;
+        }
+
+        public double getLogMagnitude() {
+            return logMagnitude;
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package dream.common.structure;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * 线程安全的内存倒排索引，使用 BM25 打分
+ *
+ * 技术解释：
+ * - 词项 -> (文档ID -> 词频) 的倒排表保存在 TreeMap 中，既能精确查找，也能按前缀范围扫描做联想
+ * - 另存一份文档 -> 词项的正排表，更新或删除文档时只需要修改该文档涉及的倒排表
+ * - 词频可以带权重（如标题中的词计3次），文档长度按加权后的词数计算
+ * - 读写锁：多个查询并发执行，索引更新时短暂独占
+ */
+public class InvertedIndex {
+
+    /**
+     * BM25 词频饱和参数
+     */
+    private static final double K1 = 1.2;
+
+    /**
+     * BM25 文档长度归一化参数
+     */
+    private static final double B = 0.75;
+
+    /**
+     * 词项 -> (文档ID -> 词频)
+     */
+    private final TreeMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+
+    /**
+     * 文档ID -> 文档信息
+     */
+    private final Map<Long, Doc> docs = new HashMap<>();
+
+    /**
+     * 所有文档的长度之和
+     */
+    private long totalLength;
+
+    /**
+     * 读写锁
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * 添加或替换文档
+     *
+     * @param docId 文档ID
+     * @param termFrequencies 词项 -> 加权词频
+     */
+    public void put(long docId, Map<String, Integer> termFrequencies) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+            int length = 0;
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), k -> new HashMap<>()).put(docId, entry.getValue());
+                length += entry.getValue();
+            }
+            docs.put(docId, new Doc(termFrequencies.keySet().toArray(new String[0]), length));
+            totalLength += length;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除文档
+     *
+     * @param docId 文档ID
+     */
+    public void remove(long docId) {
+        lock.writeLock().lock();
+        try {
+            removeInternal(docId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 按 BM25 打分检索，任意一个查询词命中即参与排序
+     *
+     * @param terms 查询词项（可重复，重复的词项权重累加）
+     * @param limit 返回条数
+     * @return 按得分从高到低排列的命中结果
+     */
+    public List<Hit> search(List<String> terms, int limit) {
+        if (terms.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        Map<String, Integer> queryTerms = new HashMap<>();
+        for (String term : terms) {
+            queryTerms.merge(term, 1, Integer::sum);
+        }
+
+        lock.readLock().lock();
+        try {
+            int docCount = docs.size();
+            if (docCount == 0) {
+                return Collections.emptyList();
+            }
+            double avgLength = (double) totalLength / docCount;
+            Map<Long, Double> scores = new HashMap<>();
+            for (Map.Entry<String, Integer> query : queryTerms.entrySet()) {
+                Map<Long, Integer> posting = postings.get(query.getKey());
+                if (posting == null) {
+                    continue;
+                }
+                int df = posting.size();
+                double idf = Math.log(1 + (docCount - df + 0.5) / (df + 0.5));
+                for (Map.Entry<Long, Integer> entry : posting.entrySet()) {
+                    int tf = entry.getValue();
+                    double norm = K1 * (1 - B + B * docs.get(entry.getKey()).length / avgLength);
+                    double score = query.getValue() * idf * tf * (K1 + 1) / (tf + norm);
+                    scores.merge(entry.getKey(), score, Double::sum);
+                }
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 前缀联想：返回以指定前缀开头、出现在最多文档中的词项
+     *
+     * @param prefix 前缀（小写）
+     * @param limit 返回条数
+     * @return 词项列表
+     */
+    public List<String> suggest(String prefix, int limit) {
+        if (prefix == null || prefix.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            NavigableMap<String, Map<Long, Integer>> range =
+                    postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false);
+            PriorityQueue<Map.Entry<String, Map<Long, Integer>>> heap =
+                    new PriorityQueue<>(Comparator.comparingInt(e -> e.getValue().size()));
+            for (Map.Entry<String, Map<Long, Integer>> entry : range.entrySet()) {
+                heap.offer(entry);
+                if (heap.size() > limit) {
+                    heap.poll();
+                }
+            }
+            List<String> result = new ArrayList<>(heap.size());
+            while (!heap.isEmpty()) {
+                result.add(heap.poll().getKey());
+            }
+            Collections.reverse(result);
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 文档数
+     *
+     * @return 文档数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return docs.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 词项数
+     *
+     * @return 词项数
+     */
+    public int termCount() {
+        lock.readLock().lock();
+        try {
+            return postings.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void removeInternal(long docId) {
+        Doc doc = docs.remove(docId);
+        if (doc == null) {
+            return;
+        }
+        for (String term : doc.terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            if (posting != null) {
+                posting.remove(docId);
+                if (posting.isEmpty()) {
+                    postings.remove(term);
+                }
+            }
+        }
+        totalLength -= doc.length;
+    }
+
+    private static List<Hit> topK(Map<Long, Double> scores, int limit) {
+        PriorityQueue<Hit> heap = new PriorityQueue<>(Comparator.comparingDouble(Hit::getScore));
+        for (Map.Entry<Long, Double> entry : scores.entrySet()) {
+            heap.offer(new Hit(entry.getKey(), entry.getValue()));
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Hit> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * 正排表中的文档信息
+     */
+    private static final class Doc {
+
+        private final String[] terms;
+        private final int length;
+
+        private Doc(String[] terms, int length) {
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    /**
+     * 检索命中结果
+     */
+    public static final class Hit {
+
+        private final long docId;
+        private final double score;
+
+        public Hit(long docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+
+        public long getDocId() {
+            return docId;
+        }
+
+        public double getScore() {
+            return score;
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package dream.common.structure;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 有界无锁环形缓冲区（多生产者、单消费者）
+ * 每个元素是两个 long，用于在请求线程和后台线程之间传递事件（如访问事件），不为每个事件创建对象
+ *
+ * 技术解释：
+ * - 采用 Vyukov 有界队列算法：每个槽位有一个序号，生产者通过 CAS 抢占写入位置，
+ *   写完数据后发布槽位序号；消费者看到序号后读取数据，再把序号推进一圈表示槽位可以复用
+ * - 缓冲区满时 offer 直接返回 false，由调用方决定丢弃还是降级，请求线程永远不会被阻塞
+ * - 只允许一个线程调用 poll/drain
+ */
+public class LongPairRingBuffer {
+
+    /**
+     * 元素消费者
+     */
+    @FunctionalInterface
+    public interface Consumer {
+
+        /**
+         * 处理一个元素
+         *
+         * @param first 第一个值
+         * @param second 第二个值
+         */
+        void accept(long first, long second);
+    }
+
+    private final int mask;
+
+    private final long[] firsts;
+
+    private final long[] seconds;
+
+    /**
+     * 槽位序号：等于写入位置时可写，等于写入位置+1时可读
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * 下一个写入位置
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * 下一个读取位置，只由消费者线程修改
+     */
+    private volatile long head;
+
+    /**
+     * 构造函数
+     *
+     * @param capacity 容量，向上取整为2的幂
+     */
+    public LongPairRingBuffer(int capacity) {
+        if (capacity <= 0 || capacity > (1 << 30)) {
+            throw new IllegalArgumentException("环形缓冲区容量必须在1到2^30之间: " + capacity);
+        }
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+        this.mask = size - 1;
+        this.firsts = new long[size];
+        this.seconds = new long[size];
+        this.sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; i++) {
+            sequences.set(i, i);
+        }
+    }
+
+    /**
+     * 写入一个元素（任意线程）
+     *
+     * @param first 第一个值
+     * @param second 第二个值
+     * @return 是否写入成功，缓冲区满时返回false
+     */
+    public boolean offer(long first, long second) {
+        while (true) {
+            long position = tail.get();
+            int index = (int) position & mask;
+            long difference = sequences.get(index) - position;
+            if (difference == 0) {
+                if (tail.compareAndSet(position, position + 1)) {
+                    firsts[index] = first;
+                    seconds[index] = second;
+                    sequences.lazySet(index, position + 1);
+                    return true;
+                }
+            } else if (difference < 0) {
+                return false;
+            }
+        }
+    }
+
+    /**
+     * 取出并处理至多 max 个元素（只能由消费者线程调用）
+     * 处理函数抛出异常时，该元素视为已取出，异常向调用方抛出，之后的元素留待下次处理
+     *
+     * @param max 最多处理的个数
+     * @param consumer 处理函数
+     * @return 实际处理的个数
+     */
+    public int drain(int max, Consumer consumer) {
+        long position = head;
+        int count = 0;
+        try {
+            while (count < max) {
+                int index = (int) position & mask;
+                if (sequences.get(index) != position + 1) {
+                    break;
+                }
+                long first = firsts[index];
+                long second = seconds[index];
+                sequences.lazySet(index, position + mask + 1);
+                position++;
+                count++;
+                consumer.accept(first, second);
+            }
+        } finally {
+            // 槽位已经释放，读取位置必须同步推进，否则下次从已释放的槽位开始读，缓冲区永久停滞
+            head = position;
+        }
+        return count;
+    }
+
+    /**
+     * 当前的元素个数（近似值）
+     *
+     * @return 元素个数
+     */
+    public int size() {
+        return (int) Math.max(0, tail.get() - head);
+    }
+
+    /**
+     * 容量
+     *
+     * @return 容量
+     */
+    public int capacity() {
+        return mask + 1;
+    }
+}
@@ -0,0 +1,142 @@
+package dream.common.structure;
+
+import java.util.Arrays;
+
+/**
+ * 有序 long 数组工具类
+ * 用于以原始类型数组保存的倒排列表（如标签 -> 笔记ID），比 Set&lt;Long&gt; 节省约 80% 内存
+ *
+ * 技术解释：
+ * - 数组始终升序且无重复，查找用二分法，求交/求并用归并，都是线性或对数复杂度
+ * - 所有修改都返回新数组（写时复制），旧数组可以被并发读取而不需要加锁
+ */
+public final class SortedLongArrays {
+
+    /**
+     * 空数组
+     */
+    public static final long[] EMPTY = new long[0];
+
+    private SortedLongArrays() {
+    }
+
+    /**
+     * 插入一个值
+     *
+     * @param array 有序数组
+     * @param value 要插入的值
+     * @return 新数组；值已存在时返回原数组
+     */
+    public static long[] insert(long[] array, long value) {
+        int index = Arrays.binarySearch(array, value);
+        if (index >= 0) {
+            return array;
+        }
+        int position = -index - 1;
+        long[] result = new long[array.length + 1];
+        System.arraycopy(array, 0, result, 0, position);
+        result[position] = value;
+        System.arraycopy(array, position, result, position + 1, array.length - position);
+        return result;
+    }
+
+    /**
+     * 删除一个值
+     *
+     * @param array 有序数组
+     * @param value 要删除的值
+     * @return 新数组；值不存在时返回原数组
+     */
+    public static long[] remove(long[] array, long value) {
+        int index = Arrays.binarySearch(array, value);
+        if (index < 0) {
+            return array;
+        }
+        long[] result = new long[array.length - 1];
+        System.arraycopy(array, 0, result, 0, index);
+        System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+        return result;
+    }
+
+    /**
+     * 判断是否包含某个值
+     *
+     * @param array 有序数组
+     * @param value 值
+     * @return 是否包含
+     */
+    public static boolean contains(long[] array, long value) {
+        return Arrays.binarySearch(array, value) >= 0;
+    }
+
+    /**
+     * 求交集
+     *
+     * @param a 有序数组
+     * @param b 有序数组
+     * @return 交集（有序）
+     */
+    public static long[] intersect(long[] a, long[] b) {
+        long[] result = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /**
+     * 求并集
+     *
+     * @param a 有序数组
+     * @param b 有序数组
+     * @return 并集（有序，无重复）
+     */
+    public static long[] union(long[] a, long[] b) {
+        long[] result = new long[a.length + b.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            if (j >= b.length || (i < a.length && a[i] < b[j])) {
+                result[n++] = a[i++];
+            } else if (i >= a.length || b[j] < a[i]) {
+                result[n++] = b[j++];
+            } else {
+                result[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return n == result.length ? result : Arrays.copyOf(result, n);
+    }
+
+    /**
+     * 从大到小取出小于上界的若干个值
+     *
+     * @param array 有序数组
+     * @param upperBound 上界（不包含），传 Long.MAX_VALUE 表示不限
+     * @param limit 最多取出的个数
+     * @return 降序排列的值
+     */
+    public static long[] descendingBefore(long[] array, long upperBound, int limit) {
+        int index = Arrays.binarySearch(array, upperBound);
+        int end = index >= 0 ? index : -index - 1;
+        int count = Math.min(limit, end);
+        long[] result = new long[count];
+        for (int k = 0; k < count; k++) {
+            result[k] = array[end - 1 - k];
+        }
+        return result;
+    }
+}
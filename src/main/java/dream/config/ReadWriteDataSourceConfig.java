@@ -0,0 +1,104 @@
+package dream.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import dream.datasource.ReadWriteRoutingDataSource;
+import dream.datasource.ReplicaHealth;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * 读写分离数据源配置
+ * 配置了 dream.datasource.replica.url 时生效，否则仍使用 Spring Boot 自动配置的单一数据源
+ *
+ * 这个配置类的作用：
+ * 1. 主库连接池沿用 spring.datasource.* 配置
+ * 2. 从库连接池使用 dream.datasource.replica.* 配置（连接池参数在 dream.datasource.replica.hikari.* 下）
+ * 3. 应用使用的数据源为 LazyConnectionDataSourceProxy 包装的路由数据源，只读事务走从库
+ *
+ * 技术解释：
+ * - 从库连接超时较短，从库故障时能很快改走主库
+ * - 从库复制延迟和可用状态以 dream.datasource.replica.lag / dream.datasource.replica.available 指标暴露
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "dream.datasource.replica", name = "url")
+public class ReadWriteDataSourceConfig {
+
+    /**
+     * 主库连接池
+     *
+     * @param properties spring.datasource.* 配置
+     * @return 主库连接池
+     */
+    @Bean(destroyMethod = "close")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * 从库连接池
+     * 不注册为 DataSourceProperties Bean，避免与自动配置的主库配置冲突
+     *
+     * @param environment 配置环境
+     * @return 从库连接池
+     */
+    @Bean(destroyMethod = "close")
+    public HikariDataSource replicaDataSource(Environment environment) throws Exception {
+        Binder binder = Binder.get(environment);
+        DataSourceProperties properties = binder.bind("dream.datasource.replica", DataSourceProperties.class).get();
+        properties.setBeanClassLoader(getClass().getClassLoader());
+        properties.afterPropertiesSet();
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("replica");
+        dataSource.setConnectionTimeout(1000);
+        binder.bind("dream.datasource.replica.hikari", Bindable.ofInstance(dataSource));
+        return dataSource;
+    }
+
+    /**
+     * 从库可用性与复制延迟
+     */
+    @Bean
+    public ReplicaHealth replicaHealth(HikariDataSource replicaDataSource, MeterRegistry meterRegistry,
+                                       @Value("${dream.datasource.replica.lag-query:}") String lagQuery,
+                                       @Value("${dream.datasource.replica.max-lag-ms:1000}") long maxLagMs,
+                                       @Value("${dream.datasource.replica.retry-interval-ms:5000}") long retryIntervalMs) {
+        ReplicaHealth health = new ReplicaHealth(replicaDataSource, lagQuery, maxLagMs, retryIntervalMs);
+        Gauge.builder("dream.datasource.replica.lag", health, ReplicaHealth::getLagMs)
+                .description("从库复制延迟，-1 表示未知")
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+        Gauge.builder("dream.datasource.replica.available", health, h -> h.isAvailable() ? 1 : 0)
+                .description("只读查询当前是否走从库")
+                .register(meterRegistry);
+        return health;
+    }
+
+    /**
+     * 应用使用的数据源
+     * 事务开始时不立即获取连接，执行第一条SQL时才按事务是否只读选择主库或从库
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(HikariDataSource primaryDataSource, HikariDataSource replicaDataSource,
+                                 ReplicaHealth replicaHealth) {
+        ReadWriteRoutingDataSource routing = new ReadWriteRoutingDataSource(primaryDataSource, replicaDataSource, replicaHealth);
+        routing.afterPropertiesSet();
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+}
@@ -1,12 +1,21 @@
 package dream.config;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dream.manager.RateLimitManager;
+import dream.manager.TokenManager;
+import dream.security.JwtAuthenticationFilter;
+import dream.security.RateLimitFilter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 
 /**
  * Spring Security安全配置类
@@ -15,6 +24,8 @@ import org.springframework.security.crypto.password.PasswordEncoder;
  * 1. 配置Spring Security的安全策略
  * 2. 提供密码加密器Bean供其他组件使用
  * 3. 暂时禁用Spring Security的默认安全机制，方便开发测试
+ * 4. 注册登录令牌（JWT）认证过滤器，不使用服务端会话
+ * 5. 注册限流过滤器，按 dream.ratelimit.policies 限制登录、注册、点赞等接口的请求频率
  * 
  * 技术解释：
  * - @Configuration：标记这是一个配置类，Spring会在启动时加载
@@ -26,6 +37,15 @@ import org.springframework.security.crypto.password.PasswordEncoder;
 @EnableWebSecurity
 public class SecurityConfig extends WebSecurityConfigurerAdapter {
     
+    @Autowired
+    private TokenManager tokenManager;
+    
+    @Autowired
+    private RateLimitManager rateLimitManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
     /**
      * 密码加密器Bean
      * 
@@ -34,12 +54,14 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
      * - BCrypt是一种慢哈希函数，专门设计用于密码加密
      * - 它会自动加盐(salt)，每次加密同样的密码都会产生不同的结果
      * - 这样可以防止彩虹表攻击和暴力破解
+     * - 强度（cost）由 dream.password.bcrypt-strength 配置，每加1计算耗时翻倍
      * 
+     * @param strength BCrypt强度（4-31）
      * @return BCryptPasswordEncoder实例
      */
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${dream.password.bcrypt-strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
     
     /**
@@ -48,6 +70,9 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
      * 技术解释：
      * - 这个方法配置了哪些URL需要认证，哪些可以匿名访问
      * - 目前为了开发方便，我们暂时禁用了所有安全检查
+     * - 携带登录令牌的请求由 JwtAuthenticationFilter 认证，控制器可从 SecurityContext 取得当前用户ID
+     * - 会话策略为 STATELESS：不创建 HttpSession，每个请求都只靠令牌认证
+     * - 限流过滤器在令牌认证之后执行，按用户限流的策略可以取到当前用户ID
      * - 在生产环境中，需要根据实际需求配置具体的安全策略
      * 
      * @param http HttpSecurity配置对象
@@ -70,6 +95,18 @@ public class SecurityConfig extends WebSecurityConfigurerAdapter {
             .httpBasic().disable()
             
             // 禁用表单登录
-            .formLogin().disable();
+            .formLogin().disable()
+            
+            // 无状态：不创建也不使用HttpSession
+            .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS)
+            .and()
+            
+            // 登录令牌认证
+            .addFilterBefore(new JwtAuthenticationFilter(tokenManager, objectMapper),
+                    UsernamePasswordAuthenticationFilter.class)
+            
+            // 限流
+            .addFilterAfter(new RateLimitFilter(rateLimitManager, objectMapper),
+                    JwtAuthenticationFilter.class);
     }
 }
\ No newline at end of file
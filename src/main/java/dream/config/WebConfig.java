@@ -0,0 +1,75 @@
+package dream.config;
+
+import dream.datasource.ReadYourWritesInterceptor;
+import dream.interceptor.SqlBudgetInterceptor;
+import dream.manager.BlobStoreManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.nio.file.Paths;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Web MVC配置类
+ *
+ * 这个配置类的作用：
+ * 1. 把内容寻址存储中的文件（头像、封面、壁纸及其缩略图）映射为静态资源 /files/blobs/**
+ * 2. 为 /api/** 接口注册请求级SQL预算检查
+ * 3. 配置了从库时为 /api/** 接口注册读己之写检查（用户刚写入过数据时只读查询走主库）
+ *
+ * 技术解释：
+ * - 文件按内容的 SHA-256 命名，同一URL的内容永远不会改变，
+ *   因此可以让浏览器和CDN长期缓存（一年），再次访问不会重复下载
+ */
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+
+    /**
+     * 文件存储目录
+     */
+    @Value("${dream.blob.storage-dir:./data/blobs}")
+    private String storageDir;
+
+    @Autowired
+    private SqlBudgetInterceptor sqlBudgetInterceptor;
+
+    /**
+     * 未配置从库时不存在
+     */
+    @Autowired(required = false)
+    private ReadYourWritesInterceptor readYourWritesInterceptor;
+
+    /**
+     * 注册静态资源映射
+     *
+     * @param registry 资源处理器注册表
+     */
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        String location = Paths.get(storageDir).toAbsolutePath().normalize().toUri().toString();
+        if (!location.endsWith("/")) {
+            location = location + "/";
+        }
+        registry.addResourceHandler(BlobStoreManager.URL_PREFIX + "**")
+                .addResourceLocations(location)
+                .setCacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic());
+    }
+
+    /**
+     * 注册拦截器
+     *
+     * @param registry 拦截器注册表
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(sqlBudgetInterceptor).addPathPatterns("/api/**");
+        if (readYourWritesInterceptor != null) {
+            registry.addInterceptor(readYourWritesInterceptor).addPathPatterns("/api/**");
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dream.controller;
+
+import dream.common.Result;
+import dream.dto.UploadedImage;
+import dream.manager.BlobStoreManager;
+import dream.manager.ImageUploadManager;
+import dream.security.CurrentUser;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+
+/**
+ * 文件控制器
+ * 提供图片上传的REST API接口，上传后的URL用于头像、笔记封面等字段
+ */
+@RestController
+@RequestMapping("/api/files")  // 所有接口的基础路径
+@CrossOrigin(origins = "*")  // 允许跨域请求，方便前端调用
+public class FileController {
+
+    @Autowired
+    private ImageUploadManager imageUploadManager;
+
+    @Autowired
+    private BlobStoreManager blobStoreManager;
+
+    /**
+     * 上传图片接口
+     * POST /api/files/images (multipart/form-data)
+     * 相同内容的图片只保存一份，返回相同的URL；需要登录，按用户限流（image-upload 策略）
+     * @param file 图片文件（JPEG、PNG、GIF、BMP）
+     * @return 图片URL、SHA-256、大小和宽高
+     * @throws IOException 读取上传文件失败
+     */
+    @PostMapping(value = "/images", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<UploadedImage> uploadImage(@RequestParam("file") MultipartFile file) throws IOException {
+        CurrentUser.requireId();
+        try (InputStream in = file.getInputStream()) {
+            return Result.success("图片上传成功", imageUploadManager.upload(in));
+        }
+    }
+
+    /**
+     * 文件存储统计接口
+     * GET /api/files/stats
+     * @return 新保存的文件数、重复上传数和节省的字节数
+     */
+    @GetMapping("/stats")
+    public Result<Map<String, Object>> getStorageStats() {
+        return Result.success(blobStoreManager.getStats());
+    }
+}
@@ -0,0 +1,309 @@
+package dream.controller;
+
+import dream.common.CursorPage;
+import dream.common.Result;
+import dream.dto.NoteSummary;
+import dream.dto.RenderedNote;
+import dream.entity.Note;
+import dream.manager.HotRankManager;
+import dream.manager.LikeManager;
+import dream.manager.NoteRenderManager;
+import dream.manager.NoteSearchManager;
+import dream.security.CurrentUser;
+import dream.service.INoteService;
+import dream.service.ITagService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.validation.Valid;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 笔记控制器
+ * 提供笔记相关的REST API接口
+ * 包括首页信息流、笔记详情、创建、编辑、发布、删除等功能
+ */
+@RestController
+@RequestMapping("/api/notes")  // 所有接口的基础路径
+@CrossOrigin(origins = "*")  // 允许跨域请求，方便前端调用
+public class NoteController {
+    
+    @Autowired
+    private INoteService noteService;
+    
+    @Autowired
+    private ITagService tagService;
+    
+    @Autowired
+    private NoteRenderManager noteRenderManager;
+    
+    @Autowired
+    private NoteSearchManager noteSearchManager;
+    
+    @Autowired
+    private LikeManager likeManager;
+    
+    @Autowired
+    private HotRankManager hotRankManager;
+    
+    /**
+     * 首页信息流接口
+     * GET /api/notes/feed?cursor=xxx&size=10
+     * @param cursor 上一页返回的游标，首页不传
+     * @param size 每页条数（1-50）
+     * @return 当前页笔记列表（不含正文）和下一页游标
+     */
+    @GetMapping("/feed")
+    public Result<CursorPage<NoteSummary>> getHomeFeed(@RequestParam(required = false) String cursor,
+                                                       @RequestParam(defaultValue = "10") int size) {
+        return Result.success(noteService.getHomeFeed(cursor, size));
+    }
+    
+    /**
+     * 热门笔记接口（按时间衰减的浏览、点赞热度排序）
+     * GET /api/notes/hot?size=10
+     * @param size 返回条数（1-50）
+     * @return 按热度降序的笔记列表（不含正文）
+     */
+    @GetMapping("/hot")
+    public Result<List<NoteSummary>> getHotNotes(@RequestParam(defaultValue = "10") int size) {
+        return Result.success(noteService.getHotNotes(size));
+    }
+    
+    /**
+     * 热度排行统计接口（笔记和壁纸）
+     * GET /api/notes/hot/stats
+     * @return 半衰期、排行中的对象数、待写入检查点的对象数
+     */
+    @GetMapping("/hot/stats")
+    public Result<Map<String, Object>> getHotRankStats() {
+        return Result.success(hotRankManager.getStats());
+    }
+    
+    /**
+     * 笔记全文检索接口
+     * GET /api/notes/search?q=xxx&size=10
+     * @param q 查询文本
+     * @param size 返回条数（1-50）
+     * @return 按相关度排序的笔记列表（不含正文）
+     */
+    @GetMapping("/search")
+    public Result<List<NoteSummary>> searchNotes(@RequestParam String q,
+                                                 @RequestParam(defaultValue = "10") int size) {
+        return Result.success(noteService.searchNotes(q, size));
+    }
+    
+    /**
+     * 检索词前缀联想接口
+     * GET /api/notes/search/suggest?prefix=xxx&size=8
+     * @param prefix 前缀
+     * @param size 返回条数（1-20）
+     * @return 联想词列表
+     */
+    @GetMapping("/search/suggest")
+    public Result<List<String>> suggestSearchTerms(@RequestParam String prefix,
+                                                   @RequestParam(defaultValue = "8") int size) {
+        return Result.success(noteService.suggestSearchTerms(prefix, size));
+    }
+    
+    /**
+     * 检索索引统计接口
+     * GET /api/notes/search/stats
+     * @return 索引中的笔记数、词项数和上次重建时间
+     */
+    @GetMapping("/search/stats")
+    public Result<Map<String, Object>> getSearchStats() {
+        return Result.success(noteSearchManager.getStats());
+    }
+    
+    /**
+     * 获取笔记详情接口（草稿只有作者本人可见）
+     * GET /api/notes/{id}
+     * @param id 笔记ID
+     * @return 笔记详情
+     */
+    @GetMapping("/{id}")
+    public Result<Note> getNoteById(@PathVariable Long id) {
+        return Result.success(noteService.getNoteDetail(id, CurrentUser.getId()));
+    }
+    
+    /**
+     * 获取笔记渲染后的HTML接口
+     * GET /api/notes/{id}/html
+     * 响应带强ETag，客户端携带 If-None-Match 再次请求时：
+     * - 版本未变化：只查询正文哈希，返回304
+     * - 版本已变化或首次访问：优先使用服务端渲染缓存，未命中才读取正文并渲染
+     * @param id 笔记ID
+     * @param request 当前请求，用于条件请求判断
+     * @return 渲染后的HTML片段
+     */
+    @GetMapping(value = "/{id}/html", produces = MediaType.TEXT_HTML_VALUE)
+    public ResponseEntity<String> getNoteHtml(@PathVariable Long id, WebRequest request) {
+        String version = noteService.getNoteVersion(id);
+        if (request.checkNotModified(noteRenderManager.etagOf(id, version))) {
+            return null;
+        }
+        
+        RenderedNote rendered = noteService.getRenderedNote(id, version);
+        return ResponseEntity.ok()
+                .eTag(rendered.getEtag())
+                .cacheControl(CacheControl.noCache())
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8))
+                .body(rendered.getHtml());
+    }
+    
+    /**
+     * 笔记渲染缓存统计接口
+     * GET /api/notes/render/stats
+     * @return 渲染缓存的大小、命中/未命中/淘汰次数
+     */
+    @GetMapping("/render/stats")
+    public Result<Map<String, Object>> getRenderStats() {
+        return Result.success(noteRenderManager.getStats());
+    }
+    
+    /**
+     * 点赞集合统计接口（笔记和用户主页）
+     * GET /api/notes/like/stats
+     * @return 被点赞对象数、点赞关系数
+     */
+    @GetMapping("/like/stats")
+    public Result<Map<String, Object>> getLikeStats() {
+        return Result.success(likeManager.getStats());
+    }
+    
+    /**
+     * 创建笔记接口（需要登录，作者为当前用户）
+     * POST /api/notes
+     * @param note 笔记信息
+     * @return 创建结果
+     */
+    @PostMapping
+    public Result<Note> createNote(@Valid @RequestBody Note note) {
+        return Result.success("笔记创建成功", noteService.createNote(CurrentUser.requireId(), note));
+    }
+    
+    /**
+     * 更新笔记接口（需要登录，只能修改自己的笔记）
+     * PUT /api/notes/{id}
+     * @param id 笔记ID
+     * @param note 更新的笔记信息
+     * @return 更新结果
+     */
+    @PutMapping("/{id}")
+    public Result<Note> updateNote(@PathVariable Long id, @RequestBody Note note) {
+        return Result.success("笔记更新成功", noteService.updateNote(CurrentUser.requireId(), id, note));
+    }
+    
+    /**
+     * 发布笔记接口（需要登录，只能发布自己的笔记）
+     * PUT /api/notes/{id}/publish
+     * @param id 笔记ID
+     * @return 发布结果
+     */
+    @PutMapping("/{id}/publish")
+    public Result<Note> publishNote(@PathVariable Long id) {
+        return Result.success("笔记发布成功", noteService.publishNote(CurrentUser.requireId(), id));
+    }
+    
+    /**
+     * 设置笔记标签接口（整体替换，需要登录，只能修改自己的笔记）
+     * PUT /api/notes/{id}/tags
+     * @param id 笔记ID
+     * @param tagIds 标签ID列表，空列表表示清空
+     * @return 操作结果
+     */
+    @PutMapping("/{id}/tags")
+    public Result<String> setNoteTags(@PathVariable Long id, @RequestBody List<Long> tagIds) {
+        tagService.setNoteTags(CurrentUser.requireId(), id, tagIds);
+        
+        return Result.success("笔记标签已更新");
+    }
+    
+    /**
+     * 删除笔记接口（需要登录，只能删除自己的笔记）
+     * DELETE /api/notes/{id}
+     * @param id 笔记ID
+     * @return 删除结果
+     */
+    @DeleteMapping("/{id}")
+    public Result<String> deleteNote(@PathVariable Long id) {
+        noteService.deleteNote(CurrentUser.requireId(), id);
+        
+        return Result.success("笔记已删除");
+    }
+    
+    /**
+     * 记录笔记浏览接口（爬虫访问不计入）
+     * POST /api/notes/{id}/view
+     * @param id 笔记ID
+     * @param request HTTP请求，用于识别匿名访客（IP + User-Agent）
+     * @return 是否计入了浏览次数
+     */
+    @PostMapping("/{id}/view")
+    public Result<Boolean> recordView(@PathVariable Long id, HttpServletRequest request) {
+        boolean counted = noteService.recordView(id, CurrentUser.getId(),
+                request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
+        
+        return Result.success(counted ? "浏览已记录" : "浏览未计入", counted);
+    }
+    
+    /**
+     * 笔记浏览统计接口
+     * GET /api/notes/{id}/views?days=7
+     * @param id 笔记ID
+     * @param days 独立访客统计最近几天（含今天，最多90天）
+     * @return 浏览次数、今天和区间内的独立访客数、每天的独立访客数
+     */
+    @GetMapping("/{id}/views")
+    public Result<Map<String, Object>> getViewStats(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "7") int days) {
+        return Result.success(noteService.getViewStats(id, days));
+    }
+    
+    /**
+     * 点赞笔记接口（需要登录，重复点赞不会重复计数）
+     * POST /api/notes/{id}/like
+     * @param id 笔记ID
+     * @return 是否新增了点赞
+     */
+    @PostMapping("/{id}/like")
+    public Result<Boolean> likeNote(@PathVariable Long id) {
+        boolean changed = noteService.likeNote(CurrentUser.requireId(), id);
+        
+        return Result.success(changed ? "点赞成功" : "已经点过赞", changed);
+    }
+    
+    /**
+     * 取消点赞笔记接口（需要登录）
+     * DELETE /api/notes/{id}/like
+     * @param id 笔记ID
+     * @return 是否取消了点赞
+     */
+    @DeleteMapping("/{id}/like")
+    public Result<Boolean> unlikeNote(@PathVariable Long id) {
+        boolean changed = noteService.unlikeNote(CurrentUser.requireId(), id);
+        
+        return Result.success(changed ? "取消点赞成功" : "尚未点赞", changed);
+    }
+    
+    /**
+     * 查询当前用户是否点赞过笔记（只查内存，不访问数据库）
+     * GET /api/notes/{id}/like
+     * @param id 笔记ID
+     * @return 是否点赞过，未登录时为false
+     */
+    @GetMapping("/{id}/like")
+    public Result<Boolean> hasLikedNote(@PathVariable Long id) {
+        Long currentUserId = CurrentUser.getId();
+        return Result.success(currentUserId != null && noteService.hasLikedNote(currentUserId, id));
+    }
+}
@@ -0,0 +1,81 @@
+package dream.controller;
+
+import dream.common.CursorPage;
+import dream.common.Result;
+import dream.dto.NoteSummary;
+import dream.entity.Tag;
+import dream.manager.TagIndexManager;
+import dream.service.ITagService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 标签控制器
+ * 提供标签相关的REST API接口
+ * 包括标签云、按标签筛选笔记、创建标签等功能
+ */
+@RestController
+@RequestMapping("/api/tags")  // 所有接口的基础路径
+@CrossOrigin(origins = "*")  // 允许跨域请求，方便前端调用
+public class TagController {
+
+    @Autowired
+    private ITagService tagService;
+
+    @Autowired
+    private TagIndexManager tagIndexManager;
+
+    /**
+     * 标签云接口
+     * GET /api/tags/cloud?size=50
+     * @param size 返回条数（1-200）
+     * @return 按已发布笔记数倒序的标签列表
+     */
+    @GetMapping("/cloud")
+    public Result<List<Tag>> getTagCloud(@RequestParam(defaultValue = "50") int size) {
+        return Result.success(tagService.getTagCloud(size));
+    }
+
+    /**
+     * 按标签筛选笔记接口
+     * GET /api/tags/notes?tagIds=1,2&mode=and&cursor=xxx&size=10
+     * @param tagIds 标签ID列表
+     * @param mode and-同时包含所有标签，or-包含任意一个标签
+     * @param cursor 上一页返回的游标，首页不传
+     * @param size 每页条数（1-50）
+     * @return 当前页笔记列表（不含正文）和下一页游标
+     */
+    @GetMapping("/notes")
+    public Result<CursorPage<NoteSummary>> findNotesByTags(@RequestParam List<Long> tagIds,
+                                                           @RequestParam(defaultValue = "and") String mode,
+                                                           @RequestParam(required = false) String cursor,
+                                                           @RequestParam(defaultValue = "10") int size) {
+        boolean matchAll = !"or".equalsIgnoreCase(mode);
+        return Result.success(tagService.findNotesByTags(tagIds, matchAll, cursor, size));
+    }
+
+    /**
+     * 标签索引统计接口
+     * GET /api/tags/stats
+     * @return 标签数、已发布笔记数、倒排条目数和待校准标签数
+     */
+    @GetMapping("/stats")
+    public Result<Map<String, Object>> getTagStats() {
+        return Result.success(tagIndexManager.getStats());
+    }
+
+    /**
+     * 创建标签接口
+     * POST /api/tags
+     * @param tag 标签信息
+     * @return 创建结果
+     */
+    @PostMapping
+    public Result<Tag> createTag(@Valid @RequestBody Tag tag) {
+        return Result.success("标签创建成功", tagService.createTag(tag));
+    }
+}
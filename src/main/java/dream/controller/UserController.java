@@ -1,15 +1,45 @@
 package dream.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dream.common.CsvUtils;
+import dream.common.CursorPage;
 import dream.common.Result;
+import dream.common.UserImportReader;
+import dream.dto.LoginResult;
+import dream.dto.UserImportResult;
+import dream.dto.UserSummary;
 import dream.entity.User;
+import dream.exception.ErrorCode;
+import dream.exception.business.UserException;
+import dream.manager.PasswordHashManager;
+import dream.manager.RateLimitManager;
+import dream.manager.UserAvailabilityManager;
+import dream.manager.UserCacheManager;
+import dream.manager.ViewEventManager;
+import dream.security.CurrentUser;
 import dream.service.IUserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * 用户控制器
@@ -21,9 +51,44 @@ import java.util.Optional;
 @CrossOrigin(origins = "*")  // 允许跨域请求，方便前端调用
 public class UserController {
     
+    /**
+     * CSV 媒体类型
+     */
+    private static final String TEXT_CSV_VALUE = "text/csv";
+    
     @Autowired
     private IUserService userService;
     
+    @Autowired
+    private UserCacheManager userCacheManager;
+    
+    @Autowired
+    private UserAvailabilityManager userAvailabilityManager;
+    
+    @Autowired
+    private PasswordHashManager passwordHashManager;
+    
+    @Autowired
+    private RateLimitManager rateLimitManager;
+    
+    @Autowired
+    private ViewEventManager viewEventManager;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    /**
+     * 是否开放批量导入接口
+     */
+    @Value("${dream.user.import.enabled:false}")
+    private boolean importEnabled;
+    
+    /**
+     * 允许批量导入的用户ID（管理员）
+     */
+    @Value("${dream.user.import.admin-ids:}")
+    private Set<Long> importAdminIds;
+    
     /**
      * 用户注册接口
      * POST /api/users/register
@@ -43,18 +108,18 @@ public class UserController {
      * 用户登录接口
      * POST /api/users/login
      * @param loginRequest 登录请求（包含用户名和密码）
-     * @return 登录结果
+     * @return 登录令牌（后续请求放在 Authorization: Bearer 请求头中）和用户信息
      */
     @PostMapping("/login")
-    public Result<User> login(@Valid @RequestBody Map<String, String> loginRequest) {
+    public Result<LoginResult> login(@Valid @RequestBody Map<String, String> loginRequest) {
         String username = loginRequest.get("username");
         String password = loginRequest.get("password");
         
-        User user = userService.loginUser(username, password);
+        LoginResult result = userService.loginUser(username, password);
         // 不返回密码信息
-        user.setPasswordHash(null);
+        result.getUser().setPasswordHash(null);
         
-        return Result.success("登录成功", user);
+        return Result.success("登录成功", result);
     }
     
     /**
@@ -65,7 +130,7 @@ public class UserController {
      */
     @GetMapping("/{id}")
     public Result<User> getUserById(@PathVariable Long id) {
-        User user = userService.getById(id);
+        User user = userService.getUserById(id);
         if (user == null) {
             return Result.error("U001", "用户不存在");
         }
@@ -110,6 +175,113 @@ public class UserController {
         return Result.success(users);
     }
     
+    /**
+     * 游标分页获取激活用户接口
+     * GET /api/users/active/page?cursor=xxx&size=20
+     * @param cursor 上一页返回的游标，首页不传
+     * @param size 每页条数（1-100）
+     * @return 当前页用户列表和下一页游标
+     */
+    @GetMapping("/active/page")
+    public Result<CursorPage<UserSummary>> getActiveUsersPage(@RequestParam(required = false) String cursor,
+                                                              @RequestParam(defaultValue = "20") int size) {
+        return Result.success(userService.getActiveUsersPage(cursor, size));
+    }
+    
+    /**
+     * 导出全部激活用户接口（NDJSON，每行一个用户）
+     * GET /api/users/active/export
+     * 边查询边输出，内存占用与用户总数无关
+     * @return 流式响应
+     */
+    @GetMapping(value = "/active/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportActiveUsers() {
+        StreamingResponseBody body = out -> userService.exportActiveUsers(user -> {
+            try {
+                out.write(objectMapper.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+    
+    /**
+     * 导出全部激活用户接口（CSV，第一行为表头）
+     * GET /api/users/active/export（请求头 Accept: text/csv）
+     * 边查询边输出，内存占用与用户总数无关；不包含密码，列名与导入接口相同
+     * @return 流式响应
+     */
+    @GetMapping(value = "/active/export", produces = TEXT_CSV_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportActiveUsersCsv() {
+        StreamingResponseBody body = out -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            writer.write(CsvUtils.formatLine("id", "username", "email", "nickname", "avatarUrl", "githubUrl",
+                    "twitterUrl", "websiteUrl", "noteCount", "viewCount", "likeCount", "createdAt"));
+            writer.write('\n');
+            userService.exportActiveUsers(user -> {
+                try {
+                    writer.write(CsvUtils.formatLine(user.getId(), user.getUsername(), user.getEmail(),
+                            user.getNickname(), user.getAvatarUrl(), user.getGithubUrl(), user.getTwitterUrl(),
+                            user.getWebsiteUrl(), user.getNoteCount(), user.getViewCount(), user.getLikeCount(),
+                            user.getCreatedAt()));
+                    writer.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=users.csv")
+                .body(body);
+    }
+    
+    /**
+     * 批量导入用户接口（CSV）
+     * POST /api/users/import (Content-Type: text/csv)
+     * 第一行为表头，必须包含 username、email、password 列，可选 nickname、avatarUrl、bio、githubUrl、twitterUrl、websiteUrl
+     * 需要登录，且 dream.user.import.enabled 开启、当前用户在 dream.user.import.admin-ids 中
+     * @param request 当前请求，请求体逐行读取
+     * @return 导入结果，失败的行连同行号和原因逐条列出
+     * @throws IOException 读取请求体失败
+     */
+    @PostMapping(value = "/import", consumes = TEXT_CSV_VALUE)
+    public Result<UserImportResult> importUsersCsv(HttpServletRequest request) throws IOException {
+        requireImportPermission();
+        return Result.success(userService.importUsers(UserImportReader.csv(bodyReader(request))));
+    }
+    
+    /**
+     * 批量导入用户接口（NDJSON）
+     * POST /api/users/import (Content-Type: application/x-ndjson)
+     * 每行一个 JSON 对象，字段与 CSV 的列名相同；权限要求同 CSV 导入
+     * @param request 当前请求，请求体逐行读取
+     * @return 导入结果，失败的行连同行号和原因逐条列出
+     * @throws IOException 读取请求体失败
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public Result<UserImportResult> importUsersNdjson(HttpServletRequest request) throws IOException {
+        requireImportPermission();
+        return Result.success(userService.importUsers(UserImportReader.ndjson(bodyReader(request), objectMapper)));
+    }
+    
+    /**
+     * 检查批量导入权限：未登录返回401，未开放或不是管理员返回403
+     */
+    private void requireImportPermission() {
+        Long userId = CurrentUser.requireId();
+        if (!importEnabled || !importAdminIds.contains(userId)) {
+            throw UserException.of(ErrorCode.FORBIDDEN, "没有批量导入用户的权限");
+        }
+    }
+    
+    private static BufferedReader bodyReader(HttpServletRequest request) throws IOException {
+        return new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8));
+    }
+    
     /**
      * 更新用户信息接口
      * PUT /api/users/{id}
@@ -173,42 +345,69 @@ public class UserController {
     }
     
     /**
-     * 增加用户访问量接口
+     * 记录用户主页访问接口（爬虫访问不计入）
      * POST /api/users/{id}/view
      * @param id 用户ID
-     * @return 操作结果
+     * @param request HTTP请求，用于识别匿名访客（IP + User-Agent）
+     * @return 是否计入了访问量
      */
     @PostMapping("/{id}/view")
-    public Result<String> incrementViewCount(@PathVariable Long id) {
-        userService.incrementViewCount(id);
+    public Result<Boolean> recordView(@PathVariable Long id, HttpServletRequest request) {
+        boolean counted = userService.recordView(id, CurrentUser.getId(),
+                request.getRemoteAddr(), request.getHeader(HttpHeaders.USER_AGENT));
         
-        return Result.success("访问量增加成功");
+        return Result.success(counted ? "访问已记录" : "访问未计入", counted);
+    }
+    
+    /**
+     * 用户主页访问统计接口
+     * GET /api/users/{id}/views?days=7
+     * @param id 用户ID
+     * @param days 独立访客统计最近几天（含今天，最多90天）
+     * @return 访问量、今天和区间内的独立访客数、每天的独立访客数
+     */
+    @GetMapping("/{id}/views")
+    public Result<Map<String, Object>> getViewStats(@PathVariable Long id,
+                                                    @RequestParam(defaultValue = "7") int days) {
+        return Result.success(userService.getViewStats(id, days));
     }
     
     /**
-     * 增加用户点赞数接口
+     * 点赞用户主页接口（需要登录，重复点赞不会重复计数）
      * POST /api/users/{id}/like
      * @param id 用户ID
-     * @return 操作结果
+     * @return 是否新增了点赞
      */
     @PostMapping("/{id}/like")
-    public Result<String> incrementLikeCount(@PathVariable Long id) {
-        userService.incrementLikeCount(id);
+    public Result<Boolean> likeUser(@PathVariable Long id) {
+        boolean changed = userService.likeUser(CurrentUser.requireId(), id);
         
-        return Result.success("点赞成功");
+        return Result.success(changed ? "点赞成功" : "已经点过赞", changed);
     }
     
     /**
-     * 减少用户点赞数接口
+     * 取消点赞用户主页接口（需要登录）
      * DELETE /api/users/{id}/like
      * @param id 用户ID
-     * @return 操作结果
+     * @return 是否取消了点赞
      */
     @DeleteMapping("/{id}/like")
-    public Result<String> decrementLikeCount(@PathVariable Long id) {
-        userService.decrementLikeCount(id);
+    public Result<Boolean> unlikeUser(@PathVariable Long id) {
+        boolean changed = userService.unlikeUser(CurrentUser.requireId(), id);
         
-        return Result.success("取消点赞成功");
+        return Result.success(changed ? "取消点赞成功" : "尚未点赞", changed);
+    }
+    
+    /**
+     * 查询当前用户是否点赞过用户主页（只查内存，不访问数据库）
+     * GET /api/users/{id}/like
+     * @param id 用户ID
+     * @return 是否点赞过，未登录时为false
+     */
+    @GetMapping("/{id}/like")
+    public Result<Boolean> hasLikedUser(@PathVariable Long id) {
+        Long currentUserId = CurrentUser.getId();
+        return Result.success(currentUserId != null && userService.hasLikedUser(currentUserId, id));
     }
     
     /**
@@ -236,4 +435,54 @@ public class UserController {
         
         return Result.success("用户已激活");
     }
+    
+    /**
+     * 用户缓存统计接口
+     * GET /api/users/cache/stats
+     * @return 各级缓存的大小、命中/未命中/淘汰次数
+     */
+    @GetMapping("/cache/stats")
+    public Result<Map<String, Object>> getCacheStats() {
+        return Result.success(userCacheManager.getStats());
+    }
+    
+    /**
+     * 用户名/邮箱可用性过滤器统计接口
+     * GET /api/users/check/stats
+     * @return 查询次数、数据库回查次数、实测与估算误判率
+     */
+    @GetMapping("/check/stats")
+    public Result<Map<String, Object>> getAvailabilityStats() {
+        return Result.success(userAvailabilityManager.getStats());
+    }
+    
+    /**
+     * 密码哈希线程池统计接口
+     * GET /api/users/password/stats
+     * @return 队列深度、拒绝/超时次数、加密与校验耗时
+     */
+    @GetMapping("/password/stats")
+    public Result<Map<String, Object>> getPasswordHashStats() {
+        return Result.success(passwordHashManager.getStats());
+    }
+    
+    /**
+     * 限流统计接口
+     * GET /api/users/ratelimit/stats
+     * @return 当前桶数、各策略的拒绝次数
+     */
+    @GetMapping("/ratelimit/stats")
+    public Result<Map<String, Object>> getRateLimitStats() {
+        return Result.success(rateLimitManager.getStats());
+    }
+    
+    /**
+     * 访问事件管道统计接口（用户主页和笔记）
+     * GET /api/users/view/stats
+     * @return 缓冲区中的事件数、容量、丢弃数、忽略的爬虫访问数、内存中的草图数
+     */
+    @GetMapping("/view/stats")
+    public Result<Map<String, Object>> getViewPipelineStats() {
+        return Result.success(viewEventManager.getStats());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package dream.controller;
+
+import dream.common.CursorPage;
+import dream.common.FileServeUtils;
+import dream.common.Result;
+import dream.dto.WallpaperTile;
+import dream.entity.Wallpaper;
+import dream.manager.WallpaperImageManager;
+import dream.security.CurrentUser;
+import dream.service.IWallpaperService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URLConnection;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 壁纸控制器
+ * 提供壁纸相关的REST API接口
+ * 包括壁纸上传、壁纸墙、壁纸详情等功能
+ */
+@RestController
+@RequestMapping("/api/wallpapers")  // 所有接口的基础路径
+@CrossOrigin(origins = "*")  // 允许跨域请求，方便前端调用
+public class WallpaperController {
+
+    @Autowired
+    private IWallpaperService wallpaperService;
+
+    @Autowired
+    private WallpaperImageManager wallpaperImageManager;
+
+    /**
+     * 壁纸墙接口
+     * GET /api/wallpapers/wall?cursor=xxx&size=40
+     * @param cursor 上一页返回的游标，首页不传
+     * @param size 每页条数（1-100）
+     * @return 当前页壁纸（缩略图URL、srcset、宽高）和下一页游标
+     */
+    @GetMapping("/wall")
+    public Result<CursorPage<WallpaperTile>> getWall(@RequestParam(required = false) String cursor,
+                                                     @RequestParam(defaultValue = "40") int size) {
+        return Result.success(wallpaperService.getWall(cursor, size));
+    }
+
+    /**
+     * 热门壁纸接口（按时间衰减的下载热度排序）
+     * GET /api/wallpapers/hot?size=40
+     * @param size 返回条数（1-100）
+     * @return 按热度降序的瀑布流投影
+     */
+    @GetMapping("/hot")
+    public Result<List<WallpaperTile>> getHotWallpapers(@RequestParam(defaultValue = "40") int size) {
+        return Result.success(wallpaperService.getHotWallpapers(size));
+    }
+
+    /**
+     * 缩略图生成统计接口
+     * GET /api/wallpapers/thumbnail/stats
+     * @return 线程池队列深度、已生成/失败/被拒绝次数和平均耗时
+     */
+    @GetMapping("/thumbnail/stats")
+    public Result<Map<String, Object>> getThumbnailStats() {
+        return Result.success(wallpaperImageManager.getStats());
+    }
+
+    /**
+     * 获取壁纸详情接口
+     * GET /api/wallpapers/{id}
+     * @param id 壁纸ID
+     * @return 壁纸详情
+     */
+    @GetMapping("/{id}")
+    public Result<Wallpaper> getWallpaperById(@PathVariable Long id) {
+        return Result.success(wallpaperService.getWallpaperDetail(id));
+    }
+
+    /**
+     * 下载壁纸原图接口
+     * GET /api/wallpapers/{id}/download
+     * 文件由容器通过 sendfile 直接从磁盘发送，支持 Range 断点续传和 ETag/Last-Modified 条件请求；
+     * 发送完整文件时记一次下载（断点续传和探测性的部分请求不计入），下载次数异步批量写回
+     * @param id 壁纸ID
+     * @param request 当前请求
+     * @param response 当前响应
+     * @throws IOException 读取文件或写出响应失败
+     */
+    @GetMapping("/{id}/download")
+    public void downloadWallpaper(@PathVariable Long id, HttpServletRequest request,
+                                  HttpServletResponse response) throws IOException {
+        Path file = wallpaperService.getDownloadFile(id);
+        String fileName = file.getFileName().toString();
+        String contentType = URLConnection.guessContentTypeFromName(fileName);
+        String extension = fileName.substring(fileName.lastIndexOf('.'));
+        response.setHeader("Cache-Control", "no-cache");
+        if (FileServeUtils.serve(file, contentType == null ? MediaType.APPLICATION_OCTET_STREAM_VALUE : contentType,
+                "wallpaper-" + id + extension, request, response)) {
+            wallpaperService.recordDownload(id);
+        }
+    }
+
+    /**
+     * 上传壁纸接口
+     * POST /api/wallpapers (multipart/form-data)
+     * @param file 图片文件（JPEG、PNG、GIF、BMP）
+     * @param title 壁纸标题
+     * @param description 壁纸描述
+     * @param categoryId 壁纸分类ID
+     * @return 上传结果，缩略图稍后在后台生成
+     * @throws IOException 读取上传文件失败
+     */
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public Result<Wallpaper> uploadWallpaper(@RequestParam("file") MultipartFile file,
+                                             @RequestParam String title,
+                                             @RequestParam(required = false) String description,
+                                             @RequestParam Long categoryId) throws IOException {
+        Long userId = CurrentUser.requireId();
+        Wallpaper wallpaper = new Wallpaper()
+                .setTitle(title)
+                .setDescription(description)
+                .setCategoryId(categoryId);
+        try (InputStream in = file.getInputStream()) {
+            return Result.success("壁纸上传成功", wallpaperService.uploadWallpaper(userId, wallpaper, in));
+        }
+    }
+}
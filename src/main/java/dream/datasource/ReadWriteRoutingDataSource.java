@@ -0,0 +1,74 @@
+package dream.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 读写分离路由数据源
+ * 只读事务（@Transactional(readOnly = true)）走从库，其余所有访问走主库
+ *
+ * 技术解释：
+ * - 需要包装在 LazyConnectionDataSourceProxy 中使用：事务管理器开启事务时还不知道事务是否只读，
+ *   延迟到执行第一条SQL时才真正获取连接，此时才能根据只读标记选择数据源
+ * - 以下情况只读事务也走主库：当前请求的用户刚写入过数据（RoutingContext），
+ *   从库不可用或复制延迟超过阈值（ReplicaHealth）
+ * - 从库获取连接失败时标记为不可用并立即改用主库，请求不会因为从库故障而失败
+ */
+public class ReadWriteRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final String PRIMARY = "primary";
+    private static final String REPLICA = "replica";
+
+    private final DataSource primary;
+    private final DataSource replica;
+    private final ReplicaHealth replicaHealth;
+
+    public ReadWriteRoutingDataSource(DataSource primary, DataSource replica, ReplicaHealth replicaHealth) {
+        this.primary = primary;
+        this.replica = replica;
+        this.replicaHealth = replicaHealth;
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        targets.put(REPLICA, replica);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        boolean useReplica = TransactionSynchronizationManager.isCurrentTransactionReadOnly()
+                && !RoutingContext.isPrimaryForced()
+                && replicaHealth.isAvailable();
+        return useReplica ? REPLICA : PRIMARY;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (REPLICA.equals(determineCurrentLookupKey())) {
+            try {
+                return replica.getConnection();
+            } catch (SQLException e) {
+                replicaHealth.markDown(e);
+            }
+        }
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        if (REPLICA.equals(determineCurrentLookupKey())) {
+            try {
+                return replica.getConnection(username, password);
+            } catch (SQLException e) {
+                replicaHealth.markDown(e);
+            }
+        }
+        return primary.getConnection(username, password);
+    }
+}
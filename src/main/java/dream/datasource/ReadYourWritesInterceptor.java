@@ -0,0 +1,103 @@
+package dream.datasource;
+
+import dream.interceptor.SqlRequestStats;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseCookie;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+import javax.servlet.http.Cookie;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.time.Duration;
+
+/**
+ * 读己之写：用户写入数据后的一段时间内，该用户的只读查询走主库
+ *
+ * 技术解释：
+ * - 请求中执行过写SQL时，响应写出前附带 Cookie dream_rw_until（主库读取截止时间，时长为
+ *   dream.datasource.replica.read-your-writes-ms），浏览器在截止时间前的请求都会带上它
+ * - 请求开始时 Cookie 未过期则标记 RoutingContext，本次请求的只读事务全部走主库，
+ *   用户修改资料后刷新页面不会因为复制延迟看到旧数据；其他用户仍然读从库
+ * - 请求结束时清除 RoutingContext；异步请求在容器线程返回时（afterConcurrentHandlingStarted）同样清除，
+ *   主库标记不会残留到该线程处理的下一个请求
+ * - 只在配置了从库（dream.datasource.replica.url）时启用
+ */
+@ControllerAdvice
+@ConditionalOnProperty(prefix = "dream.datasource.replica", name = "url")
+public class ReadYourWritesInterceptor implements AsyncHandlerInterceptor, ResponseBodyAdvice<Object> {
+
+    /**
+     * Cookie 名，值为主库读取截止时间（毫秒时间戳）
+     */
+    static final String COOKIE_NAME = "dream_rw_until";
+
+    /**
+     * 写入后走主库的时长（毫秒），应大于从库的正常复制延迟
+     */
+    @Value("${dream.datasource.replica.read-your-writes-ms:3000}")
+    private long readYourWritesMs;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (COOKIE_NAME.equals(cookie.getName()) && isFuture(cookie.getValue())) {
+                    RoutingContext.forcePrimary();
+                    break;
+                }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        RoutingContext.clear();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        RoutingContext.clear();
+    }
+
+    @Override
+    public boolean supports(MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+        return true;
+    }
+
+    @Override
+    public Object beforeBodyWrite(Object body, MethodParameter returnType, MediaType selectedContentType,
+                                  Class<? extends HttpMessageConverter<?>> selectedConverterType,
+                                  ServerHttpRequest request, ServerHttpResponse response) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        if (stats != null && stats.getWriteCount() > 0) {
+            long until = System.currentTimeMillis() + readYourWritesMs;
+            ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, Long.toString(until))
+                    .path("/")
+                    .maxAge(Duration.ofMillis(readYourWritesMs).plusSeconds(1))
+                    .httpOnly(true)
+                    .sameSite("Lax")
+                    .build();
+            response.getHeaders().add(HttpHeaders.SET_COOKIE, cookie.toString());
+        }
+        return body;
+    }
+
+    private static boolean isFuture(String value) {
+        try {
+            return Long.parseLong(value) > System.currentTimeMillis();
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package dream.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * 从库可用性与复制延迟
+ *
+ * 技术解释：
+ * - 获取从库连接失败后的 dream.datasource.replica.retry-interval-ms 内，只读事务全部改走主库
+ * - 配置了 dream.datasource.replica.lag-query 时定时查询复制延迟（如 MySQL 的 SHOW REPLICA STATUS，
+ *   读取 Seconds_Behind_Source 列），延迟超过 dream.datasource.replica.max-lag-ms 或复制已停止时同样改走主库
+ */
+public class ReplicaHealth {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaHealth.class);
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final long maxLagMs;
+    private final long retryIntervalMs;
+
+    /**
+     * 在此时间之前认为从库不可用
+     */
+    private volatile long downUntil;
+
+    /**
+     * 最近一次查询到的复制延迟（毫秒），-1 表示未知
+     */
+    private volatile long lagMs = -1;
+
+    /**
+     * 复制延迟是否超过阈值
+     */
+    private volatile boolean lagging;
+
+    public ReplicaHealth(DataSource replica, String lagQuery, long maxLagMs, long retryIntervalMs) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagMs = maxLagMs;
+        this.retryIntervalMs = retryIntervalMs;
+    }
+
+    /**
+     * 从库当前是否可以承担只读查询
+     */
+    public boolean isAvailable() {
+        return !lagging && System.currentTimeMillis() >= downUntil;
+    }
+
+    /**
+     * 获取从库连接失败，在重试间隔内改走主库
+     */
+    public void markDown(SQLException e) {
+        long now = System.currentTimeMillis();
+        if (now >= downUntil) {
+            logger.warn("从库不可用，{}ms 内只读查询改走主库: {}", retryIntervalMs, e.getMessage());
+        }
+        downUntil = now + retryIntervalMs;
+    }
+
+    /**
+     * 允许的最大复制延迟（毫秒）
+     */
+    public long getMaxLagMs() {
+        return maxLagMs;
+    }
+
+    /**
+     * 最近一次查询到的复制延迟（毫秒），-1 表示未知
+     */
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    /**
+     * 定时查询复制延迟
+     */
+    @Scheduled(fixedDelayString = "${dream.datasource.replica.lag-check-interval-ms:5000}")
+    public void checkLag() {
+        if (!StringUtils.hasText(lagQuery)) {
+            return;
+        }
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            Long seconds = rs.next() ? readLagSeconds(rs) : null;
+            boolean wasLagging = lagging;
+            lagMs = seconds == null ? -1 : seconds * 1000;
+            // 查不到延迟说明复制没有在运行，此时从库数据不可信
+            lagging = seconds == null || lagMs > maxLagMs;
+            if (lagging != wasLagging) {
+                logger.warn(lagging ? "从库复制延迟 {}ms 超过阈值，只读查询改走主库" : "从库复制延迟恢复为 {}ms，只读查询恢复走从库", lagMs);
+            }
+        } catch (SQLException e) {
+            markDown(e);
+        }
+    }
+
+    /**
+     * 读取延迟秒数：优先按列名（MySQL 8.0.22+ 为 Seconds_Behind_Source，之前为 Seconds_Behind_Master），否则取第一列
+     */
+    private static Long readLagSeconds(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        int column = 1;
+        for (int i = 1; i <= meta.getColumnCount(); i++) {
+            String label = meta.getColumnLabel(i);
+            if ("Seconds_Behind_Source".equalsIgnoreCase(label) || "Seconds_Behind_Master".equalsIgnoreCase(label)) {
+                column = i;
+                break;
+            }
+        }
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+}
@@ -0,0 +1,34 @@
+package dream.datasource;
+
+/**
+ * 数据源路由上下文
+ * 标记当前线程的只读事务也必须走主库（如用户刚刚写入过数据，从库可能还没有同步）
+ */
+public final class RoutingContext {
+
+    private static final ThreadLocal<Boolean> PRIMARY_FORCED = new ThreadLocal<>();
+
+    private RoutingContext() {
+    }
+
+    /**
+     * 当前线程的只读事务也走主库
+     */
+    public static void forcePrimary() {
+        PRIMARY_FORCED.set(Boolean.TRUE);
+    }
+
+    /**
+     * 清除当前线程的标记
+     */
+    public static void clear() {
+        PRIMARY_FORCED.remove();
+    }
+
+    /**
+     * 当前线程是否必须走主库
+     */
+    public static boolean isPrimaryForced() {
+        return PRIMARY_FORCED.get() != null;
+    }
+}
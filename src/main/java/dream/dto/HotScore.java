@@ -0,0 +1,30 @@
+package dream.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 热度分数检查点
+ * 某个排行对象的对数分数（DecayedScoreBoard 中以1970-01-01为基准的 log2 分数），或一次分数增量
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class HotScore {
+
+    /**
+     * 排行对象类型：1-笔记，2-壁纸
+     */
+    private Integer targetType;
+
+    /**
+     * 排行对象ID
+     */
+    private Long targetId;
+
+    /**
+     * 对数分数；作为增量写入时为增量绝对值的对数
+     */
+    private Double logScore;
+}
@@ -0,0 +1,36 @@
+package dream.dto;
+
+import dream.entity.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 登录结果
+ * 后续请求在请求头中携带 Authorization: Bearer {token}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoginResult {
+
+    /**
+     * 登录令牌（JWT）
+     */
+    private String token;
+
+    /**
+     * 令牌类型，固定为 Bearer
+     */
+    private String tokenType;
+
+    /**
+     * 令牌过期时间（秒级时间戳）
+     */
+    private long expiresAt;
+
+    /**
+     * 用户信息
+     */
+    private User user;
+}
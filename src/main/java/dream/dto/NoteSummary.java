@@ -0,0 +1,68 @@
+package dream.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 笔记列表投影
+ * 首页信息流、搜索结果等列表只需要的字段，不查询 content(LONGTEXT)
+ */
+@Data
+public class NoteSummary {
+
+    /**
+     * 笔记ID
+     */
+    private Long id;
+
+    /**
+     * 笔记标题
+     */
+    private String title;
+
+    /**
+     * 笔记摘要
+     */
+    private String summary;
+
+    /**
+     * 封面图片URL
+     */
+    private String coverImageUrl;
+
+    /**
+     * 作者用户ID
+     */
+    private Long userId;
+
+    /**
+     * 分类ID
+     */
+    private Long categoryId;
+
+    /**
+     * 浏览次数
+     */
+    private Integer viewCount;
+
+    /**
+     * 点赞次数
+     */
+    private Integer likeCount;
+
+    /**
+     * 收藏次数
+     */
+    private Integer favoriteCount;
+
+    /**
+     * 是否置顶
+     */
+    private Boolean isTop;
+
+    /**
+     * 发布时间
+     */
+    private LocalDateTime publishedAt;
+}
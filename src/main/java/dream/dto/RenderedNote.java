@@ -0,0 +1,33 @@
+package dream.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * 笔记渲染结果
+ * 同一 (笔记ID, 正文哈希) 版本的 Markdown 渲染出的 HTML 及其强 ETag
+ */
+@Data
+@AllArgsConstructor
+public class RenderedNote {
+
+    /**
+     * 笔记ID
+     */
+    private Long noteId;
+
+    /**
+     * 渲染所依据的正文哈希
+     */
+    private String contentHash;
+
+    /**
+     * 强ETag（带双引号）
+     */
+    private String etag;
+
+    /**
+     * 渲染后的HTML
+     */
+    private String html;
+}
@@ -0,0 +1,23 @@
+package dream.dto;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 登录令牌吊销记录
+ * 用户在 revokedAt 之前签发的令牌全部失效
+ */
+@Data
+public class TokenRevocation {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 吊销时间
+     */
+    private Date revokedAt;
+}
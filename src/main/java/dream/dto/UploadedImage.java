@@ -0,0 +1,41 @@
+package dream.dto;
+
+import lombok.Data;
+
+/**
+ * 图片上传结果
+ * 头像、笔记封面、壁纸上传后返回给前端或写入实体的信息
+ */
+@Data
+public class UploadedImage {
+
+    /**
+     * 图片URL（内容寻址，可永久缓存）
+     */
+    private String url;
+
+    /**
+     * 图片内容的 SHA-256
+     */
+    private String sha256;
+
+    /**
+     * 文件大小（字节）
+     */
+    private Long fileSize;
+
+    /**
+     * 图片宽度（像素）
+     */
+    private Integer width;
+
+    /**
+     * 图片高度（像素）
+     */
+    private Integer height;
+
+    /**
+     * 是否与已有文件内容相同（未占用额外磁盘）
+     */
+    private boolean deduplicated;
+}
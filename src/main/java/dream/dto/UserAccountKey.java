@@ -0,0 +1,30 @@
+package dream.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户账号标识
+ * 只包含用户ID、用户名和邮箱，用于全表扫描预热等不需要完整用户信息的场景
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserAccountKey {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 邮箱地址
+     */
+    private String email;
+}
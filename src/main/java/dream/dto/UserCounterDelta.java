@@ -0,0 +1,31 @@
+package dream.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 用户计数增量
+ * 写回计数器在一次刷盘中合并出的单个用户的访问量/点赞数增量
+ * 用于批量 UPDATE ... CASE 语句的参数
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserCounterDelta {
+
+    /**
+     * 用户ID
+     */
+    private Long userId;
+
+    /**
+     * 访问量增量
+     */
+    private long viewDelta;
+
+    /**
+     * 点赞数增量（可能为负数）
+     */
+    private long likeDelta;
+}
@@ -0,0 +1,26 @@
+package dream.dto;
+
+import lombok.Data;
+
+/**
+ * 用户登录凭据
+ * 只包含校验登录需要的用户ID、密码哈希和激活状态，不读取简介（TEXT）等资料字段
+ */
+@Data
+public class UserCredential {
+
+    /**
+     * 用户ID
+     */
+    private Long id;
+
+    /**
+     * 密码哈希
+     */
+    private String passwordHash;
+
+    /**
+     * 账户是否激活
+     */
+    private Boolean isActive;
+}
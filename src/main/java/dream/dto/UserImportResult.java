@@ -0,0 +1,68 @@
+package dream.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 批量导入结果
+ * 单行失败不影响其他行，失败的行连同原因逐条列出
+ */
+@Data
+public class UserImportResult {
+
+    /**
+     * 读取的数据行数
+     */
+    private long total;
+
+    /**
+     * 成功导入的行数
+     */
+    private long imported;
+
+    /**
+     * 失败的行数
+     */
+    private long failed;
+
+    /**
+     * 失败的行，按行号顺序
+     */
+    private List<RowError> errors = new ArrayList<>();
+
+    /**
+     * 记录一行失败
+     */
+    public void addError(UserImportRow row, String reason) {
+        failed++;
+        errors.add(new RowError(row.getLine(), row.getUsername(), reason));
+    }
+
+    /**
+     * 单行错误
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+
+        /**
+         * 行号
+         */
+        private long line;
+
+        /**
+         * 该行的用户名（可能为空）
+         */
+        private String username;
+
+        /**
+         * 失败原因
+         */
+        private String reason;
+    }
+}
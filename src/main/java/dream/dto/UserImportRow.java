@@ -0,0 +1,69 @@
+package dream.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Data;
+
+/**
+ * 批量导入的一行用户数据
+ * CSV 按表头列名、NDJSON 按字段名映射到同名属性，未知的列/字段忽略
+ */
+@Data
+public class UserImportRow {
+
+    /**
+     * 所在行号（从1开始，CSV 包含表头行），用于报告逐行错误
+     */
+    @JsonIgnore
+    private long line;
+
+    /**
+     * 解析失败的原因，不为null时该行不会导入
+     */
+    @JsonIgnore
+    private String error;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 邮箱地址
+     */
+    private String email;
+
+    /**
+     * 原始密码，导入时加密
+     */
+    private String password;
+
+    /**
+     * 昵称，为空时使用用户名
+     */
+    private String nickname;
+
+    /**
+     * 头像图片URL
+     */
+    private String avatarUrl;
+
+    /**
+     * 个人简介
+     */
+    private String bio;
+
+    /**
+     * GitHub链接
+     */
+    private String githubUrl;
+
+    /**
+     * Twitter链接
+     */
+    private String twitterUrl;
+
+    /**
+     * 个人网站链接
+     */
+    private String websiteUrl;
+}
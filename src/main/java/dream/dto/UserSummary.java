@@ -0,0 +1,73 @@
+package dream.dto;
+
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 用户列表投影
+ * 只包含列表展示需要的字段，不查询 password_hash 和 bio(TEXT)
+ */
+@Data
+public class UserSummary {
+
+    /**
+     * 用户ID
+     */
+    private Long id;
+
+    /**
+     * 用户名
+     */
+    private String username;
+
+    /**
+     * 邮箱地址
+     */
+    private String email;
+
+    /**
+     * 昵称
+     */
+    private String nickname;
+
+    /**
+     * 头像图片URL
+     */
+    private String avatarUrl;
+
+    /**
+     * GitHub链接
+     */
+    private String githubUrl;
+
+    /**
+     * Twitter链接
+     */
+    private String twitterUrl;
+
+    /**
+     * 个人网站链接
+     */
+    private String websiteUrl;
+
+    /**
+     * 笔记数量统计
+     */
+    private Integer noteCount;
+
+    /**
+     * 个人主页访问量
+     */
+    private Integer viewCount;
+
+    /**
+     * 获得的总点赞数
+     */
+    private Integer likeCount;
+
+    /**
+     * 创建时间
+     */
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,37 @@
+package dream.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * 独立访客草图快照
+ * 某个对象某一天访客的 HyperLogLog 草图（HyperLogLog.toBytes() 的结果）
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ViewSketch {
+
+    /**
+     * 访问对象类型：1-用户主页，2-笔记
+     */
+    private Integer targetType;
+
+    /**
+     * 访问对象ID
+     */
+    private Long targetId;
+
+    /**
+     * 统计日期
+     */
+    private LocalDate statDate;
+
+    /**
+     * 草图数据
+     */
+    private byte[] sketch;
+}
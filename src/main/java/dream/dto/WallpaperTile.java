@@ -0,0 +1,56 @@
+package dream.dto;
+
+import lombok.Data;
+
+/**
+ * 壁纸墙瀑布流投影
+ * 只包含渲染瀑布流所需的字段，图片使用缩略图而不是原图
+ */
+@Data
+public class WallpaperTile {
+
+    /**
+     * 壁纸ID
+     */
+    private Long id;
+
+    /**
+     * 壁纸标题
+     */
+    private String title;
+
+    /**
+     * 原图URL，点击查看大图时使用
+     */
+    private String imageUrl;
+
+    /**
+     * 默认缩略图URL
+     */
+    private String thumbnailUrl;
+
+    /**
+     * 各尺寸缩略图，img 标签的 srcset 属性值，如 "/files/.../w320.jpg 320w, /files/.../w640.jpg 640w"
+     */
+    private String srcset;
+
+    /**
+     * 原图宽度（像素），前端据此按宽高比预留占位，避免加载时布局跳动
+     */
+    private Integer width;
+
+    /**
+     * 原图高度（像素）
+     */
+    private Integer height;
+
+    /**
+     * 点赞次数
+     */
+    private Integer likeCount;
+
+    /**
+     * 收藏次数
+     */
+    private Integer favoriteCount;
+}
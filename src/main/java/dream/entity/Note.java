@@ -47,6 +47,12 @@ public class Note implements Serializable {
     @NotBlank(message = "笔记内容不能为空")
     private String content;
 
+    /**
+     * 正文哈希（SHA-256 前8字节的十六进制），写入正文时计算，用作渲染缓存和ETag的版本号
+     */
+    @TableField("content_hash")
+    private String contentHash;
+
     /**
      * 笔记摘要，用于列表显示
      */
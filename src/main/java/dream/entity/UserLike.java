@@ -0,0 +1,59 @@
+package dream.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.experimental.Accessors;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 点赞关系实体类
+ * 对应数据库表：user_likes，主键为（对象类型，对象ID，用户ID）
+ *
+ * @author Dream Team
+ * @since 2025-01-17
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Accessors(chain = true)
+@TableName("user_likes")
+public class UserLike implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 点赞对象类型：用户主页
+     */
+    public static final int TARGET_USER = 1;
+
+    /**
+     * 点赞对象类型：笔记
+     */
+    public static final int TARGET_NOTE = 2;
+
+    /**
+     * 点赞对象类型：1-用户主页，2-笔记
+     */
+    @TableField("target_type")
+    private Integer targetType;
+
+    /**
+     * 点赞对象ID（用户ID或笔记ID）
+     */
+    @TableField("target_id")
+    private Long targetId;
+
+    /**
+     * 点赞的用户ID
+     */
+    @TableField("user_id")
+    private Long userId;
+
+    /**
+     * 点赞时间
+     */
+    @TableField(value = "created_at", fill = FieldFill.INSERT)
+    private LocalDateTime createdAt;
+}
@@ -62,6 +62,12 @@ public class Wallpaper implements Serializable {
     @Size(max = 500, message = "缩略图URL长度不能超过500个字符")
     private String thumbnailUrl;
 
+    /**
+     * 缩略图生成失败次数
+     */
+    @TableField("thumbnail_attempts")
+    private Integer thumbnailAttempts;
+
     /**
      * 壁纸分类ID，外键关联wallpaper_categories表
      */
@@ -10,6 +10,8 @@ public enum ErrorCode {
     UNAUTHORIZED("401", 401, "未授权访问"), // 401 未授权访问
     FORBIDDEN("403", 403, "禁止访问"), // 403 禁止访问
     NOT_FOUND("404", 404, "资源不存在"), // 404 资源不存在
+    TOO_MANY_REQUESTS("429", 429, "请求过于频繁"), // 429 请求过于频繁
+    SERVICE_BUSY("503", 503, "服务繁忙，请稍后重试"), // 503 服务繁忙
     
     // ========== 用户相关错误码 ==========
 
@@ -19,6 +21,20 @@ public enum ErrorCode {
     PASSWORD_ERROR("U004", 400, "密码错误"), // 400 密码错误
     USER_DISABLED("U005", 403, "用户已被禁用"), // 403 用户已被禁用
     
+    // ========== 笔记相关错误码 ==========
+
+    NOTE_NOT_FOUND("N001", 404, "笔记不存在"), // 404 笔记不存在
+    NOTE_STATUS_ERROR("N002", 400, "笔记状态不正确"), // 400 笔记状态不正确
+    
+    // ========== 壁纸相关错误码 ==========
+
+    WALLPAPER_NOT_FOUND("W001", 404, "壁纸不存在"), // 404 壁纸不存在
+    
+    // ========== 文件相关错误码 ==========
+
+    IMAGE_FORMAT_ERROR("F001", 400, "不支持的图片格式"), // 400 不支持的图片格式
+    IMAGE_TOO_LARGE("F002", 400, "图片尺寸超出限制"), // 400 图片尺寸超出限制
+    
     // ========== 数据验证错误码 ==========
 
     VALIDATION_ERROR("V001", 400, "数据验证失败"), // 400 数据验证失败
@@ -0,0 +1,94 @@
+package dream.exception.business;
+
+import dream.exception.BaseException;
+import dream.exception.ErrorCode;
+
+/**
+ * 文件异常
+ * 上传的图片格式不支持、尺寸超出限制等文件校验失败时抛出
+ *
+ * 技术解释：
+ * - 继承 BaseException，由 GlobalExceptionHandler 统一转换为 Result 响应，错误码取自 ErrorCode
+ * - 校验在解码图片之前完成（见 ImageUploadManager），格式或尺寸不合法的文件不会占用解码内存
+ */
+public class FileException extends BaseException {
+    
+    /**
+     * 默认构造函数
+     */
+    public FileException() {
+        super();
+    }
+    
+    /**
+     * 带错误消息的构造函数
+     * 
+     * @param message 错误消息
+     */
+    public FileException(String message) {
+        super(message);
+    }
+    
+    /**
+     * 带错误码和错误消息的构造函数
+     * 
+     * @param errorCode 错误码
+     * @param message 错误消息
+     */
+    public FileException(String errorCode, String message) {
+        super(errorCode, message);
+    }
+    
+    /**
+     * 完整的构造函数
+     * 
+     * @param errorCode 错误码
+     * @param message 错误消息
+     * @param cause 异常原因
+     */
+    public FileException(String errorCode, String message, Throwable cause) {
+        super(errorCode, message, cause);
+    }
+    
+    /**
+     * 根据错误码枚举创建文件异常
+     * 
+     * @param errorCode 错误码枚举
+     * @return FileException实例
+     */
+    public static FileException of(ErrorCode errorCode) {
+        return new FileException(errorCode.getCode(), errorCode.getMessage());
+    }
+    
+    /**
+     * 根据错误码枚举和自定义消息创建文件异常
+     * 
+     * @param errorCode 错误码枚举
+     * @param customMessage 自定义错误消息
+     * @return FileException实例
+     */
+    public static FileException of(ErrorCode errorCode, String customMessage) {
+        return new FileException(errorCode.getCode(), customMessage);
+    }
+    
+    // ========== 便捷方法 - 常用文件异常 ==========
+    
+    /**
+     * 图片格式不支持异常
+     * 
+     * @return FileException实例
+     */
+    public static FileException imageFormatError() {
+        return FileException.of(ErrorCode.IMAGE_FORMAT_ERROR);
+    }
+    
+    /**
+     * 图片尺寸超出限制异常
+     * 
+     * @param customMessage 自定义错误消息
+     * @return FileException实例
+     */
+    public static FileException imageTooLarge(String customMessage) {
+        return FileException.of(ErrorCode.IMAGE_TOO_LARGE, customMessage);
+    }
+}
@@ -0,0 +1,96 @@
+package dream.exception.business;
+
+import dream.exception.BaseException;
+import dream.exception.ErrorCode;
+
+
+public class NoteException extends BaseException {
+    
+    /**
+     * 默认构造函数
+     */
+    public NoteException() {
+        super();
+    }
+    
+    /**
+     * 带错误消息的构造函数
+     * 
+     * @param message 错误消息
+     */
+    public NoteException(String message) {
+        super(message);
+    }
+    
+    /**
+     * 带错误码和错误消息的构造函数
+     * 
+     * @param errorCode 错误码
+     * @param message 错误消息
+     */
+    public NoteException(String errorCode, String message) {
+        super(errorCode, message);
+    }
+    
+    /**
+     * 完整的构造函数
+     * 
+     * @param errorCode 错误码
+     * @param message 错误消息
+     * @param cause 异常原因
+     */
+    public NoteException(String errorCode, String message, Throwable cause) {
+        super(errorCode, message, cause);
+    }
+    
+    /**
+     * 根据错误码枚举创建笔记异常
+     * 
+     * @param errorCode 错误码枚举
+     * @return NoteException实例
+     */
+    public static NoteException of(ErrorCode errorCode) {
+        return new NoteException(errorCode.getCode(), errorCode.getMessage());
+    }
+    
+    /**
+     * 根据错误码枚举和自定义消息创建笔记异常
+     * 
+     * @param errorCode 错误码枚举
+     * @param customMessage 自定义错误消息
+     * @return NoteException实例
+     */
+    public static NoteException of(ErrorCode errorCode, String customMessage) {
+        return new NoteException(errorCode.getCode(), customMessage);
+    }
+    
+    // ========== 便捷方法 - 常用笔记异常 ==========
+    
+    /**
+     * 笔记不存在异常
+     * 
+     * @return NoteException实例
+     */
+    public static NoteException noteNotFound() {
+        return NoteException.of(ErrorCode.NOTE_NOT_FOUND);
+    }
+    
+    /**
+     * 非笔记作者修改笔记异常
+     * 
+     * @return NoteException实例
+     */
+    public static NoteException notAuthor() {
+        return NoteException.of(ErrorCode.FORBIDDEN, "只能修改自己的笔记");
+    }
+    
+    /**
+     * 笔记状态不正确异常
+     * 
+     * @param customMessage 自定义错误消息
+     * @return NoteException实例
+     */
+    public static NoteException statusError(String customMessage) {
+        return NoteException.of(ErrorCode.NOTE_STATUS_ERROR, customMessage);
+    }
+}
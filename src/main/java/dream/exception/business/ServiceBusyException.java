@@ -0,0 +1,59 @@
+package dream.exception.business;
+
+import dream.exception.BaseException;
+import dream.exception.ErrorCode;
+
+
+public class ServiceBusyException extends BaseException {
+    
+    /**
+     * 带错误码和错误消息的构造函数
+     * 
+     * @param errorCode 错误码
+     * @param message 错误消息
+     */
+    public ServiceBusyException(String errorCode, String message) {
+        super(errorCode, message);
+    }
+    
+    /**
+     * 完整的构造函数
+     * 
+     * @param errorCode 错误码
+     * @param message 错误消息
+     * @param cause 异常原因
+     */
+    public ServiceBusyException(String errorCode, String message, Throwable cause) {
+        super(errorCode, message, cause);
+    }
+    
+    /**
+     * 根据错误码枚举创建服务繁忙异常
+     * 
+     * @param errorCode 错误码枚举
+     * @return ServiceBusyException实例
+     */
+    public static ServiceBusyException of(ErrorCode errorCode) {
+        return new ServiceBusyException(errorCode.getCode(), errorCode.getMessage());
+    }
+    
+    // ========== 便捷方法 - 常用服务繁忙异常 ==========
+    
+    /**
+     * 服务繁忙异常（资源池已满或等待超时）
+     * 
+     * @return ServiceBusyException实例
+     */
+    public static ServiceBusyException serviceBusy() {
+        return ServiceBusyException.of(ErrorCode.SERVICE_BUSY);
+    }
+    
+    /**
+     * 请求过于频繁异常
+     * 
+     * @return ServiceBusyException实例
+     */
+    public static ServiceBusyException tooManyRequests() {
+        return ServiceBusyException.of(ErrorCode.TOO_MANY_REQUESTS);
+    }
+}
@@ -0,0 +1,77 @@
+package dream.exception.business;
+
+import dream.exception.BaseException;
+import dream.exception.ErrorCode;
+
+
+public class WallpaperException extends BaseException {
+    
+    /**
+     * 默认构造函数
+     */
+    public WallpaperException() {
+        super();
+    }
+    
+    /**
+     * 带错误消息的构造函数
+     * 
+     * @param message 错误消息
+     */
+    public WallpaperException(String message) {
+        super(message);
+    }
+    
+    /**
+     * 带错误码和错误消息的构造函数
+     * 
+     * @param errorCode 错误码
+     * @param message 错误消息
+     */
+    public WallpaperException(String errorCode, String message) {
+        super(errorCode, message);
+    }
+    
+    /**
+     * 完整的构造函数
+     * 
+     * @param errorCode 错误码
+     * @param message 错误消息
+     * @param cause 异常原因
+     */
+    public WallpaperException(String errorCode, String message, Throwable cause) {
+        super(errorCode, message, cause);
+    }
+    
+    /**
+     * 根据错误码枚举创建壁纸异常
+     * 
+     * @param errorCode 错误码枚举
+     * @return WallpaperException实例
+     */
+    public static WallpaperException of(ErrorCode errorCode) {
+        return new WallpaperException(errorCode.getCode(), errorCode.getMessage());
+    }
+    
+    /**
+     * 根据错误码枚举和自定义消息创建壁纸异常
+     * 
+     * @param errorCode 错误码枚举
+     * @param customMessage 自定义错误消息
+     * @return WallpaperException实例
+     */
+    public static WallpaperException of(ErrorCode errorCode, String customMessage) {
+        return new WallpaperException(errorCode.getCode(), customMessage);
+    }
+    
+    // ========== 便捷方法 - 常用壁纸异常 ==========
+    
+    /**
+     * 壁纸不存在异常
+     * 
+     * @return WallpaperException实例
+     */
+    public static WallpaperException wallpaperNotFound() {
+        return WallpaperException.of(ErrorCode.WALLPAPER_NOT_FOUND);
+    }
+}
@@ -0,0 +1,143 @@
+package dream.interceptor;
+
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 慢查询执行计划记录器
+ * 对慢查询用相同的参数执行 EXPLAIN，把执行计划写入慢查询日志，便于判断是否走了索引
+ *
+ * 技术解释：
+ * - EXPLAIN 在单独的后台线程中执行，不占用请求线程；队列满时直接丢弃，不会因为数据库变慢而堆积
+ * - 同一 Mapper 方法在 dream.sql.explain-interval-ms 内只执行一次 EXPLAIN，慢查询集中出现时不给数据库增加额外压力
+ * - 只对 SELECT 执行 EXPLAIN，参数通过 MyBatis 的 ParameterHandler 绑定，与原查询完全一致
+ */
+@Component
+public class SlowQueryExplainer {
+
+    /**
+     * 慢查询日志记录器，与 SqlMetricsInterceptor 相同
+     */
+    private static final Logger slowLogger = LoggerFactory.getLogger("dream.sql.slow");
+
+    @Autowired
+    private DataSource dataSource;
+
+    /**
+     * 是否对慢查询执行 EXPLAIN
+     */
+    @Value("${dream.sql.explain-enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 同一 Mapper 方法两次 EXPLAIN 的最小间隔（毫秒）
+     */
+    @Value("${dream.sql.explain-interval-ms:60000}")
+    private long intervalMs;
+
+    /**
+     * Mapper 方法 -> 上次执行 EXPLAIN 的时间
+     */
+    private final ConcurrentHashMap<String, Long> lastExplained = new ConcurrentHashMap<>();
+
+    /**
+     * EXPLAIN 后台线程
+     */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 创建后台线程
+     */
+    @PostConstruct
+    public void init() {
+        executor = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(16),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "sql-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * 关闭后台线程
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 提交一次 EXPLAIN（不满足条件时忽略）
+     * @param statement 慢查询对应的 Mapper 方法
+     * @param boundSql 已绑定参数的SQL
+     */
+    public void submit(MappedStatement statement, BoundSql boundSql) {
+        if (!enabled || statement.getSqlCommandType() != SqlCommandType.SELECT) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        Long last = lastExplained.get(statement.getId());
+        if (last != null && now - last < intervalMs) {
+            return;
+        }
+        // 只有成功更新时间戳的线程提交任务，避免并发慢查询重复 EXPLAIN
+        boolean acquired = last == null
+                ? lastExplained.putIfAbsent(statement.getId(), now) == null
+                : lastExplained.replace(statement.getId(), last, now);
+        if (acquired) {
+            executor.execute(() -> explain(statement, boundSql));
+        }
+    }
+
+    private void explain(MappedStatement statement, BoundSql boundSql) {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement ps = connection.prepareStatement("EXPLAIN " + boundSql.getSql())) {
+            statement.getConfiguration()
+                    .newParameterHandler(statement, boundSql.getParameterObject(), boundSql)
+                    .setParameters(ps);
+            try (ResultSet rs = ps.executeQuery()) {
+                slowLogger.warn("执行计划 {}:{}", statement.getId(), format(rs));
+            }
+        } catch (SQLException | RuntimeException e) {
+            slowLogger.warn("执行计划获取失败 {}: {}", statement.getId(), e.getMessage());
+        }
+    }
+
+    /**
+     * 每行输出为 "列名=值 列名=值"，值为空的列省略
+     */
+    private static String format(ResultSet rs) throws SQLException {
+        ResultSetMetaData meta = rs.getMetaData();
+        StringBuilder text = new StringBuilder();
+        while (rs.next()) {
+            text.append("\n  ");
+            for (int i = 1; i <= meta.getColumnCount(); i++) {
+                Object value = rs.getObject(i);
+                if (value != null) {
+                    text.append(meta.getColumnLabel(i)).append('=').append(value).append(' ');
+                }
+            }
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,87 @@
+package dream.interceptor;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * 请求级SQL预算检查
+ * 统计每个HTTP请求执行的SQL条数和耗时，超过预算或同一条SQL重复执行过多（疑似 N+1）时记录告警
+ *
+ * 技术解释：
+ * - 请求开始时在当前线程绑定 SqlRequestStats，请求结束（包括抛出异常）时取出并检查；
+ *   异步请求（Callable、DeferredResult）在容器线程返回时不会调用 afterCompletion，
+ *   此时在 afterConcurrentHandlingStarted 中解绑，避免统计残留到该线程处理的下一个请求
+ * - 每个请求的SQL条数记录为 http.server.requests.sql 分布（uri 标签为接口路径模板），
+ *   超预算次数记录为 dream.sql.budget.exceeded 计数器
+ * - 预算由 dream.sql.request-budget 配置，同一 Mapper 方法的重复次数阈值由 dream.sql.repeat-threshold 配置
+ */
+@Component
+public class SqlBudgetInterceptor implements AsyncHandlerInterceptor {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(SqlBudgetInterceptor.class);
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 单个请求允许执行的SQL条数
+     */
+    @Value("${dream.sql.request-budget:20}")
+    private int requestBudget;
+
+    /**
+     * 单个请求内同一 Mapper 方法允许的执行次数，超过视为疑似 N+1
+     */
+    @Value("${dream.sql.repeat-threshold:5}")
+    private int repeatThreshold;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlRequestStats.begin();
+        return true;
+    }
+
+    @Override
+    public void afterConcurrentHandlingStarted(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        SqlRequestStats.end();
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        SqlRequestStats stats = SqlRequestStats.current();
+        SqlRequestStats.end();
+        if (stats == null) {
+            return;
+        }
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+        DistributionSummary.builder("http.server.requests.sql")
+                .description("单个请求执行的SQL条数")
+                .tag("method", request.getMethod())
+                .tag("uri", uri)
+                .register(meterRegistry)
+                .record(stats.getTotalCount());
+
+        boolean overBudget = stats.getTotalCount() > requestBudget;
+        boolean repeated = stats.getMaxRepeat() > repeatThreshold;
+        if (overBudget || repeated) {
+            meterRegistry.counter("dream.sql.budget.exceeded", "method", request.getMethod(), "uri", uri).increment();
+            logger.warn("{} {} 执行了 {} 条SQL（预算 {}），SQL总耗时 {}ms{}: {}",
+                    request.getMethod(), request.getRequestURI(), stats.getTotalCount(), requestBudget,
+                    stats.getTotalMillis(), repeated ? "，疑似 N+1 查询" : "", stats.describe());
+        }
+    }
+}
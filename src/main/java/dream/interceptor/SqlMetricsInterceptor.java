@@ -0,0 +1,185 @@
+package dream.interceptor;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * SQL 耗时统计拦截器
+ * 按 Mapper 方法记录每条 SQL 的执行耗时，累计到当前请求的 SqlRequestStats，
+ * 并把超过阈值的慢查询连同绑定参数和执行计划按采样率写入慢查询日志
+ *
+ * 技术解释：
+ * - 拦截 Executor 的 query/queryCursor/update，statement 标签为 Mapper 方法全名（如 dream.mapper.UserMapper.selectById），
+ *   指标名 mybatis.statement，可在 Prometheus 中按方法查看 QPS 与耗时
+ * - 替代原来的 StdOutImpl：逐条打印 SQL 到标准输出是同步写，高并发时本身就会成为瓶颈
+ * - 慢查询日志使用独立的 logger（dream.sql.slow），记录 SQL 和绑定参数；
+ *   参数名包含 password、hash、token、secret 的值以 *** 代替，过长的值截断
+ * - 慢查询很多时（如数据库整体变慢）按 dream.sql.slow-log-sample-rate 采样，防止日志量随故障一起放大；
+ *   慢查询次数始终完整计入 mybatis.statement.slow 计数器
+ */
+@Component
+@Intercepts({
+        @Signature(type = Executor.class, method = "update", args = {MappedStatement.class, Object.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class}),
+        @Signature(type = Executor.class, method = "query",
+                args = {MappedStatement.class, Object.class, RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class}),
+        @Signature(type = Executor.class, method = "queryCursor", args = {MappedStatement.class, Object.class, RowBounds.class})
+})
+public class SqlMetricsInterceptor implements Interceptor {
+
+    /**
+     * 慢查询日志记录器
+     */
+    private static final Logger slowLogger = LoggerFactory.getLogger("dream.sql.slow");
+
+    /**
+     * 不输出值的参数名
+     */
+    private static final Pattern SENSITIVE_PARAMETER = Pattern.compile("(?i).*(password|hash|token|secret).*");
+
+    /**
+     * 单个参数值输出的最大长度
+     */
+    private static final int MAX_PARAMETER_LENGTH = 100;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private SlowQueryExplainer slowQueryExplainer;
+
+    /**
+     * 慢查询阈值（毫秒）
+     */
+    @Value("${dream.sql.slow-threshold-ms:200}")
+    private long slowThresholdMs;
+
+    /**
+     * 慢查询日志采样率（0-1）
+     */
+    @Value("${dream.sql.slow-log-sample-rate:1.0}")
+    private double slowLogSampleRate;
+
+    /**
+     * Mapper 方法 -> 成功/失败两个计时器，避免每次执行都按名称和标签查找
+     */
+    private final ConcurrentHashMap<String, Timer[]> timers = new ConcurrentHashMap<>();
+
+    /**
+     * Mapper 方法 -> 慢查询计数器
+     */
+    private final ConcurrentHashMap<String, Counter> slowCounters = new ConcurrentHashMap<>();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+        MappedStatement statement = (MappedStatement) invocation.getArgs()[0];
+        long start = System.nanoTime();
+        boolean success = false;
+        try {
+            Object result = invocation.proceed();
+            success = true;
+            return result;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            timersOf(statement)[success ? 0 : 1].record(elapsed, TimeUnit.NANOSECONDS);
+            SqlRequestStats.record(statement.getId(), elapsed, statement.getSqlCommandType() != SqlCommandType.SELECT);
+            if (elapsed >= TimeUnit.MILLISECONDS.toNanos(slowThresholdMs)) {
+                recordSlow(invocation, statement, elapsed);
+            }
+        }
+    }
+
+    private Timer[] timersOf(MappedStatement statement) {
+        return timers.computeIfAbsent(statement.getId(), id -> new Timer[]{
+                timer(statement, "success"),
+                timer(statement, "error")});
+    }
+
+    private Timer timer(MappedStatement statement, String outcome) {
+        return Timer.builder("mybatis.statement")
+                .description("Mapper 方法的 SQL 执行耗时")
+                .tag("statement", statement.getId())
+                .tag("type", statement.getSqlCommandType().name())
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private void recordSlow(Invocation invocation, MappedStatement statement, long elapsedNanos) {
+        slowCounters.computeIfAbsent(statement.getId(), id -> Counter.builder("mybatis.statement.slow")
+                .description("超过慢查询阈值的 SQL 次数")
+                .tag("statement", id)
+                .register(meterRegistry)).increment();
+        if (slowLogSampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= slowLogSampleRate) {
+            return;
+        }
+        Object[] args = invocation.getArgs();
+        BoundSql boundSql = args.length == 6 ? (BoundSql) args[5] : statement.getBoundSql(args[1]);
+        slowLogger.warn("慢查询 {}ms {}: {} 参数: {}", TimeUnit.NANOSECONDS.toMillis(elapsedNanos), statement.getId(),
+                boundSql.getSql().replaceAll("\\s+", " "), parametersOf(statement.getConfiguration(), boundSql));
+        slowQueryExplainer.submit(statement, boundSql);
+    }
+
+    /**
+     * 按 DefaultParameterHandler 的规则取出绑定参数的值
+     */
+    private static List<String> parametersOf(Configuration configuration, BoundSql boundSql) {
+        Object parameterObject = boundSql.getParameterObject();
+        MetaObject metaObject = null;
+        List<String> values = new ArrayList<>();
+        for (ParameterMapping mapping : boundSql.getParameterMappings()) {
+            if (mapping.getMode() == ParameterMode.OUT) {
+                continue;
+            }
+            String property = mapping.getProperty();
+            Object value;
+            if (boundSql.hasAdditionalParameter(property)) {
+                value = boundSql.getAdditionalParameter(property);
+            } else if (parameterObject == null) {
+                value = null;
+            } else if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+                value = parameterObject;
+            } else {
+                if (metaObject == null) {
+                    metaObject = configuration.newMetaObject(parameterObject);
+                }
+                value = metaObject.hasGetter(property) ? metaObject.getValue(property) : null;
+            }
+            values.add(SENSITIVE_PARAMETER.matcher(property).matches() ? "***" : abbreviate(value));
+        }
+        return values;
+    }
+
+    private static String abbreviate(Object value) {
+        String text = String.valueOf(value);
+        return text.length() > MAX_PARAMETER_LENGTH ? text.substring(0, MAX_PARAMETER_LENGTH) + "..." : text;
+    }
+}
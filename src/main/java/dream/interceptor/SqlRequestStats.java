@@ -0,0 +1,119 @@
+package dream.interceptor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单个HTTP请求内的SQL执行统计
+ * 由 SqlBudgetInterceptor 在请求开始时绑定到当前线程，SqlMetricsInterceptor 每执行一条SQL记录一次
+ *
+ * 技术解释：
+ * - 一个请求只在一个线程上执行，统计对象只被当前线程访问，不需要同步
+ * - 定时任务、异步线程没有绑定统计对象，记录时直接忽略
+ */
+public final class SqlRequestStats {
+
+    private static final ThreadLocal<SqlRequestStats> CURRENT = new ThreadLocal<>();
+
+    /**
+     * Mapper 方法 -> {执行次数, 累计耗时纳秒}
+     */
+    private final Map<String, long[]> statements = new LinkedHashMap<>();
+
+    private int totalCount;
+
+    private long totalNanos;
+
+    private int writeCount;
+
+    private SqlRequestStats() {
+    }
+
+    /**
+     * 为当前线程开始一次统计
+     */
+    static SqlRequestStats begin() {
+        SqlRequestStats stats = new SqlRequestStats();
+        CURRENT.set(stats);
+        return stats;
+    }
+
+    /**
+     * 当前线程的统计，没有时返回null
+     */
+    public static SqlRequestStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * 结束当前线程的统计
+     */
+    static void end() {
+        CURRENT.remove();
+    }
+
+    /**
+     * 记录一条SQL，当前线程没有统计对象时忽略
+     * @param write 是否为 INSERT/UPDATE/DELETE
+     */
+    static void record(String statementId, long elapsedNanos, boolean write) {
+        SqlRequestStats stats = CURRENT.get();
+        if (stats == null) {
+            return;
+        }
+        long[] counter = stats.statements.computeIfAbsent(statementId, id -> new long[2]);
+        counter[0]++;
+        counter[1] += elapsedNanos;
+        stats.totalCount++;
+        stats.totalNanos += elapsedNanos;
+        if (write) {
+            stats.writeCount++;
+        }
+    }
+
+    public int getTotalCount() {
+        return totalCount;
+    }
+
+    /**
+     * 写SQL（INSERT/UPDATE/DELETE）的执行次数
+     */
+    public int getWriteCount() {
+        return writeCount;
+    }
+
+    public long getTotalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(totalNanos);
+    }
+
+    /**
+     * 单个 Mapper 方法的最大执行次数，重复执行同一条SQL通常意味着 N+1 查询
+     */
+    public long getMaxRepeat() {
+        long max = 0;
+        for (long[] counter : statements.values()) {
+            max = Math.max(max, counter[0]);
+        }
+        return max;
+    }
+
+    /**
+     * 按执行次数列出各 Mapper 方法，如 "UserMapper.selectById×12(35ms)"
+     */
+    public String describe() {
+        StringBuilder text = new StringBuilder();
+        statements.entrySet().stream()
+                .sorted((a, b) -> Long.compare(b.getValue()[0], a.getValue()[0]))
+                .forEach(entry -> {
+                    String id = entry.getKey();
+                    int dot = id.lastIndexOf('.', id.lastIndexOf('.') - 1);
+                    if (text.length() > 0) {
+                        text.append(", ");
+                    }
+                    text.append(id.substring(dot + 1)).append('×').append(entry.getValue()[0])
+                            .append('(').append(TimeUnit.NANOSECONDS.toMillis(entry.getValue()[1])).append("ms)");
+                });
+        return text.toString();
+    }
+}
@@ -0,0 +1,333 @@
+package dream.manager;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * 内容寻址文件存储管理器
+ * 上传的文件按内容的 SHA-256 命名保存，头像、笔记封面、壁纸共用
+ *
+ * 技术解释：
+ * - 上传时边写临时文件边计算 SHA-256，文件只经过一次，不在内存中整体缓冲
+ * - 文件保存为 {前2位}/{3-4位}/{哈希}.{扩展名}，两级分片目录使单个目录的文件数保持在较小规模
+ * - 相同内容的哈希相同：目标文件已存在时直接丢弃临时文件，重复上传不占用额外磁盘
+ * - 同一URL的内容永远不变，可以让浏览器和CDN永久缓存；
+ *   由原文件派生的文件（如缩略图）保存为 {哈希}.{派生名}，同样不可变
+ * - 在事务中新保存的文件（如壁纸原图）在事务回滚后删除，数据库插入失败不会留下没有记录引用的文件；
+ *   事务结束前被其他上传去重复用的文件不删除，因为复用方可能已经提交
+ */
+@Component
+public class BlobStoreManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(BlobStoreManager.class);
+
+    /**
+     * 文件的访问路径前缀
+     */
+    public static final String URL_PREFIX = "/files/blobs/";
+
+    /**
+     * 合法的文件扩展名或派生名
+     */
+    private static final Pattern NAME_PATTERN = Pattern.compile("[a-z0-9]{1,10}(\\.[a-z0-9]{1,10})*");
+
+    /**
+     * 存储目录
+     */
+    @Value("${dream.blob.storage-dir:./data/blobs}")
+    private String storageDir;
+
+    /**
+     * 存储根目录（绝对路径）
+     */
+    private Path root;
+
+    /**
+     * 临时文件目录，与存储目录在同一文件系统，保证移动是原子的
+     */
+    private Path tempDir;
+
+    /**
+     * 事务中新保存、事务尚未结束的文件（相对路径） -> 期间是否被其他上传去重复用
+     */
+    private final ConcurrentHashMap<String, Boolean> provisional = new ConcurrentHashMap<>();
+
+    private final LongAdder stored = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+    private final LongAdder bytesSaved = new LongAdder();
+
+    /**
+     * 创建存储目录
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        root = Paths.get(storageDir).toAbsolutePath().normalize();
+        tempDir = Files.createDirectories(root.resolve("tmp"));
+        logger.info("文件存储目录: {}", root);
+    }
+
+    /**
+     * 把上传内容写入临时文件，同时计算 SHA-256
+     * 返回的暂存文件必须关闭：未提交时关闭会删除临时文件
+     * @param in 上传内容
+     * @return 暂存文件
+     */
+    public StagedBlob stage(InputStream in) {
+        Path temp = tempDir.resolve(UUID.randomUUID() + ".tmp");
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            long size;
+            try (OutputStream out = new DigestOutputStream(Files.newOutputStream(temp), digest)) {
+                size = copy(in, out);
+            }
+            return new StagedBlob(temp, toHex(digest.digest()), size);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new UncheckedIOException("保存上传文件失败", e);
+        } catch (NoSuchAlgorithmException e) {
+            deleteQuietly(temp);
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 提交暂存文件
+     * 相同内容的文件已存在时不再写入，直接返回已有文件的URL；
+     * 在事务中调用时，新保存的文件在事务回滚后删除
+     * @param staged 暂存文件
+     * @param extension 文件扩展名（小写字母和数字）
+     * @return 文件URL
+     */
+    public String commit(StagedBlob staged, String extension) {
+        checkName(extension);
+        String relative = relativePath(staged.sha256, extension);
+        Path target = root.resolve(relative);
+        boolean inTransaction = TransactionSynchronizationManager.isSynchronizationActive();
+        try {
+            Files.createDirectories(target.getParent());
+            // 判断是否存在与移动在同一个键的 compute 中完成，与回滚删除互斥：去重时拿到的文件不会随后被删除
+            provisional.compute(relative, (key, reused) -> {
+                if (Files.exists(target)) {
+                    markDeduplicated(staged);
+                    return reused == null ? null : Boolean.TRUE;
+                }
+                try {
+                    // 并发上传同一文件时，后移动的会原子替换为相同内容（或在不支持替换的平台上按重复处理）
+                    Files.move(staged.path, target, StandardCopyOption.ATOMIC_MOVE);
+                    stored.increment();
+                    return inTransaction ? Boolean.FALSE : null;
+                } catch (FileAlreadyExistsException e) {
+                    markDeduplicated(staged);
+                    return reused == null ? null : Boolean.TRUE;
+                } catch (IOException e) {
+                    throw new UncheckedIOException("保存上传文件失败", e);
+                }
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException("保存上传文件失败", e);
+        } finally {
+            deleteQuietly(staged.path);
+            staged.committed = true;
+        }
+        if (inTransaction && !staged.deduplicated) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == STATUS_COMMITTED) {
+                        provisional.remove(relative);
+                    } else {
+                        discard(relative, target);
+                    }
+                }
+            });
+        }
+        return URL_PREFIX + relative;
+    }
+
+    /**
+     * 获取由某个文件派生的文件路径（如缩略图）
+     * @param url 原文件URL
+     * @param derivedName 派生名，如 "w640.jpg"
+     * @return 派生文件路径
+     * @throws IOException URL不是本存储的文件
+     */
+    public Path derivedPath(String url, String derivedName) throws IOException {
+        return resolve(derivedUrl(url, derivedName));
+    }
+
+    /**
+     * 获取由某个文件派生的文件URL
+     * @param url 原文件URL
+     * @param derivedName 派生名，如 "w640.jpg"
+     * @return 派生文件URL
+     */
+    public String derivedUrl(String url, String derivedName) {
+        checkName(derivedName);
+        int dot = url.lastIndexOf('.');
+        int slash = url.lastIndexOf('/');
+        String base = dot > slash ? url.substring(0, dot) : url;
+        return base + "." + derivedName;
+    }
+
+    /**
+     * 把文件URL解析为存储目录下的文件路径
+     * @param url 文件URL
+     * @return 文件路径
+     * @throws IOException URL不是本存储的文件，或试图访问存储目录之外的文件
+     */
+    public Path resolve(String url) throws IOException {
+        if (url == null || !url.startsWith(URL_PREFIX)) {
+            throw new IOException("不是本地存储的文件: " + url);
+        }
+        Path path = root.resolve(url.substring(URL_PREFIX.length())).normalize();
+        if (!path.startsWith(root) || path.startsWith(tempDir)) {
+            throw new IOException("非法的文件路径: " + url);
+        }
+        return path;
+    }
+
+    /**
+     * 获取存储统计
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("storedCount", stored.sum());
+        stats.put("deduplicatedCount", deduplicated.sum());
+        stats.put("bytesSaved", bytesSaved.sum());
+        return stats;
+    }
+
+    /**
+     * 删除事务回滚后没有记录引用的文件，期间被其他上传复用的文件保留
+     */
+    private void discard(String relative, Path target) {
+        provisional.compute(relative, (key, reused) -> {
+            if (Boolean.FALSE.equals(reused)) {
+                deleteQuietly(target);
+                stored.decrement();
+            }
+            return null;
+        });
+    }
+
+    private void markDeduplicated(StagedBlob staged) {
+        deduplicated.increment();
+        bytesSaved.add(staged.size);
+        staged.deduplicated = true;
+    }
+
+    private static String relativePath(String sha256, String extension) {
+        return sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256 + "." + extension;
+    }
+
+    private static void checkName(String name) {
+        if (name == null || !NAME_PATTERN.matcher(name).matches()) {
+            throw new IllegalArgumentException("非法的文件扩展名: " + name);
+        }
+    }
+
+    private static long copy(InputStream in, OutputStream out) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long total = 0;
+        int read;
+        while ((read = in.read(buffer)) != -1) {
+            out.write(buffer, 0, read);
+            total += read;
+        }
+        return total;
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder hex = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return hex.toString();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("删除文件失败: {}", path);
+        }
+    }
+
+    /**
+     * 暂存文件：已写入临时文件并计算好哈希，等待确认格式后提交
+     */
+    public static final class StagedBlob implements AutoCloseable {
+
+        private final Path path;
+        private final String sha256;
+        private final long size;
+        private boolean committed;
+        private boolean deduplicated;
+
+        private StagedBlob(Path path, String sha256, long size) {
+            this.path = path;
+            this.sha256 = sha256;
+            this.size = size;
+        }
+
+        /**
+         * 临时文件路径，提交前可用于检查内容
+         */
+        public Path getPath() {
+            return path;
+        }
+
+        public String getSha256() {
+            return sha256;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        /**
+         * 提交时是否发现相同内容的文件已存在
+         */
+        public boolean isDeduplicated() {
+            return deduplicated;
+        }
+
+        /**
+         * 未提交时删除临时文件
+         */
+        @Override
+        public void close() {
+            if (!committed) {
+                deleteQuietly(path);
+            }
+        }
+    }
+}
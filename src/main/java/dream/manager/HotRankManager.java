@@ -0,0 +1,381 @@
+package dream.manager;
+
+import dream.common.structure.DecayedScoreBoard;
+import dream.dto.HotScore;
+import dream.mapper.HotScoreMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 热度排行管理器
+ * 为笔记（浏览、点赞）和壁纸（下载）维护按时间衰减的热度分数，提供“热门笔记”“热门壁纸”的前K个查询
+ *
+ * 技术解释：
+ * - 每类对象一个 DecayedScoreBoard：事件到达时按权重增量更新该对象的分数和位置，
+ *   热度每过一个半衰期减半，旧内容即使累计数据很高也会逐渐让位于近期活跃的内容
+ * - 笔记事件入榜前经 PublishedNoteManager 校验，不存在、未发布或已删除的笔记不会进入排行；
+ *   壁纸下载只在原图成功返回后记录，入口已排除不存在和被拒绝的壁纸
+ * - 前K个查询读取每秒刷新一次的快照，不访问排序结构，也不扫描 like_count 索引；
+ *   调用方的过滤（如缩略图未生成）剔除候选后，按倍数继续向后取，直到凑满或快照取尽
+ * - 分数增量定时合并写入 hot_scores（对数域相加，多实例的增量不会互相覆盖）；
+ *   启动时和每隔 dream.hot.reload-interval-ms 从检查点加载排行，重启后不需要从计数重新计算，
+ *   也能纳入其他实例上的事件
+ * - 热度低于 dream.hot.min-score 的对象从内存和检查点中清理，内存中最多保留 dream.hot.max-entries 个对象
+ */
+@Component
+public class HotRankManager {
+
+    /**
+     * 排行对象类型：笔记
+     */
+    public static final int TARGET_NOTE = 1;
+
+    /**
+     * 排行对象类型：壁纸
+     */
+    public static final int TARGET_WALLPAPER = 2;
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(HotRankManager.class);
+
+    private static final long MILLIS_PER_HOUR = 3600_000L;
+
+    @Autowired
+    private HotScoreMapper hotScoreMapper;
+
+    @Autowired
+    private PublishedNoteManager publishedNoteManager;
+
+    /**
+     * 热度半衰期（小时）
+     */
+    @Value("${dream.hot.half-life-hours:24}")
+    private double halfLifeHours;
+
+    /**
+     * 一次笔记浏览的权重
+     */
+    @Value("${dream.hot.view-weight:1}")
+    private double viewWeight;
+
+    /**
+     * 一次笔记点赞的权重，取消点赞时减去
+     */
+    @Value("${dream.hot.like-weight:5}")
+    private double likeWeight;
+
+    /**
+     * 一次壁纸下载的权重
+     */
+    @Value("${dream.hot.download-weight:3}")
+    private double downloadWeight;
+
+    /**
+     * 前K个快照的大小，也是一次查询的最大K
+     */
+    @Value("${dream.hot.top-size:200}")
+    private int topSize;
+
+    /**
+     * 每类对象在内存中最多保留的条目数
+     */
+    @Value("${dream.hot.max-entries:50000}")
+    private int maxEntries;
+
+    /**
+     * 热度低于该值的对象被清理
+     */
+    @Value("${dream.hot.min-score:0.01}")
+    private double minScore;
+
+    /**
+     * 从检查点重新加载排行的间隔（毫秒）
+     */
+    @Value("${dream.hot.reload-interval-ms:600000}")
+    private long reloadIntervalMs;
+
+    /**
+     * 单条批量语句最多包含的对象数
+     */
+    @Value("${dream.hot.batch-size:500}")
+    private int batchSize;
+
+    private long halfLifeMs;
+
+    private DecayedScoreBoard notes;
+
+    private DecayedScoreBoard wallpapers;
+
+    /**
+     * 检查点锁，保证同一时刻只有一个线程在写入或加载检查点
+     */
+    private final ReentrantLock checkpointLock = new ReentrantLock();
+
+    /**
+     * 上次从检查点加载的时间，0表示尚未加载
+     */
+    private long lastReloadMs;
+
+    /**
+     * 创建排行榜
+     */
+    @PostConstruct
+    public void init() {
+        halfLifeMs = Math.round(halfLifeHours * MILLIS_PER_HOUR);
+        long now = System.currentTimeMillis();
+        notes = new DecayedScoreBoard(halfLifeMs, topSize, now);
+        wallpapers = new DecayedScoreBoard(halfLifeMs, topSize, now);
+    }
+
+    /**
+     * 记录一次笔记浏览
+     * @param noteId 笔记ID
+     */
+    public void recordNoteView(long noteId) {
+        if (!publishedNoteManager.isPublished(noteId)) {
+            return;
+        }
+        notes.add(noteId, viewWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * 记录笔记点赞数的变化
+     * @param noteId 笔记ID
+     * @param delta 点赞数增量，取消点赞时为负数
+     */
+    public void addNoteLike(long noteId, long delta) {
+        if (!publishedNoteManager.isPublished(noteId)) {
+            return;
+        }
+        notes.add(noteId, likeWeight * delta, System.currentTimeMillis());
+    }
+
+    /**
+     * 记录一次壁纸下载
+     * @param wallpaperId 壁纸ID
+     */
+    public void recordWallpaperDownload(long wallpaperId) {
+        wallpapers.add(wallpaperId, downloadWeight, System.currentTimeMillis());
+    }
+
+    /**
+     * 事务提交后把对象移出排行并删除其检查点（如笔记被删除）
+     * @param targetType 排行对象类型
+     * @param targetId 排行对象ID
+     */
+    public void removeAfterCommit(int targetType, Long targetId) {
+        Runnable action = () -> {
+            boardOf(targetType).remove(targetId);
+            try {
+                hotScoreMapper.delete(targetType, targetId);
+            } catch (RuntimeException e) {
+                logger.warn("热度检查点删除失败，将在衰减后清理: type={}, id={}, {}", targetType, targetId, e.getMessage());
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 获取热度最高的对象ID
+     * @param targetType 排行对象类型
+     * @param k 个数，最多 dream.hot.top-size 个
+     * @return 按热度降序的对象ID
+     */
+    public List<Long> topIds(int targetType, int k) {
+        List<DecayedScoreBoard.Entry> top = boardOf(targetType).top(k);
+        List<Long> ids = new ArrayList<>(top.size());
+        for (DecayedScoreBoard.Entry entry : top) {
+            ids.add(entry.getId());
+        }
+        return ids;
+    }
+
+    /**
+     * 按热度顺序取候选对象并交给调用方过滤，直到凑满请求的条数或快照中已没有更多候选
+     * 首轮取两倍候选，之后每轮加倍，只把新增的候选交给 resolver
+     * @param targetType 排行对象类型
+     * @param limit 需要的条数
+     * @param resolver 把一批候选ID转换为结果，需保持候选顺序并跳过不符合条件的对象
+     * @param <T> 结果类型
+     * @return 按热度降序的结果，最多 limit 个
+     */
+    public <T> List<T> top(int targetType, int limit, Function<List<Long>, List<T>> resolver) {
+        List<T> results = new ArrayList<>(limit);
+        int requested = limit * 2;
+        int resolved = 0;
+        while (true) {
+            List<Long> ids = topIds(targetType, requested);
+            if (ids.size() > resolved) {
+                for (T result : resolver.apply(ids.subList(resolved, ids.size()))) {
+                    results.add(result);
+                    if (results.size() == limit) {
+                        return results;
+                    }
+                }
+                resolved = ids.size();
+            }
+            if (ids.size() < requested) {
+                return results;
+            }
+            requested *= 2;
+        }
+    }
+
+    /**
+     * 定时刷新前K个快照
+     */
+    @Scheduled(fixedDelayString = "${dream.hot.refresh-interval-ms:1000}")
+    public void refresh() {
+        notes.refreshSnapshot();
+        wallpapers.refreshSnapshot();
+    }
+
+    /**
+     * 定时把分数增量写入检查点，必要时从检查点重新加载排行，再清理热度过低的对象
+     * 启动后立即执行一次，完成首次加载
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dream.hot.checkpoint-interval-ms:60000}")
+    public void checkpoint() {
+        checkpointLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            boolean reload = lastReloadMs == 0 || now - lastReloadMs >= reloadIntervalMs;
+            checkpoint(TARGET_NOTE, notes, now, reload);
+            checkpoint(TARGET_WALLPAPER, wallpapers, now, reload);
+            if (reload) {
+                lastReloadMs = now;
+            }
+            refresh();
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * 应用关闭前把剩余增量写入检查点
+     */
+    @PreDestroy
+    public void shutdown() {
+        checkpointLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            writeDeltas(TARGET_NOTE, notes, notes.drainPending(now));
+            writeDeltas(TARGET_WALLPAPER, wallpapers, wallpapers.drainPending(now));
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
+
+    /**
+     * 获取统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("halfLifeHours", halfLifeHours);
+        stats.put("notes", notes.size());
+        stats.put("wallpapers", wallpapers.size());
+        stats.put("pendingNotes", notes.pendingSize());
+        stats.put("pendingWallpapers", wallpapers.pendingSize());
+        return stats;
+    }
+
+    private void checkpoint(int targetType, DecayedScoreBoard board, long now, boolean reload) {
+        writeDeltas(targetType, board, board.drainPending(now));
+        if (reload) {
+            long start = System.currentTimeMillis();
+            try {
+                double minLogScore = board.minLogScore(now, minScore);
+                int deleted = hotScoreMapper.deleteStale(targetType, halfLifeMs, minLogScore);
+                Map<Long, Double> scores = new HashMap<>();
+                for (HotScore row : hotScoreMapper.findTop(targetType, halfLifeMs, minLogScore, maxEntries)) {
+                    scores.put(row.getTargetId(), row.getLogScore());
+                }
+                board.reload(scores);
+                logger.info("热度排行加载完成，类型 {}，对象 {} 个，清理过期分数 {} 条，耗时 {}ms",
+                        targetType, scores.size(), deleted, System.currentTimeMillis() - start);
+            } catch (RuntimeException e) {
+                logger.error("热度排行加载失败，继续使用内存中的排行: {}", e.getMessage(), e);
+            }
+        }
+        board.prune(now, minScore, maxEntries);
+    }
+
+    /**
+     * 分批写入分数增量，失败的批次放回排行榜等待下次重试
+     */
+    private void writeDeltas(int targetType, DecayedScoreBoard board, List<DecayedScoreBoard.Delta> deltas) {
+        List<DecayedScoreBoard.Delta> failed = new ArrayList<>();
+        List<DecayedScoreBoard.Delta> additions = new ArrayList<>();
+        List<DecayedScoreBoard.Delta> subtractions = new ArrayList<>();
+        for (DecayedScoreBoard.Delta delta : deltas) {
+            (delta.isPositive() ? additions : subtractions).add(delta);
+        }
+        for (int i = 0; i < additions.size(); i += batchSize) {
+            List<DecayedScoreBoard.Delta> batch = additions.subList(i, Math.min(i + batchSize, additions.size()));
+            try {
+                hotScoreMapper.batchAdd(toRows(targetType, batch), halfLifeMs);
+            } catch (RuntimeException e) {
+                logger.error("热度增量写入失败，{} 个对象将在下次重试: {}", batch.size(), e.getMessage(), e);
+                failed.addAll(batch);
+            }
+        }
+        for (int i = 0; i < subtractions.size(); i += batchSize) {
+            List<DecayedScoreBoard.Delta> batch = subtractions.subList(i, Math.min(i + batchSize, subtractions.size()));
+            try {
+                hotScoreMapper.batchSubtract(targetType, toRows(targetType, batch), halfLifeMs);
+            } catch (RuntimeException e) {
+                logger.error("热度减量写入失败，{} 个对象将在下次重试: {}", batch.size(), e.getMessage(), e);
+                failed.addAll(batch);
+            }
+        }
+        if (!failed.isEmpty()) {
+            board.restorePending(failed);
+        }
+    }
+
+    private static List<HotScore> toRows(int targetType, List<DecayedScoreBoard.Delta> deltas) {
+        List<HotScore> rows = new ArrayList<>(deltas.size());
+        for (DecayedScoreBoard.Delta delta : deltas) {
+            rows.add(new HotScore(targetType, delta.getId(), delta.getLogMagnitude()));
+        }
+        return rows;
+    }
+
+    private DecayedScoreBoard boardOf(int targetType) {
+        if (targetType == TARGET_NOTE) {
+            return notes;
+        }
+        if (targetType == TARGET_WALLPAPER) {
+            return wallpapers;
+        }
+        throw new IllegalArgumentException("不支持的排行对象类型: " + targetType);
+    }
+}
@@ -0,0 +1,94 @@
+package dream.manager;
+
+import dream.dto.UploadedImage;
+import dream.exception.business.FileException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 图片上传管理器
+ * 头像、笔记封面、壁纸的统一上传入口：校验图片后保存到内容寻址存储
+ *
+ * 技术解释：
+ * - 内容先流式写入临时文件并计算哈希（见 BlobStoreManager），再只读取图片头部获得格式和宽高，不解码像素
+ * - 只接受 JPEG、PNG、GIF、BMP，扩展名由实际格式决定而不是客户端提供的文件名
+ * - 像素数超过 dream.image.max-pixels 的图片直接拒绝，防止后续解码时耗尽内存
+ */
+@Component
+public class ImageUploadManager {
+
+    /**
+     * 允许上传的图片格式 -> 文件扩展名
+     */
+    private static final Map<String, String> EXTENSIONS = new HashMap<>();
+
+    static {
+        EXTENSIONS.put("jpeg", "jpg");
+        EXTENSIONS.put("png", "png");
+        EXTENSIONS.put("gif", "gif");
+        EXTENSIONS.put("bmp", "bmp");
+    }
+
+    @Autowired
+    private BlobStoreManager blobStoreManager;
+
+    /**
+     * 允许的最大像素数
+     */
+    @Value("${dream.image.max-pixels:60000000}")
+    private long maxPixels;
+
+    /**
+     * 上传图片
+     * @param in 图片内容
+     * @return 上传结果
+     * @throws FileException 图片格式不支持或尺寸超出限制时抛出异常
+     */
+    public UploadedImage upload(InputStream in) {
+        try (BlobStoreManager.StagedBlob staged = blobStoreManager.stage(in)) {
+            UploadedImage image = new UploadedImage();
+            String format;
+            try (ImageInputStream imageIn = ImageIO.createImageInputStream(staged.getPath().toFile())) {
+                Iterator<ImageReader> readers = imageIn == null ? null : ImageIO.getImageReaders(imageIn);
+                if (readers == null || !readers.hasNext()) {
+                    throw FileException.imageFormatError();
+                }
+                ImageReader reader = readers.next();
+                try {
+                    reader.setInput(imageIn, true, true);
+                    format = reader.getFormatName().toLowerCase(Locale.ROOT);
+                    image.setWidth(reader.getWidth(0));
+                    image.setHeight(reader.getHeight(0));
+                } finally {
+                    reader.dispose();
+                }
+            } catch (IOException e) {
+                throw FileException.imageFormatError();
+            }
+            String extension = EXTENSIONS.get(format);
+            if (extension == null) {
+                throw FileException.imageFormatError();
+            }
+            if ((long) image.getWidth() * image.getHeight() > maxPixels) {
+                throw FileException.imageTooLarge("图片像素数不能超过" + maxPixels);
+            }
+
+            image.setUrl(blobStoreManager.commit(staged, extension));
+            image.setSha256(staged.getSha256());
+            image.setFileSize(staged.getSize());
+            image.setDeduplicated(staged.isDeduplicated());
+            return image;
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package dream.manager;
+
+import dream.common.structure.SortedLongArrays;
+import dream.entity.UserLike;
+import dream.mapper.UserLikeMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 点赞管理器
+ * 在内存中维护每个点赞对象（用户主页、笔记）的点赞用户集合，并把点赞数的变化合并写回数据库
+ *
+ * 技术解释：
+ * - 点赞用户集合是升序的 long[]，写时复制，“某用户是否点过赞”是一次二分查找，不需要查询数据库
+ * - 点赞/取消点赞以 user_likes 主键上的 INSERT IGNORE / DELETE 为准，只有受影响行数为1时才记一次增减，
+ *   重复点击、重试和多实例并发都不会让点赞数多算或少算
+ * - 点赞数的变化不直接 UPDATE 计数列：用户主页交给 UserCounterManager 批量写回 users.like_count，
+ *   笔记交给 NoteCounterManager 批量写回 notes.like_count，并计入 HotRankManager 的热度排行
+ * - 内存集合在事务提交后更新，启动后全量构建并定时重建，用于纳入其他实例上的点赞
+ * - 重建时不持有写锁扫描 user_likes，扫描期间的增量更新照常写入旧集合并按顺序记录，
+ *   扫描结束后在写锁内重放到新集合再切换，点赞请求不会等待全表扫描
+ */
+@Component
+public class LikeManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(LikeManager.class);
+
+    @Autowired
+    private UserLikeMapper userLikeMapper;
+
+    @Autowired
+    private UserCounterManager userCounterManager;
+
+    @Autowired
+    private NoteCounterManager noteCounterManager;
+
+    @Autowired
+    private HotRankManager hotRankManager;
+
+    /**
+     * 被点赞的用户ID -> 点赞的用户ID（升序）
+     */
+    private volatile Map<Long, long[]> userLikers = new ConcurrentHashMap<>();
+
+    /**
+     * 笔记ID -> 点赞的用户ID（升序）
+     */
+    private volatile Map<Long, long[]> noteLikers = new ConcurrentHashMap<>();
+
+    /**
+     * 写锁：增量更新和集合切换串行执行，读取不加锁
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * 重建期间记录的增量更新 {对象类型, 对象ID, 用户ID, 1-点赞/0-取消}，不在重建时为null（由写锁保护）
+     */
+    private List<long[]> pendingChanges;
+
+    /**
+     * 判断用户是否点过赞
+     * @param targetType 点赞对象类型（UserLike.TARGET_USER / TARGET_NOTE）
+     * @param targetId 点赞对象ID
+     * @param userId 用户ID
+     * @return 是否点过赞
+     */
+    public boolean hasLiked(int targetType, Long targetId, Long userId) {
+        return SortedLongArrays.contains(likersOf(targetType).getOrDefault(targetId, SortedLongArrays.EMPTY), userId);
+    }
+
+    /**
+     * 获取内存中的点赞数
+     * @param targetType 点赞对象类型
+     * @param targetId 点赞对象ID
+     * @return 点赞用户数
+     */
+    public int countLikes(int targetType, Long targetId) {
+        return likersOf(targetType).getOrDefault(targetId, SortedLongArrays.EMPTY).length;
+    }
+
+    /**
+     * 事务提交后记录一次新增的点赞（INSERT IGNORE 受影响行数为1时调用）
+     * @param targetType 点赞对象类型
+     * @param targetId 点赞对象ID
+     * @param userId 点赞的用户ID
+     */
+    public void likedAfterCommit(int targetType, Long targetId, Long userId) {
+        afterCommit(() -> {
+            update(targetType, targetId, userId, true);
+            addCount(targetType, targetId, 1);
+        });
+    }
+
+    /**
+     * 事务提交后记录一次取消的点赞（DELETE 受影响行数为1时调用）
+     * @param targetType 点赞对象类型
+     * @param targetId 点赞对象ID
+     * @param userId 点赞的用户ID
+     */
+    public void unlikedAfterCommit(int targetType, Long targetId, Long userId) {
+        afterCommit(() -> {
+            update(targetType, targetId, userId, false);
+            addCount(targetType, targetId, -1);
+        });
+    }
+
+    /**
+     * 数据库中的点赞状态与内存不一致时（其他实例修改过），事务提交后按数据库结果修正内存集合，不改变点赞数
+     * @param targetType 点赞对象类型
+     * @param targetId 点赞对象ID
+     * @param userId 用户ID
+     * @param liked 数据库中是否已点赞
+     */
+    public void correct(int targetType, Long targetId, Long userId, boolean liked) {
+        afterCommit(() -> update(targetType, targetId, userId, liked));
+    }
+
+    /**
+     * 启动后全量构建并定时重建点赞集合
+     * 扫描不持有写锁，扫描期间的增量更新在切换前重放到新集合上
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dream.like.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (writeLock) {
+            pendingChanges = new ArrayList<>();
+        }
+        try {
+            Map<Long, long[]> freshUserLikers = new ConcurrentHashMap<>();
+            Map<Long, long[]> freshNoteLikers = new ConcurrentHashMap<>();
+            LongBuffer buffer = new LongBuffer();
+            long[] current = {-1, -1};
+            long[] rows = {0};
+            userLikeMapper.scanAll(context -> {
+                UserLike row = context.getResultObject();
+                if (row.getTargetType() != current[0] || row.getTargetId() != current[1]) {
+                    if (current[1] >= 0) {
+                        put(current, buffer.drain(), freshUserLikers, freshNoteLikers);
+                    }
+                    current[0] = row.getTargetType();
+                    current[1] = row.getTargetId();
+                }
+                buffer.add(row.getUserId());
+                rows[0]++;
+            });
+            if (current[1] >= 0) {
+                put(current, buffer.drain(), freshUserLikers, freshNoteLikers);
+            }
+            synchronized (writeLock) {
+                for (long[] change : pendingChanges) {
+                    Map<Long, long[]> likers = change[0] == UserLike.TARGET_USER ? freshUserLikers : freshNoteLikers;
+                    setLiked(likers, change[1], change[2], change[3] == 1);
+                }
+                userLikers = freshUserLikers;
+                noteLikers = freshNoteLikers;
+                pendingChanges = null;
+            }
+            logger.info("点赞集合重建完成，点赞关系 {} 条，被点赞用户 {} 个，被点赞笔记 {} 篇，耗时 {}ms",
+                    rows[0], freshUserLikers.size(), freshNoteLikers.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("点赞集合重建失败，继续使用旧集合: {}", e.getMessage(), e);
+        } finally {
+            synchronized (writeLock) {
+                pendingChanges = null;
+            }
+        }
+    }
+
+    /**
+     * 获取点赞统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("likedUsers", userLikers.size());
+        stats.put("likedNotes", noteLikers.size());
+        stats.put("userLikes", userLikers.values().stream().mapToLong(likers -> likers.length).sum());
+        stats.put("noteLikes", noteLikers.values().stream().mapToLong(likers -> likers.length).sum());
+        return stats;
+    }
+
+    /**
+     * 更新当前集合中的点赞状态，重建期间同时记录下来
+     */
+    private void update(int targetType, long targetId, long userId, boolean liked) {
+        synchronized (writeLock) {
+            setLiked(likersOf(targetType), targetId, userId, liked);
+            if (pendingChanges != null) {
+                pendingChanges.add(new long[]{targetType, targetId, userId, liked ? 1 : 0});
+            }
+        }
+    }
+
+    /**
+     * 在点赞用户集合中加入或移除一个用户，调用方需持有写锁
+     */
+    private static void setLiked(Map<Long, long[]> likers, long targetId, long userId, boolean liked) {
+        if (liked) {
+            likers.merge(targetId, new long[]{userId}, (current, single) -> SortedLongArrays.insert(current, userId));
+        } else {
+            likers.computeIfPresent(targetId, (k, current) -> {
+                long[] updated = SortedLongArrays.remove(current, userId);
+                return updated.length == 0 ? null : updated;
+            });
+        }
+    }
+
+    private void addCount(int targetType, Long targetId, int delta) {
+        if (targetType == UserLike.TARGET_USER) {
+            if (delta > 0) {
+                userCounterManager.incrementLike(targetId);
+            } else {
+                userCounterManager.decrementLike(targetId);
+            }
+            return;
+        }
+        noteCounterManager.addLike(targetId, delta);
+        hotRankManager.addNoteLike(targetId, delta);
+    }
+
+    private Map<Long, long[]> likersOf(int targetType) {
+        if (targetType == UserLike.TARGET_USER) {
+            return userLikers;
+        }
+        if (targetType == UserLike.TARGET_NOTE) {
+            return noteLikers;
+        }
+        throw new IllegalArgumentException("不支持的点赞对象类型: " + targetType);
+    }
+
+    private static void put(long[] target, long[] likers, Map<Long, long[]> users, Map<Long, long[]> notes) {
+        if (target[0] == UserLike.TARGET_USER) {
+            users.put(target[1], likers);
+        } else if (target[0] == UserLike.TARGET_NOTE) {
+            notes.put(target[1], likers);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 可增长的 long 缓冲区，用于按顺序构建点赞用户集合
+     */
+    private static final class LongBuffer {
+
+        private long[] values = new long[16];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long[] drain() {
+            long[] result = Arrays.copyOf(values, size);
+            size = 0;
+            return result;
+        }
+    }
+}
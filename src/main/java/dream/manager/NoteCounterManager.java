@@ -0,0 +1,130 @@
+package dream.manager;
+
+import dream.common.structure.CounterDeltaMap;
+import dream.mapper.NoteMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 笔记计数写回管理器
+ * 笔记浏览次数和点赞数的增减只在内存中累加，定时合并成批量 UPDATE 写回数据库
+ *
+ * 技术解释：
+ * - 增量的累加、取走、分批写回与失败重试由 CounterDeltaMap 完成，与用户计数、壁纸下载次数共用
+ * - 浏览次数和点赞数分别合并成一条 UPDATE ... CASE 语句，不修改 updated_at，渲染缓存和ETag不受影响
+ * - 最大丢失窗口 = 刷盘间隔；应用正常关闭时会做最后一次刷盘
+ */
+@Component
+public class NoteCounterManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(NoteCounterManager.class);
+
+    @Autowired
+    private NoteMapper noteMapper;
+
+    /**
+     * 单条批量 UPDATE 语句最多包含的笔记数
+     */
+    @Value("${dream.counter.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 待写回的浏览次数增量
+     */
+    private final CounterDeltaMap viewDeltas = new CounterDeltaMap();
+
+    /**
+     * 待写回的点赞数增量
+     */
+    private final CounterDeltaMap likeDeltas = new CounterDeltaMap();
+
+    /**
+     * 刷盘锁，保证同一时刻只有一个线程在写回
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 增加笔记浏览次数
+     * @param noteId 笔记ID
+     */
+    public void incrementView(Long noteId) {
+        viewDeltas.add(noteId, 1);
+    }
+
+    /**
+     * 增加或减少笔记点赞数
+     * @param noteId 笔记ID
+     * @param delta 增量，取消点赞时为负数
+     */
+    public void addLike(Long noteId, long delta) {
+        likeDeltas.add(noteId, delta);
+    }
+
+    /**
+     * 获取尚未写回的浏览次数增量
+     * @param noteId 笔记ID
+     * @return 增量
+     */
+    public long pendingViews(Long noteId) {
+        return viewDeltas.pending(noteId);
+    }
+
+    /**
+     * 获取待写回的笔记数
+     * @return 待写回的笔记数
+     */
+    public int getPendingKeyCount() {
+        return viewDeltas.size() + likeDeltas.size();
+    }
+
+    /**
+     * 定时刷盘
+     * 间隔与用户计数相同，由 dream.counter.flush-interval-ms 配置
+     */
+    @Scheduled(fixedDelayString = "${dream.counter.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * 应用关闭前把剩余增量全部写回
+     */
+    @PreDestroy
+    public void shutdownFlush() {
+        flush();
+    }
+
+    /**
+     * 把内存中的增量合并后批量写回数据库
+     * @return 本次写回的笔记数
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return drain(viewDeltas, noteMapper::batchAddViewCounts, "浏览次数")
+                    + drain(likeDeltas, noteMapper::batchAddLikeCounts, "点赞数");
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 取走一个计数表中的全部增量并分批写回，失败的批次留待下次刷盘重试
+     */
+    private int drain(CounterDeltaMap deltas, Consumer<Map<Long, Long>> writer, String name) {
+        return deltas.flush(batchSize, writer, (batch, e) -> logger.error(
+                "笔记{}批量写回失败，{} 篇笔记的增量将在下次刷盘重试: {}", name, batch.size(), e.getMessage(), e));
+    }
+}
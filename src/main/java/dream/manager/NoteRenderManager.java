@@ -0,0 +1,205 @@
+package dream.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dream.dto.RenderedNote;
+import dream.entity.Note;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.commonmark.Extension;
+import org.commonmark.ext.autolink.AutolinkExtension;
+import org.commonmark.ext.gfm.strikethrough.StrikethroughExtension;
+import org.commonmark.ext.gfm.tables.TablesExtension;
+import org.commonmark.parser.Parser;
+import org.commonmark.renderer.html.HtmlRenderer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * 笔记渲染管理器
+ * 在服务端把笔记的 Markdown 正文渲染成 HTML，并按 (笔记ID, 正文哈希) 缓存渲染结果
+ *
+ * 技术解释：
+ * - 渲染规则与前端 marked 配置保持一致：GFM 表格/删除线/自动链接，单个换行渲染为 br
+ * - 代码块输出 language-xxx 类名，语法高亮仍由前端 Prism 完成
+ * - 正文中的原始 HTML 一律转义输出，链接只允许安全协议，/html 接口不会输出作者写入的脚本
+ * - 版本号是正文 SHA-256 的前64位（notes.content_hash，写入正文时计算），
+ *   ETag 由笔记ID、正文哈希和渲染器版本组成，同一版本的输出逐字节相同，因此是强 ETag；
+ *   同一秒内的两次修改也会得到不同的 ETag，校验 ETag 只需要查询哈希列，不需要读取 LONGTEXT 正文
+ * - 缓存按 HTML 字符数计算权重，总量由 dream.markdown.cache.maximum-weight 限制
+ * - 笔记发布或更新提交后立即预渲染，首次访问也能命中缓存
+ * - 缓存命中率以 cache.* 指标暴露（cache 标签为 notes.rendered）
+ */
+@Component
+public class NoteRenderManager {
+
+    /**
+     * 渲染器版本，修改渲染规则时递增，使客户端缓存的旧 ETag 全部失效
+     */
+    private static final String RENDERER_VERSION = "r2";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 缓存的最大总权重（HTML字符数）
+     */
+    @Value("${dream.markdown.cache.maximum-weight:33554432}")
+    private long maximumWeight;
+
+    /**
+     * Markdown解析器（线程安全，可复用）
+     */
+    private Parser parser;
+
+    /**
+     * HTML渲染器（线程安全，可复用）
+     */
+    private HtmlRenderer renderer;
+
+    /**
+     * 笔记ID -> 最近一次渲染结果
+     */
+    private Cache<Long, RenderedNote> renderCache;
+
+    /**
+     * 初始化解析器、渲染器和缓存
+     */
+    @PostConstruct
+    public void init() {
+        List<Extension> extensions = Arrays.asList(
+                TablesExtension.create(),
+                StrikethroughExtension.create(),
+                AutolinkExtension.create());
+        parser = Parser.builder().extensions(extensions).build();
+        renderer = HtmlRenderer.builder()
+                .extensions(extensions)
+                .softbreak("<br />\n")
+                .escapeHtml(true)
+                .sanitizeUrls(true)
+                .build();
+        renderCache = Caffeine.newBuilder()
+                .maximumWeight(maximumWeight)
+                .<Long, RenderedNote>weigher((id, rendered) -> rendered.getHtml().length())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, renderCache, "notes.rendered");
+    }
+
+    /**
+     * 计算正文的版本哈希（SHA-256 前8字节的十六进制）
+     * @param content Markdown 正文，null 按空串处理
+     * @return 16个字符的十六进制哈希
+     */
+    public static String hashOf(String content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((content == null ? "" : content).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(16);
+            for (int i = 0; i < 8; i++) {
+                hex.append(Character.forDigit((digest[i] >> 4) & 0xf, 16))
+                        .append(Character.forDigit(digest[i] & 0xf, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("JVM 不支持 SHA-256", e);
+        }
+    }
+
+    /**
+     * 计算某个笔记版本的强ETag
+     * @param noteId 笔记ID
+     * @param contentHash 正文哈希
+     * @return 带双引号的ETag
+     */
+    public String etagOf(Long noteId, String contentHash) {
+        return "\"n" + noteId + "-" + contentHash + "-" + RENDERER_VERSION + "\"";
+    }
+
+    /**
+     * 获取某个笔记版本的渲染结果
+     * 缓存中的正文哈希与数据库一致时直接返回，否则通过contentLoader读取正文后渲染
+     * @param noteId 笔记ID
+     * @param contentHash 数据库中的正文哈希
+     * @param contentLoader 正文加载函数，返回null表示笔记不存在
+     * @return 渲染结果，笔记不存在时返回null
+     */
+    public RenderedNote getRendered(Long noteId, String contentHash, Function<Long, Note> contentLoader) {
+        RenderedNote cached = renderCache.getIfPresent(noteId);
+        if (cached != null && cached.getContentHash().equals(contentHash)) {
+            return cached;
+        }
+        Note note = contentLoader.apply(noteId);
+        if (note == null) {
+            return null;
+        }
+        return render(note);
+    }
+
+    /**
+     * 渲染笔记并放入缓存
+     * @param note 包含ID和正文的笔记
+     * @return 渲染结果
+     */
+    public RenderedNote render(Note note) {
+        String html = renderer.render(parser.parse(note.getContent() == null ? "" : note.getContent()));
+        String contentHash = hashOf(note.getContent());
+        RenderedNote rendered = new RenderedNote(note.getId(), contentHash, etagOf(note.getId(), contentHash), html);
+        renderCache.put(note.getId(), rendered);
+        return rendered;
+    }
+
+    /**
+     * 事务提交后预渲染笔记（不在事务中时立即渲染）
+     * @param note 包含ID和正文的笔记
+     */
+    public void prerenderAfterCommit(Note note) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    render(note);
+                }
+            });
+        } else {
+            render(note);
+        }
+    }
+
+    /**
+     * 移除笔记的渲染结果
+     * @param noteId 笔记ID
+     */
+    public void evict(Long noteId) {
+        renderCache.invalidate(noteId);
+    }
+
+    /**
+     * 获取渲染缓存统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        CacheStats stats = renderCache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", renderCache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        return result;
+    }
+}
@@ -0,0 +1,195 @@
+package dream.manager;
+
+import dream.common.structure.InvertedIndex;
+import dream.common.structure.TextTokenizer;
+import dream.entity.Note;
+import dream.mapper.NoteMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 笔记全文检索管理器
+ * 在内存中维护已发布笔记的倒排索引，检索不访问数据库
+ *
+ * 技术解释：
+ * - 索引标题、摘要和正文，标题词频计3次、摘要计2次、正文计1次，使标题命中排得更靠前
+ * - 中文按二元切分、英文按单词切分（见 TextTokenizer），不依赖 MySQL 全文索引的分词器
+ * - 启动后全量构建并按 dream.search.rebuild-interval-ms 定时重建；
+ *   笔记创建、更新、发布、删除在事务提交后增量更新索引
+ * - 重建期间的增量更新写入旧索引的同时记录下来，扫描结束后在切换前按顺序重放到新索引，
+ *   扫描读到的旧数据不会覆盖扫描期间提交的修改，扫描期间删除的笔记也不会被重新加入
+ */
+@Component
+public class NoteSearchManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(NoteSearchManager.class);
+
+    private static final int TITLE_WEIGHT = 3;
+    private static final int SUMMARY_WEIGHT = 2;
+    private static final int CONTENT_WEIGHT = 1;
+
+    @Autowired
+    private NoteMapper noteMapper;
+
+    /**
+     * 当前生效的索引
+     */
+    private volatile InvertedIndex current = new InvertedIndex();
+
+    /**
+     * 重建期间记录的增量更新，不在重建时为null（由 updateLock 保护）
+     */
+    private List<Consumer<InvertedIndex>> pendingUpdates;
+
+    /**
+     * 增量更新与索引切换互斥
+     */
+    private final Object updateLock = new Object();
+
+    /**
+     * 上次重建完成的时间戳
+     */
+    private final AtomicLong lastRebuildAt = new AtomicLong();
+
+    /**
+     * 检索笔记
+     * @param query 查询文本
+     * @param limit 返回条数
+     * @return 按相关度排序的命中结果
+     */
+    public List<InvertedIndex.Hit> search(String query, int limit) {
+        return current.search(TextTokenizer.tokenize(query), limit);
+    }
+
+    /**
+     * 前缀联想
+     * @param prefix 前缀
+     * @param limit 返回条数
+     * @return 出现在最多笔记中的若干词项
+     */
+    public List<String> suggest(String prefix, int limit) {
+        return current.suggest(prefix == null ? null : prefix.trim().toLowerCase(Locale.ROOT), limit);
+    }
+
+    /**
+     * 事务提交后索引（或重新索引）一篇已发布笔记
+     * @param note 包含ID、标题、摘要、正文的笔记
+     */
+    public void indexAfterCommit(Note note) {
+        Map<String, Integer> terms = termsOf(note);
+        long noteId = note.getId();
+        afterCommit(() -> apply(index -> index.put(noteId, terms)));
+    }
+
+    /**
+     * 事务提交后从索引中移除笔记
+     * @param noteId 笔记ID
+     */
+    public void removeAfterCommit(Long noteId) {
+        long id = noteId;
+        afterCommit(() -> apply(index -> index.remove(id)));
+    }
+
+    /**
+     * 启动后全量构建并定时重建索引
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dream.search.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        InvertedIndex fresh = new InvertedIndex();
+        synchronized (updateLock) {
+            pendingUpdates = new ArrayList<>();
+        }
+        try {
+            noteMapper.scanPublishedForIndex(context -> {
+                Note note = context.getResultObject();
+                fresh.put(note.getId(), termsOf(note));
+            });
+            synchronized (updateLock) {
+                for (Consumer<InvertedIndex> update : pendingUpdates) {
+                    update.accept(fresh);
+                }
+                current = fresh;
+                pendingUpdates = null;
+            }
+            lastRebuildAt.set(System.currentTimeMillis());
+            logger.info("笔记检索索引重建完成，笔记数 {}，词项数 {}，耗时 {}ms",
+                    fresh.size(), fresh.termCount(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("笔记检索索引重建失败，继续使用旧索引: {}", e.getMessage(), e);
+        } finally {
+            synchronized (updateLock) {
+                pendingUpdates = null;
+            }
+        }
+    }
+
+    /**
+     * 获取索引统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        InvertedIndex index = current;
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("documents", index.size());
+        stats.put("terms", index.termCount());
+        stats.put("lastRebuildAt", lastRebuildAt.get());
+        return stats;
+    }
+
+    /**
+     * 计算笔记的加权词频
+     */
+    private static Map<String, Integer> termsOf(Note note) {
+        Map<String, Integer> terms = new HashMap<>();
+        addTerms(terms, note.getTitle(), TITLE_WEIGHT);
+        addTerms(terms, note.getSummary(), SUMMARY_WEIGHT);
+        addTerms(terms, note.getContent(), CONTENT_WEIGHT);
+        return terms;
+    }
+
+    private static void addTerms(Map<String, Integer> terms, String text, int weight) {
+        for (String token : TextTokenizer.tokenize(text)) {
+            terms.merge(token, weight, Integer::sum);
+        }
+    }
+
+    private void apply(Consumer<InvertedIndex> update) {
+        synchronized (updateLock) {
+            update.accept(current);
+            if (pendingUpdates != null) {
+                pendingUpdates.add(update);
+            }
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
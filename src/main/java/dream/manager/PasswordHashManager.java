@@ -0,0 +1,327 @@
+package dream.manager;
+
+import dream.exception.business.ServiceBusyException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * 密码哈希管理器
+ * 把 BCrypt 加密和校验放到独立的有界线程池中执行，避免登录/注册高峰占满 Tomcat 工作线程
+ *
+ * 技术解释：
+ * - 线程数固定（默认等于CPU核数），BCrypt 这种纯CPU计算再多线程也不会更快
+ * - 等待队列有界，队列满时立即拒绝并返回503，而不是让请求无限排队
+ * - 请求线程最多等待 dream.password.wait-timeout-ms，超时同样返回503并取消任务
+ * - BCrypt 强度（cost）由 dream.password.bcrypt-strength 配置，每加1耗时翻倍
+ * - 批量加密（用户导入）同时在途的任务数不超过线程数，登录/注册请求仍能在队列中排到，不会被导入饿死
+ * - 哈希耗时记录为 dream.password.hash 计时器（operation=encode/matches），线程池队列深度等以 executor.* 指标暴露
+ */
+@Component
+public class PasswordHashManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(PasswordHashManager.class);
+
+    @Autowired
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 哈希线程数，0表示使用CPU核数
+     */
+    @Value("${dream.password.pool-size:0}")
+    private int poolSize;
+
+    /**
+     * 等待队列容量
+     */
+    @Value("${dream.password.queue-capacity:64}")
+    private int queueCapacity;
+
+    /**
+     * 请求线程等待哈希结果的最长时间（毫秒）
+     */
+    @Value("${dream.password.wait-timeout-ms:3000}")
+    private long waitTimeoutMs;
+
+    /**
+     * 哈希线程池
+     */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 被拒绝（队列已满）的任务数
+     */
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * 等待超时的任务数
+     */
+    private final LongAdder timedOut = new LongAdder();
+
+    /**
+     * 加密耗时统计
+     */
+    private LatencyStats encodeStats;
+
+    /**
+     * 校验耗时统计
+     */
+    private LatencyStats matchStats;
+
+    /**
+     * 按配置创建线程池并注册指标
+     */
+    @PostConstruct
+    public void init() {
+        int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        encodeStats = new LatencyStats(hashTimer("encode"));
+        matchStats = new LatencyStats(hashTimer("matches"));
+        new ExecutorServiceMetrics(executor, "password-hash", Collections.emptyList()).bindTo(meterRegistry);
+        FunctionCounter.builder("dream.password.rejected", rejected, LongAdder::sum)
+                .description("线程池队列已满被拒绝的哈希任务数")
+                .register(meterRegistry);
+        FunctionCounter.builder("dream.password.timeout", timedOut, LongAdder::sum)
+                .description("等待超时的哈希任务数")
+                .register(meterRegistry);
+        logger.info("密码哈希线程池已启动，线程数: {}，队列容量: {}", threads, queueCapacity);
+    }
+
+    /**
+     * 关闭线程池
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 加密密码
+     * @param rawPassword 原始密码
+     * @return 加密后的密码哈希
+     * @throws ServiceBusyException 线程池已满或等待超时
+     */
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> passwordEncoder.encode(rawPassword), encodeStats);
+    }
+
+    /**
+     * 批量加密密码，多个核并行计算
+     * 同时提交到线程池的任务数不超过线程数，其余任务等前面的完成后再提交；队列被其他请求占满时等待后重试
+     * @param rawPasswords 原始密码
+     * @return 与输入顺序一致的密码哈希
+     * @throws ServiceBusyException 等待超时仍无法提交任务
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        String[] hashes = new String[rawPasswords.size()];
+        Deque<Future<?>> inFlight = new ArrayDeque<>();
+        int window = executor.getCorePoolSize();
+        try {
+            for (int i = 0; i < hashes.length; i++) {
+                if (inFlight.size() >= window) {
+                    await(inFlight.poll());
+                }
+                int index = i;
+                CharSequence rawPassword = rawPasswords.get(i);
+                inFlight.add(submitWithRetry(() -> {
+                    long start = System.nanoTime();
+                    hashes[index] = passwordEncoder.encode(rawPassword);
+                    encodeStats.record(System.nanoTime() - start);
+                }, inFlight));
+            }
+            while (!inFlight.isEmpty()) {
+                await(inFlight.poll());
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+        return Arrays.asList(hashes);
+    }
+
+    /**
+     * 校验密码
+     * @param rawPassword 原始密码
+     * @param encodedPassword 已加密的密码哈希
+     * @return 是否匹配
+     * @throws ServiceBusyException 线程池已满或等待超时
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> passwordEncoder.matches(rawPassword, encodedPassword), matchStats);
+    }
+
+    /**
+     * 获取线程池与耗时统计
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("completedCount", executor.getCompletedTaskCount());
+        stats.put("rejectedCount", rejected.sum());
+        stats.put("timedOutCount", timedOut.sum());
+        stats.put("encode", encodeStats.toMap());
+        stats.put("matches", matchStats.toMap());
+        return stats;
+    }
+
+    private Timer hashTimer(String operation) {
+        return Timer.builder("dream.password.hash")
+                .description("BCrypt 计算耗时（不含排队时间）")
+                .tag("operation", operation)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 提交哈希任务并在限定时间内等待结果
+     */
+    private <T> T execute(Callable<T> task, LatencyStats latency) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long start = System.nanoTime();
+                try {
+                    return task.call();
+                } finally {
+                    latency.record(System.nanoTime() - start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw ServiceBusyException.serviceBusy();
+        }
+        try {
+            return future.get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timedOut.increment();
+            throw ServiceBusyException.serviceBusy();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw ServiceBusyException.serviceBusy();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("密码哈希失败", cause);
+        }
+    }
+
+    /**
+     * 提交批量任务，队列已满时先等待一个在途任务完成（没有在途任务时短暂休眠）再重试
+     */
+    private Future<?> submitWithRetry(Runnable task, Deque<Future<?>> inFlight) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitTimeoutMs);
+        while (true) {
+            try {
+                return executor.submit(task);
+            } catch (RejectedExecutionException e) {
+                if (System.nanoTime() >= deadline) {
+                    rejected.increment();
+                    throw ServiceBusyException.serviceBusy();
+                }
+                if (!inFlight.isEmpty()) {
+                    await(inFlight.poll());
+                } else {
+                    LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(10));
+                }
+            }
+        }
+    }
+
+    /**
+     * 等待批量任务完成
+     */
+    private static void await(Future<?> future) {
+        try {
+            future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw ServiceBusyException.serviceBusy();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw new IllegalStateException("密码哈希失败", cause);
+        }
+    }
+
+    /**
+     * 耗时统计：次数、总耗时、最大耗时，同时记录到 Micrometer 计时器
+     */
+    private static final class LatencyStats {
+
+        private final Timer timer;
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+
+        private LatencyStats(Timer timer) {
+            this.timer = timer;
+        }
+
+        private void record(long nanos) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+        }
+
+        private Map<String, Object> toMap() {
+            long n = count.sum();
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("count", n);
+            map.put("avgMillis", n == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / n);
+            map.put("maxMillis", maxNanos.get() / 1_000_000.0);
+            return map;
+        }
+    }
+}
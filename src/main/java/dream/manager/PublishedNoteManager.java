@@ -0,0 +1,93 @@
+package dream.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dream.mapper.NoteMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+
+/**
+ * 已发布笔记判断缓存
+ * 浏览计数、热度排行等只接受已发布笔记的入口，用它在请求线程上过滤不存在、未发布或已删除的笔记ID
+ *
+ * 技术解释：
+ * - 以笔记ID为键缓存“是否已发布”，未命中时做一次主键查询；不存在的ID同样缓存，
+ *   伪造的ID只会各自查询一次，不会进入计数和排行
+ * - 本实例发布、删除笔记时在事务提交后失效；其他实例的修改最迟在 dream.note.published-cache.expire-seconds 后生效
+ * - 命中/未命中/淘汰次数以 cache.* 指标暴露（cache 标签为 notes.published）
+ */
+@Component
+public class PublishedNoteManager {
+
+    @Autowired
+    private NoteMapper noteMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 最大条目数
+     */
+    @Value("${dream.note.published-cache.maximum-size:50000}")
+    private long maximumSize;
+
+    /**
+     * 写入后的存活时间（秒）
+     */
+    @Value("${dream.note.published-cache.expire-seconds:60}")
+    private long expireSeconds;
+
+    /**
+     * 笔记ID -> 是否已发布
+     */
+    private Cache<Long, Boolean> published;
+
+    /**
+     * 初始化缓存并注册指标
+     */
+    @PostConstruct
+    public void init() {
+        published = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, published, "notes.published");
+    }
+
+    /**
+     * 判断笔记是否存在且已发布
+     * @param noteId 笔记ID
+     * @return 是否已发布
+     */
+    public boolean isPublished(Long noteId) {
+        if (noteId == null || noteId <= 0) {
+            return false;
+        }
+        return published.get(noteId, id -> noteMapper.countPublished(id) > 0);
+    }
+
+    /**
+     * 事务提交后失效（笔记发布、取消发布或删除时调用）
+     * @param noteId 笔记ID
+     */
+    public void evictAfterCommit(Long noteId) {
+        published.invalidate(noteId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    published.invalidate(noteId);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,328 @@
+package dream.manager;
+
+import dream.exception.business.ServiceBusyException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 限流管理器
+ * 按策略对IP、用户或账号做令牌桶限流，策略在 dream.ratelimit.policies.{策略名}.* 中配置
+ *
+ * 技术解释：
+ * - 令牌桶用 GCRA（通用信元速率算法）实现：每个桶只保存一个“理论到达时间”（TAT），
+ *   每个请求把 TAT 推后一个令牌的间隔，TAT 超出当前时间太多（超过突发容量）就拒绝；
+ *   更新是一次 CAS，不加锁，与令牌桶在数学上等价
+ * - 桶按键的哈希分散到多个分片（各自是一个 ConcurrentHashMap），清理时逐个分片扫描，互不阻塞
+ * - TAT 早于当前时间的桶已经“充满”，与新建的桶没有区别，定时清理掉，内存只与近期活跃的键数量有关；
+ *   键总数达到 dream.ratelimit.max-keys 时新键不再建桶而直接放行（宁可少限流，也不让内存无限增长）；
+ *   配置了 fail-closed 的策略（如按账号限制登录）先清理已充满的桶，仍然没有空间时拒绝，
+ *   攻击者不能靠制造大量键让限流失效
+ * - 每个策略被拒绝的请求数记录为 dream.ratelimit.rejected{policy} 计数器
+ */
+@Component
+public class RateLimitManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(RateLimitManager.class);
+
+    /**
+     * 分片数（2的幂）
+     */
+    private static final int SHARDS = 16;
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 是否启用限流
+     */
+    @Value("${dream.ratelimit.enabled:true}")
+    private boolean enabled;
+
+    /**
+     * 所有策略合计的最大桶数
+     */
+    @Value("${dream.ratelimit.max-keys:100000}")
+    private int maxKeys;
+
+    /**
+     * 策略名 -> 策略
+     */
+    private Map<String, Policy> policies = Collections.emptyMap();
+
+    /**
+     * 策略名 -> 被拒绝次数
+     */
+    private final Map<String, Counter> rejected = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    private final Map<String, AtomicLong>[] shards = new Map[SHARDS];
+
+    /**
+     * 加载策略并注册指标
+     */
+    @PostConstruct
+    public void init() {
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new ConcurrentHashMap<>();
+        }
+        policies = Binder.get(environment)
+                .bind("dream.ratelimit.policies", Bindable.mapOf(String.class, Policy.class))
+                .orElse(Collections.emptyMap());
+        for (Map.Entry<String, Policy> entry : policies.entrySet()) {
+            entry.getValue().init(entry.getKey());
+            rejected.put(entry.getKey(), Counter.builder("dream.ratelimit.rejected")
+                    .description("被限流拒绝的请求数")
+                    .tag("policy", entry.getKey())
+                    .register(meterRegistry));
+        }
+        Gauge.builder("dream.ratelimit.keys", this, RateLimitManager::size)
+                .description("当前的限流桶数")
+                .register(meterRegistry);
+        logger.info("限流{}，策略: {}", enabled ? "已启用" : "未启用", policies.keySet());
+    }
+
+    /**
+     * 获取全部策略（按配置顺序），用于按请求路径匹配
+     * @return 策略名 -> 策略
+     */
+    public Map<String, Policy> getPolicies() {
+        return policies;
+    }
+
+    /**
+     * 按策略为某个键取一个令牌
+     * @param policyName 策略名，未配置的策略直接放行
+     * @param key 限流键（IP、用户ID、账号）
+     * @return 需要等待的毫秒数，0 表示放行
+     */
+    public long tryAcquire(String policyName, String key) {
+        Policy policy = policies.get(policyName);
+        if (!enabled || policy == null || key == null) {
+            return 0;
+        }
+        String bucketKey = policyName + '|' + key;
+        Map<String, AtomicLong> shard = shardOf(bucketKey);
+        AtomicLong tat = shard.get(bucketKey);
+        long now = System.nanoTime();
+        if (tat == null) {
+            if (size() >= maxKeys) {
+                if (!policy.failClosed) {
+                    return 0;
+                }
+                evictIdle();
+                if (size() >= maxKeys) {
+                    rejected.get(policyName).increment();
+                    return Math.max(1, TimeUnit.NANOSECONDS.toMillis(policy.intervalNanos));
+                }
+            }
+            tat = shard.computeIfAbsent(bucketKey, k -> new AtomicLong(now));
+        }
+        while (true) {
+            long current = tat.get();
+            long next = Math.max(current, now) + policy.intervalNanos;
+            if (next - now > policy.toleranceNanos + policy.intervalNanos) {
+                rejected.get(policyName).increment();
+                return Math.max(1, TimeUnit.NANOSECONDS.toMillis(next - now - policy.toleranceNanos - policy.intervalNanos));
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * 退还一个已取得的令牌
+     * 用于只在失败时计数的场景（如登录失败）：处理前先用 {@link #tryAcquire} 预留令牌，成功后退还，
+     * 预留与检查是同一次 CAS，并发请求不会都在检查时看到还有令牌而超出限额
+     * @param policyName 策略名，未配置的策略忽略
+     * @param key 限流键
+     */
+    public void refund(String policyName, String key) {
+        Policy policy = policies.get(policyName);
+        if (!enabled || policy == null || key == null) {
+            return;
+        }
+        String bucketKey = policyName + '|' + key;
+        AtomicLong tat = shardOf(bucketKey).get(bucketKey);
+        if (tat != null) {
+            // TAT 早于当前时间时再往前移不会多出令牌（取令牌时按 max(TAT, now) 计算），无需下限
+            tat.addAndGet(-policy.intervalNanos);
+        }
+    }
+
+    /**
+     * 按策略为某个键取一个令牌，没有令牌时抛出异常
+     * @param policyName 策略名
+     * @param key 限流键
+     * @throws ServiceBusyException 请求过于频繁（429）
+     */
+    public void acquire(String policyName, String key) {
+        if (tryAcquire(policyName, key) > 0) {
+            throw ServiceBusyException.tooManyRequests();
+        }
+    }
+
+    private Map<String, AtomicLong> shardOf(String bucketKey) {
+        return shards[bucketKey.hashCode() & (SHARDS - 1)];
+    }
+
+    /**
+     * 当前的桶数
+     */
+    public int size() {
+        int size = 0;
+        for (Map<String, AtomicLong> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    /**
+     * 获取限流统计
+     * @return 桶数和各策略的拒绝次数
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("keys", size());
+        Map<String, Object> rejectedCounts = new LinkedHashMap<>();
+        rejected.forEach((name, counter) -> rejectedCounts.put(name, (long) counter.count()));
+        stats.put("rejected", rejectedCounts);
+        return stats;
+    }
+
+    /**
+     * 清理已充满的桶（TAT 早于当前时间，与新建的桶等价）
+     */
+    @Scheduled(fixedDelayString = "${dream.ratelimit.cleanup-interval-ms:60000}")
+    public void evictIdle() {
+        long now = System.nanoTime();
+        for (Map<String, AtomicLong> shard : shards) {
+            shard.values().removeIf(tat -> tat.get() - now <= 0);
+        }
+    }
+
+    /**
+     * 限流策略
+     * 每 period 补充 limit 个令牌，桶容量（允许的突发请求数）为 burst，默认等于 limit
+     */
+    public static class Policy {
+
+        /**
+         * 匹配的请求，格式为 "{HTTP方法} {路径}"，路径支持 Ant 通配符，方法为 * 时匹配所有方法；
+         * 为空表示不由过滤器按路径匹配，由业务代码调用（如按账号限制登录）
+         */
+        private String pattern;
+
+        /**
+         * 限流键：ip（客户端IP）、user（已登录用户ID，未登录时按IP）
+         */
+        private String key = "ip";
+
+        /**
+         * 每个周期补充的令牌数
+         */
+        private int limit;
+
+        /**
+         * 周期
+         */
+        private Duration period = Duration.ofMinutes(1);
+
+        /**
+         * 桶容量，0 表示等于 limit
+         */
+        private int burst;
+
+        /**
+         * 桶数达到上限时是否拒绝新键（默认放行）
+         */
+        private boolean failClosed;
+
+        private long intervalNanos;
+
+        private long toleranceNanos;
+
+        private void init(String name) {
+            if (limit <= 0) {
+                throw new IllegalStateException("限流策略 " + name + " 的 limit 必须大于0");
+            }
+            int capacity = burst > 0 ? burst : limit;
+            intervalNanos = period.toNanos() / limit;
+            toleranceNanos = intervalNanos * (capacity - 1);
+        }
+
+        public String getPattern() {
+            return pattern;
+        }
+
+        public void setPattern(String pattern) {
+            this.pattern = pattern;
+        }
+
+        public String getKey() {
+            return key;
+        }
+
+        public void setKey(String key) {
+            this.key = key;
+        }
+
+        public int getLimit() {
+            return limit;
+        }
+
+        public void setLimit(int limit) {
+            this.limit = limit;
+        }
+
+        public Duration getPeriod() {
+            return period;
+        }
+
+        public void setPeriod(Duration period) {
+            this.period = period;
+        }
+
+        public int getBurst() {
+            return burst;
+        }
+
+        public void setBurst(int burst) {
+            this.burst = burst;
+        }
+
+        public boolean isFailClosed() {
+            return failClosed;
+        }
+
+        public void setFailClosed(boolean failClosed) {
+            this.failClosed = failClosed;
+        }
+    }
+}
@@ -0,0 +1,432 @@
+package dream.manager;
+
+import dream.common.structure.SortedLongArrays;
+import dream.entity.NoteTag;
+import dream.entity.Tag;
+import dream.mapper.NoteTagMapper;
+import dream.mapper.TagMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 标签索引管理器
+ * 在内存中维护 标签 -> 已发布笔记ID 的倒排列表，按标签筛选笔记和生成标签云都不需要关联查询
+ *
+ * 技术解释：
+ * - 倒排列表是升序的 long[]，写时复制：更新时生成新数组再替换，读取无需加锁
+ * - 多标签筛选：AND 从最短的列表开始逐个求交，OR 逐个归并求并
+ * - 标签使用次数 = 该标签下已发布笔记数，直接取倒排列表长度；
+ *   变化的标签记为“脏”，由定时任务合并成批量 UPDATE 写回 tags.usage_count
+ * - 启动后全量构建并定时重建；笔记发布、删除和改标签在事务提交后增量更新
+ * - 重建时不持有写锁扫描数据库，扫描期间的增量更新照常写入旧索引并记录下来，
+ *   扫描结束后在写锁内重放到新索引再切换，增量更新最多等待一次重放
+ */
+@Component
+public class TagIndexManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TagIndexManager.class);
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    @Autowired
+    private NoteTagMapper noteTagMapper;
+
+    /**
+     * 单条批量 UPDATE 语句最多包含的标签数
+     */
+    @Value("${dream.tag.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 标签ID -> 标签信息
+     */
+    private volatile Map<Long, Tag> tags = new ConcurrentHashMap<>();
+
+    /**
+     * 标签ID -> 已发布笔记ID（升序）
+     */
+    private volatile Map<Long, long[]> notesByTag = new ConcurrentHashMap<>();
+
+    /**
+     * 已发布笔记ID -> 标签ID（升序）
+     */
+    private volatile Map<Long, long[]> tagsByNote = new ConcurrentHashMap<>();
+
+    /**
+     * 使用次数待写回的标签ID
+     */
+    private final Set<Long> dirtyTags = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 写锁：增量更新和索引切换串行执行，读取不加锁
+     */
+    private final Object writeLock = new Object();
+
+    /**
+     * 重建期间记录的 笔记ID -> 最新标签ID，不在重建时为null（由写锁保护）
+     */
+    private Map<Long, long[]> pendingNoteTags;
+
+    /**
+     * 重建期间登记的新标签，不在重建时为null（由写锁保护）
+     */
+    private List<Tag> pendingTags;
+
+    /**
+     * 按标签筛选已发布笔记
+     * @param tagIds 标签ID列表
+     * @param matchAll true-同时包含所有标签（AND），false-包含任意一个标签（OR）
+     * @return 笔记ID（升序）
+     */
+    public long[] findNotes(List<Long> tagIds, boolean matchAll) {
+        if (tagIds == null || tagIds.isEmpty()) {
+            return SortedLongArrays.EMPTY;
+        }
+        Map<Long, long[]> index = notesByTag;
+        List<long[]> lists = new ArrayList<>(tagIds.size());
+        for (Long tagId : tagIds) {
+            long[] notes = index.getOrDefault(tagId, SortedLongArrays.EMPTY);
+            if (matchAll && notes.length == 0) {
+                return SortedLongArrays.EMPTY;
+            }
+            lists.add(notes);
+        }
+        if (matchAll) {
+            lists.sort(Comparator.comparingInt(list -> list.length));
+            long[] result = lists.get(0);
+            for (int i = 1; i < lists.size() && result.length > 0; i++) {
+                result = SortedLongArrays.intersect(result, lists.get(i));
+            }
+            return result;
+        }
+        long[] result = SortedLongArrays.EMPTY;
+        for (long[] list : lists) {
+            result = SortedLongArrays.union(result, list);
+        }
+        return result;
+    }
+
+    /**
+     * 获取使用次数最多的标签（标签云）
+     * @param limit 返回条数
+     * @return 标签列表（usageCount为内存中的实时值），按使用次数倒序
+     */
+    public List<Tag> topTags(int limit) {
+        Map<Long, long[]> index = notesByTag;
+        Comparator<Tag> byUsage = Comparator.comparingInt(Tag::getUsageCount);
+        PriorityQueue<Tag> heap = new PriorityQueue<>(byUsage);
+        for (Tag tag : tags.values()) {
+            Tag copy = new Tag();
+            BeanUtils.copyProperties(tag, copy);
+            copy.setUsageCount(index.getOrDefault(tag.getId(), SortedLongArrays.EMPTY).length);
+            heap.offer(copy);
+            if (heap.size() > limit) {
+                heap.poll();
+            }
+        }
+        List<Tag> result = new ArrayList<>(heap.size());
+        while (!heap.isEmpty()) {
+            result.add(heap.poll());
+        }
+        Collections.reverse(result);
+        return result;
+    }
+
+    /**
+     * 判断标签是否存在
+     * @param tagId 标签ID
+     * @return 是否存在
+     */
+    public boolean containsTag(Long tagId) {
+        return tags.containsKey(tagId);
+    }
+
+    /**
+     * 事务提交后登记新标签
+     * @param tag 标签
+     */
+    public void putTagAfterCommit(Tag tag) {
+        afterCommit(() -> {
+            synchronized (writeLock) {
+                tags.put(tag.getId(), tag);
+                if (pendingTags != null) {
+                    pendingTags.add(tag);
+                }
+            }
+        });
+    }
+
+    /**
+     * 事务提交后把笔记加入索引（笔记发布时调用）
+     * 标签在发布事务中读取，提交回调里不再访问数据库（此时事务资源已释放，查询会另取连接且可能读到从库）
+     * @param noteId 笔记ID
+     */
+    public void notePublishedAfterCommit(Long noteId) {
+        long[] tagIds = toSortedArray(noteTagMapper.findTagIdsByNoteId(noteId));
+        afterCommit(() -> updateNote(noteId, tagIds));
+    }
+
+    /**
+     * 事务提交后更新已发布笔记的标签
+     * @param noteId 笔记ID
+     * @param tagIds 新的标签ID列表
+     */
+    public void noteTagsChangedAfterCommit(Long noteId, List<Long> tagIds) {
+        long[] sorted = toSortedArray(tagIds);
+        afterCommit(() -> updateNote(noteId, sorted));
+    }
+
+    /**
+     * 事务提交后把笔记移出索引（笔记删除或取消发布时调用）
+     * @param noteId 笔记ID
+     */
+    public void noteRemovedAfterCommit(Long noteId) {
+        afterCommit(() -> updateNote(noteId, SortedLongArrays.EMPTY));
+    }
+
+    /**
+     * 判断笔记是否在索引中（即已发布）
+     * @param noteId 笔记ID
+     * @return 是否已发布
+     */
+    public boolean isIndexed(Long noteId) {
+        return tagsByNote.containsKey(noteId);
+    }
+
+    /**
+     * 启动后全量构建并定时重建索引
+     * 扫描不持有写锁，扫描期间的增量更新在切换前重放到新索引上
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dream.tag.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        synchronized (writeLock) {
+            pendingNoteTags = new HashMap<>();
+            pendingTags = new ArrayList<>();
+        }
+        try {
+            Map<Long, Tag> freshTags = new ConcurrentHashMap<>();
+            for (Tag tag : tagMapper.selectList(null)) {
+                freshTags.put(tag.getId(), tag);
+            }
+
+            Map<Long, List<Long>> noteToTags = new HashMap<>();
+            Map<Long, long[]> freshNotesByTag = new ConcurrentHashMap<>();
+            LongBuffer buffer = new LongBuffer();
+            long[] currentTag = {-1};
+            noteTagMapper.scanPublishedNoteTags(context -> {
+                NoteTag row = context.getResultObject();
+                if (row.getTagId() != currentTag[0]) {
+                    if (currentTag[0] >= 0) {
+                        freshNotesByTag.put(currentTag[0], buffer.drain());
+                    }
+                    currentTag[0] = row.getTagId();
+                }
+                buffer.add(row.getNoteId());
+                noteToTags.computeIfAbsent(row.getNoteId(), k -> new ArrayList<>()).add(row.getTagId());
+            });
+            if (currentTag[0] >= 0) {
+                freshNotesByTag.put(currentTag[0], buffer.drain());
+            }
+
+            Map<Long, long[]> freshTagsByNote = new ConcurrentHashMap<>();
+            for (Map.Entry<Long, List<Long>> entry : noteToTags.entrySet()) {
+                freshTagsByNote.put(entry.getKey(), toSortedArray(entry.getValue()));
+            }
+
+            synchronized (writeLock) {
+                for (Tag tag : pendingTags) {
+                    freshTags.put(tag.getId(), tag);
+                }
+                for (Map.Entry<Long, long[]> entry : pendingNoteTags.entrySet()) {
+                    setNoteTags(freshNotesByTag, freshTagsByNote, entry.getKey(), entry.getValue());
+                }
+                tags = freshTags;
+                notesByTag = freshNotesByTag;
+                tagsByNote = freshTagsByNote;
+                pendingNoteTags = null;
+                pendingTags = null;
+            }
+            for (Tag tag : freshTags.values()) {
+                int usage = freshNotesByTag.getOrDefault(tag.getId(), SortedLongArrays.EMPTY).length;
+                if (tag.getUsageCount() == null || tag.getUsageCount() != usage) {
+                    dirtyTags.add(tag.getId());
+                }
+            }
+            logger.info("标签索引重建完成，标签数 {}，已发布笔记数 {}，待校准标签数 {}，耗时 {}ms",
+                    freshTags.size(), freshTagsByNote.size(), dirtyTags.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("标签索引重建失败，继续使用旧索引: {}", e.getMessage(), e);
+        } finally {
+            synchronized (writeLock) {
+                pendingNoteTags = null;
+                pendingTags = null;
+            }
+        }
+    }
+
+    /**
+     * 定时把变化的标签使用次数批量写回数据库
+     * 间隔由 dream.tag.reconcile-interval-ms 配置
+     */
+    @Scheduled(fixedDelayString = "${dream.tag.reconcile-interval-ms:60000}")
+    public void reconcileUsageCounts() {
+        if (dirtyTags.isEmpty()) {
+            return;
+        }
+        Map<Long, long[]> index = notesByTag;
+        List<Tag> batch = new ArrayList<>();
+        Iterator<Long> iterator = dirtyTags.iterator();
+        while (iterator.hasNext()) {
+            Long tagId = iterator.next();
+            iterator.remove();
+            batch.add(new Tag().setId(tagId).setUsageCount(index.getOrDefault(tagId, SortedLongArrays.EMPTY).length));
+            if (batch.size() >= batchSize) {
+                writeUsageCounts(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            writeUsageCounts(batch);
+        }
+    }
+
+    /**
+     * 获取索引统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("tags", tags.size());
+        stats.put("publishedNotes", tagsByNote.size());
+        stats.put("postings", notesByTag.values().stream().mapToLong(notes -> notes.length).sum());
+        stats.put("dirtyTags", dirtyTags.size());
+        return stats;
+    }
+
+    /**
+     * 更新当前索引中笔记的标签，重建期间同时记录下来
+     */
+    private void updateNote(Long noteId, long[] newTags) {
+        synchronized (writeLock) {
+            setNoteTags(notesByTag, tagsByNote, noteId, newTags);
+            if (pendingNoteTags != null) {
+                pendingNoteTags.put(noteId, newTags);
+            }
+        }
+    }
+
+    /**
+     * 替换笔记的标签并更新倒排列表，调用方需持有写锁
+     * @param notesByTag 标签ID -> 笔记ID 的倒排列表
+     * @param tagsByNote 笔记ID -> 标签ID
+     * @param noteId 笔记ID
+     * @param newTags 新的标签ID（升序），空数组表示移出索引
+     */
+    private void setNoteTags(Map<Long, long[]> notesByTag, Map<Long, long[]> tagsByNote, Long noteId,
+                             long[] newTags) {
+        long[] oldTags = tagsByNote.getOrDefault(noteId, SortedLongArrays.EMPTY);
+        for (long tagId : oldTags) {
+            if (!SortedLongArrays.contains(newTags, tagId)) {
+                notesByTag.computeIfPresent(tagId, (k, notes) -> {
+                    long[] updated = SortedLongArrays.remove(notes, noteId);
+                    return updated.length == 0 ? null : updated;
+                });
+                dirtyTags.add(tagId);
+            }
+        }
+        for (long tagId : newTags) {
+            if (!SortedLongArrays.contains(oldTags, tagId)) {
+                notesByTag.merge(tagId, new long[]{noteId}, (notes, single) -> SortedLongArrays.insert(notes, noteId));
+                dirtyTags.add(tagId);
+            }
+        }
+        if (newTags.length == 0) {
+            tagsByNote.remove(noteId);
+        } else {
+            tagsByNote.put(noteId, newTags);
+        }
+    }
+
+    private void writeUsageCounts(List<Tag> batch) {
+        try {
+            tagMapper.batchUpdateUsageCount(batch);
+            for (Tag update : batch) {
+                Tag tag = tags.get(update.getId());
+                if (tag != null) {
+                    tag.setUsageCount(update.getUsageCount());
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.error("标签使用次数写回失败，{} 个标签将在下次重试: {}", batch.size(), e.getMessage(), e);
+            for (Tag tag : batch) {
+                dirtyTags.add(tag.getId());
+            }
+        }
+    }
+
+    private static long[] toSortedArray(List<Long> values) {
+        long[] array = values.stream().distinct().mapToLong(Long::longValue).toArray();
+        Arrays.sort(array);
+        return array;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 可增长的 long 缓冲区，用于按顺序构建倒排列表
+     */
+    private static final class LongBuffer {
+
+        private long[] values = new long[16];
+        private int size;
+
+        private void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        private long[] drain() {
+            long[] result = Arrays.copyOf(values, size);
+            size = 0;
+            return result;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package dream.manager;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dream.dto.TokenRevocation;
+import dream.mapper.UserMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 登录令牌管理器
+ * 签发和校验无状态的 JWT（HS256），并维护内存中的吊销表
+ *
+ * 技术解释：
+ * - 令牌自带用户ID（sub）、签发时间（iat）和过期时间（exp），校验只需计算一次 HMAC-SHA256，不查数据库
+ * - 签名校验通过的令牌解析结果放入有界缓存，同一令牌再次请求时跳过 HMAC 和 JSON 解析，
+ *   只做过期和吊销检查（两次比较加一次哈希表查找）
+ * - 吊销表以用户ID为键，值为吊销时间：签发时间早于吊销时间的令牌全部失效。
+ *   修改密码、禁用账户时写入，每个用户只占一个条目，校验时是一次哈希表查找
+ * - 条目在令牌有效期过后就不再需要（之前签发的令牌已全部过期），定时清理
+ * - 吊销时间同时写入 users.token_revoked_at（与修改密码、禁用账户在同一条 UPDATE 中），
+ *   写入的是应用时钟的时间而不是数据库的 CURRENT_TIMESTAMP，与同样取自应用时钟的签发时间直接可比；
+ *   各实例的时钟偏差需小于增量同步的重叠窗口（NTP 同步即可满足），
+ *   启动时加载最近一个令牌有效期内的吊销记录，之后定时增量同步，重启不会让已吊销的令牌重新生效，
+ *   其他实例的吊销最迟在一个同步间隔后生效
+ * - 未配置 dream.auth.jwt-secret 时每次启动随机生成密钥，重启后之前签发的令牌全部失效
+ */
+@Component
+public class TokenManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(TokenManager.class);
+
+    private static final String ALGORITHM = "HmacSHA256";
+
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    /**
+     * 固定的JWT头部，校验时要求完全一致，拒绝 alg=none 等其他算法
+     */
+    private static final String HEADER = ENCODER.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private static final String ISSUER = "dream";
+
+    /**
+     * 增量同步的重叠窗口（毫秒）
+     */
+    private static final long SYNC_OVERLAP_MS = 10000;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 签名密钥（至少32字节），为空时随机生成
+     */
+    @Value("${dream.auth.jwt-secret:}")
+    private String secret;
+
+    /**
+     * 令牌有效期（秒）
+     */
+    @Value("${dream.auth.token-ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    /**
+     * 已校验令牌缓存的最大条目数
+     */
+    @Value("${dream.auth.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    private SecretKeySpec key;
+
+    /**
+     * 令牌 -> 解析后的声明，只存放签名校验通过的令牌
+     */
+    private Cache<String, Claims> verified;
+
+    /**
+     * 每个线程复用一个 Mac 实例（Mac 不是线程安全的）
+     */
+    private final ThreadLocal<Mac> macs = ThreadLocal.withInitial(this::newMac);
+
+    /**
+     * 用户ID -> 吊销时间（毫秒），签发时间早于它的令牌无效
+     */
+    private final Map<Long, Long> revokedBefore = new ConcurrentHashMap<>();
+
+    /**
+     * 已同步到的吊销时间，下次同步从这里往前留出重叠窗口继续查询
+     */
+    private volatile long syncedUntil;
+
+    /**
+     * 初始化密钥并加载吊销表
+     */
+    @PostConstruct
+    public void init() {
+        byte[] secretBytes;
+        if (StringUtils.hasText(secret)) {
+            secretBytes = secret.getBytes(StandardCharsets.UTF_8);
+            if (secretBytes.length < 32) {
+                throw new IllegalStateException("dream.auth.jwt-secret 至少需要32字节");
+            }
+        } else {
+            secretBytes = new byte[32];
+            new SecureRandom().nextBytes(secretBytes);
+            logger.warn("未配置 dream.auth.jwt-secret，使用随机密钥，重启后已签发的令牌全部失效");
+        }
+        key = new SecretKeySpec(secretBytes, ALGORITHM);
+        verified = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, verified, "auth.verifiedTokens");
+
+        syncedUntil = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ttlSeconds);
+        syncRevocations();
+        Gauge.builder("dream.auth.revoked.users", revokedBefore, Map::size)
+                .description("吊销表中的用户数")
+                .register(meterRegistry);
+        logger.info("令牌吊销表已加载，用户数: {}", revokedBefore.size());
+    }
+
+    /**
+     * 签发令牌
+     * @param userId 用户ID
+     * @return 令牌和过期时间
+     */
+    public Token issue(Long userId) {
+        long issuedAt = System.currentTimeMillis();
+        long expiresAt = TimeUnit.MILLISECONDS.toSeconds(issuedAt) + ttlSeconds;
+        ObjectNode payload = objectMapper.createObjectNode()
+                .put("iss", ISSUER)
+                .put("sub", userId.toString())
+                // 签发时间精确到毫秒（JWT 的时间允许小数秒），同一秒内先后发生的吊销和签发也能区分
+                .put("iat", BigDecimal.valueOf(issuedAt, 3))
+                .put("exp", expiresAt);
+        String unsigned = HEADER + "." + ENCODER.encodeToString(payload.toString().getBytes(StandardCharsets.UTF_8));
+        return new Token(unsigned + "." + ENCODER.encodeToString(sign(unsigned)), expiresAt);
+    }
+
+    /**
+     * 校验令牌
+     * @param token 令牌
+     * @return 令牌中的用户ID；签名不正确、已过期或已吊销时返回null
+     */
+    public Long verify(String token) {
+        Claims claims = verified.getIfPresent(token);
+        if (claims == null) {
+            claims = parse(token);
+            if (claims == null) {
+                return null;
+            }
+            verified.put(token, claims);
+        }
+        if (claims.expiresAt <= TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis())) {
+            return null;
+        }
+        Long revokedAt = revokedBefore.get(claims.userId);
+        if (revokedAt != null && claims.issuedAt < revokedAt) {
+            return null;
+        }
+        return claims.userId;
+    }
+
+    /**
+     * 校验签名并解析声明
+     * @return 声明，格式或签名不正确时返回null
+     */
+    private Claims parse(String token) {
+        int first = token.indexOf('.');
+        int second = token.indexOf('.', first + 1);
+        if (first < 0 || second < 0 || token.indexOf('.', second + 1) >= 0
+                || !HEADER.equals(token.substring(0, first))) {
+            return null;
+        }
+        try {
+            byte[] expected = sign(token.substring(0, second));
+            if (!MessageDigest.isEqual(expected, DECODER.decode(token.substring(second + 1)))) {
+                return null;
+            }
+            JsonNode payload = objectMapper.readTree(DECODER.decode(token.substring(first + 1, second)));
+            return new Claims(Long.valueOf(payload.path("sub").asText()),
+                    Math.round(payload.path("iat").asDouble() * 1000), payload.path("exp").asLong());
+        } catch (IllegalArgumentException | IOException e) {
+            // Base64 或 JSON 格式不正确、sub 不是数字
+            return null;
+        }
+    }
+
+    /**
+     * 吊销用户在此之前签发的全部令牌（修改密码、禁用账户成功后调用，立即在本实例生效）
+     * @param userId 用户ID
+     * @param revokedAt 吊销时间（毫秒），与写入 users.token_revoked_at 的值相同
+     */
+    public void revokeAll(Long userId, long revokedAt) {
+        revokedBefore.merge(userId, revokedAt, Math::max);
+    }
+
+    /**
+     * 从数据库增量同步吊销记录（包括其他实例的吊销）
+     * 查询起点比已同步到的时间早 SYNC_OVERLAP_MS，覆盖写入时间早于提交时间的记录
+     */
+    @Scheduled(initialDelayString = "${dream.auth.revocation-sync-interval-ms:5000}",
+            fixedDelayString = "${dream.auth.revocation-sync-interval-ms:5000}")
+    public void syncRevocations() {
+        long latest = syncedUntil;
+        for (TokenRevocation revocation : userMapper.findTokenRevocationsSince(new Date(latest - SYNC_OVERLAP_MS))) {
+            long revokedAt = revocation.getRevokedAt().getTime();
+            revokedBefore.merge(revocation.getUserId(), revokedAt, Math::max);
+            latest = Math.max(latest, revokedAt);
+        }
+        syncedUntil = latest;
+    }
+
+    /**
+     * 清理已不再需要的吊销条目：吊销时间早于一个令牌有效期之前时，吊销前签发的令牌都已过期
+     */
+    @Scheduled(fixedDelayString = "${dream.auth.revocation-cleanup-interval-ms:600000}")
+    public void cleanup() {
+        long threshold = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(ttlSeconds) - 1000;
+        revokedBefore.values().removeIf(revokedAt -> revokedAt < threshold);
+    }
+
+    private byte[] sign(String unsigned) {
+        return macs.get().doFinal(unsigned.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private Mac newMac() {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * 令牌中的声明
+     */
+    private static final class Claims {
+
+        private final Long userId;
+
+        /**
+         * 签发时间（毫秒）
+         */
+        private final long issuedAt;
+
+        /**
+         * 过期时间（秒）
+         */
+        private final long expiresAt;
+
+        private Claims(Long userId, long issuedAt, long expiresAt) {
+            this.userId = userId;
+            this.issuedAt = issuedAt;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * 已签发的令牌
+     */
+    public static final class Token {
+
+        private final String value;
+        private final long expiresAt;
+
+        private Token(String value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+
+        public String getValue() {
+            return value;
+        }
+
+        /**
+         * 过期时间（秒级时间戳）
+         */
+        public long getExpiresAt() {
+            return expiresAt;
+        }
+    }
+}
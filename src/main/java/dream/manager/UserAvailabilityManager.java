@@ -0,0 +1,241 @@
+package dream.manager;
+
+import dream.common.structure.BloomFilter;
+import dream.dto.UserAccountKey;
+import dream.mapper.UserMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.text.Normalizer;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+
+/**
+ * 用户名/邮箱可用性过滤器
+ * 在注册表单逐字检查用户名、邮箱时，用布隆过滤器挡掉绝大部分“一定可用”的查询
+ *
+ * 技术解释：
+ * - 启动后从数据库逐行扫描全部用户名和邮箱预热过滤器，预热完成前所有查询都直接走数据库
+ * - 过滤器判定“不存在”时直接返回可用，不访问数据库；判定“可能存在”时再用 SELECT COUNT(*) 确认
+ * - 注册成功后立即把新用户名和邮箱加入过滤器；定时重建以纳入其他实例的注册并控制误判率
+ * - 比较前近似按 utf8mb4_unicode_ci 的规则归一化（忽略大小写、重音符号和尾部空格），减少把数据库认为相同的值判成可用；
+ *   排序规则的其他等价（如全角与半角、ß 与 ss）没有覆盖，所以“可用”只是尽力而为的提示，
+ *   最终以注册时的唯一索引为准（冲突时返回“用户名已存在”/“邮箱已存在”）
+ */
+@Component
+public class UserAvailabilityManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(UserAvailabilityManager.class);
+
+    /**
+     * 组合附加符号（重音等），归一化时去掉
+     */
+    private static final Pattern COMBINING_MARKS = Pattern.compile("\\p{M}+");
+
+    @Autowired
+    private UserMapper userMapper;
+
+    /**
+     * 过滤器容量下限（预期元素数量）
+     */
+    @Value("${dream.bloom.expected-insertions:100000}")
+    private long expectedInsertions;
+
+    /**
+     * 目标误判率
+     */
+    @Value("${dream.bloom.fpp:0.01}")
+    private double fpp;
+
+    /**
+     * 当前生效的过滤器，预热完成前为null
+     */
+    private volatile Filters current;
+
+    /**
+     * 正在重建的过滤器，重建期间的注册需要同时写入
+     */
+    private volatile Filters building;
+
+    /**
+     * 上次重建完成的时间戳
+     */
+    private final AtomicLong lastRebuildAt = new AtomicLong();
+
+    // ========== 统计计数 ==========
+
+    private final LongAdder queries = new LongAdder();
+    private final LongAdder definitelyAvailable = new LongAdder();
+    private final LongAdder databaseFallbacks = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    /**
+     * 检查用户名是否可用（提示性结果，注册时仍可能因唯一索引冲突失败）
+     * @param username 用户名
+     * @param existsQuery 数据库存在性查询，仅在过滤器判定“可能存在”时调用
+     * @return 是否可用
+     */
+    public boolean isUsernameAvailable(String username, Predicate<String> existsQuery) {
+        Filters filters = current;
+        return isAvailable(filters == null ? null : filters.usernames, username, existsQuery);
+    }
+
+    /**
+     * 检查邮箱是否可用（提示性结果，注册时仍可能因唯一索引冲突失败）
+     * @param email 邮箱地址
+     * @param existsQuery 数据库存在性查询，仅在过滤器判定“可能存在”时调用
+     * @return 是否可用
+     */
+    public boolean isEmailAvailable(String email, Predicate<String> existsQuery) {
+        Filters filters = current;
+        return isAvailable(filters == null ? null : filters.emails, email, existsQuery);
+    }
+
+    /**
+     * 登记新注册用户的用户名和邮箱
+     * 在事务中调用时，提交后会再登记一次，确保与并发重建的全表扫描之间没有遗漏
+     * @param username 用户名
+     * @param email 邮箱地址
+     */
+    public void register(String username, String email) {
+        addToFilters(username, email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addToFilters(username, email);
+                }
+            });
+        }
+    }
+
+    private void addToFilters(String username, String email) {
+        Filters filters = current;
+        if (filters != null) {
+            filters.add(username, email);
+        }
+        Filters rebuilding = building;
+        if (rebuilding != null) {
+            rebuilding.add(username, email);
+        }
+    }
+
+    /**
+     * 启动后预热并定时重建过滤器
+     * 间隔由 dream.bloom.rebuild-interval-ms 配置
+     */
+    @Scheduled(initialDelay = 0, fixedDelayString = "${dream.bloom.rebuild-interval-ms:3600000}")
+    public void rebuild() {
+        long start = System.currentTimeMillis();
+        try {
+            long userCount = userMapper.selectCount(null);
+            Filters fresh = new Filters(Math.max(expectedInsertions, userCount * 2), fpp);
+            building = fresh;
+            userMapper.scanAccountKeys(context -> {
+                UserAccountKey key = context.getResultObject();
+                fresh.add(key.getUsername(), key.getEmail());
+            });
+            current = fresh;
+            lastRebuildAt.set(System.currentTimeMillis());
+            logger.info("用户名/邮箱过滤器重建完成，用户数约 {}，耗时 {}ms", userCount, System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("用户名/邮箱过滤器重建失败，将继续使用{}: {}",
+                    current == null ? "数据库查询" : "旧过滤器", e.getMessage(), e);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * 获取过滤器统计信息
+     * 实测误判率 = 过滤器判定可能存在但数据库确认不存在的次数 / 所有实际不存在的查询次数
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Filters filters = current;
+        long negatives = definitelyAvailable.sum();
+        long fp = falsePositives.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("ready", filters != null);
+        stats.put("lastRebuildAt", lastRebuildAt.get());
+        stats.put("queries", queries.sum());
+        stats.put("definitelyAvailable", negatives);
+        stats.put("databaseFallbacks", databaseFallbacks.sum());
+        stats.put("falsePositives", fp);
+        stats.put("observedFpp", negatives + fp == 0 ? 0.0 : (double) fp / (negatives + fp));
+        if (filters != null) {
+            stats.put("usernameExpectedFpp", filters.usernames.expectedFpp());
+            stats.put("emailExpectedFpp", filters.emails.expectedFpp());
+            stats.put("bitSize", filters.usernames.getBitSize());
+            stats.put("numHashes", filters.usernames.getNumHashes());
+        }
+        return stats;
+    }
+
+    private boolean isAvailable(BloomFilter filter, String value, Predicate<String> existsQuery) {
+        queries.increment();
+        if (filter != null && value != null && !filter.mightContain(normalize(value))) {
+            definitelyAvailable.increment();
+            return true;
+        }
+        databaseFallbacks.increment();
+        boolean exists = existsQuery.test(value);
+        if (!exists && filter != null) {
+            falsePositives.increment();
+        }
+        return !exists;
+    }
+
+    /**
+     * 近似按 utf8mb4_unicode_ci 的比较规则归一化
+     * 去掉尾部空格和重音符号并转为小写，批量导入判断行之间是否重复时也使用；
+     * 归一化结果不同的值在数据库中仍可能相等，漏掉的重复由唯一索引拦截
+     * @param value 用户名或邮箱
+     * @return 归一化后的值
+     */
+    public static String normalize(String value) {
+        int end = value.length();
+        while (end > 0 && value.charAt(end - 1) == ' ') {
+            end--;
+        }
+        String decomposed = Normalizer.normalize(value.substring(0, end), Normalizer.Form.NFD);
+        return COMBINING_MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * 一组用户名、邮箱过滤器
+     */
+    private static final class Filters {
+
+        private final BloomFilter usernames;
+        private final BloomFilter emails;
+
+        private Filters(long expectedInsertions, double fpp) {
+            this.usernames = BloomFilter.create(expectedInsertions, fpp);
+            this.emails = BloomFilter.create(expectedInsertions, fpp);
+        }
+
+        private void add(String username, String email) {
+            if (username != null) {
+                usernames.put(normalize(username));
+            }
+            if (email != null) {
+                emails.put(normalize(email));
+            }
+        }
+    }
+}
@@ -0,0 +1,245 @@
+package dream.manager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import dream.datasource.ReplicaHealth;
+import dream.entity.User;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 用户信息本地缓存管理器（L1）
+ * 为按ID、用户名、邮箱查询用户提供有界的进程内缓存
+ *
+ * 技术解释：
+ * - 主缓存以用户ID为键保存用户信息，按容量（LRU/LFU混合策略）和写入后存活时间淘汰
+ * - 用户名、邮箱只缓存到用户ID的映射（二级索引），用户名和邮箱不可修改，因此索引不需要随资料更新失效
+ * - 缓存中的对象不会直接交给调用方，读写都做一次拷贝，防止控制器清空密码等修改污染缓存
+ * - 资料、密码、状态变更时按用户ID精确失效；在事务中还会在提交后再失效一次，避免并发读把旧数据重新放回缓存
+ * - 配置了从库时，提交后一段时间内从库可能仍是旧数据，缓存未命中时会把旧数据读回缓存，
+ *   因此在提交后经过从库允许的最大复制延迟（dream.datasource.replica.max-lag-ms）再失效一次
+ * - 三个缓存的命中/未命中/淘汰次数以 cache.* 指标暴露（cache 标签为 users.byId、users.idByUsername、users.idByEmail）
+ */
+@Component
+public class UserCacheManager {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 主缓存最大条目数
+     */
+    @Value("${dream.cache.user.maximum-size:10000}")
+    private long maximumSize;
+
+    /**
+     * 主缓存写入后的存活时间（秒）
+     */
+    @Value("${dream.cache.user.expire-after-write-seconds:300}")
+    private long expireAfterWriteSeconds;
+
+    /**
+     * 未配置从库时不存在
+     */
+    @Autowired(required = false)
+    private ReplicaHealth replicaHealth;
+
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    /**
+     * 用户ID -> 用户信息
+     */
+    private Cache<Long, User> usersById;
+
+    /**
+     * 用户名 -> 用户ID
+     */
+    private Cache<String, Long> idsByUsername;
+
+    /**
+     * 邮箱 -> 用户ID
+     */
+    private Cache<String, Long> idsByEmail;
+
+    /**
+     * 按配置初始化各缓存并注册指标
+     */
+    @PostConstruct
+    public void init() {
+        usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        idsByUsername = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofSeconds(expireAfterWriteSeconds))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByUsername, "users.idByUsername");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.idByEmail");
+    }
+
+    /**
+     * 按用户ID获取用户信息，未命中时通过loader加载并放入缓存
+     * @param userId 用户ID
+     * @param loader 数据库加载函数，返回null表示用户不存在（不缓存）
+     * @return 用户信息的拷贝，不存在时返回null
+     */
+    public User getById(Long userId, Function<Long, User> loader) {
+        if (userId == null) {
+            return null;
+        }
+        User cached = usersById.get(userId, id -> copyOf(loader.apply(id)));
+        return copyOf(cached);
+    }
+
+    /**
+     * 按用户名获取用户信息
+     * @param username 用户名
+     * @param loader 数据库加载函数
+     * @return 用户信息的拷贝
+     */
+    public Optional<User> getByUsername(String username, Supplier<Optional<User>> loader) {
+        return getByKey(idsByUsername, username, loader);
+    }
+
+    /**
+     * 按邮箱获取用户信息
+     * @param email 邮箱地址
+     * @param loader 数据库加载函数
+     * @return 用户信息的拷贝
+     */
+    public Optional<User> getByEmail(String email, Supplier<Optional<User>> loader) {
+        return getByKey(idsByEmail, email, loader);
+    }
+
+    /**
+     * 精确失效某个用户的缓存
+     * 在事务中调用时，事务提交后会再失效一次；配置了延迟失效时还会在延迟后再失效一次
+     * @param userId 用户ID
+     */
+    public void evict(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        usersById.invalidate(userId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    usersById.invalidate(userId);
+                    scheduleDelayedEvict(userId);
+                }
+            });
+        } else {
+            scheduleDelayedEvict(userId);
+        }
+    }
+
+    /**
+     * 批量失效用户的缓存（计数写回数据库后调用，不在事务中）
+     * 配置了从库时在最大复制延迟后再失效一次，避免从库上的旧计数被读回缓存
+     * @param userIds 用户ID
+     */
+    public void evictAll(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        usersById.invalidateAll(userIds);
+        if (replicaHealth != null) {
+            List<Long> ids = new ArrayList<>(userIds);
+            taskScheduler.schedule(() -> usersById.invalidateAll(ids),
+                    Instant.now().plusMillis(replicaHealth.getMaxLagMs()));
+        }
+    }
+
+    private void scheduleDelayedEvict(Long userId) {
+        if (replicaHealth != null) {
+            taskScheduler.schedule(() -> usersById.invalidate(userId),
+                    Instant.now().plusMillis(replicaHealth.getMaxLagMs()));
+        }
+    }
+
+    /**
+     * 获取缓存统计信息，用于评估命中率和容量
+     * @return 各缓存的统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("usersById", statsOf(usersById));
+        stats.put("idsByUsername", statsOf(idsByUsername));
+        stats.put("idsByEmail", statsOf(idsByEmail));
+        return stats;
+    }
+
+    /**
+     * 通过二级索引查找用户
+     */
+    private Optional<User> getByKey(Cache<String, Long> index, String key, Supplier<Optional<User>> loader) {
+        if (key == null) {
+            return Optional.empty();
+        }
+        Long userId = index.getIfPresent(key);
+        if (userId != null) {
+            User cached = usersById.getIfPresent(userId);
+            if (cached != null) {
+                return Optional.of(copyOf(cached));
+            }
+        }
+        Optional<User> loaded = loader.get();
+        loaded.ifPresent(user -> {
+            index.put(key, user.getId());
+            usersById.put(user.getId(), copyOf(user));
+        });
+        return loaded.map(UserCacheManager::copyOf);
+    }
+
+    private static Map<String, Object> statsOf(Cache<?, ?> cache) {
+        CacheStats stats = cache.stats();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("size", cache.estimatedSize());
+        result.put("hitCount", stats.hitCount());
+        result.put("missCount", stats.missCount());
+        result.put("hitRate", stats.hitRate());
+        result.put("evictionCount", stats.evictionCount());
+        result.put("loadCount", stats.loadCount());
+        return result;
+    }
+
+    private static User copyOf(User user) {
+        if (user == null) {
+            return null;
+        }
+        User copy = new User();
+        BeanUtils.copyProperties(user, copy);
+        return copy;
+    }
+}
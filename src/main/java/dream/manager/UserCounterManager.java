@@ -0,0 +1,281 @@
+package dream.manager;
+
+import dream.common.structure.CounterDeltaMap;
+import dream.dto.UserCounterDelta;
+import dream.entity.User;
+import dream.mapper.UserMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 用户计数写回管理器
+ * 在内存中吸收用户访问量/点赞数的增减，定时合并成批量 UPDATE 写回数据库
+ *
+ * 技术解释：
+ * - 访问量、点赞数各一个 CounterDeltaMap（与笔记计数、壁纸下载次数共用），刷盘期间新到的增量不会丢失；
+ *   两者取走后按用户合并成一行，用一条批量 UPDATE 写回
+ * - 最大丢失窗口 = 刷盘间隔；待写回的用户数超过阈值时会提前刷盘
+ * - 应用正常关闭时（@PreDestroy）会做最后一次刷盘
+ * - 读取用户信息时叠加尚未写回的增量，保证“写后读”一致：刷盘先发布 inFlight 再把增量取走放入其中，
+ *   读取方在取走前后都能看到增量；写入成功后立即移出 inFlight 并失效这些用户的缓存，
+ *   缓存只保存数据库中的原始计数，不会与已写回的增量重复叠加
+ */
+@Component
+public class UserCounterManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(UserCounterManager.class);
+
+    @Autowired
+    private UserMapper userMapper;
+
+    @Autowired
+    private UserCacheManager userCacheManager;
+
+    /**
+     * 提前刷盘提交到调度线程池执行，不在请求线程上创建线程
+     */
+    @Autowired
+    private TaskScheduler taskScheduler;
+
+    /**
+     * 单条批量 UPDATE 语句最多包含的用户数
+     */
+    @Value("${dream.counter.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 待写回用户数阈值，超过后提前触发刷盘
+     */
+    @Value("${dream.counter.max-pending-keys:10000}")
+    private int maxPendingKeys;
+
+    /**
+     * 待写回的访问量增量
+     */
+    private final CounterDeltaMap viewDeltas = new CounterDeltaMap();
+
+    /**
+     * 待写回的点赞数增量
+     */
+    private final CounterDeltaMap likeDeltas = new CounterDeltaMap();
+
+    /**
+     * 正在写入数据库的增量（userId -> [访问量, 点赞数]），刷盘期间读取时仍需叠加
+     */
+    private volatile Map<Long, long[]> inFlight = Collections.emptyMap();
+
+    /**
+     * 刷盘锁，保证同一时刻只有一个线程在写回
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 是否已经有提前刷盘请求在排队
+     */
+    private final AtomicBoolean earlyFlushRequested = new AtomicBoolean(false);
+
+    /**
+     * 增加用户访问量
+     * @param userId 用户ID
+     */
+    public void incrementView(Long userId) {
+        viewDeltas.add(userId, 1);
+        checkPendingSize();
+    }
+
+    /**
+     * 增加用户点赞数
+     * @param userId 用户ID
+     */
+    public void incrementLike(Long userId) {
+        likeDeltas.add(userId, 1);
+        checkPendingSize();
+    }
+
+    /**
+     * 减少用户点赞数
+     * @param userId 用户ID
+     */
+    public void decrementLike(Long userId) {
+        likeDeltas.add(userId, -1);
+        checkPendingSize();
+    }
+
+    /**
+     * 在用户对象上叠加尚未写回数据库的增量
+     * @param user 从数据库读出的用户信息，可以为null
+     * @return 同一个用户对象
+     */
+    public User applyPending(User user) {
+        if (user == null || user.getId() == null) {
+            return user;
+        }
+        Long userId = user.getId();
+        long view = viewDeltas.pending(userId);
+        long like = likeDeltas.pending(userId);
+        long[] flying = inFlight.get(userId);
+        if (flying != null) {
+            view += flying[0];
+            like += flying[1];
+        }
+        if (view != 0) {
+            user.setViewCount((int) (nullToZero(user.getViewCount()) + view));
+        }
+        if (like != 0) {
+            user.setLikeCount((int) Math.max(0, nullToZero(user.getLikeCount()) + like));
+        }
+        return user;
+    }
+
+    /**
+     * 获取待写回的用户数
+     * @return 待写回的用户数
+     */
+    public int getPendingKeyCount() {
+        return viewDeltas.size() + likeDeltas.size();
+    }
+
+    /**
+     * 定时刷盘
+     * 间隔由 dream.counter.flush-interval-ms 配置，即计数的最大丢失窗口
+     */
+    @Scheduled(fixedDelayString = "${dream.counter.flush-interval-ms:1000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * 应用关闭前把剩余增量全部写回
+     */
+    @PreDestroy
+    public void shutdownFlush() {
+        flush();
+        logger.info("计数写回管理器已关闭，剩余待写回用户数: {}", getPendingKeyCount());
+    }
+
+    /**
+     * 把内存中的增量合并后批量写回数据库
+     * @return 本次写回的用户数
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            earlyFlushRequested.set(false);
+
+            // 先发布再取走：增量离开 CounterDeltaMap 时已经可以从 inFlight 读到
+            Map<Long, long[]> drained = new ConcurrentHashMap<>();
+            inFlight = drained;
+            drain(viewDeltas, drained, 0);
+            drain(likeDeltas, drained, 1);
+            if (drained.isEmpty()) {
+                return 0;
+            }
+
+            List<UserCounterDelta> batch = new ArrayList<>(Math.min(drained.size(), batchSize));
+            for (Map.Entry<Long, long[]> entry : drained.entrySet()) {
+                batch.add(new UserCounterDelta(entry.getKey(), entry.getValue()[0], entry.getValue()[1]));
+                if (batch.size() >= batchSize) {
+                    writeBatch(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) {
+                writeBatch(batch);
+            }
+            return drained.size();
+        } finally {
+            inFlight = Collections.emptyMap();
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * 执行一条批量 UPDATE，成功后移出 inFlight 并失效这些用户的缓存，失败时把增量放回内存等待下次重试
+     * 缓存不叠加增量：写入与叠加之间若有读取把新行加载进缓存，叠加会让缓存永久多计一次
+     * @param batch 本批增量
+     */
+    private void writeBatch(List<UserCounterDelta> batch) {
+        List<Long> userIds = new ArrayList<>(batch.size());
+        for (UserCounterDelta delta : batch) {
+            userIds.add(delta.getUserId());
+        }
+        try {
+            userMapper.batchApplyCounterDeltas(batch);
+            removeInFlight(userIds);
+            userCacheManager.evictAll(userIds);
+        } catch (RuntimeException e) {
+            logger.error("计数批量写回失败，{} 个用户的增量将在下次刷盘重试: {}", batch.size(), e.getMessage(), e);
+            for (UserCounterDelta delta : batch) {
+                if (delta.getViewDelta() != 0) {
+                    viewDeltas.add(delta.getUserId(), delta.getViewDelta());
+                }
+                if (delta.getLikeDelta() != 0) {
+                    likeDeltas.add(delta.getUserId(), delta.getLikeDelta());
+                }
+            }
+            removeInFlight(userIds);
+        }
+    }
+
+    /**
+     * 本批增量已经进入数据库或放回内存，不再需要从 inFlight 叠加
+     */
+    private void removeInFlight(List<Long> userIds) {
+        Map<Long, long[]> flying = inFlight;
+        for (Long userId : userIds) {
+            flying.remove(userId);
+        }
+    }
+
+    /**
+     * 取走一个计数表中的全部增量，按用户合并到结果数组的指定下标
+     * @param deltas 计数表
+     * @param drained 合并结果
+     * @param slot 结果数组下标（0-访问量，1-点赞数）
+     */
+    private static void drain(CounterDeltaMap deltas, Map<Long, long[]> drained, int slot) {
+        deltas.drain((userId, value) -> drained.compute(userId, (k, current) -> {
+            // 每次写入新数组，读取方通过 ConcurrentHashMap 看到的数组不会再被修改
+            long[] updated = current == null ? new long[2] : current.clone();
+            updated[slot] += value;
+            return updated;
+        }));
+    }
+
+    /**
+     * 待写回用户数超过阈值时向调度线程池提交一次提前刷盘，同一时刻最多排队一次
+     */
+    private void checkPendingSize() {
+        if (getPendingKeyCount() > maxPendingKeys && earlyFlushRequested.compareAndSet(false, true)) {
+            try {
+                taskScheduler.schedule(this::flush, Instant.now());
+            } catch (RuntimeException e) {
+                // 线程池已关闭或拒绝任务：交给定时刷盘
+                earlyFlushRequested.set(false);
+                logger.warn("提前刷盘提交失败，等待定时刷盘: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static long nullToZero(Integer value) {
+        return value == null ? 0 : value;
+    }
+}
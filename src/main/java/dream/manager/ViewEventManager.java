@@ -0,0 +1,507 @@
+package dream.manager;
+
+import dream.common.structure.HyperLogLog;
+import dream.common.structure.LongPairRingBuffer;
+import dream.dto.ViewSketch;
+import dream.mapper.ViewSketchMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 访问事件管理器
+ * 用户主页、笔记的访问在请求线程上只写入一个无锁环形缓冲区，由后台线程累计访问量并统计每天的独立访客数
+ *
+ * 技术解释：
+ * - 请求线程只做一次哈希和一次 CAS 入队，缓冲区满时丢弃该事件并计数（dream.view.dropped），不会阻塞请求
+ * - 后台线程批量出队：原始访问量交给 UserCounterManager / NoteCounterManager 合并后批量写库，笔记浏览同时计入热度排行；
+ *   访客（登录用户按用户ID，匿名访客按IP+User-Agent）加入该对象当天的 HyperLogLog 草图
+ * - User-Agent 命中爬虫关键字的访问直接忽略，既不计入访问量也不计入独立访客（dream.view.filtered）
+ * - 有变化的草图定时写入 view_sketches：每批在一个事务中先 INSERT IGNORE 保证行存在，再 SELECT ... FOR UPDATE
+ *   锁住并读出已有的草图合并（寄存器取最大值）后写回，读-合并-写期间其他实例不能写入同一行，
+ *   多个实例写同一天的草图不会互相覆盖掉对方的访客；各实例按相同的键顺序加锁，减少死锁，
+ *   死锁或写入失败的批次保持待写状态，下次重试；只保留最近几天的草图在内存中
+ * - 区间内的独立访客数 = 区间内每天草图合并后的估计值，同一访客在多天访问只计一次
+ */
+@Component
+public class ViewEventManager {
+
+    /**
+     * 访问对象类型：用户主页
+     */
+    public static final int TARGET_USER = 1;
+
+    /**
+     * 访问对象类型：笔记
+     */
+    public static final int TARGET_NOTE = 2;
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(ViewEventManager.class);
+
+    /**
+     * 事件中对象ID占用的低位数，高位存放对象类型
+     */
+    private static final int TYPE_SHIFT = 56;
+
+    private static final long ID_MASK = (1L << TYPE_SHIFT) - 1;
+
+    /**
+     * 后台线程每批最多处理的事件数
+     */
+    private static final int DRAIN_BATCH = 1024;
+
+    /**
+     * 独立访客查询最多统计的天数
+     */
+    private static final int MAX_DAYS = 90;
+
+    /**
+     * 最大精度：稠密草图 2+2^12 字节，不超过 view_sketches.sketch 的 VARBINARY(8192)
+     */
+    private static final int MAX_PRECISION = 12;
+
+    @Autowired
+    private ViewSketchMapper viewSketchMapper;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private UserCounterManager userCounterManager;
+
+    @Autowired
+    private NoteCounterManager noteCounterManager;
+
+    @Autowired
+    private HotRankManager hotRankManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    /**
+     * 环形缓冲区容量
+     */
+    @Value("${dream.view.queue-capacity:65536}")
+    private int queueCapacity;
+
+    /**
+     * HyperLogLog 精度，寄存器数为 2^p，标准误差约 1.04/√(2^p)
+     */
+    @Value("${dream.view.hll-precision:11}")
+    private int precision;
+
+    /**
+     * 内存中保留草图的天数（含今天）
+     */
+    @Value("${dream.view.memory-days:2}")
+    private int memoryDays;
+
+    /**
+     * 单条多行 INSERT 最多包含的草图数
+     */
+    @Value("${dream.view.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * 爬虫 User-Agent 关键字（小写）
+     */
+    @Value("${dream.view.bot-keywords:bot,spider,crawl,slurp,curl,wget,python-requests,headless}")
+    private String[] botKeywords;
+
+    private LongPairRingBuffer ring;
+
+    /**
+     * 草图（对象类型、对象ID、日期）-> 草图
+     */
+    private final Map<SketchKey, Sketch> sketches = new ConcurrentHashMap<>();
+
+    /**
+     * 入队失败（缓冲区满）而丢弃的事件数
+     */
+    private final LongAdder dropped = new LongAdder();
+
+    /**
+     * 被识别为爬虫而忽略的访问数
+     */
+    private final LongAdder filtered = new LongAdder();
+
+    /**
+     * 写草图锁，保证同一时刻只有一个线程在写库
+     */
+    private final ReentrantLock persistLock = new ReentrantLock();
+
+    /**
+     * 每批草图的读-合并-写在一个事务中完成
+     */
+    private TransactionTemplate transactionTemplate;
+
+    private volatile boolean running = true;
+
+    private Thread consumer;
+
+    /**
+     * 创建缓冲区、注册指标并启动后台线程
+     */
+    @PostConstruct
+    public void init() {
+        if (precision < 4 || precision > MAX_PRECISION) {
+            throw new IllegalStateException("dream.view.hll-precision 必须在4到" + MAX_PRECISION + "之间: " + precision);
+        }
+        ring = new LongPairRingBuffer(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        FunctionCounter.builder("dream.view.dropped", dropped, LongAdder::sum)
+                .description("访问事件缓冲区已满而丢弃的事件数")
+                .register(meterRegistry);
+        FunctionCounter.builder("dream.view.filtered", filtered, LongAdder::sum)
+                .description("被识别为爬虫而忽略的访问数")
+                .register(meterRegistry);
+        Gauge.builder("dream.view.queue", ring, LongPairRingBuffer::size)
+                .description("等待处理的访问事件数")
+                .register(meterRegistry);
+        Gauge.builder("dream.view.sketches", sketches, Map::size)
+                .description("内存中的独立访客草图数")
+                .register(meterRegistry);
+        consumer = new Thread(this::consume, "view-event-consumer");
+        consumer.setDaemon(true);
+        consumer.start();
+    }
+
+    /**
+     * 记录一次访问（请求线程调用，不访问数据库）
+     * 调用方需先校验对象存在（用户存在、笔记已发布），这里不再检查
+     * @param targetType 访问对象类型（TARGET_USER / TARGET_NOTE）
+     * @param targetId 访问对象ID
+     * @param viewerId 登录用户ID，匿名访问为null
+     * @param remoteAddr 客户端IP
+     * @param userAgent User-Agent 请求头
+     * @return 是否已接收；爬虫或缓冲区满时返回false
+     */
+    public boolean record(int targetType, Long targetId, Long viewerId, String remoteAddr, String userAgent) {
+        if (isBot(userAgent)) {
+            filtered.increment();
+            return false;
+        }
+        String visitor = viewerId != null ? "u:" + viewerId : "a:" + remoteAddr + '|' + userAgent;
+        if (!ring.offer(((long) targetType << TYPE_SHIFT) | (targetId & ID_MASK), HyperLogLog.hash(visitor))) {
+            dropped.increment();
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * 查询独立访客数
+     * @param targetType 访问对象类型
+     * @param targetId 访问对象ID
+     * @param days 统计最近几天（含今天，1-90）
+     * @return 今天的独立访客数、区间内的独立访客数和每天的独立访客数
+     */
+    public Map<String, Object> getUniqueVisitors(int targetType, Long targetId, int days) {
+        days = Math.min(Math.max(days, 1), MAX_DAYS);
+        LocalDate today = LocalDate.now();
+        LocalDate from = today.minusDays(days - 1L);
+        Map<LocalDate, HyperLogLog> daily = new LinkedHashMap<>();
+        for (ViewSketch row : viewSketchMapper.findRange(targetType, targetId, from, today)) {
+            daily.put(row.getStatDate(), HyperLogLog.fromBytes(row.getSketch()));
+        }
+        for (LocalDate date = today.minusDays(memoryDays - 1L); !date.isAfter(today); date = date.plusDays(1)) {
+            if (date.isBefore(from)) {
+                continue;
+            }
+            Sketch sketch = sketches.get(new SketchKey(targetType, targetId, date));
+            if (sketch != null) {
+                HyperLogLog merged = daily.computeIfAbsent(date, d -> new HyperLogLog(precision));
+                synchronized (sketch) {
+                    merged.merge(sketch.hll);
+                }
+            }
+        }
+
+        HyperLogLog total = new HyperLogLog(precision);
+        List<Map<String, Object>> perDay = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(today); date = date.plusDays(1)) {
+            HyperLogLog hll = daily.get(date);
+            Map<String, Object> day = new LinkedHashMap<>();
+            day.put("date", date.toString());
+            day.put("uniqueVisitors", hll == null ? 0 : hll.estimate());
+            perDay.add(day);
+            if (hll != null) {
+                total.merge(hll);
+            }
+        }
+        HyperLogLog todaySketch = daily.get(today);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("days", days);
+        result.put("uniqueToday", todaySketch == null ? 0 : todaySketch.estimate());
+        result.put("uniqueVisitors", total.estimate());
+        result.put("daily", perDay);
+        return result;
+    }
+
+    /**
+     * 定时把有变化的草图写入数据库，并移出超过保留天数的草图
+     * 间隔由 dream.view.persist-interval-ms 配置，也是进程异常退出时独立访客统计的最大丢失窗口
+     */
+    @Scheduled(fixedDelayString = "${dream.view.persist-interval-ms:60000}")
+    public void persist() {
+        persistLock.lock();
+        try {
+            List<Map.Entry<SketchKey, Sketch>> dirty = new ArrayList<>();
+            for (Map.Entry<SketchKey, Sketch> entry : sketches.entrySet()) {
+                if (entry.getValue().dirty) {
+                    dirty.add(entry);
+                }
+            }
+            dirty.sort(Map.Entry.comparingByKey());
+            for (int i = 0; i < dirty.size(); i += batchSize) {
+                writeBatch(dirty.subList(i, Math.min(i + batchSize, dirty.size())));
+            }
+
+            LocalDate oldest = LocalDate.now().minusDays(memoryDays - 1L);
+            Iterator<Map.Entry<SketchKey, Sketch>> iterator = sketches.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<SketchKey, Sketch> entry = iterator.next();
+                if (entry.getKey().date.isBefore(oldest) && !entry.getValue().dirty) {
+                    iterator.remove();
+                }
+            }
+        } finally {
+            persistLock.unlock();
+        }
+    }
+
+    /**
+     * 应用关闭前处理完缓冲区中的事件并写入草图
+     */
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+            try {
+                consumer.join(TimeUnit.SECONDS.toMillis(5));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        persist();
+        logger.info("访问事件管理器已关闭，丢弃事件数 {}，忽略的爬虫访问数 {}", dropped.sum(), filtered.sum());
+    }
+
+    /**
+     * 获取统计信息
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("queued", ring.size());
+        stats.put("capacity", ring.capacity());
+        stats.put("dropped", dropped.sum());
+        stats.put("filtered", filtered.sum());
+        stats.put("sketches", sketches.size());
+        return stats;
+    }
+
+    /**
+     * 后台线程：批量出队处理，队列为空时短暂休眠
+     */
+    private void consume() {
+        while (true) {
+            int processed;
+            try {
+                LocalDate today = LocalDate.now();
+                processed = ring.drain(DRAIN_BATCH, (key, visitorHash) -> apply(key, visitorHash, today));
+            } catch (RuntimeException e) {
+                logger.error("访问事件处理失败: {}", e.getMessage(), e);
+                processed = 0;
+            }
+            if (processed == 0) {
+                if (!running) {
+                    return;
+                }
+                LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1));
+            }
+        }
+    }
+
+    /**
+     * 处理一个访问事件
+     */
+    private void apply(long key, long visitorHash, LocalDate today) {
+        int targetType = (int) (key >>> TYPE_SHIFT);
+        long targetId = key & ID_MASK;
+        if (targetType == TARGET_USER) {
+            userCounterManager.incrementView(targetId);
+        } else {
+            noteCounterManager.incrementView(targetId);
+            hotRankManager.recordNoteView(targetId);
+        }
+        Sketch sketch = sketches.computeIfAbsent(new SketchKey(targetType, targetId, today), k -> new Sketch(precision));
+        synchronized (sketch) {
+            if (sketch.hll.add(visitorHash)) {
+                sketch.dirty = true;
+            }
+        }
+    }
+
+    /**
+     * 写入一批草图：先合并数据库中已有的草图（可能包含其他实例的访客），再整批覆盖写入
+     */
+    private void writeBatch(List<Map.Entry<SketchKey, Sketch>> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> mergeAndWrite(batch));
+        } catch (RuntimeException e) {
+            logger.error("独立访客草图写入失败，{} 个草图将在下次重试: {}", batch.size(), e.getMessage(), e);
+            for (Map.Entry<SketchKey, Sketch> entry : batch) {
+                synchronized (entry.getValue()) {
+                    entry.getValue().dirty = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * 在事务中锁住数据库中的草图，合并到内存草图后写回
+     */
+    private void mergeAndWrite(List<Map.Entry<SketchKey, Sketch>> batch) {
+        List<ViewSketch> rows = snapshot(batch, false);
+        viewSketchMapper.insertIgnoreBatch(rows);
+        for (ViewSketch row : viewSketchMapper.lockByKeys(rows)) {
+            Sketch sketch = sketches.get(new SketchKey(row.getTargetType(), row.getTargetId(), row.getStatDate()));
+            if (sketch != null) {
+                HyperLogLog stored = HyperLogLog.fromBytes(row.getSketch());
+                synchronized (sketch) {
+                    sketch.hll.merge(stored);
+                }
+            }
+        }
+        viewSketchMapper.upsertBatch(snapshot(batch, true));
+    }
+
+    /**
+     * 复制一批草图的当前内容
+     * @param markClean 是否同时清除待写标记（写入失败时由调用方恢复）
+     */
+    private List<ViewSketch> snapshot(List<Map.Entry<SketchKey, Sketch>> batch, boolean markClean) {
+        List<ViewSketch> rows = new ArrayList<>(batch.size());
+        for (Map.Entry<SketchKey, Sketch> entry : batch) {
+            Sketch sketch = entry.getValue();
+            synchronized (sketch) {
+                if (markClean) {
+                    sketch.dirty = false;
+                }
+                rows.add(entry.getKey().toRow(sketch.hll.toBytes()));
+            }
+        }
+        return rows;
+    }
+
+    private boolean isBot(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return true;
+        }
+        String lower = userAgent.toLowerCase(Locale.ROOT);
+        for (String keyword : botKeywords) {
+            if (!keyword.isEmpty() && lower.contains(keyword)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 草图键：对象类型、对象ID、日期
+     */
+    private static final class SketchKey implements Comparable<SketchKey> {
+
+        private final int targetType;
+        private final long targetId;
+        private final LocalDate date;
+
+        private SketchKey(int targetType, long targetId, LocalDate date) {
+            this.targetType = targetType;
+            this.targetId = targetId;
+            this.date = date;
+        }
+
+        private ViewSketch toRow(byte[] sketch) {
+            return new ViewSketch(targetType, targetId, date, sketch);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof SketchKey)) {
+                return false;
+            }
+            SketchKey other = (SketchKey) o;
+            return targetType == other.targetType && targetId == other.targetId && date.equals(other.date);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(targetType, targetId, date);
+        }
+
+        /**
+         * 与 view_sketches 主键相同的顺序，写库时按此顺序加锁
+         */
+        @Override
+        public int compareTo(SketchKey other) {
+            if (targetType != other.targetType) {
+                return Integer.compare(targetType, other.targetType);
+            }
+            if (targetId != other.targetId) {
+                return Long.compare(targetId, other.targetId);
+            }
+            return date.compareTo(other.date);
+        }
+    }
+
+    /**
+     * 一天的草图及其写库状态，读写都在该对象上同步
+     */
+    private static final class Sketch {
+
+        private final HyperLogLog hll;
+
+        /**
+         * 是否有尚未写库的变化（写库任务不加锁读取）
+         */
+        private volatile boolean dirty;
+
+        private Sketch(int precision) {
+            this.hll = new HyperLogLog(precision);
+        }
+    }
+}
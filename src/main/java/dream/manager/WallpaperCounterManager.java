@@ -0,0 +1,97 @@
+package dream.manager;
+
+import dream.common.structure.CounterDeltaMap;
+import dream.mapper.WallpaperMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 壁纸下载次数写回管理器
+ * 下载请求只在内存中累加，定时合并成批量 UPDATE 写回数据库，下载响应路径上没有数据库写操作
+ *
+ * 技术解释：
+ * - 增量的累加、取走、分批写回与失败重试由 CounterDeltaMap 完成，与用户计数、笔记计数共用
+ * - 最大丢失窗口 = 刷盘间隔；应用正常关闭时会做最后一次刷盘
+ * - 下载次数只用于排序和展示，不需要叠加未写回的增量
+ */
+@Component
+public class WallpaperCounterManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(WallpaperCounterManager.class);
+
+    @Autowired
+    private WallpaperMapper wallpaperMapper;
+
+    /**
+     * 单条批量 UPDATE 语句最多包含的壁纸数
+     */
+    @Value("${dream.counter.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * 待写回的下载次数增量
+     */
+    private final CounterDeltaMap downloadDeltas = new CounterDeltaMap();
+
+    /**
+     * 刷盘锁，保证同一时刻只有一个线程在写回
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 增加壁纸下载次数
+     * @param wallpaperId 壁纸ID
+     */
+    public void incrementDownload(Long wallpaperId) {
+        downloadDeltas.add(wallpaperId, 1);
+    }
+
+    /**
+     * 获取待写回的壁纸数
+     * @return 待写回的壁纸数
+     */
+    public int getPendingKeyCount() {
+        return downloadDeltas.size();
+    }
+
+    /**
+     * 定时刷盘
+     * 间隔由 dream.wallpaper.download-flush-interval-ms 配置
+     */
+    @Scheduled(fixedDelayString = "${dream.wallpaper.download-flush-interval-ms:5000}")
+    public void scheduledFlush() {
+        flush();
+    }
+
+    /**
+     * 应用关闭前把剩余增量全部写回
+     */
+    @PreDestroy
+    public void shutdownFlush() {
+        flush();
+    }
+
+    /**
+     * 把内存中的增量合并后批量写回数据库
+     * @return 本次写回的壁纸数
+     */
+    public int flush() {
+        flushLock.lock();
+        try {
+            return downloadDeltas.flush(batchSize, wallpaperMapper::batchAddDownloadCounts, (batch, e) -> logger.error(
+                    "下载次数批量写回失败，{} 个壁纸的增量将在下次刷盘重试: {}", batch.size(), e.getMessage(), e));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,372 @@
+package dream.manager;
+
+import dream.entity.Wallpaper;
+import dream.mapper.WallpaperMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 壁纸缩略图管理器
+ * 在后台为壁纸原图生成多种宽度的渐进式 JPEG 缩略图
+ *
+ * 技术解释：
+ * - 原图保存在内容寻址存储中（见 BlobStoreManager），缩略图作为派生文件保存为 {哈希}.w{宽度}.jpg
+ * - 缩略图在独立的有界线程池中生成：原图只解码一次，按宽度从大到小逐级缩小，
+ *   每一级都以上一级为输入，且每次最多缩小一半，既省时间又避免一步缩小带来的锯齿
+ * - 输出渐进式 JPEG，弱网下先显示模糊全图再逐步清晰；先写临时文件再原子替换，不会读到半个文件
+ * - 相同内容的壁纸重复上传时缩略图已经存在，直接复用，不再解码
+ * - 队列满时不阻塞上传，缩略图为空的壁纸由定时任务补齐；缩略图生成前壁纸不出现在壁纸墙上
+ * - 生成失败时累加 thumbnail_attempts，达到 dream.wallpaper.max-thumbnail-attempts 后不再补齐，
+ *   损坏的原图不会每个周期都被重新解码
+ */
+@Component
+public class WallpaperImageManager {
+
+    /**
+     * 日志记录器
+     */
+    private static final Logger logger = LoggerFactory.getLogger(WallpaperImageManager.class);
+
+    @Autowired
+    private WallpaperMapper wallpaperMapper;
+
+    @Autowired
+    private BlobStoreManager blobStoreManager;
+
+    /**
+     * 缩略图宽度列表（像素）
+     */
+    @Value("${dream.wallpaper.thumbnail-widths:320,640,1280}")
+    private int[] thumbnailWidths;
+
+    /**
+     * 壁纸墙默认使用的缩略图宽度
+     */
+    @Value("${dream.wallpaper.default-thumbnail-width:640}")
+    private int defaultThumbnailWidth;
+
+    /**
+     * JPEG 压缩质量（0-1）
+     */
+    @Value("${dream.wallpaper.jpeg-quality:0.82}")
+    private float jpegQuality;
+
+    /**
+     * 缩略图线程数
+     */
+    @Value("${dream.wallpaper.pool-size:2}")
+    private int poolSize;
+
+    /**
+     * 缩略图任务队列容量
+     */
+    @Value("${dream.wallpaper.queue-capacity:32}")
+    private int queueCapacity;
+
+    /**
+     * 缩略图生成失败的最大次数
+     */
+    @Value("${dream.wallpaper.max-thumbnail-attempts:3}")
+    private int maxThumbnailAttempts;
+
+    /**
+     * 缩略图线程池
+     */
+    private ThreadPoolExecutor executor;
+
+    /**
+     * 已提交但尚未完成的壁纸ID，避免重复生成
+     */
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder generated = new LongAdder();
+    private final LongAdder reused = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+
+    /**
+     * 创建线程池
+     */
+    @PostConstruct
+    public void init() {
+        thumbnailWidths = Arrays.stream(thumbnailWidths).distinct().sorted().toArray();
+        AtomicInteger sequence = new AtomicInteger();
+        executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "wallpaper-thumbnail-" + sequence.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        logger.info("壁纸缩略图线程池已启动，线程数: {}，队列容量: {}", poolSize, queueCapacity);
+    }
+
+    /**
+     * 关闭线程池
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * 事务提交后提交缩略图生成任务
+     * @param wallpaperId 壁纸ID
+     * @param imageUrl 原图URL
+     */
+    public void generateAfterCommit(Long wallpaperId, String imageUrl) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(wallpaperId, imageUrl);
+                }
+            });
+        } else {
+            submit(wallpaperId, imageUrl);
+        }
+    }
+
+    /**
+     * 获取壁纸墙默认使用的缩略图URL
+     * @param imageUrl 原图URL
+     * @return 缩略图URL
+     */
+    public String thumbnailUrlOf(String imageUrl) {
+        return blobStoreManager.derivedUrl(imageUrl, thumbnailName(defaultThumbnailWidth));
+    }
+
+    /**
+     * 生成各尺寸缩略图的 srcset
+     * @param imageUrl 原图URL
+     * @param thumbnailUrl 默认缩略图URL，为null表示缩略图尚未生成
+     * @return srcset 属性值，缩略图未生成时返回null
+     */
+    public String srcsetOf(String imageUrl, String thumbnailUrl) {
+        if (thumbnailUrl == null) {
+            return null;
+        }
+        return Arrays.stream(thumbnailWidths)
+                .mapToObj(width -> blobStoreManager.derivedUrl(imageUrl, thumbnailName(width)) + " " + width + "w")
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * 定时补齐缺少缩略图的壁纸（上传时队列已满、生成失败次数未达上限或服务重启丢失的任务）
+     */
+    @Scheduled(initialDelay = 30000, fixedDelayString = "${dream.wallpaper.backfill-interval-ms:60000}")
+    public void backfill() {
+        int capacity = executor.getQueue().remainingCapacity();
+        if (capacity == 0) {
+            return;
+        }
+        List<Wallpaper> missing = wallpaperMapper.findMissingThumbnails(maxThumbnailAttempts, capacity);
+        for (Wallpaper wallpaper : missing) {
+            submit(wallpaper.getId(), wallpaper.getImageUrl());
+        }
+    }
+
+    /**
+     * 获取线程池与生成统计
+     * @return 统计信息
+     */
+    public Map<String, Object> getStats() {
+        long count = generated.sum();
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("activeCount", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueCapacity", queueCapacity);
+        stats.put("generatedCount", count);
+        stats.put("reusedCount", reused.sum());
+        stats.put("failedCount", failed.sum());
+        stats.put("rejectedCount", rejected.sum());
+        stats.put("avgMillis", count == 0 ? 0.0 : totalNanos.sum() / 1_000_000.0 / count);
+        return stats;
+    }
+
+    /**
+     * 提交缩略图任务，队列已满时交给定时任务补齐
+     */
+    private void submit(Long wallpaperId, String imageUrl) {
+        if (!pending.add(wallpaperId)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    generate(wallpaperId, imageUrl);
+                } finally {
+                    pending.remove(wallpaperId);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.remove(wallpaperId);
+            rejected.increment();
+            logger.warn("缩略图队列已满，壁纸 {} 将由定时任务补齐", wallpaperId);
+        }
+    }
+
+    /**
+     * 解码原图一次，逐级生成各尺寸缩略图并记录默认缩略图URL
+     * 所有尺寸的缩略图都已存在时（相同内容重复上传）跳过解码
+     */
+    private void generate(Long wallpaperId, String imageUrl) {
+        long start = System.nanoTime();
+        try {
+            if (!allThumbnailsExist(imageUrl)) {
+                Path original = blobStoreManager.resolve(imageUrl);
+                BufferedImage image = ImageIO.read(original.toFile());
+                if (image == null) {
+                    throw new IOException("无法解码图片: " + original);
+                }
+                image = toRgb(image);
+                for (int i = thumbnailWidths.length - 1; i >= 0; i--) {
+                    image = scaleToWidth(image, thumbnailWidths[i]);
+                    writeJpeg(image, blobStoreManager.derivedPath(imageUrl, thumbnailName(thumbnailWidths[i])));
+                }
+                generated.increment();
+                totalNanos.add(System.nanoTime() - start);
+            } else {
+                reused.increment();
+            }
+            wallpaperMapper.updateThumbnailUrl(wallpaperId, thumbnailUrlOf(imageUrl));
+        } catch (IOException | RuntimeException e) {
+            failed.increment();
+            logger.error("壁纸 {} 缩略图生成失败: {}", wallpaperId, e.getMessage(), e);
+            recordFailure(wallpaperId);
+        }
+    }
+
+    /**
+     * 记录一次生成失败，达到上限后定时任务不再补齐该壁纸
+     */
+    private void recordFailure(Long wallpaperId) {
+        try {
+            wallpaperMapper.incrementThumbnailAttempts(wallpaperId);
+        } catch (RuntimeException e) {
+            logger.warn("壁纸 {} 缩略图失败次数记录失败: {}", wallpaperId, e.getMessage());
+        }
+    }
+
+    private boolean allThumbnailsExist(String imageUrl) throws IOException {
+        for (int width : thumbnailWidths) {
+            if (!Files.exists(blobStoreManager.derivedPath(imageUrl, thumbnailName(width)))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String thumbnailName(int width) {
+        return "w" + width + ".jpg";
+    }
+
+    /**
+     * 转换为不带透明通道的 RGB 图片，透明部分填充白色
+     */
+    private static BufferedImage toRgb(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = rgb.createGraphics();
+        try {
+            g.setColor(Color.WHITE);
+            g.fillRect(0, 0, image.getWidth(), image.getHeight());
+            g.drawImage(image, 0, 0, null);
+        } finally {
+            g.dispose();
+        }
+        return rgb;
+    }
+
+    /**
+     * 缩小到指定宽度（不放大），每一步最多缩小一半
+     */
+    private static BufferedImage scaleToWidth(BufferedImage source, int targetWidth) {
+        if (source.getWidth() <= targetWidth) {
+            return source;
+        }
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        while (width != targetWidth || height != targetHeight) {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        }
+        return current;
+    }
+
+    /**
+     * 写出渐进式 JPEG：先写临时文件，再原子替换目标文件
+     */
+    private void writeJpeg(BufferedImage image, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        ImageWriteParam param = writer.getDefaultWriteParam();
+        param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+        param.setCompressionQuality(jpegQuality);
+        param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+
+        // 不使用 createTempFile：它创建的文件权限为600，外部静态服务器无法读取
+        Path temp = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            try (ImageOutputStream out = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(out);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package dream.mapper;
+
+import dream.dto.HotScore;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 热度分数检查点数据访问层
+ * 分数以 log2 保存，增量在SQL中按对数域加减合并，多个实例的增量不会互相覆盖
+ */
+@Mapper
+public interface HotScoreMapper {
+    
+    /**
+     * 按热度加载排行
+     * @param targetType 排行对象类型
+     * @param halfLifeMs 半衰期（毫秒），只加载按相同半衰期计算的分数
+     * @param minLogScore 对数分数下限
+     * @param limit 最多加载的条数
+     * @return 分数列表，按热度降序
+     */
+    @Select("SELECT target_type, target_id, log_score FROM hot_scores " +
+            "WHERE target_type = #{targetType} AND half_life_ms = #{halfLifeMs} AND log_score >= #{minLogScore} " +
+            "ORDER BY log_score DESC LIMIT #{limit}")
+    List<HotScore> findTop(@Param("targetType") int targetType, @Param("halfLifeMs") long halfLifeMs,
+                           @Param("minLogScore") double minLogScore, @Param("limit") int limit);
+    
+    /**
+     * 批量加上分数增量（单条多行 INSERT）
+     * 不存在时直接写入增量；已存在时 log_score = log2(2^旧值 + 2^增量)；
+     * 已有分数的半衰期与本次不同时不可比较，直接用增量覆盖
+     * @param deltas 分数增量，logScore 为增量的对数，不能为空
+     * @param halfLifeMs 半衰期（毫秒）
+     * @return 受影响的行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO hot_scores (target_type, target_id, log_score, half_life_ms) VALUES " +
+            "<foreach collection='deltas' item='d' separator=','>(#{d.targetType}, #{d.targetId}, #{d.logScore}, #{halfLifeMs})</foreach> " +
+            "ON DUPLICATE KEY UPDATE log_score = CASE WHEN half_life_ms = VALUES(half_life_ms) " +
+            "THEN GREATEST(log_score, VALUES(log_score)) + LN(1 + POWER(2, -ABS(log_score - VALUES(log_score)))) / LN(2) " +
+            "ELSE VALUES(log_score) END, half_life_ms = VALUES(half_life_ms)" +
+            "</script>")
+    int batchAdd(@Param("deltas") List<HotScore> deltas, @Param("halfLifeMs") long halfLifeMs);
+    
+    /**
+     * 批量减去分数增量（如取消点赞），log_score = log2(2^旧值 - 2^增量)
+     * 结果不为正时压到接近0（减去约30），由 deleteStale 清理
+     * @param targetType 排行对象类型
+     * @param deltas 分数增量，logScore 为增量绝对值的对数，不能为空
+     * @param halfLifeMs 半衰期（毫秒）
+     * @return 受影响的行数
+     */
+    @Update("<script>" +
+            "UPDATE hot_scores SET log_score = log_score + LN(GREATEST(1 - POWER(2, CASE target_id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.targetId} THEN #{d.logScore} </foreach>" +
+            "END - log_score), 1e-9)) / LN(2) " +
+            "WHERE target_type = #{targetType} AND half_life_ms = #{halfLifeMs} AND target_id IN " +
+            "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d.targetId}</foreach>" +
+            "</script>")
+    int batchSubtract(@Param("targetType") int targetType, @Param("deltas") List<HotScore> deltas,
+                      @Param("halfLifeMs") long halfLifeMs);
+    
+    /**
+     * 删除已衰减到阈值以下、或按其他半衰期计算的分数
+     * @param targetType 排行对象类型
+     * @param halfLifeMs 当前半衰期（毫秒）
+     * @param minLogScore 对数分数下限
+     * @return 删除的行数
+     */
+    @Delete("DELETE FROM hot_scores WHERE target_type = #{targetType} " +
+            "AND (log_score < #{minLogScore} OR half_life_ms != #{halfLifeMs})")
+    int deleteStale(@Param("targetType") int targetType, @Param("halfLifeMs") long halfLifeMs,
+                    @Param("minLogScore") double minLogScore);
+    
+    /**
+     * 删除一个对象的分数（如笔记被删除）
+     * @param targetType 排行对象类型
+     * @param targetId 排行对象ID
+     * @return 删除的行数
+     */
+    @Delete("DELETE FROM hot_scores WHERE target_type = #{targetType} AND target_id = #{targetId}")
+    int delete(@Param("targetType") int targetType, @Param("targetId") Long targetId);
+}
@@ -0,0 +1,206 @@
+package dream.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import dream.dto.NoteSummary;
+import dream.entity.Note;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 笔记数据访问层
+ * 使用MyBatis-Plus提供基础CRUD操作
+ * 继承BaseMapper获得通用方法
+ */
+@Mapper
+public interface NoteMapper extends BaseMapper<Note> {
+    
+    /**
+     * 笔记列表投影字段，不包含 content
+     */
+    String SUMMARY_COLUMNS = "n.note_id AS id, n.title, n.summary, n.cover_image_url, n.user_id, n.category_id, " +
+            "n.view_count, n.like_count, n.favorite_count, n.is_top, n.published_at";
+    
+    /**
+     * 首页信息流：键集分页查询已发布笔记（置顶优先，再按发布时间、笔记ID倒序）
+     * 
+     * 子查询只在 idx_feed(status, deleted, is_top, published_at) 覆盖索引上定位本页的笔记ID，
+     * 再按主键回表取列表字段，回表行数等于页大小，且不会读取 content 大字段
+     * 
+     * @param cursorTop 上一页最后一条记录是否置顶，首页传null
+     * @param cursorPublishedAt 上一页最后一条记录的发布时间
+     * @param cursorNoteId 上一页最后一条记录的笔记ID
+     * @param limit 查询条数
+     * @return 笔记列表投影
+     */
+    @Select("<script>" +
+            "SELECT " + SUMMARY_COLUMNS + " FROM (" +
+            "SELECT note_id FROM notes WHERE status = 'published' AND deleted = 0 " +
+            "<if test='cursorTop != null'>" +
+            "AND (is_top &lt; #{cursorTop} " +
+            "OR (is_top = #{cursorTop} AND published_at &lt; #{cursorPublishedAt}) " +
+            "OR (is_top = #{cursorTop} AND published_at = #{cursorPublishedAt} AND note_id &lt; #{cursorNoteId})) " +
+            "</if>" +
+            "ORDER BY is_top DESC, published_at DESC, note_id DESC LIMIT #{limit}" +
+            ") page JOIN notes n ON n.note_id = page.note_id " +
+            "ORDER BY n.is_top DESC, n.published_at DESC, n.note_id DESC" +
+            "</script>")
+    List<NoteSummary> findPublishedFeedAfter(@Param("cursorTop") Boolean cursorTop,
+                                             @Param("cursorPublishedAt") LocalDateTime cursorPublishedAt,
+                                             @Param("cursorNoteId") Long cursorNoteId,
+                                             @Param("limit") int limit);
+    
+    /**
+     * 根据ID批量查询笔记列表投影（不包含 content），结果顺序不保证
+     * @param noteIds 笔记ID列表，不能为空
+     * @return 笔记列表投影
+     */
+    @Select("<script>" +
+            "SELECT " + SUMMARY_COLUMNS + " FROM notes n WHERE n.deleted = 0 AND n.note_id IN " +
+            "<foreach collection='noteIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<NoteSummary> findSummariesByIds(@Param("noteIds") List<Long> noteIds);
+    
+    /**
+     * 根据ID批量查询已发布笔记的列表投影（不包含 content），结果顺序不保证
+     * @param noteIds 笔记ID列表，不能为空
+     * @return 笔记列表投影，草稿、归档和已删除的笔记不返回
+     */
+    @Select("<script>" +
+            "SELECT " + SUMMARY_COLUMNS + " FROM notes n WHERE n.status = 'published' AND n.deleted = 0 AND n.note_id IN " +
+            "<foreach collection='noteIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<NoteSummary> findPublishedSummariesByIds(@Param("noteIds") List<Long> noteIds);
+    
+    /**
+     * 逐行扫描全部已发布笔记的检索字段（标题、摘要、正文），用于构建内存倒排索引
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT note_id AS id, title, summary, content FROM notes WHERE status = 'published' AND deleted = 0")
+    @Options(fetchSize = 100)
+    @ResultType(Note.class)
+    void scanPublishedForIndex(ResultHandler<Note> handler);
+    
+    /**
+     * MySQL全文检索已发布笔记（自然语言模式，按相关度排序）
+     * 仅用于基准测试中与内存倒排索引做延迟对比（benchmarks 模块 NoteSearchBenchmark）
+     * @param query 查询文本
+     * @param limit 返回条数
+     * @return 笔记ID列表
+     */
+    @Select("SELECT note_id FROM notes WHERE status = 'published' AND deleted = 0 " +
+            "AND MATCH(title, content) AGAINST(#{query} IN NATURAL LANGUAGE MODE) LIMIT #{limit}")
+    List<Long> searchByFullText(@Param("query") String query, @Param("limit") int limit);
+    
+    /**
+     * 统计笔记ID对应的已发布且未删除的笔记数（主键查询，不读取正文），用于判断笔记是否已发布
+     * @param noteId 笔记ID
+     * @return 已发布时为1，否则为0
+     */
+    @Select("SELECT COUNT(*) FROM notes WHERE note_id = #{noteId} AND status = 'published' AND deleted = 0")
+    int countPublished(@Param("noteId") Long noteId);
+    
+    /**
+     * 查询笔记的作者和状态（主键查询，不读取正文），用于写操作前校验作者
+     * @param noteId 笔记ID
+     * @return 只包含ID、作者ID、状态的笔记，不存在时返回null
+     */
+    @Select("SELECT note_id AS id, user_id, status FROM notes WHERE note_id = #{noteId} AND deleted = 0")
+    Note findAuthorship(@Param("noteId") Long noteId);
+    
+    /**
+     * 查询已发布笔记的正文哈希（主键查询，不读取正文），用于校验渲染缓存和ETag
+     * @param noteId 笔记ID
+     * @return 只包含ID和正文哈希的笔记，不存在或未发布时返回null；哈希列为空表示该笔记写入于哈希列之前
+     */
+    @Select("SELECT note_id AS id, content_hash FROM notes WHERE note_id = #{noteId} AND status = 'published' AND deleted = 0")
+    Note findContentHash(@Param("noteId") Long noteId);
+    
+    /**
+     * 查询已发布笔记已写回数据库的浏览次数（主键查询，不读取正文）
+     * @param noteId 笔记ID
+     * @return 浏览次数，笔记不存在或未发布时返回null
+     */
+    @Select("SELECT view_count FROM notes WHERE note_id = #{noteId} AND status = 'published' AND deleted = 0")
+    Integer findViewCount(@Param("noteId") Long noteId);
+    
+    /**
+     * 查询已发布笔记渲染所需的正文，草稿不会被渲染和缓存
+     * @param noteId 笔记ID
+     * @return 只包含ID、正文、更新时间的笔记，不存在或未发布时返回null
+     */
+    @Select("SELECT note_id AS id, content, updated_at FROM notes WHERE note_id = #{noteId} AND status = 'published' AND deleted = 0")
+    Note findRenderSource(@Param("noteId") Long noteId);
+    
+    /**
+     * 作者修改笔记内容，只写入不为null的字段和更新时间，不覆盖计数列和状态
+     * @param noteId 笔记ID
+     * @param userId 作者的用户ID
+     * @param note 新的内容（标题、正文及其哈希、摘要、封面、分类、置顶）
+     * @param updatedAt 更新时间（由应用设置，与预渲染使用的版本一致）
+     * @return 更新的行数，0表示笔记不存在或用户不是作者
+     */
+    @org.apache.ibatis.annotations.Update("<script>" +
+            "UPDATE notes <set>" +
+            "<if test='note.title != null'>title = #{note.title},</if>" +
+            "<if test='note.content != null'>content = #{note.content}, content_hash = #{note.contentHash},</if>" +
+            "<if test='note.summary != null'>summary = #{note.summary},</if>" +
+            "<if test='note.coverImageUrl != null'>cover_image_url = #{note.coverImageUrl},</if>" +
+            "<if test='note.categoryId != null'>category_id = #{note.categoryId},</if>" +
+            "<if test='note.isTop != null'>is_top = #{note.isTop},</if>" +
+            "updated_at = #{updatedAt}" +
+            "</set> WHERE note_id = #{noteId} AND user_id = #{userId} AND deleted = 0" +
+            "</script>")
+    int updateContent(@Param("noteId") Long noteId, @Param("userId") Long userId, @Param("note") Note note,
+                      @Param("updatedAt") LocalDateTime updatedAt);
+    
+    /**
+     * 作者发布笔记，只修改状态和时间列；已发布的笔记不会被重复修改
+     * @param noteId 笔记ID
+     * @param userId 作者的用户ID
+     * @param publishedAt 发布时间，同时作为更新时间
+     * @return 更新的行数，0表示笔记不存在、用户不是作者或笔记已发布
+     */
+    @org.apache.ibatis.annotations.Update("UPDATE notes SET status = 'published', published_at = #{publishedAt}, " +
+            "updated_at = #{publishedAt} " +
+            "WHERE note_id = #{noteId} AND user_id = #{userId} AND status != 'published' AND deleted = 0")
+    int publish(@Param("noteId") Long noteId, @Param("userId") Long userId,
+                @Param("publishedAt") LocalDateTime publishedAt);
+    
+    /**
+     * 批量累加浏览次数
+     * 一条 UPDATE ... CASE 语句写入多篇笔记的增量，不修改更新时间
+     * @param deltas 笔记ID -> 浏览次数增量
+     * @return 受影响的行数
+     */
+    @org.apache.ibatis.annotations.Update("<script>" +
+            "UPDATE notes SET view_count = view_count + CASE note_id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END, updated_at = updated_at " +
+            "WHERE note_id IN " +
+            "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int batchAddViewCounts(@Param("deltas") Map<Long, Long> deltas);
+    
+    /**
+     * 批量累加点赞数
+     * 一条 UPDATE ... CASE 语句写入多篇笔记的增量，点赞数不会被减到负数，不修改更新时间
+     * @param deltas 笔记ID -> 点赞数增量
+     * @return 受影响的行数
+     */
+    @org.apache.ibatis.annotations.Update("<script>" +
+            "UPDATE notes SET like_count = GREATEST(like_count + CASE note_id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END, 0), updated_at = updated_at " +
+            "WHERE note_id IN " +
+            "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int batchAddLikeCounts(@Param("deltas") Map<Long, Long> deltas);
+}
@@ -0,0 +1,63 @@
+package dream.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import dream.entity.NoteTag;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.List;
+
+/**
+ * 笔记标签关联数据访问层
+ * 使用MyBatis-Plus提供基础CRUD操作
+ * 继承BaseMapper获得通用方法
+ */
+@Mapper
+public interface NoteTagMapper extends BaseMapper<NoteTag> {
+    
+    /**
+     * 查询笔记的标签ID
+     * @param noteId 笔记ID
+     * @return 标签ID列表
+     */
+    @Select("SELECT tag_id FROM note_tags WHERE note_id = #{noteId}")
+    List<Long> findTagIdsByNoteId(@Param("noteId") Long noteId);
+    
+    /**
+     * 删除笔记的全部标签关联
+     * @param noteId 笔记ID
+     * @return 删除的行数
+     */
+    @Delete("DELETE FROM note_tags WHERE note_id = #{noteId}")
+    int deleteByNoteId(@Param("noteId") Long noteId);
+    
+    /**
+     * 批量插入笔记的标签关联（单条多行 INSERT）
+     * @param noteId 笔记ID
+     * @param tagIds 标签ID列表，不能为空
+     * @return 插入的行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO note_tags (note_id, tag_id) VALUES " +
+            "<foreach collection='tagIds' item='tagId' separator=','>(#{noteId}, #{tagId})</foreach>" +
+            "</script>")
+    int insertBatch(@Param("noteId") Long noteId, @Param("tagIds") List<Long> tagIds);
+    
+    /**
+     * 按标签ID、笔记ID顺序逐行扫描已发布笔记的标签关联，用于构建内存倒排列表
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT nt.note_id, nt.tag_id FROM note_tags nt " +
+            "JOIN notes n ON n.note_id = nt.note_id " +
+            "WHERE n.status = 'published' AND n.deleted = 0 " +
+            "ORDER BY nt.tag_id, nt.note_id")
+    @Options(fetchSize = 1000)
+    @ResultType(NoteTag.class)
+    void scanPublishedNoteTags(ResultHandler<NoteTag> handler);
+}
@@ -0,0 +1,33 @@
+package dream.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import dream.entity.Tag;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+
+/**
+ * 标签数据访问层
+ * 使用MyBatis-Plus提供基础CRUD操作
+ * 继承BaseMapper获得通用方法
+ */
+@Mapper
+public interface TagMapper extends BaseMapper<Tag> {
+    
+    /**
+     * 批量校准标签使用次数
+     * 一条 UPDATE ... CASE 语句写入多个标签的使用次数，不修改更新时间
+     * @param tags 标签列表（只使用ID和usageCount）
+     * @return 受影响的行数
+     */
+    @Update("<script>" +
+            "UPDATE tags SET usage_count = CASE tag_id " +
+            "<foreach collection='tags' item='t'>WHEN #{t.id} THEN #{t.usageCount} </foreach>" +
+            "END, updated_at = updated_at " +
+            "WHERE tag_id IN " +
+            "<foreach collection='tags' item='t' open='(' separator=',' close=')'>#{t.id}</foreach>" +
+            "</script>")
+    int batchUpdateUsageCount(@Param("tags") List<Tag> tags);
+}
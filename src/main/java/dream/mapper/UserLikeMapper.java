@@ -0,0 +1,49 @@
+package dream.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import dream.entity.UserLike;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * 点赞关系数据访问层
+ * 点赞/取消点赞都是按主键的单条语句，受影响行数表示状态是否真的发生了变化
+ */
+@Mapper
+public interface UserLikeMapper extends BaseMapper<UserLike> {
+    
+    /**
+     * 点赞，已经点过赞时不做任何修改
+     * @param targetType 点赞对象类型
+     * @param targetId 点赞对象ID
+     * @param userId 点赞的用户ID
+     * @return 1-新增点赞，0-已经点过赞
+     */
+    @Insert("INSERT IGNORE INTO user_likes (target_type, target_id, user_id) VALUES (#{targetType}, #{targetId}, #{userId})")
+    int insertIgnore(@Param("targetType") int targetType, @Param("targetId") Long targetId, @Param("userId") Long userId);
+    
+    /**
+     * 取消点赞
+     * @param targetType 点赞对象类型
+     * @param targetId 点赞对象ID
+     * @param userId 点赞的用户ID
+     * @return 1-已取消，0-原本就没有点赞
+     */
+    @Delete("DELETE FROM user_likes WHERE target_type = #{targetType} AND target_id = #{targetId} AND user_id = #{userId}")
+    int deleteLike(@Param("targetType") int targetType, @Param("targetId") Long targetId, @Param("userId") Long userId);
+    
+    /**
+     * 按主键顺序（对象类型、对象ID、用户ID）逐行扫描全部点赞关系，用于构建内存点赞集合
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT target_type, target_id, user_id FROM user_likes ORDER BY target_type, target_id, user_id")
+    @Options(fetchSize = 1000)
+    @ResultType(UserLike.class)
+    void scanAll(ResultHandler<UserLike> handler);
+}
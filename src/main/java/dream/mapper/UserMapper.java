@@ -1,11 +1,24 @@
 package dream.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import dream.dto.TokenRevocation;
+import dream.dto.UserAccountKey;
+import dream.dto.UserCounterDelta;
+import dream.dto.UserCredential;
+import dream.dto.UserSummary;
 import dream.entity.User;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.ResultType;
 import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -16,12 +29,18 @@ import java.util.Optional;
 @Mapper
 public interface UserMapper extends BaseMapper<User> {
     
+    /**
+     * 用户列表投影字段，不包含 password_hash 和 bio
+     */
+    String SUMMARY_COLUMNS = "user_id AS id, username, email, nickname, avatar_url, github_url, twitter_url, " +
+            "website_url, note_count, view_count, like_count, created_at";
+    
     /**
      * 根据用户名查找用户
      * @param username 用户名
      * @return 用户信息
      */
-    @Select("SELECT * FROM users WHERE username = #{username}")
+    @Select("SELECT *, user_id AS id FROM users WHERE username = #{username}")
     Optional<User> findByUsername(@Param("username") String username);
     
     /**
@@ -29,7 +48,7 @@ public interface UserMapper extends BaseMapper<User> {
      * @param email 邮箱地址
      * @return 用户信息
      */
-    @Select("SELECT * FROM users WHERE email = #{email}")
+    @Select("SELECT *, user_id AS id FROM users WHERE email = #{email}")
     Optional<User> findByEmail(@Param("email") String email);
     
     /**
@@ -38,17 +57,70 @@ public interface UserMapper extends BaseMapper<User> {
      * @param email 邮箱地址
      * @return 用户信息
      */
-    @Select("SELECT * FROM users WHERE username = #{username} OR email = #{email}")
+    @Select("SELECT *, user_id AS id FROM users WHERE username = #{username} OR email = #{email}")
     Optional<User> findByUsernameOrEmail(@Param("username") String username, @Param("email") String email);
     
+    /**
+     * 按用户名查询登录凭据
+     * 只走 username 唯一索引，只取三列，不把简介等资料字段读入内存
+     * @param username 用户名
+     * @return 登录凭据
+     */
+    @Select("SELECT user_id AS id, password_hash, is_active FROM users WHERE username = #{username} AND deleted = 0")
+    Optional<UserCredential> findCredentialByUsername(@Param("username") String username);
+    
+    /**
+     * 按邮箱或用户名查询登录凭据（输入形如邮箱时使用）
+     * 用 UNION ALL 拆成两次唯一索引查找，代替 username = ? OR email = ? 这种难以只用一个索引完成的条件；
+     * 用户名恰好与另一个用户的邮箱相同时优先匹配邮箱
+     * @param value 登录时输入的邮箱（也可能是含有@的用户名）
+     * @return 登录凭据
+     */
+    @Select("SELECT id, password_hash, is_active FROM (" +
+            "SELECT 0 AS priority, user_id AS id, password_hash, is_active FROM users WHERE email = #{value} AND deleted = 0 " +
+            "UNION ALL " +
+            "SELECT 1 AS priority, user_id AS id, password_hash, is_active FROM users WHERE username = #{value} AND deleted = 0" +
+            ") matched ORDER BY priority LIMIT 1")
+    Optional<UserCredential> findCredentialByEmailOrUsername(@Param("value") String value);
+    
     /**
      * 根据激活状态查找用户列表
      * @param isActive 是否激活
      * @return 用户列表
      */
-    @Select("SELECT * FROM users WHERE is_active = #{isActive} ORDER BY created_at DESC")
+    @Select("SELECT *, user_id AS id FROM users WHERE is_active = #{isActive} ORDER BY created_at DESC")
     java.util.List<User> findByIsActiveOrderByCreatedAtDesc(@Param("isActive") Boolean isActive);
     
+    /**
+     * 键集分页查询激活用户（按创建时间、用户ID倒序）
+     * 从上一页最后一条记录的位置继续查找，走 idx_active_created_at 索引，不随页码增加而变慢
+     * @param cursorCreatedAt 上一页最后一条记录的创建时间，首页传null
+     * @param cursorUserId 上一页最后一条记录的用户ID，首页传null
+     * @param limit 查询条数
+     * @return 用户列表投影
+     */
+    @Select("<script>" +
+            "SELECT " + SUMMARY_COLUMNS + " FROM users " +
+            "WHERE is_active = 1 AND deleted = 0 " +
+            "<if test='cursorCreatedAt != null'>" +
+            "AND (created_at &lt; #{cursorCreatedAt} OR (created_at = #{cursorCreatedAt} AND user_id &lt; #{cursorUserId})) " +
+            "</if>" +
+            "ORDER BY created_at DESC, user_id DESC LIMIT #{limit}" +
+            "</script>")
+    List<UserSummary> findActiveUsersAfter(@Param("cursorCreatedAt") LocalDateTime cursorCreatedAt,
+                                           @Param("cursorUserId") Long cursorUserId,
+                                           @Param("limit") int limit);
+    
+    /**
+     * 流式查询全部激活用户（按创建时间、用户ID倒序）
+     * 返回MyBatis游标，逐行读取，必须在事务（SqlSession）内消费
+     * @return 用户列表投影游标
+     */
+    @Select("SELECT " + SUMMARY_COLUMNS + " FROM users WHERE is_active = 1 AND deleted = 0 " +
+            "ORDER BY created_at DESC, user_id DESC")
+    @Options(fetchSize = 500)
+    Cursor<UserSummary> streamActiveUsers();
+    
     /**
      * 检查用户名是否存在
      * @param username 用户名
@@ -65,6 +137,63 @@ public interface UserMapper extends BaseMapper<User> {
     @Select("SELECT COUNT(*) > 0 FROM users WHERE email = #{email}")
     boolean existsByEmail(@Param("email") String email);
     
+    /**
+     * 在给定的用户名中找出已被使用的（包含已逻辑删除的用户，与唯一约束保持一致）
+     * 一条 IN 查询代替逐个 existsByUsername，走 username 唯一索引
+     * @param usernames 待检查的用户名，不能为空
+     * @return 已存在的用户名
+     */
+    @Select("<script>" +
+            "SELECT username FROM users WHERE username IN " +
+            "<foreach collection='usernames' item='u' open='(' separator=',' close=')'>#{u}</foreach>" +
+            "</script>")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+    
+    /**
+     * 在给定的邮箱中找出已被使用的（包含已逻辑删除的用户，与唯一约束保持一致）
+     * @param emails 待检查的邮箱，不能为空
+     * @return 已存在的邮箱
+     */
+    @Select("<script>" +
+            "SELECT email FROM users WHERE email IN " +
+            "<foreach collection='emails' item='e' open='(' separator=',' close=')'>#{e}</foreach>" +
+            "</script>")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+    
+    /**
+     * 多行 INSERT 批量插入用户
+     * 一条语句插入多行，只有一次网络往返和一次日志刷盘；任一行违反唯一约束时整条语句失败，不插入任何行
+     * @param users 用户列表（密码已加密），不能为空
+     * @return 插入的行数
+     */
+    @org.apache.ibatis.annotations.Insert("<script>" +
+            "INSERT INTO users (username, email, password_hash, nickname, avatar_url, bio, github_url, twitter_url, " +
+            "website_url, note_count, view_count, like_count, is_active) VALUES " +
+            "<foreach collection='users' item='u' separator=','>" +
+            "(#{u.username}, #{u.email}, #{u.passwordHash}, #{u.nickname}, #{u.avatarUrl}, #{u.bio}, #{u.githubUrl}, " +
+            "#{u.twitterUrl}, #{u.websiteUrl}, #{u.noteCount}, #{u.viewCount}, #{u.likeCount}, #{u.isActive})" +
+            "</foreach>" +
+            "</script>")
+    int batchInsert(@Param("users") List<User> users);
+    
+    /**
+     * 逐行扫描所有用户的用户名和邮箱（包含已逻辑删除的用户，与唯一约束保持一致）
+     * 通过ResultHandler逐行回调，不会把整张表加载成List
+     * @param handler 逐行处理器
+     */
+    @Select("SELECT user_id, username, email FROM users")
+    @Options(fetchSize = 1000)
+    @ResultType(UserAccountKey.class)
+    void scanAccountKeys(ResultHandler<UserAccountKey> handler);
+    
+    /**
+     * 查询某时间之后的令牌吊销记录，走 idx_token_revoked_at 索引
+     * @param since 起始时间（不含）
+     * @return 吊销记录
+     */
+    @Select("SELECT user_id, token_revoked_at AS revoked_at FROM users WHERE token_revoked_at > #{since}")
+    List<TokenRevocation> findTokenRevocationsSince(@Param("since") Date since);
+    
     /**
      * 更新用户统计信息
      * @param userId 用户ID
@@ -76,23 +205,77 @@ public interface UserMapper extends BaseMapper<User> {
     void updateUserStats(@Param("userId") Long userId, @Param("noteCount") Integer noteCount, @Param("viewCount") Integer viewCount, @Param("likeCount") Integer likeCount);
     
     /**
-     * 增加用户访问量
+     * 更新用户资料，只写入不为null的字段
+     * 调用方需保证至少有一个字段不为null
      * @param userId 用户ID
+     * @param profile 新的资料（昵称、头像、简介、GitHub、Twitter、个人网站）
+     * @return 匹配的行数，0表示用户不存在
      */
-    @org.apache.ibatis.annotations.Update("UPDATE users SET view_count = view_count + 1 WHERE user_id = #{userId}")
-    void incrementViewCount(@Param("userId") Long userId);
+    @org.apache.ibatis.annotations.Update("<script>" +
+            "UPDATE users <set>" +
+            "<if test='profile.nickname != null'>nickname = #{profile.nickname},</if>" +
+            "<if test='profile.avatarUrl != null'>avatar_url = #{profile.avatarUrl},</if>" +
+            "<if test='profile.bio != null'>bio = #{profile.bio},</if>" +
+            "<if test='profile.githubUrl != null'>github_url = #{profile.githubUrl},</if>" +
+            "<if test='profile.twitterUrl != null'>twitter_url = #{profile.twitterUrl},</if>" +
+            "<if test='profile.websiteUrl != null'>website_url = #{profile.websiteUrl},</if>" +
+            "</set> WHERE user_id = #{userId} AND deleted = 0" +
+            "</script>")
+    int updateProfile(@Param("userId") Long userId, @Param("profile") User profile);
     
     /**
-     * 增加用户点赞数
+     * 修改用户激活状态，禁用时同时记录令牌吊销时间
+     * MySQL驱动默认返回匹配行数（useAffectedRows=false），状态本来就相同时也返回1
      * @param userId 用户ID
+     * @param active 是否激活
+     * @param revokedAt 令牌吊销时间（应用时钟，与令牌签发时间比较），激活时忽略
+     * @return 匹配的行数，0表示用户不存在
      */
-    @org.apache.ibatis.annotations.Update("UPDATE users SET like_count = like_count + 1 WHERE user_id = #{userId}")
-    void incrementLikeCount(@Param("userId") Long userId);
+    @org.apache.ibatis.annotations.Update("<script>" +
+            "UPDATE users SET is_active = #{active}" +
+            "<if test='!active'>, token_revoked_at = #{revokedAt}</if>" +
+            " WHERE user_id = #{userId} AND deleted = 0" +
+            "</script>")
+    int updateActive(@Param("userId") Long userId, @Param("active") boolean active, @Param("revokedAt") Date revokedAt);
     
     /**
-     * 减少用户点赞数
+     * 根据用户ID查询密码哈希
      * @param userId 用户ID
+     * @return 密码哈希，用户不存在时返回null
+     */
+    @Select("SELECT password_hash FROM users WHERE user_id = #{userId} AND deleted = 0")
+    String findPasswordHashById(@Param("userId") Long userId);
+    
+    /**
+     * 修改密码哈希（比较并替换），同时记录令牌吊销时间
+     * 只有当前哈希仍是校验旧密码时读到的值才更新，并发修改密码时后提交的一方失败而不是覆盖前者
+     * @param userId 用户ID
+     * @param expectedHash 校验旧密码时读到的哈希
+     * @param newHash 新密码的哈希
+     * @param revokedAt 令牌吊销时间（应用时钟，与令牌签发时间比较）
+     * @return 更新的行数，0表示用户不存在或密码已被修改
+     */
+    @org.apache.ibatis.annotations.Update("UPDATE users SET password_hash = #{newHash}, token_revoked_at = #{revokedAt} " +
+            "WHERE user_id = #{userId} AND password_hash = #{expectedHash} AND deleted = 0")
+    int compareAndSetPasswordHash(@Param("userId") Long userId, @Param("expectedHash") String expectedHash,
+                                  @Param("newHash") String newHash, @Param("revokedAt") Date revokedAt);
+    
+    /**
+     * 批量写回访问量和点赞数增量
+     * 一条 UPDATE ... CASE 语句合并多个用户的增量，点赞数不会被减到负数
+     * @param deltas 合并后的增量列表
+     * @return 受影响的行数
      */
-    @org.apache.ibatis.annotations.Update("UPDATE users SET like_count = like_count - 1 WHERE user_id = #{userId} AND like_count > 0")
-    void decrementLikeCount(@Param("userId") Long userId);
+    @org.apache.ibatis.annotations.Update("<script>" +
+            "UPDATE users SET " +
+            "view_count = view_count + CASE user_id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.userId} THEN #{d.viewDelta} </foreach>" +
+            "END, " +
+            "like_count = GREATEST(like_count + CASE user_id " +
+            "<foreach collection='deltas' item='d'>WHEN #{d.userId} THEN #{d.likeDelta} </foreach>" +
+            "END, 0) " +
+            "WHERE user_id IN " +
+            "<foreach collection='deltas' item='d' open='(' separator=',' close=')'>#{d.userId}</foreach>" +
+            "</script>")
+    int batchApplyCounterDeltas(@Param("deltas") List<UserCounterDelta> deltas);
 }
\ No newline at end of file
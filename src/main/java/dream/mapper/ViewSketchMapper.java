@@ -0,0 +1,69 @@
+package dream.mapper;
+
+import dream.dto.ViewSketch;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * 独立访客草图数据访问层
+ */
+@Mapper
+public interface ViewSketchMapper {
+    
+    /**
+     * 按（对象类型、对象ID、日期）批量查询草图并加行锁（SELECT ... FOR UPDATE），须在事务中调用
+     * @param keys 只需填写 targetType、targetId、statDate，不能为空
+     * @return 存在的草图
+     */
+    @Select("<script>" +
+            "SELECT target_type, target_id, stat_date, sketch FROM view_sketches " +
+            "WHERE (target_type, target_id, stat_date) IN " +
+            "<foreach collection='keys' item='k' open='(' separator=',' close=')'>(#{k.targetType}, #{k.targetId}, #{k.statDate})</foreach> " +
+            "FOR UPDATE" +
+            "</script>")
+    List<ViewSketch> lockByKeys(@Param("keys") List<ViewSketch> keys);
+    
+    /**
+     * 查询一个对象在日期区间内的草图
+     * @param targetType 对象类型
+     * @param targetId 对象ID
+     * @param from 开始日期（包含）
+     * @param to 结束日期（包含）
+     * @return 草图列表，按日期升序
+     */
+    @Select("SELECT target_type, target_id, stat_date, sketch FROM view_sketches " +
+            "WHERE target_type = #{targetType} AND target_id = #{targetId} AND stat_date BETWEEN #{from} AND #{to} " +
+            "ORDER BY stat_date")
+    List<ViewSketch> findRange(@Param("targetType") int targetType, @Param("targetId") Long targetId,
+                               @Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * 批量插入草图（单条多行 INSERT IGNORE），已存在的不修改
+     * 用于在加锁读取前保证行存在：不存在的行只能加间隙锁，挡不住其他实例的并发插入
+     * @param sketches 草图列表，不能为空
+     * @return 新插入的行数
+     */
+    @Insert("<script>" +
+            "INSERT IGNORE INTO view_sketches (target_type, target_id, stat_date, sketch) VALUES " +
+            "<foreach collection='sketches' item='s' separator=','>(#{s.targetType}, #{s.targetId}, #{s.statDate}, #{s.sketch})</foreach>" +
+            "</script>")
+    int insertIgnoreBatch(@Param("sketches") List<ViewSketch> sketches);
+    
+    /**
+     * 批量写入草图（单条多行 INSERT），已存在时覆盖
+     * 调用方在同一事务中已用 {@link #lockByKeys} 锁住旧草图并合并进来
+     * @param sketches 草图列表，不能为空
+     * @return 受影响的行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO view_sketches (target_type, target_id, stat_date, sketch) VALUES " +
+            "<foreach collection='sketches' item='s' separator=','>(#{s.targetType}, #{s.targetId}, #{s.statDate}, #{s.sketch})</foreach> " +
+            "ON DUPLICATE KEY UPDATE sketch = VALUES(sketch)" +
+            "</script>")
+    int upsertBatch(@Param("sketches") List<ViewSketch> sketches);
+}
@@ -0,0 +1,99 @@
+package dream.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import dream.dto.WallpaperTile;
+import dream.entity.Wallpaper;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 壁纸数据访问层
+ * 使用MyBatis-Plus提供基础CRUD操作
+ * 继承BaseMapper获得通用方法
+ */
+@Mapper
+public interface WallpaperMapper extends BaseMapper<Wallpaper> {
+
+    /**
+     * 壁纸墙：按壁纸ID倒序键集分页，只返回缩略图已生成且未被拒绝的壁纸
+     * @param beforeId 上一页最后一条记录的壁纸ID，首页传null
+     * @param limit 查询条数
+     * @return 瀑布流投影
+     */
+    @Select("<script>" +
+            "SELECT wallpaper_id AS id, title, image_url, thumbnail_url, width, height, like_count, favorite_count " +
+            "FROM wallpapers WHERE deleted = 0 AND status != 'rejected' AND thumbnail_url IS NOT NULL " +
+            "<if test='beforeId != null'>AND wallpaper_id &lt; #{beforeId} </if>" +
+            "ORDER BY wallpaper_id DESC LIMIT #{limit}" +
+            "</script>")
+    List<WallpaperTile> findWallAfter(@Param("beforeId") Long beforeId, @Param("limit") int limit);
+
+    /**
+     * 根据ID批量查询瀑布流投影，只返回缩略图已生成且未被拒绝的壁纸，结果顺序不保证
+     * @param wallpaperIds 壁纸ID列表，不能为空
+     * @return 瀑布流投影
+     */
+    @Select("<script>" +
+            "SELECT wallpaper_id AS id, title, image_url, thumbnail_url, width, height, like_count, favorite_count " +
+            "FROM wallpapers WHERE deleted = 0 AND status != 'rejected' AND thumbnail_url IS NOT NULL AND wallpaper_id IN " +
+            "<foreach collection='wallpaperIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<WallpaperTile> findTilesByIds(@Param("wallpaperIds") List<Long> wallpaperIds);
+
+    /**
+     * 查询缩略图尚未生成、失败次数未达上限的壁纸（只返回ID和原图URL）
+     * @param maxAttempts 失败次数上限
+     * @param limit 查询条数
+     * @return 壁纸列表
+     */
+    @Select("SELECT wallpaper_id AS id, image_url FROM wallpapers " +
+            "WHERE deleted = 0 AND thumbnail_url IS NULL AND thumbnail_attempts < #{maxAttempts} " +
+            "ORDER BY wallpaper_id LIMIT #{limit}")
+    List<Wallpaper> findMissingThumbnails(@Param("maxAttempts") int maxAttempts, @Param("limit") int limit);
+
+    /**
+     * 缩略图生成失败次数加一（不修改 updated_at）
+     * @param wallpaperId 壁纸ID
+     * @return 受影响的行数
+     */
+    @Update("UPDATE wallpapers SET thumbnail_attempts = thumbnail_attempts + 1, updated_at = updated_at " +
+            "WHERE wallpaper_id = #{wallpaperId}")
+    int incrementThumbnailAttempts(@Param("wallpaperId") Long wallpaperId);
+
+    /**
+     * 记录生成好的缩略图URL
+     * @param wallpaperId 壁纸ID
+     * @param thumbnailUrl 缩略图URL
+     * @return 受影响的行数
+     */
+    @Update("UPDATE wallpapers SET thumbnail_url = #{thumbnailUrl} WHERE wallpaper_id = #{wallpaperId} AND deleted = 0")
+    int updateThumbnailUrl(@Param("wallpaperId") Long wallpaperId, @Param("thumbnailUrl") String thumbnailUrl);
+
+    /**
+     * 查询可下载壁纸的原图URL（未删除且未被拒绝）
+     * @param wallpaperId 壁纸ID
+     * @return 原图URL，不存在时返回null
+     */
+    @Select("SELECT image_url FROM wallpapers WHERE wallpaper_id = #{wallpaperId} AND deleted = 0 AND status != 'rejected'")
+    String findDownloadableImageUrl(@Param("wallpaperId") Long wallpaperId);
+
+    /**
+     * 批量累加下载次数
+     * 一条 UPDATE ... CASE 语句写入多个壁纸的增量，不修改更新时间
+     * @param deltas 壁纸ID -> 下载次数增量
+     * @return 受影响的行数
+     */
+    @Update("<script>" +
+            "UPDATE wallpapers SET download_count = download_count + CASE wallpaper_id " +
+            "<foreach collection='deltas' index='id' item='delta'>WHEN #{id} THEN #{delta} </foreach>" +
+            "END, updated_at = updated_at " +
+            "WHERE wallpaper_id IN " +
+            "<foreach collection='deltas' index='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int batchAddDownloadCounts(@Param("deltas") Map<Long, Long> deltas);
+}
@@ -0,0 +1,41 @@
+package dream.security;
+
+import dream.exception.ErrorCode;
+import dream.exception.business.UserException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+/**
+ * 当前登录用户
+ * 从 SecurityContext 中取出 JwtAuthenticationFilter 放入的用户ID
+ */
+public final class CurrentUser {
+
+    private CurrentUser() {
+    }
+
+    /**
+     * 获取当前用户ID
+     * @return 用户ID，未登录时返回null
+     */
+    public static Long getId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof Long) {
+            return (Long) authentication.getPrincipal();
+        }
+        return null;
+    }
+
+    /**
+     * 获取当前用户ID，未登录时抛出异常
+     * @return 用户ID
+     * @throws UserException 未登录（401）
+     */
+    public static Long requireId() {
+        Long userId = getId();
+        if (userId == null) {
+            throw UserException.of(ErrorCode.UNAUTHORIZED, "请先登录");
+        }
+        return userId;
+    }
+}
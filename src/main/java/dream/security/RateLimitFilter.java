@@ -0,0 +1,125 @@
+package dream.security;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import dream.common.Result;
+import dream.exception.ErrorCode;
+import dream.manager.RateLimitManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 限流过滤器
+ * 按 RateLimitManager 中配置了 pattern 的策略匹配请求，超出限额时直接返回429并带上 Retry-After 头
+ *
+ * 技术解释：
+ * - 放在 JwtAuthenticationFilter 之后，按用户限流的策略可以取到当前用户ID
+ * - 一个请求可以同时匹配多个策略（如按IP和按用户），任何一个拒绝都不再进入控制器，
+ *   登录、注册被拒绝时不会占用密码哈希线程
+ * - 客户端IP取 getRemoteAddr()，部署在反向代理之后时需配置 server.forward-headers-strategy，
+ *   不直接信任请求头中的 X-Forwarded-For，避免客户端伪造IP绕过限流
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimitManager rateLimitManager;
+
+    private final ObjectMapper objectMapper;
+
+    /**
+     * 按路径匹配的策略（方法、路径、策略名）
+     */
+    private final List<Route> routes = new ArrayList<>();
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public RateLimitFilter(RateLimitManager rateLimitManager, ObjectMapper objectMapper) {
+        this.rateLimitManager = rateLimitManager;
+        this.objectMapper = objectMapper;
+        for (Map.Entry<String, RateLimitManager.Policy> entry : rateLimitManager.getPolicies().entrySet()) {
+            String pattern = entry.getValue().getPattern();
+            if (pattern == null || pattern.trim().isEmpty()) {
+                continue;
+            }
+            String[] parts = pattern.trim().split("\\s+", 2);
+            if (parts.length == 2) {
+                routes.add(new Route(parts[0].toUpperCase(), parts[1], entry.getKey(), entry.getValue().getKey()));
+            } else {
+                routes.add(new Route("*", parts[0], entry.getKey(), entry.getValue().getKey()));
+            }
+        }
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        if (!routes.isEmpty()) {
+            String path = request.getRequestURI().substring(request.getContextPath().length());
+            for (Route route : routes) {
+                if (!route.matches(request.getMethod(), path)) {
+                    continue;
+                }
+                long waitMillis = rateLimitManager.tryAcquire(route.policy, resolveKey(route.key, request));
+                if (waitMillis > 0) {
+                    reject(response, waitMillis);
+                    return;
+                }
+            }
+        }
+        chain.doFilter(request, response);
+    }
+
+    /**
+     * 取限流键：user 策略优先按当前用户ID，未登录时退回按IP
+     */
+    private String resolveKey(String keyType, HttpServletRequest request) {
+        if ("user".equals(keyType)) {
+            Long userId = CurrentUser.getId();
+            if (userId != null) {
+                return "u:" + userId;
+            }
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private void reject(HttpServletResponse response, long waitMillis) throws IOException {
+        response.setStatus(ErrorCode.TOO_MANY_REQUESTS.getHttpStatus());
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf((waitMillis + 999) / 1000));
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        objectMapper.writeValue(response.getOutputStream(), Result.error(ErrorCode.TOO_MANY_REQUESTS, "请求过于频繁，请稍后重试"));
+    }
+
+    private final class Route {
+
+        private final String method;
+
+        private final String path;
+
+        private final String policy;
+
+        private final String key;
+
+        private Route(String method, String path, String policy, String key) {
+            this.method = method;
+            this.path = path;
+            this.policy = policy;
+            this.key = key;
+        }
+
+        private boolean matches(String requestMethod, String requestPath) {
+            return ("*".equals(method) || method.equalsIgnoreCase(requestMethod))
+                    && pathMatcher.match(path, requestPath);
+        }
+    }
+}
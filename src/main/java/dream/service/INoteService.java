@@ -0,0 +1,173 @@
+package dream.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import dream.common.CursorPage;
+import dream.dto.NoteSummary;
+import dream.dto.RenderedNote;
+import dream.entity.Note;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 笔记业务逻辑接口
+ * 继承MyBatis-Plus的IService接口，获得基础CRUD操作
+ * 定义笔记相关的业务逻辑方法，如发布、编辑、首页信息流等
+ */
+public interface INoteService extends IService<Note> {
+    
+    /**
+     * 获取首页信息流（已发布笔记，置顶优先，按发布时间倒序）
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数（1-50）
+     * @return 当前页笔记列表投影和下一页游标
+     * @throws IllegalArgumentException 游标格式不正确时抛出异常
+     */
+    CursorPage<NoteSummary> getHomeFeed(String cursor, int size);
+    
+    /**
+     * 全文检索已发布笔记（内存倒排索引，BM25排序）
+     * @param query 查询文本
+     * @param size 返回条数（1-50）
+     * @return 按相关度排序的笔记列表投影
+     */
+    List<NoteSummary> searchNotes(String query, int size);
+    
+    /**
+     * 获取热门笔记（按时间衰减的浏览、点赞热度排序，只返回已发布笔记）
+     * @param size 返回条数（1-50）
+     * @return 按热度降序的笔记列表投影
+     */
+    List<NoteSummary> getHotNotes(int size);
+    
+    /**
+     * 检索词前缀联想
+     * @param prefix 前缀
+     * @param size 返回条数（1-20）
+     * @return 联想词列表
+     */
+    List<String> suggestSearchTerms(String prefix, int size);
+    
+    /**
+     * 按给定ID顺序批量获取笔记列表投影（不含正文），不存在或已删除的笔记会被跳过
+     * @param noteIds 笔记ID列表
+     * @return 笔记列表投影
+     */
+    List<NoteSummary> getNoteSummaries(List<Long> noteIds);
+    
+    /**
+     * 获取笔记详情，未发布的笔记只有作者本人可见
+     * @param noteId 笔记ID
+     * @param viewerId 当前用户ID，未登录时为null
+     * @return 笔记信息
+     * @throws NoteException 当笔记不存在或对当前用户不可见时抛出异常
+     */
+    Note getNoteDetail(Long noteId, Long viewerId);
+    
+    /**
+     * 校验用户是笔记作者
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @return 只包含ID、作者ID、状态的笔记
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     */
+    Note requireAuthor(Long userId, Long noteId);
+    
+    /**
+     * 获取笔记当前版本（正文哈希），不读取正文
+     * @param noteId 笔记ID
+     * @return 正文哈希
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    String getNoteVersion(Long noteId);
+    
+    /**
+     * 获取笔记渲染后的HTML
+     * 缓存中已有该版本时不读取正文
+     * @param noteId 笔记ID
+     * @param version 笔记当前版本（正文哈希）
+     * @return 渲染结果
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    RenderedNote getRenderedNote(Long noteId, String version);
+    
+    /**
+     * 创建笔记
+     * 状态为published时自动设置发布时间
+     * @param userId 作者的用户ID
+     * @param note 笔记信息
+     * @return 创建后的笔记
+     */
+    Note createNote(Long userId, Note note);
+    
+    /**
+     * 更新笔记内容（只有作者可以修改）
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @param note 更新的笔记信息
+     * @return 更新后的笔记
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     */
+    Note updateNote(Long userId, Long noteId, Note note);
+    
+    /**
+     * 发布笔记（只有作者可以发布）
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @return 发布后的笔记
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     */
+    Note publishNote(Long userId, Long noteId);
+    
+    /**
+     * 删除笔记（逻辑删除，只有作者可以删除）
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     */
+    void deleteNote(Long userId, Long noteId);
+    
+    /**
+     * 记录一次笔记浏览（后台累计浏览次数和每天的独立访客，定时批量写回）
+     * @param noteId 笔记ID
+     * @param viewerId 浏览者的用户ID，未登录时为null
+     * @param remoteAddr 客户端IP
+     * @param userAgent User-Agent 请求头
+     * @return 是否已计入；爬虫访问或缓冲区已满时返回false
+     */
+    boolean recordView(Long noteId, Long viewerId, String remoteAddr, String userAgent);
+    
+    /**
+     * 获取笔记的浏览统计（浏览次数和独立访客数）
+     * @param noteId 笔记ID
+     * @param days 独立访客统计最近几天（含今天）
+     * @return 浏览统计
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    Map<String, Object> getViewStats(Long noteId, int days);
+    
+    /**
+     * 点赞笔记（幂等，点赞数先在内存中累计，定时批量写回）
+     * @param userId 点赞的用户ID
+     * @param noteId 笔记ID
+     * @return true-新增点赞，false-已经点过赞
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    boolean likeNote(Long userId, Long noteId);
+    
+    /**
+     * 取消点赞笔记（幂等）
+     * @param userId 点赞的用户ID
+     * @param noteId 笔记ID
+     * @return true-已取消，false-原本就没有点赞
+     */
+    boolean unlikeNote(Long userId, Long noteId);
+    
+    /**
+     * 判断是否点赞过笔记
+     * @param userId 用户ID
+     * @param noteId 笔记ID
+     * @return 是否点赞过
+     */
+    boolean hasLikedNote(Long userId, Long noteId);
+}
@@ -0,0 +1,52 @@
+package dream.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import dream.common.CursorPage;
+import dream.dto.NoteSummary;
+import dream.entity.Tag;
+
+import java.util.List;
+
+/**
+ * 标签业务逻辑接口
+ * 继承MyBatis-Plus的IService接口，获得基础CRUD操作
+ * 定义标签云、按标签筛选笔记、设置笔记标签等业务逻辑方法
+ */
+public interface ITagService extends IService<Tag> {
+
+    /**
+     * 获取标签云（使用次数最多的标签）
+     * @param size 返回条数（1-200）
+     * @return 按使用次数倒序的标签列表
+     */
+    List<Tag> getTagCloud(int size);
+
+    /**
+     * 按标签筛选已发布笔记，按笔记ID倒序（即创建时间倒序）分页
+     * @param tagIds 标签ID列表
+     * @param matchAll true-同时包含所有标签，false-包含任意一个标签
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数（1-50）
+     * @return 当前页笔记列表投影和下一页游标
+     * @throws IllegalArgumentException 游标格式不正确时抛出异常
+     */
+    CursorPage<NoteSummary> findNotesByTags(List<Long> tagIds, boolean matchAll, String cursor, int size);
+
+    /**
+     * 创建标签
+     * @param tag 标签信息
+     * @return 创建后的标签
+     * @throws IllegalArgumentException 标签名称已存在时抛出异常
+     */
+    Tag createTag(Tag tag);
+
+    /**
+     * 设置笔记的标签（整体替换，只有作者可以修改）
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @param tagIds 标签ID列表，空列表表示清空
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     * @throws IllegalArgumentException 标签不存在时抛出异常
+     */
+    void setNoteTags(Long userId, Long noteId, List<Long> tagIds);
+}
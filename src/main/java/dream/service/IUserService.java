@@ -1,10 +1,18 @@
 package dream.service;
 
+import dream.common.CursorPage;
+import dream.dto.LoginResult;
+import dream.dto.UserImportResult;
+import dream.dto.UserImportRow;
+import dream.dto.UserSummary;
 import dream.entity.User;
 import com.baomidou.mybatisplus.extension.service.IService;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 用户业务逻辑接口
@@ -27,13 +35,20 @@ public interface IUserService extends IService<User> {
     User registerUser(User user);
     
     /**
-     * 用户登录验证
+     * 用户登录验证，成功后签发登录令牌
      * @param usernameOrEmail 用户名或邮箱
      * @param password 原始密码
-     * @return 用户信息（如果验证成功）
+     * @return 登录令牌和用户信息（如果验证成功）
      * @throws UserException 当用户不存在或密码错误时抛出异常
      */
-    User loginUser(String usernameOrEmail, String password);
+    LoginResult loginUser(String usernameOrEmail, String password);
+    
+    /**
+     * 根据ID获取用户信息（包含尚未写回的计数增量）
+     * @param userId 用户ID
+     * @return 用户信息，不存在时返回null
+     */
+    User getUserById(Long userId);
     
     /**
      * 根据用户名查找用户
@@ -73,6 +88,31 @@ public interface IUserService extends IService<User> {
      */
     List<User> getActiveUsers();
     
+    /**
+     * 游标分页获取激活用户（按创建时间倒序）
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数（1-100）
+     * @return 当前页用户列表投影和下一页游标
+     * @throws IllegalArgumentException 游标格式不正确时抛出异常
+     */
+    CursorPage<UserSummary> getActiveUsersPage(String cursor, int size);
+    
+    /**
+     * 流式导出全部激活用户（按创建时间倒序）
+     * 基于数据库游标逐行回调，内存占用与用户总数无关
+     * @param consumer 逐行处理器
+     */
+    void exportActiveUsers(Consumer<UserSummary> consumer);
+    
+    /**
+     * 批量导入用户
+     * 逐批校验、检查冲突、并行加密密码并批量插入；单行失败只记入结果，不影响其他行
+     * @param rows 逐行读取的导入数据
+     * @return 导入结果（成功数、失败数和逐行错误）
+     * @throws ServiceBusyException 密码哈希线程池持续繁忙，已处理的批次保持导入
+     */
+    UserImportResult importUsers(Iterator<UserImportRow> rows);
+    
     /**
      * 禁用用户账户
      * @param userId 用户ID
@@ -88,22 +128,48 @@ public interface IUserService extends IService<User> {
     void activateUser(Long userId);
     
     /**
-     * 增加用户访问量
+     * 记录一次用户主页访问（后台累计访问量和每天的独立访客，定时批量写回）
      * @param userId 用户ID
+     * @param viewerId 访问者的用户ID，未登录时为null
+     * @param remoteAddr 客户端IP
+     * @param userAgent User-Agent 请求头
+     * @return 是否已计入；爬虫访问或缓冲区已满时返回false
      */
-    void incrementViewCount(Long userId);
+    boolean recordView(Long userId, Long viewerId, String remoteAddr, String userAgent);
     
     /**
-     * 增加用户点赞数
+     * 获取用户主页的访问统计（访问量和独立访客数）
      * @param userId 用户ID
+     * @param days 独立访客统计最近几天（含今天）
+     * @return 访问统计
+     * @throws UserException 当用户不存在时抛出异常
      */
-    void incrementLikeCount(Long userId);
+    Map<String, Object> getViewStats(Long userId, int days);
     
     /**
-     * 减少用户点赞数
-     * @param userId 用户ID
+     * 点赞用户主页（幂等，点赞数先在内存中累计，定时批量写回）
+     * @param likerId 点赞的用户ID
+     * @param userId 被点赞的用户ID
+     * @return true-新增点赞，false-已经点过赞
+     * @throws UserException 当被点赞的用户不存在时抛出异常
+     */
+    boolean likeUser(Long likerId, Long userId);
+    
+    /**
+     * 取消点赞用户主页（幂等）
+     * @param likerId 点赞的用户ID
+     * @param userId 被点赞的用户ID
+     * @return true-已取消，false-原本就没有点赞
+     */
+    boolean unlikeUser(Long likerId, Long userId);
+    
+    /**
+     * 判断是否点赞过用户主页
+     * @param likerId 点赞的用户ID
+     * @param userId 被点赞的用户ID
+     * @return 是否点赞过
      */
-    void decrementLikeCount(Long userId);
+    boolean hasLikedUser(Long likerId, Long userId);
     
     /**
      * 更新用户统计信息
@@ -115,14 +181,14 @@ public interface IUserService extends IService<User> {
     void updateUserStats(Long userId, Integer noteCount, Integer viewCount, Integer likeCount);
     
     /**
-     * 检查用户名是否可用
+     * 检查用户名是否可用（布隆过滤器判定一定不存在时不访问数据库）
      * @param username 用户名
      * @return 是否可用
      */
     boolean isUsernameAvailable(String username);
     
     /**
-     * 检查邮箱是否可用
+     * 检查邮箱是否可用（布隆过滤器判定一定不存在时不访问数据库）
      * @param email 邮箱地址
      * @return 是否可用
      */
@@ -0,0 +1,67 @@
+package dream.service;
+
+import com.baomidou.mybatisplus.extension.service.IService;
+import dream.common.CursorPage;
+import dream.dto.WallpaperTile;
+import dream.entity.Wallpaper;
+
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * 壁纸业务逻辑接口
+ * 继承MyBatis-Plus的IService接口，获得基础CRUD操作
+ * 定义壁纸上传、壁纸墙等业务逻辑方法
+ */
+public interface IWallpaperService extends IService<Wallpaper> {
+
+    /**
+     * 上传壁纸
+     * 保存原图并记录宽高和文件大小，缩略图在事务提交后由后台线程生成
+     * @param userId 上传者的用户ID
+     * @param wallpaper 壁纸信息（标题、描述、分类）
+     * @param image 图片内容
+     * @return 创建后的壁纸（thumbnailUrl 为空，生成完成后写入）
+     * @throws FileException 图片格式不支持或尺寸超出限制时抛出异常
+     */
+    Wallpaper uploadWallpaper(Long userId, Wallpaper wallpaper, InputStream image);
+
+    /**
+     * 获取壁纸墙（按上传时间倒序），只返回缩略图已生成的壁纸
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数（1-100）
+     * @return 当前页瀑布流投影和下一页游标
+     * @throws IllegalArgumentException 游标格式不正确时抛出异常
+     */
+    CursorPage<WallpaperTile> getWall(String cursor, int size);
+
+    /**
+     * 获取壁纸详情
+     * @param wallpaperId 壁纸ID
+     * @return 壁纸信息
+     * @throws WallpaperException 当壁纸不存在时抛出异常
+     */
+    Wallpaper getWallpaperDetail(Long wallpaperId);
+
+    /**
+     * 获取可下载壁纸的原图文件路径
+     * @param wallpaperId 壁纸ID
+     * @return 原图文件路径
+     * @throws WallpaperException 当壁纸不存在或已被拒绝时抛出异常
+     */
+    Path getDownloadFile(Long wallpaperId);
+
+    /**
+     * 获取热门壁纸（按时间衰减的下载热度排序），只返回缩略图已生成且未被拒绝的壁纸
+     * @param size 返回条数（1-100）
+     * @return 按热度降序的瀑布流投影
+     */
+    List<WallpaperTile> getHotWallpapers(int size);
+
+    /**
+     * 记录一次下载（内存累加，异步批量写回），同时计入热度排行
+     * @param wallpaperId 壁纸ID
+     */
+    void recordDownload(Long wallpaperId);
+}
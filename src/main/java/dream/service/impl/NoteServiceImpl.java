@@ -0,0 +1,476 @@
+package dream.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import dream.common.CursorPage;
+import dream.common.CursorUtils;
+import dream.dto.NoteSummary;
+import dream.dto.RenderedNote;
+import dream.entity.Note;
+import dream.entity.UserLike;
+import dream.exception.business.NoteException;
+import dream.common.structure.InvertedIndex;
+import dream.manager.HotRankManager;
+import dream.manager.LikeManager;
+import dream.manager.NoteCounterManager;
+import dream.manager.NoteRenderManager;
+import dream.manager.NoteSearchManager;
+import dream.manager.PublishedNoteManager;
+import dream.manager.TagIndexManager;
+import dream.manager.ViewEventManager;
+import dream.mapper.NoteMapper;
+import dream.mapper.UserLikeMapper;
+import dream.service.INoteService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 笔记业务逻辑实现类
+ * 继承MyBatis-Plus的ServiceImpl，获得基础CRUD操作
+ * 实现INoteService接口，提供笔记的发布、编辑和首页信息流
+ */
+@Service
+@Transactional  // 事务管理注解，确保数据一致性
+public class NoteServiceImpl extends ServiceImpl<NoteMapper, Note> implements INoteService {
+    
+    // 笔记状态：已发布
+    private static final String STATUS_PUBLISHED = "published";
+    
+    // 信息流、检索结果每页最大条数
+    private static final int MAX_FEED_SIZE = 50;
+    
+    // 联想词最大条数
+    private static final int MAX_SUGGEST_SIZE = 20;
+    
+    @Autowired
+    private NoteMapper noteMapper;
+    
+    @Autowired
+    private UserLikeMapper userLikeMapper;
+    
+    // Markdown渲染缓存，发布/更新后预渲染，删除后移除
+    @Autowired
+    private NoteRenderManager noteRenderManager;
+    
+    // 内存倒排索引，笔记变更提交后增量更新
+    @Autowired
+    private NoteSearchManager noteSearchManager;
+    
+    // 标签 -> 已发布笔记的倒排列表，发布、删除提交后增量更新
+    @Autowired
+    private TagIndexManager tagIndexManager;
+    
+    // 点赞管理器，内存中的点赞用户集合，点赞数合并后批量写回
+    @Autowired
+    private LikeManager likeManager;
+    
+    // 笔记计数写回管理器，读取尚未写回的浏览次数增量
+    @Autowired
+    private NoteCounterManager noteCounterManager;
+    
+    // 访问事件管理器，浏览在后台线程累计浏览次数和独立访客
+    @Autowired
+    private ViewEventManager viewEventManager;
+    
+    // 时间衰减热度排行，删除笔记提交后移出排行
+    @Autowired
+    private HotRankManager hotRankManager;
+    
+    // 已发布笔记判断缓存，浏览只计入已发布的笔记
+    @Autowired
+    private PublishedNoteManager publishedNoteManager;
+    
+    /**
+     * 获取首页信息流（已发布笔记，置顶优先，按发布时间倒序）
+     * 多查一条用于判断是否还有下一页
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数（1-50）
+     * @return 当前页笔记列表投影和下一页游标
+     * @throws IllegalArgumentException 游标格式不正确时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NoteSummary> getHomeFeed(String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_SIZE);
+        Boolean cursorTop = null;
+        LocalDateTime cursorPublishedAt = null;
+        Long cursorNoteId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] keys = CursorUtils.decode(cursor, 3);
+            try {
+                cursorTop = Boolean.valueOf(keys[0]);
+                cursorPublishedAt = LocalDateTime.parse(keys[1]);
+                cursorNoteId = Long.valueOf(keys[2]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+        }
+        
+        List<NoteSummary> rows = noteMapper.findPublishedFeedAfter(cursorTop, cursorPublishedAt, cursorNoteId, limit + 1);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<NoteSummary> items = new ArrayList<>(rows.subList(0, limit));
+        NoteSummary last = items.get(limit - 1);
+        return new CursorPage<>(items, CursorUtils.encode(Boolean.TRUE.equals(last.getIsTop()), last.getPublishedAt(), last.getId()));
+    }
+    
+    /**
+     * 全文检索已发布笔记（内存倒排索引，BM25排序）
+     * 检索只在内存中完成，最后按ID批量取一次列表字段
+     * @param query 查询文本
+     * @param size 返回条数（1-50）
+     * @return 按相关度排序的笔记列表投影
+     */
+    @Transactional(readOnly = true)
+    public List<NoteSummary> searchNotes(String query, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_SIZE);
+        List<Long> noteIds = noteSearchManager.search(query, limit).stream()
+                .map(InvertedIndex.Hit::getDocId)
+                .collect(Collectors.toList());
+        return findSummariesInOrder(noteIds);
+    }
+    
+    /**
+     * 获取热门笔记（按时间衰减的浏览、点赞热度排序，只返回已发布笔记）
+     * 未发布的笔记在入榜时已被过滤；按热度顺序分批取候选，跳过之后被删除的笔记，直到凑满请求的条数
+     * @param size 返回条数（1-50）
+     * @return 按热度降序的笔记列表投影
+     */
+    @Transactional(readOnly = true)
+    public List<NoteSummary> getHotNotes(int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_FEED_SIZE);
+        return hotRankManager.top(HotRankManager.TARGET_NOTE, limit,
+                noteIds -> orderByIds(noteIds, noteMapper.findPublishedSummariesByIds(noteIds)));
+    }
+    
+    /**
+     * 检索词前缀联想
+     * @param prefix 前缀
+     * @param size 返回条数（1-20）
+     * @return 联想词列表
+     */
+    public List<String> suggestSearchTerms(String prefix, int size) {
+        return noteSearchManager.suggest(prefix, Math.min(Math.max(size, 1), MAX_SUGGEST_SIZE));
+    }
+    
+    /**
+     * 按给定ID顺序批量获取笔记列表投影（不含正文），不存在或已删除的笔记会被跳过
+     * @param noteIds 笔记ID列表
+     * @return 笔记列表投影
+     */
+    @Transactional(readOnly = true)
+    public List<NoteSummary> getNoteSummaries(List<Long> noteIds) {
+        return findSummariesInOrder(noteIds);
+    }
+    
+    /**
+     * 获取笔记详情，未发布的笔记只有作者本人可见
+     * @param noteId 笔记ID
+     * @param viewerId 当前用户ID，未登录时为null
+     * @return 笔记信息
+     * @throws NoteException 当笔记不存在或对当前用户不可见时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public Note getNoteDetail(Long noteId, Long viewerId) {
+        Note note = noteMapper.selectById(noteId);
+        if (note == null || (!STATUS_PUBLISHED.equals(note.getStatus()) && !note.getUserId().equals(viewerId))) {
+            throw NoteException.noteNotFound();
+        }
+        return note;
+    }
+    
+    /**
+     * 校验用户是笔记作者（主键查询，不读取正文）
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @return 只包含ID、作者ID、状态的笔记
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public Note requireAuthor(Long userId, Long noteId) {
+        Note note = noteMapper.findAuthorship(noteId);
+        if (note == null) {
+            throw NoteException.noteNotFound();
+        }
+        if (!note.getUserId().equals(userId)) {
+            throw NoteException.notAuthor();
+        }
+        return note;
+    }
+    
+    /**
+     * 获取已发布笔记的当前版本（正文哈希），只查询哈希列，不读取正文
+     * @param noteId 笔记ID
+     * @return 正文哈希
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public String getNoteVersion(Long noteId) {
+        Note version = noteMapper.findContentHash(noteId);
+        if (version == null) {
+            throw NoteException.noteNotFound();
+        }
+        if (version.getContentHash() != null) {
+            return version.getContentHash();
+        }
+        // 哈希列加入之前写入的笔记：读取正文计算，下次修改正文时写入
+        Note source = noteMapper.findRenderSource(noteId);
+        if (source == null) {
+            throw NoteException.noteNotFound();
+        }
+        return NoteRenderManager.hashOf(source.getContent());
+    }
+    
+    /**
+     * 获取已发布笔记渲染后的HTML
+     * 缓存中已有该版本时不读取正文
+     * @param noteId 笔记ID
+     * @param version 笔记当前版本（正文哈希）
+     * @return 渲染结果
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public RenderedNote getRenderedNote(Long noteId, String version) {
+        RenderedNote rendered = noteRenderManager.getRendered(noteId, version, noteMapper::findRenderSource);
+        if (rendered == null) {
+            throw NoteException.noteNotFound();
+        }
+        return rendered;
+    }
+    
+    /**
+     * 创建笔记
+     * 状态为published时自动设置发布时间
+     * @param userId 作者的用户ID
+     * @param note 笔记信息
+     * @return 创建后的笔记
+     */
+    public Note createNote(Long userId, Note note) {
+        note.setId(null);
+        note.setUserId(userId);
+        if (note.getStatus() == null) {
+            note.setStatus("draft");
+        }
+        if (STATUS_PUBLISHED.equals(note.getStatus()) && note.getPublishedAt() == null) {
+            note.setPublishedAt(now());
+        }
+        note.setViewCount(0);
+        note.setLikeCount(0);
+        note.setFavoriteCount(0);
+        note.setContentHash(NoteRenderManager.hashOf(note.getContent()));
+        
+        // 由应用设置时间，使预渲染使用的版本与数据库一致
+        note.setCreatedAt(now());
+        note.setUpdatedAt(note.getCreatedAt());
+        
+        noteMapper.insert(note);
+        if (STATUS_PUBLISHED.equals(note.getStatus())) {
+            noteRenderManager.prerenderAfterCommit(note);
+            noteSearchManager.indexAfterCommit(note);
+        }
+        return note;
+    }
+    
+    /**
+     * 更新笔记内容（只有作者可以修改）
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @param note 更新的笔记信息
+     * @return 更新后的笔记
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     */
+    public Note updateNote(Long userId, Long noteId, Note note) {
+        // 只写入允许修改且不为null的字段，不回写正文以外的大字段和后台写回中的计数列
+        note.setContentHash(note.getContent() == null ? null : NoteRenderManager.hashOf(note.getContent()));
+        // 显式设置更新时间，与预渲染使用的版本一致
+        if (noteMapper.updateContent(noteId, userId, note, now()) == 0) {
+            throw rejectWrite(noteId);
+        }
+        
+        Note existingNote = noteMapper.selectById(noteId);
+        if (STATUS_PUBLISHED.equals(existingNote.getStatus())) {
+            noteRenderManager.prerenderAfterCommit(existingNote);
+            noteSearchManager.indexAfterCommit(existingNote);
+        } else {
+            noteRenderManager.evict(noteId);
+        }
+        return existingNote;
+    }
+    
+    /**
+     * 发布笔记（只有作者可以发布）
+     * 只修改状态和时间列，不会覆盖同时进行的内容修改
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @return 发布后的笔记
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     */
+    public Note publishNote(Long userId, Long noteId) {
+        if (noteMapper.publish(noteId, userId, now()) == 0) {
+            // 未更新：笔记不存在、用户不是作者，或笔记已经发布
+            requireAuthor(userId, noteId);
+            return noteMapper.selectById(noteId);
+        }
+        
+        Note note = noteMapper.selectById(noteId);
+        noteRenderManager.prerenderAfterCommit(note);
+        noteSearchManager.indexAfterCommit(note);
+        tagIndexManager.notePublishedAfterCommit(noteId);
+        publishedNoteManager.evictAfterCommit(noteId);
+        return note;
+    }
+    
+    /**
+     * 删除笔记（逻辑删除，只有作者可以删除）
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     */
+    public void deleteNote(Long userId, Long noteId) {
+        requireAuthor(userId, noteId);
+        if (noteMapper.deleteById(noteId) == 0) {
+            throw NoteException.noteNotFound();
+        }
+        noteRenderManager.evict(noteId);
+        noteSearchManager.removeAfterCommit(noteId);
+        tagIndexManager.noteRemovedAfterCommit(noteId);
+        hotRankManager.removeAfterCommit(HotRankManager.TARGET_NOTE, noteId);
+        publishedNoteManager.evictAfterCommit(noteId);
+    }
+    
+    /**
+     * 记录一次笔记浏览
+     * 只写入访问事件缓冲区，浏览次数和独立访客由后台线程统计
+     * 先经已发布笔记缓存校验，不存在、未发布或已删除的笔记ID不进入缓冲区
+     * @param noteId 笔记ID
+     * @param viewerId 浏览者的用户ID，未登录时为null
+     * @param remoteAddr 客户端IP
+     * @param userAgent User-Agent 请求头
+     * @return 是否已计入；爬虫访问或缓冲区已满时返回false
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // 校验走缓存，之后只写入内存缓冲区
+    public boolean recordView(Long noteId, Long viewerId, String remoteAddr, String userAgent) {
+        if (!publishedNoteManager.isPublished(noteId)) {
+            throw NoteException.noteNotFound();
+        }
+        return viewEventManager.record(ViewEventManager.TARGET_NOTE, noteId, viewerId, remoteAddr, userAgent);
+    }
+    
+    /**
+     * 获取笔记的浏览统计
+     * @param noteId 笔记ID
+     * @param days 独立访客统计最近几天（含今天）
+     * @return 浏览次数（含尚未写回的增量）、今天和区间内的独立访客数、每天的独立访客数
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getViewStats(Long noteId, int days) {
+        Integer viewCount = noteMapper.findViewCount(noteId);
+        if (viewCount == null) {
+            throw NoteException.noteNotFound();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("viewCount", viewCount + noteCounterManager.pendingViews(noteId));
+        stats.putAll(viewEventManager.getUniqueVisitors(ViewEventManager.TARGET_NOTE, noteId, days));
+        return stats;
+    }
+    
+    /**
+     * 点赞笔记（幂等）
+     * 以 user_likes 主键上的 INSERT IGNORE 为准，只有新增点赞时才累计点赞数；只能点赞已发布的笔记
+     * @param userId 点赞的用户ID
+     * @param noteId 笔记ID
+     * @return true-新增点赞，false-已经点过赞
+     * @throws NoteException 当笔记不存在或未发布时抛出异常
+     */
+    public boolean likeNote(Long userId, Long noteId) {
+        if (!publishedNoteManager.isPublished(noteId)) {
+            throw NoteException.noteNotFound();
+        }
+        if (userLikeMapper.insertIgnore(UserLike.TARGET_NOTE, noteId, userId) == 0) {
+            likeManager.correct(UserLike.TARGET_NOTE, noteId, userId, true);
+            return false;
+        }
+        likeManager.likedAfterCommit(UserLike.TARGET_NOTE, noteId, userId);
+        return true;
+    }
+    
+    /**
+     * 取消点赞笔记（幂等）
+     * @param userId 点赞的用户ID
+     * @param noteId 笔记ID
+     * @return true-已取消，false-原本就没有点赞
+     */
+    public boolean unlikeNote(Long userId, Long noteId) {
+        if (userLikeMapper.deleteLike(UserLike.TARGET_NOTE, noteId, userId) == 0) {
+            likeManager.correct(UserLike.TARGET_NOTE, noteId, userId, false);
+            return false;
+        }
+        likeManager.unlikedAfterCommit(UserLike.TARGET_NOTE, noteId, userId);
+        return true;
+    }
+    
+    /**
+     * 判断是否点赞过笔记（只查内存集合）
+     * @param userId 用户ID
+     * @param noteId 笔记ID
+     * @return 是否点赞过
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // 只查内存，不访问数据库
+    public boolean hasLikedNote(Long userId, Long noteId) {
+        return likeManager.hasLiked(UserLike.TARGET_NOTE, noteId, userId);
+    }
+    
+    /**
+     * 当前时间，精确到秒，与 TIMESTAMP 列存储的值保持一致
+     */
+    private static LocalDateTime now() {
+        return LocalDateTime.now().withNano(0);
+    }
+    
+    /**
+     * 按给定ID顺序批量查询笔记列表投影
+     */
+    private List<NoteSummary> findSummariesInOrder(List<Long> noteIds) {
+        if (noteIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return orderByIds(noteIds, noteMapper.findSummariesByIds(noteIds));
+    }
+    
+    /**
+     * 把查询结果按给定ID顺序排列，不存在的ID跳过
+     */
+    /**
+     * 按主键的写操作没有匹配到行时，区分笔记不存在和用户不是作者
+     */
+    private NoteException rejectWrite(Long noteId) {
+        return noteMapper.findAuthorship(noteId) == null ? NoteException.noteNotFound() : NoteException.notAuthor();
+    }
+    
+    private static List<NoteSummary> orderByIds(List<Long> noteIds, List<NoteSummary> summaries) {
+        Map<Long, NoteSummary> byId = new HashMap<>();
+        for (NoteSummary summary : summaries) {
+            byId.put(summary.getId(), summary);
+        }
+        List<NoteSummary> ordered = new ArrayList<>(noteIds.size());
+        for (Long noteId : noteIds) {
+            NoteSummary summary = byId.get(noteId);
+            if (summary != null) {
+                ordered.add(summary);
+            }
+        }
+        return ordered;
+    }
+}
@@ -0,0 +1,140 @@
+package dream.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import dream.common.CursorPage;
+import dream.common.CursorUtils;
+import dream.common.structure.SortedLongArrays;
+import dream.dto.NoteSummary;
+import dream.entity.Note;
+import dream.entity.Tag;
+import dream.manager.TagIndexManager;
+import dream.mapper.NoteTagMapper;
+import dream.mapper.TagMapper;
+import dream.service.INoteService;
+import dream.service.ITagService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 标签业务逻辑实现类
+ * 继承MyBatis-Plus的ServiceImpl，获得基础CRUD操作
+ * 实现ITagService接口，标签云和按标签筛选都走内存索引，只按ID批量取一次笔记列表字段
+ */
+@Service
+@Transactional  // 事务管理注解，确保数据一致性
+public class TagServiceImpl extends ServiceImpl<TagMapper, Tag> implements ITagService {
+
+    // 笔记状态：已发布
+    private static final String STATUS_PUBLISHED = "published";
+
+    // 标签云最大条数
+    private static final int MAX_CLOUD_SIZE = 200;
+
+    // 按标签筛选每页最大条数
+    private static final int MAX_PAGE_SIZE = 50;
+
+    @Autowired
+    private TagMapper tagMapper;
+
+    @Autowired
+    private NoteTagMapper noteTagMapper;
+
+    @Autowired
+    private INoteService noteService;
+
+    // 标签 -> 已发布笔记的内存倒排列表
+    @Autowired
+    private TagIndexManager tagIndexManager;
+
+    /**
+     * 获取标签云（使用次数最多的标签）
+     * @param size 返回条数（1-200）
+     * @return 按使用次数倒序的标签列表
+     */
+    public List<Tag> getTagCloud(int size) {
+        return tagIndexManager.topTags(Math.min(Math.max(size, 1), MAX_CLOUD_SIZE));
+    }
+
+    /**
+     * 按标签筛选已发布笔记，按笔记ID倒序（即创建时间倒序）分页
+     * 在内存中对倒排列表求交/求并，多取一条用于判断是否还有下一页
+     * @param tagIds 标签ID列表
+     * @param matchAll true-同时包含所有标签，false-包含任意一个标签
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数（1-50）
+     * @return 当前页笔记列表投影和下一页游标
+     * @throws IllegalArgumentException 游标格式不正确时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<NoteSummary> findNotesByTags(List<Long> tagIds, boolean matchAll, String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        long beforeNoteId = Long.MAX_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                beforeNoteId = Long.parseLong(CursorUtils.decode(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+        }
+
+        long[] noteIds = SortedLongArrays.descendingBefore(tagIndexManager.findNotes(tagIds, matchAll), beforeNoteId, limit + 1);
+        boolean hasMore = noteIds.length > limit;
+        List<Long> pageIds = new ArrayList<>(limit);
+        for (int i = 0; i < noteIds.length && i < limit; i++) {
+            pageIds.add(noteIds[i]);
+        }
+        List<NoteSummary> items = noteService.getNoteSummaries(pageIds);
+        return new CursorPage<>(items, hasMore ? CursorUtils.encode(pageIds.get(limit - 1)) : null);
+    }
+
+    /**
+     * 创建标签
+     * 不先查询名称是否存在，直接插入，由 name 上的唯一索引判断重复，并发创建同名标签时也只有一个成功
+     * @param tag 标签信息
+     * @return 创建后的标签
+     * @throws IllegalArgumentException 标签名称已存在时抛出异常
+     */
+    public Tag createTag(Tag tag) {
+        tag.setId(null);
+        tag.setUsageCount(0);
+        try {
+            tagMapper.insert(tag);
+        } catch (DuplicateKeyException e) {
+            throw new IllegalArgumentException("标签名称已存在");
+        }
+        tagIndexManager.putTagAfterCommit(tag);
+        return tag;
+    }
+
+    /**
+     * 设置笔记的标签（整体替换）
+     * 先删除旧关联再用一条多行 INSERT 写入新关联；笔记已发布时提交后更新内存索引
+     * @param userId 当前用户ID
+     * @param noteId 笔记ID
+     * @param tagIds 标签ID列表，空列表表示清空
+     * @throws NoteException 当笔记不存在或用户不是作者时抛出异常
+     * @throws IllegalArgumentException 标签不存在时抛出异常
+     */
+    public void setNoteTags(Long userId, Long noteId, List<Long> tagIds) {
+        Note note = noteService.requireAuthor(userId, noteId);
+        List<Long> distinctIds = tagIds == null ? new ArrayList<>()
+                : tagIds.stream().filter(id -> id != null).distinct().collect(Collectors.toList());
+        if (!distinctIds.isEmpty() && tagMapper.selectBatchIds(distinctIds).size() != distinctIds.size()) {
+            throw new IllegalArgumentException("标签不存在");
+        }
+
+        noteTagMapper.deleteByNoteId(noteId);
+        if (!distinctIds.isEmpty()) {
+            noteTagMapper.insertBatch(noteId, distinctIds);
+        }
+        if (STATUS_PUBLISHED.equals(note.getStatus())) {
+            tagIndexManager.noteTagsChangedAfterCommit(noteId, distinctIds);
+        }
+    }
+}
@@ -1,17 +1,55 @@
 package dream.service.impl;
 
 import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import dream.common.CursorPage;
+import dream.common.CursorUtils;
+import dream.dto.LoginResult;
+import dream.dto.UserCredential;
+import dream.dto.UserImportResult;
+import dream.dto.UserImportRow;
+import dream.dto.UserSummary;
 import dream.entity.User;
+import dream.entity.UserLike;
+import dream.exception.business.ServiceBusyException;
 import dream.exception.business.UserException;
+import dream.manager.LikeManager;
+import dream.manager.PasswordHashManager;
+import dream.manager.RateLimitManager;
+import dream.manager.TokenManager;
+import dream.manager.UserAvailabilityManager;
+import dream.manager.UserCacheManager;
+import dream.manager.UserCounterManager;
+import dream.manager.ViewEventManager;
+import dream.mapper.UserLikeMapper;
 import dream.mapper.UserMapper;
 import dream.service.IUserService;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
+import org.apache.ibatis.cursor.Cursor;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 
 /**
  * 用户业务逻辑实现类
@@ -21,20 +59,69 @@ import java.util.Optional;
  * 技术解释：
  * - @Service注解标记这是一个业务逻辑组件，Spring会自动扫描并注册为Bean
  * - @Transactional确保方法执行时的事务一致性，出现异常时自动回滚
+ * - 查询方法使用只读事务（readOnly = true），配置了从库时由 ReadWriteRoutingDataSource 路由到从库；
+ *   登录、修改密码不使用事务，始终读主库，避免复制延迟期间旧密码仍然可以登录
  * - ServiceImpl<UserMapper, User>提供了基础的CRUD操作实现
  */
 @Service
 @Transactional  // 事务管理注解，确保数据一致性
 public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IUserService {
     
+    // 游标分页每页最大条数
+    private static final int MAX_PAGE_SIZE = 100;
+    
+    // 按账号限制登录尝试的限流策略名
+    private static final String LOGIN_ACCOUNT_POLICY = "login-account";
+    
     @Autowired
     private UserMapper userMapper;
     
-    // 密码加密器，用于密码的加密和验证
-    private final BCryptPasswordEncoder passwordEncoder = new BCryptPasswordEncoder();
+    @Autowired
+    private UserLikeMapper userLikeMapper;
+    
+    // 访问量/点赞数写回管理器，计数先在内存中合并再批量写库
+    @Autowired
+    private UserCounterManager userCounterManager;
+    
+    // 点赞管理器，内存中的点赞用户集合，点赞状态变化后累计点赞数
+    @Autowired
+    private LikeManager likeManager;
+    
+    // 访问事件管理器，访问在后台线程累计访问量和独立访客
+    @Autowired
+    private ViewEventManager viewEventManager;
+    
+    // 用户信息本地缓存，资料/密码/状态变更时精确失效
+    @Autowired
+    private UserCacheManager userCacheManager;
+    
+    // 用户名/邮箱布隆过滤器，可用性检查优先走内存
+    @Autowired
+    private UserAvailabilityManager userAvailabilityManager;
+    
+    // 密码哈希管理器，BCrypt加密和验证在独立的有界线程池中执行
+    @Autowired
+    private PasswordHashManager passwordHashManager;
+    
+    // 登录令牌管理器，修改密码、禁用账户时吊销已签发的令牌
+    @Autowired
+    private TokenManager tokenManager;
+    
+    // 限流管理器，按账号限制登录尝试次数
+    @Autowired
+    private RateLimitManager rateLimitManager;
+    
+    // 校验器，批量导入时按实体上的校验注解逐行校验
+    @Autowired
+    private Validator validator;
+    
+    // 批量导入每批的行数，也是一条多行INSERT包含的行数
+    @Value("${dream.user.import.batch-size:500}")
+    private int importBatchSize;
     
     /**
      * 用户注册
+     * 先查询给出明确的提示；并发注册或数据库排序规则认为相同的值（如全角、特殊重音）由唯一索引兜底
      * @param user 用户信息
      * @return 注册结果
      * @throws UserException 当用户名或邮箱已存在时抛出异常
@@ -51,7 +138,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         }
         
         // 加密密码
-        user.setPasswordHash(passwordEncoder.encode(user.getPasswordHash()));
+        user.setPasswordHash(passwordHashManager.encode(user.getPasswordHash()));
         
         // 设置默认值
         if (user.getNickname() == null || user.getNickname().trim().isEmpty()) {
@@ -63,38 +150,83 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
         user.setLikeCount(0);
         
         // 保存用户
-        userMapper.insert(user);
+        try {
+            userMapper.insert(user);
+        } catch (DuplicateKeyException e) {
+            throw duplicateOf(e);
+        }
+        userAvailabilityManager.register(user.getUsername(), user.getEmail());
         return user;
     }
     
     /**
-     * 用户登录验证
+     * 按唯一索引冲突的错误信息（"Duplicate entry '...' for key '...email'"）判断是邮箱还是用户名已存在
+     * 不能再查询一次确认：可重复读事务中看不到并发提交的那一行
+     */
+    private static UserException duplicateOf(DuplicateKeyException e) {
+        String message = e.getMostSpecificCause().getMessage();
+        int key = message == null ? -1 : message.lastIndexOf("for key");
+        if (key >= 0 && message.substring(key).contains("email")) {
+            return UserException.emailExists();
+        }
+        return UserException.usernameExists();
+    }
+    
+    /**
+     * 用户登录验证，成功后签发登录令牌
      * @param usernameOrEmail 用户名或邮箱
      * @param password 原始密码
-     * @return 用户信息（如果验证成功）
+     * @return 登录令牌和用户信息（如果验证成功）
      * @throws UserException 当用户不存在或密码错误时抛出异常
+     * @throws ServiceBusyException 同一账号登录失败过于频繁时抛出异常
      */
-    public User loginUser(String usernameOrEmail, String password) {
-        // 查找用户（通过用户名或邮箱）
-        Optional<User> userOpt = userMapper.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // 读主库；BCrypt验证期间不占用数据库连接
+    public LoginResult loginUser(String usernameOrEmail, String password) {
+        // 按账号限制失败次数（按IP的限制由过滤器完成），防止分散IP对同一账号猜密码；
+        // 校验密码前先原子地预留一个令牌，并发猜测不会超出限额；登录成功后退还，正常用户不会把自己的账号锁住
+        String accountKey = usernameOrEmail == null ? null : usernameOrEmail.trim().toLowerCase(Locale.ROOT);
+        if (rateLimitManager.tryAcquire(LOGIN_ACCOUNT_POLICY, accountKey) > 0) {
+            throw ServiceBusyException.tooManyRequests();
+        }
+        // 只查询校验需要的三列：不含@的输入只可能是用户名，走用户名唯一索引；含@的按邮箱优先查找
+        Optional<UserCredential> credentialOpt = usernameOrEmail != null && usernameOrEmail.indexOf('@') >= 0
+                ? userMapper.findCredentialByEmailOrUsername(usernameOrEmail)
+                : userMapper.findCredentialByUsername(usernameOrEmail);
         
-        if (!userOpt.isPresent()) {
+        if (!credentialOpt.isPresent()) {
             throw UserException.userNotFound();
         }
         
-        User user = userOpt.get();
+        UserCredential credential = credentialOpt.get();
         
         // 检查用户是否被禁用
-        if (!user.getIsActive()) {
+        if (!credential.getIsActive()) {
             throw UserException.userDisabled();
         }
         
         // 验证密码
-        if (!passwordEncoder.matches(password, user.getPasswordHash())) {
+        if (!passwordHashManager.matches(password, credential.getPasswordHash())) {
             throw UserException.passwordError();
         }
+        rateLimitManager.refund(LOGIN_ACCOUNT_POLICY, accountKey);
         
-        return user;
+        // 登录成功后再取完整资料，通常命中用户缓存
+        User user = getUserById(credential.getId());
+        if (user == null) {
+            throw UserException.userNotFound();
+        }
+        TokenManager.Token token = tokenManager.issue(user.getId());
+        return new LoginResult(token.getValue(), "Bearer", token.getExpiresAt(), user);
+    }
+    
+    /**
+     * 根据ID获取用户信息（包含尚未写回的计数增量）
+     * @param userId 用户ID
+     * @return 用户信息，不存在时返回null
+     */
+    @Transactional(readOnly = true)
+    public User getUserById(Long userId) {
+        return userCounterManager.applyPending(userCacheManager.getById(userId, userMapper::selectById));
     }
     
     /**
@@ -102,8 +234,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      * @param username 用户名
      * @return 用户信息
      */
+    @Transactional(readOnly = true)
     public Optional<User> findByUsername(String username) {
-        return userMapper.findByUsername(username);
+        return userCacheManager.getByUsername(username, () -> userMapper.findByUsername(username))
+                .map(userCounterManager::applyPending);
     }
     
     /**
@@ -111,8 +245,10 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      * @param email 邮箱地址
      * @return 用户信息
      */
+    @Transactional(readOnly = true)
     public Optional<User> findByEmail(String email) {
-        return userMapper.findByEmail(email);
+        return userCacheManager.getByEmail(email, () -> userMapper.findByEmail(email))
+                .map(userCounterManager::applyPending);
     }
     
     /**
@@ -123,79 +259,258 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      * @throws UserException 当用户不存在时抛出异常
      */
     public User updateUserInfo(Long userId, User user) {
-        User existingUser = userMapper.selectById(userId);
-        if (existingUser == null) {
-            throw UserException.userNotFound();
+        // 只更新请求中给出的字段
+        boolean hasChanges = user.getNickname() != null || user.getAvatarUrl() != null || user.getBio() != null
+                || user.getGithubUrl() != null || user.getTwitterUrl() != null || user.getWebsiteUrl() != null;
+        if (hasChanges) {
+            if (userMapper.updateProfile(userId, user) == 0) {
+                throw UserException.userNotFound();
+            }
+            userCacheManager.evict(userId);
         }
         
-        // 更新允许修改的字段
-        if (user.getNickname() != null) {
-            existingUser.setNickname(user.getNickname());
-        }
-        if (user.getAvatarUrl() != null) {
-            existingUser.setAvatarUrl(user.getAvatarUrl());
-        }
-        if (user.getBio() != null) {
-            existingUser.setBio(user.getBio());
-        }
-        if (user.getGithubUrl() != null) {
-            existingUser.setGithubUrl(user.getGithubUrl());
-        }
-        if (user.getTwitterUrl() != null) {
-            existingUser.setTwitterUrl(user.getTwitterUrl());
-        }
-        if (user.getWebsiteUrl() != null) {
-            existingUser.setWebsiteUrl(user.getWebsiteUrl());
+        // 返回更新后的完整资料
+        User updatedUser = userMapper.selectById(userId);
+        if (updatedUser == null) {
+            throw UserException.userNotFound();
         }
-        
-        userMapper.updateById(existingUser);
-        return existingUser;
+        return updatedUser;
     }
     
     /**
      * 修改密码
+     * 不在事务中执行：BCrypt 校验和加密耗时几十毫秒，期间不应占用数据库连接；
+     * 写入时用比较并替换保证校验通过的旧哈希仍然有效
      * @param userId 用户ID
      * @param oldPassword 旧密码
      * @param newPassword 新密码
      * @throws UserException 当用户不存在或旧密码错误时抛出异常
      */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void changePassword(Long userId, String oldPassword, String newPassword) {
-        User user = userMapper.selectById(userId);
-        if (user == null) {
+        String currentHash = userMapper.findPasswordHashById(userId);
+        if (currentHash == null) {
             throw UserException.userNotFound();
         }
         
         // 验证旧密码
-        if (!passwordEncoder.matches(oldPassword, user.getPasswordHash())) {
+        if (!passwordHashManager.matches(oldPassword, currentHash)) {
             throw UserException.passwordError();
         }
         
-        // 更新密码
-        user.setPasswordHash(passwordEncoder.encode(newPassword));
-        userMapper.updateById(user);
+        // 更新密码，期间密码已被并发修改时按旧密码错误处理
+        String newHash = passwordHashManager.encode(newPassword);
+        Date revokedAt = new Date();
+        if (userMapper.compareAndSetPasswordHash(userId, currentHash, newHash, revokedAt) == 0) {
+            throw UserException.passwordError();
+        }
+        userCacheManager.evict(userId);
+        // 之前签发的令牌全部失效，包括可能已被他人盗用的令牌
+        tokenManager.revokeAll(userId, revokedAt.getTime());
     }
     
     /**
      * 获取所有激活用户
      * @return 激活用户列表
      */
+    @Transactional(readOnly = true)
     public List<User> getActiveUsers() {
         return userMapper.findByIsActiveOrderByCreatedAtDesc(true);
     }
     
+    /**
+     * 游标分页获取激活用户（按创建时间倒序）
+     * 多查一条用于判断是否还有下一页
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数（1-100）
+     * @return 当前页用户列表投影和下一页游标
+     * @throws IllegalArgumentException 游标格式不正确时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> getActiveUsersPage(String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        LocalDateTime cursorCreatedAt = null;
+        Long cursorUserId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            String[] keys = CursorUtils.decode(cursor, 2);
+            try {
+                cursorCreatedAt = LocalDateTime.parse(keys[0]);
+                cursorUserId = Long.valueOf(keys[1]);
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+        }
+        
+        List<UserSummary> rows = userMapper.findActiveUsersAfter(cursorCreatedAt, cursorUserId, limit + 1);
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<UserSummary> items = new ArrayList<>(rows.subList(0, limit));
+        UserSummary last = items.get(limit - 1);
+        return new CursorPage<>(items, CursorUtils.encode(last.getCreatedAt(), last.getId()));
+    }
+    
+    /**
+     * 流式导出全部激活用户（按创建时间倒序）
+     * 游标必须在事务内消费，事务结束时自动关闭
+     * @param consumer 逐行处理器
+     */
+    @Transactional(readOnly = true)
+    public void exportActiveUsers(Consumer<UserSummary> consumer) {
+        try (Cursor<UserSummary> cursor = userMapper.streamActiveUsers()) {
+            cursor.forEach(consumer);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    /**
+     * 批量导入用户
+     * 每 dream.user.import.batch-size 行为一批：
+     * 1. 按实体校验规则校验，与本次导入中前面的行重复的用户名/邮箱直接判为失败
+     * 2. 两条 IN 查询找出数据库中已存在的用户名和邮箱
+     * 3. 剩余行的密码在哈希线程池中并行加密
+     * 4. 一条多行 INSERT 插入；期间有其他用户注册了相同的用户名/邮箱导致整条语句失败时，改为逐行插入并记录失败的行
+     * 不开启事务，每批插入后立即提交，导入中断时已提交的批次保留，可去掉已导入的行后重新导入
+     * @param rows 逐行读取的导入数据
+     * @return 导入结果
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserImportResult importUsers(Iterator<UserImportRow> rows) {
+        UserImportResult result = new UserImportResult();
+        Set<String> seenUsernames = new HashSet<>();
+        Set<String> seenEmails = new HashSet<>();
+        List<UserImportRow> batch = new ArrayList<>(importBatchSize);
+        while (rows.hasNext()) {
+            UserImportRow row = rows.next();
+            result.setTotal(result.getTotal() + 1);
+            String error = row.getError() != null ? row.getError() : validateImportRow(row);
+            if (error == null && !seenUsernames.add(UserAvailabilityManager.normalize(row.getUsername()))) {
+                error = UserException.usernameExists().getMessage();
+            }
+            if (error == null && !seenEmails.add(UserAvailabilityManager.normalize(row.getEmail()))) {
+                error = UserException.emailExists().getMessage();
+            }
+            if (error != null) {
+                result.addError(row, error);
+                continue;
+            }
+            batch.add(row);
+            if (batch.size() >= importBatchSize) {
+                importBatch(batch, result);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            importBatch(batch, result);
+        }
+        result.getErrors().sort(Comparator.comparingLong(UserImportResult.RowError::getLine));
+        return result;
+    }
+    
+    /**
+     * 导入一批已通过校验的行
+     */
+    private void importBatch(List<UserImportRow> batch, UserImportResult result) {
+        Set<String> existingUsernames = normalizeAll(userMapper.findExistingUsernames(
+                batch.stream().map(UserImportRow::getUsername).collect(Collectors.toList())));
+        Set<String> existingEmails = normalizeAll(userMapper.findExistingEmails(
+                batch.stream().map(UserImportRow::getEmail).collect(Collectors.toList())));
+        List<UserImportRow> accepted = new ArrayList<>(batch.size());
+        for (UserImportRow row : batch) {
+            if (existingUsernames.contains(UserAvailabilityManager.normalize(row.getUsername()))) {
+                result.addError(row, UserException.usernameExists().getMessage());
+            } else if (existingEmails.contains(UserAvailabilityManager.normalize(row.getEmail()))) {
+                result.addError(row, UserException.emailExists().getMessage());
+            } else {
+                accepted.add(row);
+            }
+        }
+        if (accepted.isEmpty()) {
+            return;
+        }
+        
+        List<String> hashes = passwordHashManager.encodeAll(
+                accepted.stream().map(UserImportRow::getPassword).collect(Collectors.toList()));
+        List<User> users = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            users.add(toNewUser(accepted.get(i), hashes.get(i)));
+        }
+        
+        try {
+            userMapper.batchInsert(users);
+            result.setImported(result.getImported() + users.size());
+            users.forEach(user -> userAvailabilityManager.register(user.getUsername(), user.getEmail()));
+        } catch (DuplicateKeyException e) {
+            for (int i = 0; i < users.size(); i++) {
+                User user = users.get(i);
+                try {
+                    userMapper.insert(user);
+                    result.setImported(result.getImported() + 1);
+                    userAvailabilityManager.register(user.getUsername(), user.getEmail());
+                } catch (DuplicateKeyException duplicate) {
+                    result.addError(accepted.get(i), "用户名或邮箱已存在");
+                }
+            }
+        }
+    }
+    
+    /**
+     * 按实体校验规则校验导入行
+     * @return 校验失败的原因（多条以分号分隔），通过时返回null
+     */
+    private String validateImportRow(UserImportRow row) {
+        Set<ConstraintViolation<User>> violations = validator.validate(toNewUser(row, row.getPassword()));
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream().map(ConstraintViolation::getMessage).sorted().collect(Collectors.joining("; "));
+    }
+    
+    /**
+     * 把导入行转换为新用户，默认值与注册时相同
+     */
+    private static User toNewUser(UserImportRow row, String passwordHash) {
+        User user = new User();
+        user.setUsername(row.getUsername());
+        user.setEmail(row.getEmail());
+        user.setPasswordHash(passwordHash);
+        user.setNickname(row.getNickname() == null || row.getNickname().trim().isEmpty()
+                ? row.getUsername() : row.getNickname());
+        user.setAvatarUrl(row.getAvatarUrl());
+        user.setBio(row.getBio());
+        user.setGithubUrl(row.getGithubUrl());
+        user.setTwitterUrl(row.getTwitterUrl());
+        user.setWebsiteUrl(row.getWebsiteUrl());
+        user.setIsActive(true);
+        user.setNoteCount(0);
+        user.setViewCount(0);
+        user.setLikeCount(0);
+        return user;
+    }
+    
+    /**
+     * 按数据库的排序规则（utf8mb4_unicode_ci）归一化一组用户名/邮箱，
+     * 忽略大小写、重音符号和尾部空格，与唯一索引判断重复的结果一致
+     */
+    private static Set<String> normalizeAll(List<String> values) {
+        Set<String> normalized = new HashSet<>();
+        values.forEach(value -> normalized.add(UserAvailabilityManager.normalize(value)));
+        return normalized;
+    }
+    
     /**
      * 禁用用户账户
      * @param userId 用户ID
      * @throws UserException 当用户不存在时抛出异常
      */
     public void deactivateUser(Long userId) {
-        User user = userMapper.selectById(userId);
-        if (user == null) {
+        Date revokedAt = new Date();
+        if (userMapper.updateActive(userId, false, revokedAt) == 0) {
             throw UserException.userNotFound();
         }
-        
-        user.setIsActive(false);
-        userMapper.updateById(user);
+        userCacheManager.evict(userId);
+        tokenManager.revokeAll(userId, revokedAt.getTime());
     }
     
     /**
@@ -204,37 +519,94 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      * @throws UserException 当用户不存在时抛出异常
      */
     public void activateUser(Long userId) {
-        User user = userMapper.selectById(userId);
-        if (user == null) {
+        if (userMapper.updateActive(userId, true, null) == 0) {
             throw UserException.userNotFound();
         }
-        
-        user.setIsActive(true);
-        userMapper.updateById(user);
+        userCacheManager.evict(userId);
     }
     
     /**
-     * 增加用户访问量
+     * 记录一次用户主页访问
+     * 只写入访问事件缓冲区，访问量和独立访客由后台线程统计
+     * 先经用户缓存校验用户存在，不存在的用户ID不进入缓冲区
      * @param userId 用户ID
+     * @param viewerId 访问者的用户ID，未登录时为null
+     * @param remoteAddr 客户端IP
+     * @param userAgent User-Agent 请求头
+     * @return 是否已计入；爬虫访问或缓冲区已满时返回false
+     * @throws UserException 当用户不存在时抛出异常
      */
-    public void incrementViewCount(Long userId) {
-        userMapper.incrementViewCount(userId);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // 校验走用户缓存，之后只写入内存缓冲区
+    public boolean recordView(Long userId, Long viewerId, String remoteAddr, String userAgent) {
+        if (getUserById(userId) == null) {
+            throw UserException.userNotFound();
+        }
+        return viewEventManager.record(ViewEventManager.TARGET_USER, userId, viewerId, remoteAddr, userAgent);
     }
     
     /**
-     * 增加用户点赞数
+     * 获取用户主页的访问统计
      * @param userId 用户ID
+     * @param days 独立访客统计最近几天（含今天）
+     * @return 访问量（含尚未写回的增量）、今天和区间内的独立访客数、每天的独立访客数
+     * @throws UserException 当用户不存在时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> getViewStats(Long userId, int days) {
+        User user = getUserById(userId);
+        if (user == null) {
+            throw UserException.userNotFound();
+        }
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("viewCount", user.getViewCount());
+        stats.putAll(viewEventManager.getUniqueVisitors(ViewEventManager.TARGET_USER, userId, days));
+        return stats;
+    }
+    
+    /**
+     * 点赞用户主页（幂等）
+     * 以 user_likes 主键上的 INSERT IGNORE 为准，只有新增点赞时才累计点赞数
+     * @param likerId 点赞的用户ID
+     * @param userId 被点赞的用户ID
+     * @return true-新增点赞，false-已经点过赞
+     * @throws UserException 当被点赞的用户不存在时抛出异常
      */
-    public void incrementLikeCount(Long userId) {
-        userMapper.incrementLikeCount(userId);
+    public boolean likeUser(Long likerId, Long userId) {
+        if (getUserById(userId) == null) {
+            throw UserException.userNotFound();
+        }
+        if (userLikeMapper.insertIgnore(UserLike.TARGET_USER, userId, likerId) == 0) {
+            likeManager.correct(UserLike.TARGET_USER, userId, likerId, true);
+            return false;
+        }
+        likeManager.likedAfterCommit(UserLike.TARGET_USER, userId, likerId);
+        return true;
     }
     
     /**
-     * 减少用户点赞数
-     * @param userId 用户ID
+     * 取消点赞用户主页（幂等）
+     * @param likerId 点赞的用户ID
+     * @param userId 被点赞的用户ID
+     * @return true-已取消，false-原本就没有点赞
+     */
+    public boolean unlikeUser(Long likerId, Long userId) {
+        if (userLikeMapper.deleteLike(UserLike.TARGET_USER, userId, likerId) == 0) {
+            likeManager.correct(UserLike.TARGET_USER, userId, likerId, false);
+            return false;
+        }
+        likeManager.unlikedAfterCommit(UserLike.TARGET_USER, userId, likerId);
+        return true;
+    }
+    
+    /**
+     * 判断是否点赞过用户主页（只查内存集合）
+     * @param likerId 点赞的用户ID
+     * @param userId 被点赞的用户ID
+     * @return 是否点赞过
      */
-    public void decrementLikeCount(Long userId) {
-        userMapper.decrementLikeCount(userId);
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)  // 只查内存，不访问数据库
+    public boolean hasLikedUser(Long likerId, Long userId) {
+        return likeManager.hasLiked(UserLike.TARGET_USER, userId, likerId);
     }
     
     /**
@@ -246,6 +618,7 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      */
     public void updateUserStats(Long userId, Integer noteCount, Integer viewCount, Integer likeCount) {
         userMapper.updateUserStats(userId, noteCount, viewCount, likeCount);
+        userCacheManager.evict(userId);
     }
     
     /**
@@ -253,8 +626,9 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      * @param username 用户名
      * @return 是否可用
      */
+    @Transactional(readOnly = true)
     public boolean isUsernameAvailable(String username) {
-        return !userMapper.existsByUsername(username);
+        return userAvailabilityManager.isUsernameAvailable(username, userMapper::existsByUsername);
     }
     
     /**
@@ -262,7 +636,8 @@ public class UserServiceImpl extends ServiceImpl<UserMapper, User> implements IU
      * @param email 邮箱地址
      * @return 是否可用
      */
+    @Transactional(readOnly = true)
     public boolean isEmailAvailable(String email) {
-        return !userMapper.existsByEmail(email);
+        return userAvailabilityManager.isEmailAvailable(email, userMapper::existsByEmail);
     }
 }
\ No newline at end of file
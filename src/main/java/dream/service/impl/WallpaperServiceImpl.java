@@ -0,0 +1,196 @@
+package dream.service.impl;
+
+import com.baomidou.mybatisplus.extension.service.impl.ServiceImpl;
+import dream.common.CursorPage;
+import dream.common.CursorUtils;
+import dream.dto.UploadedImage;
+import dream.dto.WallpaperTile;
+import dream.entity.Wallpaper;
+import dream.exception.business.WallpaperException;
+import dream.manager.BlobStoreManager;
+import dream.manager.HotRankManager;
+import dream.manager.ImageUploadManager;
+import dream.manager.WallpaperCounterManager;
+import dream.manager.WallpaperImageManager;
+import dream.mapper.WallpaperMapper;
+import dream.service.IWallpaperService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 壁纸业务逻辑实现类
+ * 继承MyBatis-Plus的ServiceImpl，获得基础CRUD操作
+ * 实现IWallpaperService接口，壁纸墙只返回缩略图，原图仅在查看大图时加载
+ */
+@Service
+@Transactional  // 事务管理注解，确保数据一致性
+public class WallpaperServiceImpl extends ServiceImpl<WallpaperMapper, Wallpaper> implements IWallpaperService {
+
+    // 壁纸墙每页最大条数
+    private static final int MAX_WALL_SIZE = 100;
+
+    @Autowired
+    private WallpaperMapper wallpaperMapper;
+
+    // 图片校验并保存到内容寻址存储
+    @Autowired
+    private ImageUploadManager imageUploadManager;
+
+    @Autowired
+    private BlobStoreManager blobStoreManager;
+
+    // 后台缩略图生成
+    @Autowired
+    private WallpaperImageManager wallpaperImageManager;
+
+    // 下载次数内存累加，定时批量写回
+    @Autowired
+    private WallpaperCounterManager wallpaperCounterManager;
+
+    // 时间衰减热度排行
+    @Autowired
+    private HotRankManager hotRankManager;
+
+    /**
+     * 上传壁纸
+     * 保存原图并记录宽高和文件大小，缩略图在事务提交后由后台线程生成
+     * @param userId 上传者的用户ID
+     * @param wallpaper 壁纸信息（标题、描述、分类）
+     * @param image 图片内容
+     * @return 创建后的壁纸（thumbnailUrl 为空，生成完成后写入）
+     * @throws FileException 图片格式不支持或尺寸超出限制时抛出异常
+     */
+    public Wallpaper uploadWallpaper(Long userId, Wallpaper wallpaper, InputStream image) {
+        wallpaper.setId(null);
+        wallpaper.setUserId(userId);
+        wallpaper.setThumbnailUrl(null);
+        wallpaper.setDownloadCount(0);
+        wallpaper.setLikeCount(0);
+        wallpaper.setFavoriteCount(0);
+        wallpaper.setStatus("pending");
+        UploadedImage uploaded = imageUploadManager.upload(image);
+        wallpaper.setImageUrl(uploaded.getUrl());
+        wallpaper.setWidth(uploaded.getWidth());
+        wallpaper.setHeight(uploaded.getHeight());
+        wallpaper.setFileSize(uploaded.getFileSize());
+
+        wallpaperMapper.insert(wallpaper);
+        wallpaperImageManager.generateAfterCommit(wallpaper.getId(), wallpaper.getImageUrl());
+        return wallpaper;
+    }
+
+    /**
+     * 获取壁纸墙（按上传时间倒序），只返回缩略图已生成的壁纸
+     * 多查一条用于判断是否还有下一页
+     * @param cursor 上一页返回的游标，首页传null
+     * @param size 每页条数（1-100）
+     * @return 当前页瀑布流投影和下一页游标
+     * @throws IllegalArgumentException 游标格式不正确时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<WallpaperTile> getWall(String cursor, int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_WALL_SIZE);
+        Long beforeId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                beforeId = Long.valueOf(CursorUtils.decode(cursor, 1)[0]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("无效的分页游标");
+            }
+        }
+
+        List<WallpaperTile> rows = wallpaperMapper.findWallAfter(beforeId, limit + 1);
+        for (WallpaperTile tile : rows) {
+            tile.setSrcset(wallpaperImageManager.srcsetOf(tile.getImageUrl(), tile.getThumbnailUrl()));
+        }
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, null);
+        }
+        List<WallpaperTile> items = new ArrayList<>(rows.subList(0, limit));
+        return new CursorPage<>(items, CursorUtils.encode(items.get(limit - 1).getId()));
+    }
+
+    /**
+     * 获取壁纸详情
+     * @param wallpaperId 壁纸ID
+     * @return 壁纸信息
+     * @throws WallpaperException 当壁纸不存在时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public Wallpaper getWallpaperDetail(Long wallpaperId) {
+        Wallpaper wallpaper = wallpaperMapper.selectById(wallpaperId);
+        if (wallpaper == null) {
+            throw WallpaperException.wallpaperNotFound();
+        }
+        return wallpaper;
+    }
+
+    /**
+     * 获取可下载壁纸的原图文件路径
+     * 只按主键查询原图URL一列
+     * @param wallpaperId 壁纸ID
+     * @return 原图文件路径
+     * @throws WallpaperException 当壁纸不存在或已被拒绝时抛出异常
+     */
+    @Transactional(readOnly = true)
+    public Path getDownloadFile(Long wallpaperId) {
+        String imageUrl = wallpaperMapper.findDownloadableImageUrl(wallpaperId);
+        if (imageUrl == null) {
+            throw WallpaperException.wallpaperNotFound();
+        }
+        try {
+            return blobStoreManager.resolve(imageUrl);
+        } catch (IOException e) {
+            throw WallpaperException.wallpaperNotFound();
+        }
+    }
+
+    /**
+     * 获取热门壁纸（按时间衰减的下载热度排序），只返回缩略图已生成且未被拒绝的壁纸
+     * 按热度顺序分批取候选，跳过缩略图尚未生成、已删除或已被拒绝的壁纸，直到凑满请求的条数
+     * @param size 返回条数（1-100）
+     * @return 按热度降序的瀑布流投影
+     */
+    @Transactional(readOnly = true)
+    public List<WallpaperTile> getHotWallpapers(int size) {
+        int limit = Math.min(Math.max(size, 1), MAX_WALL_SIZE);
+        return hotRankManager.top(HotRankManager.TARGET_WALLPAPER, limit, this::findTilesInOrder);
+    }
+
+    /**
+     * 按给定ID顺序批量获取可展示的瀑布流投影，不符合条件的壁纸会被跳过
+     */
+    private List<WallpaperTile> findTilesInOrder(List<Long> wallpaperIds) {
+        Map<Long, WallpaperTile> byId = new HashMap<>();
+        for (WallpaperTile tile : wallpaperMapper.findTilesByIds(wallpaperIds)) {
+            byId.put(tile.getId(), tile);
+        }
+        List<WallpaperTile> tiles = new ArrayList<>(byId.size());
+        for (Long wallpaperId : wallpaperIds) {
+            WallpaperTile tile = byId.get(wallpaperId);
+            if (tile != null) {
+                tile.setSrcset(wallpaperImageManager.srcsetOf(tile.getImageUrl(), tile.getThumbnailUrl()));
+                tiles.add(tile);
+            }
+        }
+        return tiles;
+    }
+
+    /**
+     * 记录一次下载（内存累加，异步批量写回），同时计入热度排行
+     * @param wallpaperId 壁纸ID
+     */
+    public void recordDownload(Long wallpaperId) {
+        wallpaperCounterManager.incrementDownload(wallpaperId);
+        hotRankManager.recordWallpaperDownload(wallpaperId);
+    }
+}